@@ -5,17 +5,23 @@ import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.AgendamentoRepository;
 import com.java360.agendei.domain.repository.ClienteBloqueadoRepository;
+import com.java360.agendei.domain.repository.ClienteRepository;
 import com.java360.agendei.domain.repository.ServicoRepository;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.dto.AgendamentoDTO;
 import com.java360.agendei.infrastructure.dto.ClienteResumoDTO;
 import com.java360.agendei.infrastructure.dto.CreateAgendamentoDTO;
+import com.java360.agendei.infrastructure.dto.PaginaAgendamentosDTO;
 import com.java360.agendei.infrastructure.email.EmailService;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -24,25 +30,33 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AgendamentoService {
 
+    private static final int TAMANHO_PAGINA_PADRAO = 20;
+    private static final int TAMANHO_PAGINA_MAXIMO = 100;
+
     private final AgendamentoRepository agendamentoRepository;
     private final ServicoRepository servicoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ClienteRepository clienteRepository;
     private final DisponibilidadeService disponibilidadeService;
     private final ClienteBloqueadoRepository clienteBloqueadoRepository;
     private final EmailService emailService;
+    private final ConflitoAgendamentoService conflitoAgendamentoService;
+    private final CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    private final ResumoAgendamentoService resumoAgendamentoService;
 
     @Transactional
     public Agendamento criarAgendamento(CreateAgendamentoDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
 
         // Verifica se o cliente já possui 4 agendamentos pendentes
         long agendamentosPendentes = agendamentoRepository.countByClienteIdAndStatus(
-                usuario.getId(), StatusAgendamento.PENDENTE);
+                usuario.id(), StatusAgendamento.PENDENTE);
 
         if (agendamentosPendentes >= 4) {
             throw new IllegalArgumentException("Você já possui o limite máximo de 4 agendamentos ativos.");
@@ -54,7 +68,7 @@ public class AgendamentoService {
         if (!dto.getDataHora().isAfter(LocalDateTime.now(ZoneId.of("America/Sao_Paulo"))))
             throw new IllegalArgumentException("Não é possível criar um agendamento no passado.");
 
-        Servico servico = servicoRepository.findById(dto.getServicoId())
+        Servico servico = servicoRepository.buscarParaAgendamento(dto.getServicoId())
                 .orElseThrow(() -> new IllegalArgumentException("Serviço não encontrado."));
 
         if (!servico.isAtivo())
@@ -68,7 +82,7 @@ public class AgendamentoService {
 
         // BLOQUEIO POR NEGÓCIO
         boolean bloqueado = clienteBloqueadoRepository
-                .findByNegocioIdAndClienteId(negocio.getId(), usuario.getId())
+                .findByNegocioIdAndClienteId(negocio.getId(), usuario.id())
                 .map(ClienteBloqueado::isAtivo)
                 .orElse(false);
 
@@ -96,31 +110,24 @@ public class AgendamentoService {
             throw new IllegalArgumentException("O prestador não está disponível nesse horário.");
 
         // Verifica sobreposição de horários com outros agendamentos pendentes
-        List<Agendamento> agendamentosExistentes = agendamentoRepository.findByPrestadorId(prestador.getId());
-
-        boolean conflita = agendamentosExistentes.stream()
-                .filter(ag -> ag.getStatus() == StatusAgendamento.PENDENTE)
-                .anyMatch(ag -> overlaps(
-                        inicio, fim,
-                        ag.getDataHora(),
-                        ag.getDataHora().plusMinutes(ag.getServico().getDuracaoMinutos())
-                ));
-
-        if (conflita) {
+        if (conflitoAgendamentoService.conflita(prestador.getId(), inicio, fim, null)) {
             throw new IllegalArgumentException("Horário indisponível. Já existe um agendamento neste período.");
         }
 
         // Criação do agendamento
         Agendamento agendamento = Agendamento.builder()
-                .cliente((Cliente) usuario)
+                .cliente(clienteRepository.getReferenceById(usuario.id())) // referência: só a chave estrangeira
                 .prestador(prestador)
                 .servico(servico)
                 .dataHora(inicio)
+                .dataHoraFim(fim)
                 .status(StatusAgendamento.PENDENTE)
                 .build();
 
-        // Salva o agendamento
-        Agendamento salvo = agendamentoRepository.save(agendamento);
+        // Salva o agendamento (a restrição do banco barra sobreposições concorrentes entre instâncias)
+        Agendamento salvo = salvarSemSobreposicao(agendamento);
+        calendarioDisponibilidadeService.invalidarPeriodo(prestador.getId(), inicio, fim);
+        resumoAgendamentoService.registrarCriacao(salvo);
 
         // Envia email assincrono (não trava o fluxo)
         enviarEmailConfirmacaoAsync(salvo);
@@ -134,7 +141,7 @@ public class AgendamentoService {
         try {
             emailService.enviarConfirmacaoAgendamento(agendamento);
         } catch (Exception e) {
-            System.err.println("Erro ao enviar e-mail: " + e.getMessage());
+            log.error("Erro ao enviar e-mail do agendamento {}: {}", agendamento.getId(), e.getMessage(), e);
         }
     }
 
@@ -143,10 +150,10 @@ public class AgendamentoService {
 
     @Transactional
     public Agendamento atualizarAgendamento(Integer id, CreateAgendamentoDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Agendamento agendamento = agendamentoRepository.findById(id)
+        Agendamento agendamento = agendamentoRepository.buscarComDetalhes(id)
                 .orElseThrow(() -> new IllegalArgumentException("Agendamento não encontrado."));
 
         // Impede alterações em agendamentos cancelados
@@ -154,8 +161,8 @@ public class AgendamentoService {
             throw new IllegalArgumentException("Não é possível alterar um agendamento cancelado.");
         }
 
-        boolean isCliente = agendamento.getCliente().getId().equals(usuario.getId());
-        boolean isPrestador = agendamento.getPrestador().getId().equals(usuario.getId());
+        boolean isCliente = agendamento.getCliente().getId().equals(usuario.id());
+        boolean isPrestador = agendamento.getPrestador().getId().equals(usuario.id());
         boolean isAdmin = PermissaoUtils.isAdmin(usuario);
 
         if (!isCliente && !isPrestador && !isAdmin) {
@@ -167,7 +174,7 @@ public class AgendamentoService {
         }
 
         Servico servico = (dto.getServicoId() != null)
-                ? servicoRepository.findById(dto.getServicoId())
+                ? servicoRepository.buscarParaAgendamento(dto.getServicoId())
                 .orElseThrow(() -> new IllegalArgumentException("Serviço não encontrado."))
                 : agendamento.getServico();
 
@@ -194,27 +201,43 @@ public class AgendamentoService {
         }
 
         // Verifica sobreposição (ignora o próprio agendamento)
-        List<Agendamento> agendamentosExistentes = agendamentoRepository.findByPrestadorId(prestador.getId());
-        boolean conflita = agendamentosExistentes.stream()
-                .filter(a -> !a.getId().equals(agendamento.getId()))
-                .filter(a -> a.getStatus() == StatusAgendamento.PENDENTE) // só verifica pendentes
-                .anyMatch(a -> overlaps(
-                        inicio, fim,
-                        a.getDataHora(),
-                        a.getDataHora().plusMinutes(a.getServico().getDuracaoMinutos())
-                ));
-
-        if (conflita) {
+        if (conflitoAgendamentoService.conflita(prestador.getId(), inicio, fim, agendamento.getId())) {
             throw new IllegalArgumentException("Horário indisponível. Já existe outro agendamento nesse horário.");
         }
 
+        Integer prestadorAnteriorId = agendamento.getPrestador().getId();
+
+        // Libera o período antigo no calendário
+        calendarioDisponibilidadeService.invalidarPeriodo(
+                prestadorAnteriorId, agendamento.getDataHora(), agendamento.getDataHoraFim());
+
+        // Dados anteriores, para mover a contagem nos resumos de relatórios
+        LocalDateTime dataHoraAnterior = agendamento.getDataHora();
+        Servico servicoAnterior = agendamento.getServico();
+        StatusAgendamento statusAnterior = agendamento.getStatus();
+
         // Atualiza o agendamento
         agendamento.setServico(servico);
         agendamento.setPrestador(prestador);
         agendamento.setDataHora(inicio);
+        agendamento.setDataHoraFim(fim);
         agendamento.setStatus(StatusAgendamento.PENDENTE);
 
-        return agendamentoRepository.save(agendamento);
+        Agendamento salvo = salvarSemSobreposicao(agendamento);
+        calendarioDisponibilidadeService.invalidarPeriodo(prestador.getId(), inicio, fim);
+        resumoAgendamentoService.registrarRemarcacao(
+                dataHoraAnterior, prestadorAnteriorId, servicoAnterior, statusAnterior, salvo);
+        return salvo;
+    }
+
+    // saveAndFlush força o INSERT/UPDATE aqui, para que a violação da restrição de
+    // sobreposição (outra instância agendou o mesmo período) vire uma mensagem amigável
+    private Agendamento salvarSemSobreposicao(Agendamento agendamento) {
+        try {
+            return agendamentoRepository.saveAndFlush(agendamento);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Horário indisponível. Já existe um agendamento neste período.");
+        }
     }
 
     // Detecta a sobreposição de horarios
@@ -227,65 +250,156 @@ public class AgendamentoService {
         Agendamento agendamento = agendamentoRepository.findById(agendamentoId)
                 .orElseThrow(() -> new IllegalArgumentException("Agendamento não encontrado."));
 
-        Usuario usuario = UsuarioAutenticado.get();
-        if (!agendamento.getPrestador().getId().equals(usuario.getId()) &&
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
+        if (!agendamento.getPrestador().getId().equals(usuario.id()) &&
                 !PermissaoUtils.isAdmin(usuario)) {
             throw new SecurityException("Sem permissão para concluir este agendamento.");
         }
 
+        // Condicional: uma conclusão ou cancelamento simultâneo não conta a mesma transição duas vezes no resumo
+        StatusAgendamento anterior = agendamento.getStatus();
+        if (agendamentoRepository.alterarStatus(agendamentoId, anterior, StatusAgendamento.CONCLUIDO) == 0) {
+            throw new IllegalArgumentException("O agendamento foi alterado por outra operação. Tente novamente.");
+        }
         agendamento.setStatus(StatusAgendamento.CONCLUIDO);
+        resumoAgendamentoService.registrarTransicao(agendamento, anterior);
     }
 
     public List<Agendamento> listarAgendamentosCliente() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
 
-        return agendamentoRepository.findByClienteId(usuario.getId());
+        return agendamentoRepository.findByClienteId(usuario.id());
     }
 
     public List<Agendamento> listarAgendamentosPrestador() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        return agendamentoRepository.findByPrestadorId(usuario.getId());
+        return agendamentoRepository.findByPrestadorId(usuario.id());
+    }
+
+    // Página de agendamentos do cliente autenticado, com filtros opcionais de status e período
+    public PaginaAgendamentosDTO listarAgendamentosClientePaginado(StatusAgendamento status, LocalDate de, LocalDate ate,
+                                                                    String cursor, Integer tamanho) {
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
+        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
+
+        CursorAgendamento posicao = CursorAgendamento.ler(cursor);
+        int limite = tamanhoPagina(tamanho);
+
+        List<AgendamentoDTO> itens = agendamentoRepository.buscarPaginaDoCliente(
+                usuario.id(), status, inicioDoDia(de), inicioDoDiaSeguinte(ate),
+                posicao.dataHora(), posicao.id(), Limit.of(limite + 1));
+
+        return montarPagina(itens, limite);
+    }
+
+    // Página de agendamentos do prestador autenticado, com filtros opcionais de status e período
+    public PaginaAgendamentosDTO listarAgendamentosPrestadorPaginado(StatusAgendamento status, LocalDate de, LocalDate ate,
+                                                                      String cursor, Integer tamanho) {
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
+        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
+
+        CursorAgendamento posicao = CursorAgendamento.ler(cursor);
+        int limite = tamanhoPagina(tamanho);
+
+        List<AgendamentoDTO> itens = agendamentoRepository.buscarPaginaDoPrestador(
+                usuario.id(), status, inicioDoDia(de), inicioDoDiaSeguinte(ate),
+                posicao.dataHora(), posicao.id(), Limit.of(limite + 1));
+
+        return montarPagina(itens, limite);
+    }
+
+    private int tamanhoPagina(Integer tamanho) {
+        if (tamanho == null) return TAMANHO_PAGINA_PADRAO;
+        if (tamanho < 1 || tamanho > TAMANHO_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO + ".");
+        }
+        return tamanho;
+    }
+
+    // A consulta traz um item a mais só para saber se existe próxima página
+    private PaginaAgendamentosDTO montarPagina(List<AgendamentoDTO> itens, int limite) {
+        if (itens.size() <= limite) {
+            return new PaginaAgendamentosDTO(itens, null);
+        }
+
+        List<AgendamentoDTO> pagina = itens.subList(0, limite);
+        AgendamentoDTO ultimo = pagina.get(limite - 1);
+        return new PaginaAgendamentosDTO(pagina, new CursorAgendamento(ultimo.getDataHora(), ultimo.getId()).escrever());
+    }
+
+    private LocalDateTime inicioDoDia(LocalDate data) {
+        return data != null ? data.atStartOfDay() : null;
+    }
+
+    private LocalDateTime inicioDoDiaSeguinte(LocalDate data) {
+        return data != null ? data.plusDays(1).atStartOfDay() : null;
+    }
+
+    // Posição na listagem: "dataHora_id" do último agendamento entregue
+    record CursorAgendamento(LocalDateTime dataHora, Integer id) {
+
+        static final CursorAgendamento INICIO = new CursorAgendamento(null, null);
+
+        static CursorAgendamento ler(String cursor) {
+            if (cursor == null || cursor.isBlank()) return INICIO;
+
+            int separador = cursor.lastIndexOf('_');
+            try {
+                return new CursorAgendamento(
+                        LocalDateTime.parse(cursor.substring(0, separador)),
+                        Integer.valueOf(cursor.substring(separador + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginação inválido.");
+            }
+        }
+
+        String escrever() {
+            return dataHora + "_" + id;
+        }
     }
 
     @Transactional
     public void cancelarAgendamento(Integer agendamentoId) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         Agendamento agendamento = agendamentoRepository.findById(agendamentoId)
                 .orElseThrow(() -> new IllegalArgumentException("Agendamento não encontrado."));
 
-        boolean isCliente = agendamento.getCliente().getId().equals(usuario.getId());
-        boolean isPrestador = agendamento.getPrestador().getId().equals(usuario.getId());
+        boolean isCliente = agendamento.getCliente().getId().equals(usuario.id());
+        boolean isPrestador = agendamento.getPrestador().getId().equals(usuario.id());
         boolean isAdmin = PermissaoUtils.isAdmin(usuario);
 
         if (!isCliente && !isPrestador && !isAdmin) {
             throw new SecurityException("Você não tem permissão para cancelar este agendamento.");
         }
 
-        if (agendamento.getStatus() != StatusAgendamento.PENDENTE) {
+        // Condicional: entre a leitura e aqui outro cancelamento ou a conclusão automática pode ter mudado o status
+        if (agendamento.getStatus() != StatusAgendamento.PENDENTE
+                || agendamentoRepository.alterarStatus(agendamentoId, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO) == 0) {
             throw new IllegalArgumentException("Apenas agendamentos pendentes podem ser cancelados.");
         }
 
         agendamento.setStatus(StatusAgendamento.CANCELADO);
+        calendarioDisponibilidadeService.invalidarPeriodo(
+                agendamento.getPrestador().getId(), agendamento.getDataHora(), agendamento.getDataHoraFim());
+        resumoAgendamentoService.registrarTransicao(agendamento, StatusAgendamento.PENDENTE);
     }
 
     @Transactional
     public List<ClienteResumoDTO> listarClientesDoPrestador() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR);
 
-        Prestador prestador = (Prestador) usuario;
-        Negocio negocio = prestador.getNegocio();
-
-        if (negocio == null) {
+        Integer negocioId = usuario.negocioId();
+        if (negocioId == null) {
             throw new IllegalArgumentException("Prestador não pertence a um negócio.");
         }
 
         // Agendamentos de TODOS os prestadores do mesmo negócio
         List<Agendamento> agendamentos = agendamentoRepository
-                .findByPrestador_Negocio_Id(negocio.getId());
+                .findByPrestador_Negocio_Id(negocioId);
 
         return agendamentos.stream()
                 .map(Agendamento::getCliente)
@@ -304,7 +418,7 @@ public class AgendamentoService {
                     double taxa = (total > 0) ? ((double) cancelados / total) * 100 : 0.0;
 
                     boolean bloqueado = clienteBloqueadoRepository
-                            .findByNegocioIdAndClienteId(negocio.getId(), c.getId())
+                            .findByNegocioIdAndClienteId(negocioId, c.getId())
                             .map(ClienteBloqueado::isAtivo)
                             .orElse(false);
 
@@ -325,25 +439,23 @@ public class AgendamentoService {
 
     @Transactional
     public List<ClienteResumoDTO> listarClientesBloqueados() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR);
 
-        Prestador prestador = (Prestador) usuario;
-        Negocio negocio = prestador.getNegocio();
-
-        if (negocio == null) {
+        Integer negocioId = usuario.negocioId();
+        if (negocioId == null) {
             throw new IllegalArgumentException("Prestador não pertence a um negócio.");
         }
 
         List<ClienteBloqueado> bloqueios = clienteBloqueadoRepository
-                .findByNegocioId(negocio.getId())
+                .findByNegocioId(negocioId)
                 .stream()
                 .filter(ClienteBloqueado::isAtivo)
                 .toList();
 
         // Busca agendamentos do negócio inteiro
         List<Agendamento> agendamentos = agendamentoRepository
-                .findByPrestador_Negocio_Id(negocio.getId());
+                .findByPrestador_Negocio_Id(negocioId);
 
         return bloqueios.stream()
                 .map(b -> {
@@ -376,10 +488,9 @@ public class AgendamentoService {
 
     @Transactional
     public void bloquearCliente(Integer clienteId) {
-        Usuario atual = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(atual, PerfilUsuario.PRESTADOR);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.PRESTADOR);
 
-        Prestador prestador = (Prestador) atual;
+        Prestador prestador = (Prestador) UsuarioAutenticado.get(); // o bloqueio referencia o negócio
         Negocio negocio = prestador.getNegocio();
 
         if (negocio == null)
@@ -405,7 +516,12 @@ public class AgendamentoService {
         agendamentoRepository.findByPrestadorId(prestador.getId()).stream()
                 .filter(a -> a.getCliente().getId().equals(clienteId))
                 .filter(a -> a.getStatus() == StatusAgendamento.PENDENTE)
-                .forEach(a -> a.setStatus(StatusAgendamento.CANCELADO));
+                .filter(a -> agendamentoRepository.alterarStatus(a.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO) == 1)
+                .forEach(a -> {
+                    a.setStatus(StatusAgendamento.CANCELADO);
+                    calendarioDisponibilidadeService.invalidarPeriodo(prestador.getId(), a.getDataHora(), a.getDataHoraFim());
+                    resumoAgendamentoService.registrarTransicao(a, StatusAgendamento.PENDENTE);
+                });
     }
 
 
@@ -413,14 +529,11 @@ public class AgendamentoService {
 
     @Transactional
     public void desbloquearCliente(Integer clienteId) {
-        Usuario atual = UsuarioAutenticado.get();
+        UsuarioPrincipal atual = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(atual, PerfilUsuario.PRESTADOR);
 
-        Prestador prestador = (Prestador) atual;
-        Negocio negocio = prestador.getNegocio();
-
         ClienteBloqueado bloqueio = clienteBloqueadoRepository
-                .findByNegocioIdAndClienteId(negocio.getId(), clienteId)
+                .findByNegocioIdAndClienteId(atual.negocioId(), clienteId)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente não está bloqueado."));
 
         bloqueio.setAtivo(false);
@@ -428,25 +541,4 @@ public class AgendamentoService {
     }
 
 
-
-    @Scheduled(fixedRate = 300000) // a cada 5 minutos verifica se agendamento passou o horário
-    @Transactional
-    public void concluirAgendamentosVencidos() {
-        List<Agendamento> pendentes = agendamentoRepository.findByStatus(StatusAgendamento.PENDENTE);
-        LocalDateTime agora = LocalDateTime.now(ZoneId.of("America/Sao_Paulo"));
-
-        // conclui agendamento pendente que passou o horario
-        for (Agendamento ag : pendentes) {
-            LocalDateTime fim = ag.getDataHora().plusMinutes(ag.getServico().getDuracaoMinutos());
-            if (fim.isBefore(agora)) {
-                ag.setStatus(StatusAgendamento.CONCLUIDO);
-                System.out.println("Agendamento #" + ag.getId() +
-                        " concluído automaticamente (término: " + fim + ")");
-
-            }
-        }
-    }
-
-
 }
-
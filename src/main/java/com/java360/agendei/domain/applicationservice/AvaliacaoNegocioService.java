@@ -9,6 +9,7 @@ import com.java360.agendei.infrastructure.dto.negocio.AvaliacaoNegocioDTO;
 import com.java360.agendei.infrastructure.dto.negocio.CreateAvaliacaoNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -26,15 +27,15 @@ public class AvaliacaoNegocioService {
 
     @Transactional
     public AvaliacaoNegocioDTO criarAvaliacao(CreateAvaliacaoNegocioDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
 
-        Cliente cliente = (Cliente) usuario;
-
         Agendamento agendamento = agendamentoRepository.findById(dto.getAgendamentoId())
                 .orElseThrow(() -> new IllegalArgumentException("Agendamento não encontrado."));
 
-        if (!agendamento.getCliente().getId().equals(cliente.getId())) {
+        // O cliente do agendamento é o próprio usuário: a entidade vem dele, sem nova consulta
+        Cliente cliente = agendamento.getCliente();
+        if (!cliente.getId().equals(usuario.id())) {
             throw new SecurityException("Você não pode avaliar um agendamento que não é seu.");
         }
 
@@ -0,0 +1,229 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.java360.agendei.domain.entity.Disponibilidade;
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.projection.IntervaloAgendamento;
+import com.java360.agendei.infrastructure.util.TransacaoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class CalendarioDisponibilidadeService {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    // Mesmo limite validado em ServicoService: agendamentos do dia anterior podem invadir no máximo 8h
+    private static final int DURACAO_MAXIMA_MINUTOS = 480;
+
+    private final DisponibilidadeRepository disponibilidadeRepository;
+    private final AgendamentoRepository agendamentoRepository;
+
+    // Mapa de minutos livres por prestador e data, montado uma vez e descartado a cada alteração.
+    // A invalidação só alcança esta instância: em outros nós o dia fica desatualizado até expirar.
+    // Por isso o prazo é curto (1 min); a reserva em si é sempre validada no banco.
+    private final Cache<ChaveDia, DiaPrestador> dias = Caffeine.newBuilder()
+            .maximumSize(50_000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+
+    // Geração atual dos dias de cada prestador: invalidar o prestador inteiro é trocar de geração,
+    // sem varrer o cache (as entradas antigas ficam inalcançáveis e expiram)
+    private final Map<Integer, Integer> geracoes = new ConcurrentHashMap<>();
+
+    // Horários (HH:mm) em que um serviço de 'duracao' minutos cabe inteiro no dia do prestador
+    public List<String> listarHorariosLivres(Prestador prestador, LocalDate data, int duracao) {
+        DiaPrestador dia = dias.get(chave(prestador.getId(), data), chave -> montarDia(prestador, data));
+
+        if (dia.inicioExpediente() < 0) {
+            throw new IllegalArgumentException("O prestador não tem disponibilidade nesse dia.");
+        }
+
+        return varrerHorarios(dia, data, duracao);
+    }
+
+    // Horários livres de cada dia de [inicio, fim], calculados sob demanda (um dia por vez).
+    // Dias fora do cache são montados a partir de uma única leitura de disponibilidades e agendamentos do período.
+    public Stream<HorariosDoDia> listarHorariosLivresNoPeriodo(Prestador prestador, LocalDate inicio, LocalDate fim, int duracao) {
+        Map<DiaSemanaDisponivel, Disponibilidade> expedientes = disponibilidadeRepository
+                .findByPrestadorId(prestador.getId()).stream()
+                .filter(Disponibilidade::isAtivo)
+                .collect(Collectors.toMap(Disponibilidade::getDiaSemana, d -> d, (a, b) -> a));
+
+        LocalDateTime inicioPeriodo = inicio.atStartOfDay();
+        LocalDateTime fimPeriodo = fim.plusDays(1).atStartOfDay();
+
+        // Cada agendamento é associado aos dias que toca (no máximo dois, pois dura até 8h)
+        Map<LocalDate, List<IntervaloAgendamento>> ocupadosPorDia = new HashMap<>();
+        agendamentoRepository.buscarIntervalosOcupados(
+                        prestador.getId(), inicioPeriodo.minusMinutes(DURACAO_MAXIMA_MINUTOS), inicioPeriodo, fimPeriodo)
+                .forEach(ocupado -> {
+                    for (LocalDate d = ocupado.inicio().toLocalDate(); d.atStartOfDay().isBefore(ocupado.fim()); d = d.plusDays(1)) {
+                        ocupadosPorDia.computeIfAbsent(d, k -> new ArrayList<>()).add(ocupado);
+                    }
+                });
+
+        return inicio.datesUntil(fim.plusDays(1))
+                .map(data -> {
+                    DiaPrestador dia = dias.getIfPresent(chave(prestador.getId(), data));
+                    if (dia == null) {
+                        dia = montarDia(prestador, data,
+                                expedientes.get(traduzirDiaDaSemana(data.getDayOfWeek())),
+                                ocupadosPorDia.getOrDefault(data, List.of()));
+                    }
+                    if (dia.inicioExpediente() < 0) {
+                        return new HorariosDoDia(data, List.of());
+                    }
+                    return new HorariosDoDia(data, varrerHorarios(dia, data, duracao));
+                });
+    }
+
+    private List<String> varrerHorarios(DiaPrestador dia, LocalDate data, int duracao) {
+        // Se a data for anterior à atual, não há horários
+        LocalDate hoje = LocalDate.now(ZoneId.of("America/Sao_Paulo"));
+        if (data.isBefore(hoje)) {
+            return List.of();
+        }
+
+        LocalTime horaAtual = LocalTime.now(ZoneId.of("America/Sao_Paulo"));
+        boolean ehHoje = data.isEqual(hoje);
+
+        // Horários alinhados ao início do expediente, em passos do tamanho do serviço
+        List<String> horarios = new ArrayList<>();
+        for (int minuto = dia.inicioExpediente(); minuto + duracao <= dia.fimExpediente(); minuto += duracao) {
+            LocalTime inicio = LocalTime.of(minuto / 60, minuto % 60);
+
+            // Se for hoje e horário já passou, ignora
+            if (ehHoje && inicio.isBefore(horaAtual)) continue;
+
+            // Livre se não houver nenhum minuto ocupado em [minuto, minuto + duracao)
+            if (dia.livres().nextClearBit(minuto) >= minuto + duracao) {
+                horarios.add(inicio.toString());
+            }
+        }
+        return horarios;
+    }
+
+    // Agendamento criado/cancelado/remarcado: descarta os dias tocados pelo período
+    public void invalidarPeriodo(Integer prestadorId, LocalDateTime inicio, LocalDateTime fim) {
+        LocalDate primeiro = inicio.toLocalDate();
+        LocalDate ultimo = fim != null ? fim.toLocalDate() : primeiro;
+
+        TransacaoUtils.aposCommit(() -> {
+            for (LocalDate d = primeiro; !d.isAfter(ultimo); d = d.plusDays(1)) {
+                dias.invalidate(chave(prestadorId, d));
+            }
+        });
+    }
+
+    // Disponibilidade, almoço ou cancelamentos em lote: descarta todos os dias do prestador
+    public void invalidarPrestador(Integer prestadorId) {
+        TransacaoUtils.aposCommit(() -> geracoes.merge(prestadorId, 1, Integer::sum));
+    }
+
+    private ChaveDia chave(Integer prestadorId, LocalDate data) {
+        return new ChaveDia(prestadorId, geracoes.getOrDefault(prestadorId, 0), data);
+    }
+
+    private DiaPrestador montarDia(Prestador prestador, LocalDate data) {
+        DiaSemanaDisponivel diaSemana = traduzirDiaDaSemana(data.getDayOfWeek());
+
+        Disponibilidade disponibilidade = disponibilidadeRepository
+                .findByPrestadorIdAndDiaSemana(prestador.getId(), diaSemana)
+                .filter(Disponibilidade::isAtivo)
+                .orElse(null);
+
+        if (disponibilidade == null) {
+            return DiaPrestador.SEM_EXPEDIENTE;
+        }
+
+        // Agendamentos pendentes e concluídos ocupam o período; inclui os que começaram no dia anterior
+        LocalDateTime inicioDia = data.atStartOfDay();
+        List<IntervaloAgendamento> ocupados = agendamentoRepository.buscarIntervalosOcupados(
+                prestador.getId(), inicioDia.minusMinutes(DURACAO_MAXIMA_MINUTOS), inicioDia, inicioDia.plusDays(1));
+
+        return montarDia(prestador, data, disponibilidade, ocupados);
+    }
+
+    private DiaPrestador montarDia(Prestador prestador, LocalDate data,
+                                   Disponibilidade disponibilidade, List<IntervaloAgendamento> ocupados) {
+        if (disponibilidade == null) {
+            return DiaPrestador.SEM_EXPEDIENTE;
+        }
+
+        int inicioExpediente = minutoDoDia(disponibilidade.getHoraInicio());
+        int fimExpediente = minutoDoDia(disponibilidade.getHoraFim());
+
+        // Bit ligado = minuto livre
+        BitSet livres = new BitSet(MINUTOS_DIA);
+        livres.set(inicioExpediente, fimExpediente);
+
+        // Horário de almoço do prestador (caso exista)
+        if (prestador.getHoraInicioAlmoco() != null && prestador.getHoraFimAlmoco() != null) {
+            int almocoInicio = minutoDoDia(prestador.getHoraInicioAlmoco());
+            int almocoFim = minutoDoDia(prestador.getHoraFimAlmoco());
+            if (almocoInicio < almocoFim) {
+                livres.clear(almocoInicio, almocoFim);
+            }
+        }
+
+        LocalDateTime inicioDia = data.atStartOfDay();
+        for (IntervaloAgendamento ocupado : ocupados) {
+            int de = (int) Math.max(0, Duration.between(inicioDia, ocupado.inicio()).toMinutes());
+            int ate = (int) Math.min(MINUTOS_DIA, Duration.between(inicioDia, ocupado.fim()).toMinutes());
+            if (de < ate) {
+                livres.clear(de, ate);
+            }
+        }
+
+        return new DiaPrestador(inicioExpediente, fimExpediente, livres);
+    }
+
+    private int minutoDoDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    private DiaSemanaDisponivel traduzirDiaDaSemana(DayOfWeek dia) {
+        return switch (dia) {
+            case SUNDAY -> DiaSemanaDisponivel.DOMINGO;
+            case MONDAY -> DiaSemanaDisponivel.SEGUNDA;
+            case TUESDAY -> DiaSemanaDisponivel.TERCA;
+            case WEDNESDAY -> DiaSemanaDisponivel.QUARTA;
+            case THURSDAY -> DiaSemanaDisponivel.QUINTA;
+            case FRIDAY -> DiaSemanaDisponivel.SEXTA;
+            case SATURDAY -> DiaSemanaDisponivel.SABADO;
+        };
+    }
+
+    public record HorariosDoDia(LocalDate data, List<String> horarios) {
+    }
+
+    record ChaveDia(Integer prestadorId, int geracao, LocalDate data) {
+    }
+
+    // Expediente em minutos do dia; o BitSet não é alterado depois de montado (pode ser lido em paralelo)
+    record DiaPrestador(int inicioExpediente, int fimExpediente, BitSet livres) {
+
+        static final DiaPrestador SEM_EXPEDIENTE = new DiaPrestador(-1, -1, new BitSet(0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService.ChaveResumo;
+import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.projection.AgendamentoVencido;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Conclui automaticamente os agendamentos pendentes cujo horário já terminou
+@Service
+@RequiredArgsConstructor
+public class ConclusaoAutomaticaService {
+
+    static final String TAREFA = "concluir-agendamentos-vencidos";
+    static final int TAMANHO_LOTE = 500;
+
+    // Menor que o intervalo de execução: se a instância cair, outra assume na rodada seguinte
+    private static final Duration DURACAO_TRAVA = Duration.ofMinutes(4);
+
+    private final AgendamentoRepository agendamentoRepository;
+    private final ResumoAgendamentoService resumoAgendamentoService;
+    private final TravaTarefaService travaTarefaService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(fixedRate = 300000) // a cada 5 minutos, em apenas uma instância do cluster
+    public void concluirAgendamentosVencidos() {
+        if (!travaTarefaService.adquirir(TAREFA, DURACAO_TRAVA)) {
+            return; // outra instância está executando
+        }
+
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        try {
+            LocalDateTime agora = LocalDateTime.now(ZoneId.of("America/Sao_Paulo"));
+
+            // Lotes em transações curtas: não segura locks de milhares de linhas de uma vez.
+            // A trava é renovada a cada lote; se expirou, outra instância pode ter assumido e a rodada para
+            int lidos;
+            do {
+                lidos = transactionTemplate.execute(status -> concluirLote(agora));
+            } while (lidos == TAMANHO_LOTE && travaTarefaService.renovar(TAREFA, DURACAO_TRAVA));
+        } finally {
+            amostra.stop(meterRegistry.timer("agendei.agendamentos.conclusao.automatica.duracao"));
+            travaTarefaService.liberar(TAREFA);
+        }
+    }
+
+    // Retorna quantos foram lidos: um lote cheio indica que pode haver mais
+    private int concluirLote(LocalDateTime agora) {
+        List<AgendamentoVencido> vencidos = agendamentoRepository.buscarVencidos(agora, Limit.of(TAMANHO_LOTE));
+        if (vencidos.isEmpty()) return 0;
+
+        int concluidos = agendamentoRepository.concluirPendentes(vencidos.stream().map(AgendamentoVencido::id).toList());
+
+        // O lote está travado desde a leitura, então o UPDATE alcança todas as linhas lidas.
+        // Se não alcançou, os deltas abaixo contariam transições que não aconteceram: desfaz o lote
+        if (concluidos != vencidos.size()) {
+            throw new IllegalStateException("Lote de conclusão alterado durante a execução: "
+                    + concluidos + " de " + vencidos.size() + " concluídos.");
+        }
+
+        // Resumos de relatórios: um delta por dia/prestador/serviço dos agendamentos concluídos
+        vencidos.stream()
+                .collect(Collectors.groupingBy(
+                        v -> new ChaveResumo(v.dataHora().toLocalDate(), v.prestadorId(), v.servicoId(), v.negocioId()),
+                        Collectors.counting()))
+                .forEach((chave, quantidade) -> resumoAgendamentoService.registrarTransicao(
+                        chave, StatusAgendamento.PENDENTE, StatusAgendamento.CONCLUIDO, quantidade));
+
+        meterRegistry.counter("agendei.agendamentos.concluidos.automaticamente").increment(concluidos);
+        return vencidos.size();
+    }
+}
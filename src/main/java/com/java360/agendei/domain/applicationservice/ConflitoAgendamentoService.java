@@ -0,0 +1,25 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class ConflitoAgendamentoService {
+
+    // Mesmo limite validado em ServicoService: nenhum serviço dura mais que 8 horas
+    private static final int DURACAO_MAXIMA_MINUTOS = 480;
+
+    private final AgendamentoRepository agendamentoRepository;
+
+    // Verifica se [inicio, fim) conflita com algum agendamento PENDENTE do prestador.
+    // Sempre no banco: um índice em memória ficaria desatualizado com escritas de outros nós,
+    // e a sonda indexada já percorre só a janela [inicio - maior duração, fim)
+    public boolean conflita(Integer prestadorId, LocalDateTime inicio, LocalDateTime fim, Integer ignorarAgendamentoId) {
+        return agendamentoRepository.existeConflito(
+                prestadorId, inicio.minusMinutes(DURACAO_MAXIMA_MINUTOS), inicio, fim, ignorarAgendamentoId);
+    }
+}
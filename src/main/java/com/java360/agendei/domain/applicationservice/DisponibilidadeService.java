@@ -3,20 +3,23 @@ package com.java360.agendei.domain.applicationservice;
 import com.java360.agendei.domain.entity.Agendamento;
 import com.java360.agendei.domain.entity.Disponibilidade;
 import com.java360.agendei.domain.entity.Prestador;
-import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.DiaSemanaDisponivel;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.AgendamentoRepository;
 import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.PrestadorRepository;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
 import com.java360.agendei.infrastructure.dto.DisponibilidadeDTO;
 import com.java360.agendei.infrastructure.dto.HorarioAlmocoDTO;
 import com.java360.agendei.infrastructure.dto.SaveDisponibilidadeDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
@@ -25,24 +28,25 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DisponibilidadeService {
 
     private final DisponibilidadeRepository disponibilidadeRepository;
     private final UsuarioRepository usuarioRepository;
+    private final PrestadorRepository prestadorRepository;
     private final AgendamentoRepository agendamentoRepository;
+    private final CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    private final ResumoAgendamentoService resumoAgendamentoService;
+    private final IndiceBuscaService indiceBuscaService;
 
     public boolean prestadorEstaDisponivel(Integer prestadorId, LocalDateTime inicioAgendamento, int duracaoMinutos) {
         DayOfWeek diaSemana = inicioAgendamento.getDayOfWeek();
         LocalTime inicio = inicioAgendamento.toLocalTime();
         LocalTime fim = inicio.plusMinutes(duracaoMinutos);
 
-        System.out.println("Validando disponibilidade para dia " + diaSemana + " - Início: " + inicio + " Fim: " + fim);
-        disponibilidadeRepository.findByPrestadorId(prestadorId).forEach(d ->
-                System.out.println("Disponibilidade: " + d.getDiaSemana() + " de " + d.getHoraInicio() + " até " + d.getHoraFim())
-        );
-
+        log.debug("Validando disponibilidade do prestador {} para {} - Início: {} Fim: {}", prestadorId, diaSemana, inicio, fim);
 
         return disponibilidadeRepository.findByPrestadorId(prestadorId).stream()
                 .filter(Disponibilidade::isAtivo) // só considera dias ativos
@@ -68,10 +72,8 @@ public class DisponibilidadeService {
 
     @Transactional
     public DisponibilidadeDTO cadastrarOuAtualizarDisponibilidade(SaveDisponibilidadeDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
-
-        Prestador prestador = (Prestador) usuario;
+        UsuarioPrincipal prestador = UsuarioAutenticado.principal();
+        PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         if (dto.getHoraInicio().isAfter(dto.getHoraFim()) || dto.getHoraInicio().equals(dto.getHoraFim())) {
             throw new IllegalArgumentException("Horário de início deve ser antes do horário de fim.");
@@ -81,14 +83,14 @@ public class DisponibilidadeService {
         }
 
         Disponibilidade disponibilidade = disponibilidadeRepository
-                .findByPrestadorIdAndDiaSemana(prestador.getId(), dto.getDiaSemana())
+                .findByPrestadorIdAndDiaSemana(prestador.id(), dto.getDiaSemana())
                 .map(d -> {
                     d.setHoraInicio(dto.getHoraInicio());
                     d.setHoraFim(dto.getHoraFim());
                     return d;
                 })
                 .orElseGet(() -> Disponibilidade.builder()
-                        .prestador(prestador)
+                        .prestador(prestadorRepository.getReferenceById(prestador.id())) // referência: só a chave estrangeira
                         .diaSemana(dto.getDiaSemana())
                         .horaInicio(dto.getHoraInicio())
                         .horaFim(dto.getHoraFim())
@@ -96,31 +98,32 @@ public class DisponibilidadeService {
                 );
 
         Disponibilidade salvo = disponibilidadeRepository.save(disponibilidade);
+        calendarioDisponibilidadeService.invalidarPrestador(prestador.id());
+        indiceBuscaService.atualizarPrestador(prestador.id()); // dias de atendimento filtram a busca
 
         return DisponibilidadeDTO.fromEntity(salvo);
     }
 
     @Transactional
     public Disponibilidade alterarStatusDia(DiaSemanaDisponivel dia, boolean ativo) {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
-
-        Prestador prestador = (Prestador) usuario;
+        UsuarioPrincipal prestador = UsuarioAutenticado.principal();
+        PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         Disponibilidade disponibilidade = disponibilidadeRepository
-                .findByPrestadorIdAndDiaSemana(prestador.getId(), dia)
+                .findByPrestadorIdAndDiaSemana(prestador.id(), dia)
                 .orElseThrow(() -> new IllegalArgumentException("Dia não cadastrado para este prestador."));
 
         disponibilidade.setAtivo(ativo);
+        calendarioDisponibilidadeService.invalidarPrestador(prestador.id());
+        indiceBuscaService.atualizarPrestador(prestador.id());
         return disponibilidade;
     }
 
     @Transactional
     public void definirHorarioAlmoco(LocalTime horaInicio) {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.PRESTADOR);
 
-        Prestador prestador = (Prestador) usuario;
+        Prestador prestador = (Prestador) UsuarioAutenticado.get(); // horário de almoço alterado
 
         if (horaInicio.isBefore(LocalTime.of(5, 0)) || horaInicio.isAfter(LocalTime.of(20, 0))) {
             throw new IllegalArgumentException("Horário de almoço deve estar entre 05:00 e 20:00.");
@@ -133,6 +136,7 @@ public class DisponibilidadeService {
         prestador.setHoraInicioAlmoco(novoInicio);
         prestador.setHoraFimAlmoco(novoFim);
         usuarioRepository.save(prestador);
+        calendarioDisponibilidadeService.invalidarPrestador(prestador.getId());
 
         // CANCELA AGENDAMENTOS DENTRO DO NOVO HORÁRIO DE ALMOÇO
         cancelarAgendamentosDuranteAlmoco(prestador, novoInicio, novoFim);
@@ -152,9 +156,11 @@ public class DisponibilidadeService {
             LocalDateTime almocoInicioDT = LocalDateTime.of(agInicio.toLocalDate(), inicio);
             LocalDateTime almocoFimDT = LocalDateTime.of(agInicio.toLocalDate(), fim);
 
-            if (overlaps(agInicio, agFim, almocoInicioDT, almocoFimDT)) {
+            if (overlaps(agInicio, agFim, almocoInicioDT, almocoFimDT)
+                    && agendamentoRepository.alterarStatus(ag.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO) == 1) {
                 ag.setStatus(StatusAgendamento.CANCELADO);
                 agendamentoRepository.save(ag);
+                resumoAgendamentoService.registrarTransicao(ag, StatusAgendamento.PENDENTE);
 
             }
         }
@@ -169,28 +175,21 @@ public class DisponibilidadeService {
 
     @Transactional
     public HorarioAlmocoDTO buscarHorarioAlmoco() {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR);
-
-        Prestador prestador = (Prestador) usuario;
-
-        LocalTime inicio = prestador.getHoraInicioAlmoco();
-        LocalTime fim = prestador.getHoraFimAlmoco();
-
-        if (inicio == null || fim == null) {
-            throw new IllegalArgumentException("Horário de almoço ainda não foi definido.");
-        }
+        UsuarioPrincipal prestador = UsuarioAutenticado.principal();
+        PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR);
 
-        return new HorarioAlmocoDTO(inicio, fim);
+        // Só as duas colunas, sem carregar o usuário
+        return prestadorRepository.buscarHorarioAlmoco(prestador.id())
+                .filter(h -> h.getHoraInicioAlmoco() != null && h.getHoraFimAlmoco() != null)
+                .orElseThrow(() -> new IllegalArgumentException("Horário de almoço ainda não foi definido."));
     }
 
 
     public List<Disponibilidade> listarPorPrestadorAutenticado() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Prestador prestador = (Prestador) usuario;
-        return disponibilidadeRepository.findByPrestadorId(prestador.getId());
+        return disponibilidadeRepository.findByPrestadorId(usuario.id());
     }
 
 }
\ No newline at end of file
@@ -3,14 +3,18 @@ package com.java360.agendei.domain.applicationservice;
 import com.java360.agendei.domain.entity.FotoNegocio;
 import com.java360.agendei.domain.entity.Negocio;
 import com.java360.agendei.domain.entity.Prestador;
-import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.repository.FotoNegocioRepository;
 import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.projection.ArquivoFotoNegocio;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.negocio.FotoNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.TamanhoImagem;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,18 +27,18 @@ public class FotoNegocioService {
 
     private final NegocioRepository negocioRepository;
     private final FotoNegocioRepository fotoNegocioRepository;
-
-    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    private final ImagemService imagemService;
+    private final VariantesFotoService variantesFotoService;
 
     @Transactional
     public void adicionarFotoAoNegocio(Integer negocioId, MultipartFile arquivo) throws Exception {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         Negocio negocio = negocioRepository.findById(negocioId)
                 .orElseThrow(() -> new IllegalArgumentException("Negócio não encontrado."));
 
-        if (!negocio.getCriador().getId().equals(usuario.getId()) && !PermissaoUtils.isAdmin(usuario)) {
+        if (!negocio.getCriador().getId().equals(usuario.id()) && !PermissaoUtils.isAdmin(usuario)) {
             throw new IllegalArgumentException("Apenas o dono do negócio pode adicionar fotos.");
         }
 
@@ -43,14 +47,16 @@ public class FotoNegocioService {
 
         // Cria e salva a foto
         FotoNegocio foto = FotoNegocio.builder()
-                .imagem(arquivo.getBytes())
+                .imagemChave(imagemService.salvar(arquivo))
                 .nomeArquivo(arquivo.getOriginalFilename())
                 .negocio(negocio)
                 .build();
 
         fotoNegocioRepository.save(foto);
+        variantesFotoService.agendar(foto.getId(), foto.getImagemChave());
     }
 
+    // Checagem rápida pelo que o cliente declarou; o conteúdo em si é conferido ao gravar (ImagemService)
     private void validarArquivo(MultipartFile arquivo) {
         if (arquivo.isEmpty()) {
             throw new IllegalArgumentException("Arquivo vazio.");
@@ -61,34 +67,74 @@ public class FotoNegocioService {
             throw new IllegalArgumentException("Formato inválido. Apenas JPEG ou PNG são aceitos.");
         }
 
-        if (arquivo.getSize() > MAX_FILE_SIZE) {
+        if (arquivo.getSize() > ImagemService.TAMANHO_MAXIMO) {
             throw new IllegalArgumentException("Arquivo muito grande. Máximo 5MB.");
         }
     }
 
-    // Mostra o byte inteiro
+    // Mostra a entidade (a imagem fica só referenciada pela chave)
     @Transactional(readOnly = true)
     public List<FotoNegocio> listarFotosDoNegocio(Integer negocioId) {
         return fotoNegocioRepository.findByNegocioId(negocioId);
     }
 
-    // Mostra apenas o url
+    // Mostra apenas o url (projeção: nenhuma entidade carregada)
     @Transactional(readOnly = true)
     public List<FotoNegocioDTO> listarFotosDoNegocioDTO(Integer negocioId) {
-        return fotoNegocioRepository.findByNegocioId(negocioId)
+        return fotoNegocioRepository.listarResumos(negocioId)
                 .stream()
-                .map(f -> new FotoNegocioDTO(
-                        f.getId(),
-                        f.getNomeArquivo(),
-                        "/negocios/" + negocioId + "/fotos/" + f.getId() // URL para download
-                ))
+                .map(f -> {
+                    String url = "/negocios/" + negocioId + "/fotos/" + f.id(); // URL para download
+                    return new FotoNegocioDTO(
+                            f.id(),
+                            f.nomeArquivo(),
+                            url,
+                            url + "?tamanho=" + TamanhoImagem.MINIATURA,
+                            url + "?tamanho=" + TamanhoImagem.CARTAO,
+                            url + "?tamanho=" + TamanhoImagem.COMPLETA
+                    );
+                })
                 .toList();
     }
 
+    // Sem tamanho: o arquivo original enviado
+    @Transactional(readOnly = true)
+    public ImagemDTO abrirFoto(Integer negocioId, Integer fotoId, TamanhoImagem tamanho) {
+        ArquivoFotoNegocio foto = fotoNegocioRepository.buscarArquivo(fotoId)
+                .orElseThrow(() -> new IllegalArgumentException("Foto não encontrada"));
+
+        if (!foto.negocioId().equals(negocioId)) {
+            throw new IllegalArgumentException("Foto não pertence a este negócio");
+        }
+
+        if (tamanho != null) {
+            String chave = foto.chave(tamanho);
+            if (chave != null) {
+                return imagemService.abrir(chave, nomeVariante(foto.nomeArquivo(), tamanho), MediaType.IMAGE_JPEG_VALUE);
+            }
+            // Variante ainda não gerada (fila cheia ou foto anterior às variantes): serve o original e agenda
+            variantesFotoService.agendar(fotoId, foto.imagemChave());
+        }
+
+        String contentType = foto.nomeArquivo().endsWith(".png") ?
+                MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE;
+
+        ImagemDTO original = imagemService.abrir(foto.imagemChave(), foto.nomeArquivo(), contentType);
+        original.setProvisoria(tamanho != null);
+        return original;
+    }
+
+    // vitrine.png -> vitrine-miniatura.jpg
+    private static String nomeVariante(String nomeArquivo, TamanhoImagem tamanho) {
+        int ponto = nomeArquivo.lastIndexOf('.');
+        String base = ponto > 0 ? nomeArquivo.substring(0, ponto) : nomeArquivo;
+        return base + "-" + tamanho.getSufixo() + ".jpg";
+    }
+
 
     @Transactional
     public void deletarFoto(Integer negocioId, Integer fotoId) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         FotoNegocio foto = fotoNegocioRepository.findById(fotoId)
@@ -101,13 +147,17 @@ public class FotoNegocioService {
         }
 
         // Apenas o dono do negócio ou ADMIN pode deletar
-        boolean isDono = negocio.getCriador().getId().equals(usuario.getId());
+        boolean isDono = negocio.getCriador().getId().equals(usuario.id());
 
         if (!isDono && !PermissaoUtils.isAdmin(usuario)) {
             throw new IllegalArgumentException("Você não tem permissão para deletar esta foto.");
         }
 
         fotoNegocioRepository.delete(foto);
+        imagemService.descartar(foto.getImagemChave());
+        imagemService.descartar(foto.getMiniaturaChave());
+        imagemService.descartar(foto.getCartaoChave());
+        imagemService.descartar(foto.getCompletaChave());
     }
 
 
@@ -0,0 +1,152 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.entity.BlobDescartado;
+import com.java360.agendei.domain.repository.BlobDescartadoRepository;
+import com.java360.agendei.domain.repository.FotoNegocioRepository;
+import com.java360.agendei.domain.repository.PrestadorRepository;
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlob;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
+import com.java360.agendei.infrastructure.imagem.EntradaImagem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImagemService {
+
+    static final String TAREFA_LIMPEZA = "remover-imagens-descartadas";
+    static final int TAMANHO_LOTE = 100;
+
+    // Tempo mínimo entre o descarte e a remoção: cobre o envio do mesmo conteúdo cuja linha
+    // ainda não tinha sido gravada quando o descarte aconteceu
+    static final Duration CARENCIA = Duration.ofHours(1);
+    private static final Duration DURACAO_TRAVA = Duration.ofMinutes(30);
+
+    private final ArmazenamentoBlob armazenamentoBlob;
+    private final FotoNegocioRepository fotoNegocioRepository;
+    private final PrestadorRepository prestadorRepository;
+    private final BlobDescartadoRepository blobDescartadoRepository;
+    private final TravaTarefaService travaTarefaService;
+    private final TransactionTemplate transactionTemplate;
+
+    public static final long TAMANHO_MAXIMO = 5 * 1024 * 1024; // 5MB
+
+    // Grava o arquivo no armazenamento e devolve a chave que fica na entidade. O conteúdo vai em fluxo
+    // (a parte do multipart já está em disco) e é validado no caminho: formato pelos bytes e tamanho máximo
+    public String salvar(MultipartFile arquivo) {
+        return gravar(() -> new EntradaImagem(arquivo.getInputStream(), TAMANHO_MAXIMO));
+    }
+
+    // Conteúdo gerado pela aplicação (variantes redimensionadas)
+    public String salvar(byte[] conteudo) {
+        return gravar(() -> new ByteArrayInputStream(conteudo));
+    }
+
+    // O armazenamento não regrava um conteúdo que já existe, e ele pode estar descartado à espera da varredura.
+    // Tira a chave da fila (se a varredura está removendo, o DELETE espera ela terminar) e, se ela chegou
+    // a remover, grava de novo
+    private String gravar(Conteudo conteudo) {
+        try {
+            String chave = enviar(conteudo);
+            blobDescartadoRepository.cancelarDescarte(chave);
+            if (!armazenamentoBlob.existe(chave)) {
+                enviar(conteudo);
+            }
+            return chave;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar a imagem.", e);
+        }
+    }
+
+    private String enviar(Conteudo conteudo) throws IOException {
+        try (InputStream entrada = conteudo.abrir()) {
+            return armazenamentoBlob.salvar(entrada);
+        }
+    }
+
+    // Só metadados aqui (no S3, um HEAD): o conteúdo é lido ao escrever a resposta, e não é lido se ela for 304
+    public ImagemDTO abrir(String chave, String nomeArquivo, String tipoConteudo) {
+        Resource conteudo = armazenamentoBlob.abrir(chave);
+        try {
+            return new ImagemDTO(nomeArquivo, tipoConteudo, chave, conteudo.lastModified(), conteudo, false);
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException("Arquivo não encontrado.");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // A mesma imagem pode estar em várias fotos/prestadores: a chave entra na fila de remoção
+    // (na transação de quem descartou) e a varredura só remove o conteúdo se ninguém mais o usar
+    public void descartar(String chave) {
+        if (chave == null) return;
+
+        blobDescartadoRepository.save(BlobDescartado.builder().chave(chave).descartadoEm(agora()).build());
+    }
+
+    @Scheduled(fixedRate = 3600000) // a cada hora, em apenas uma instância do cluster
+    public void removerDescartados() {
+        if (!travaTarefaService.adquirir(TAREFA_LIMPEZA, DURACAO_TRAVA)) {
+            return;
+        }
+
+        try {
+            LocalDateTime limite = agora().minus(CARENCIA);
+            long ultimo = 0;
+            List<BlobDescartado> lote;
+            do {
+                lote = blobDescartadoRepository.buscarVencidos(limite, ultimo, Limit.of(TAMANHO_LOTE));
+                for (BlobDescartado descartado : lote) {
+                    ultimo = descartado.getId();
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> removerSeSemUso(descartado.getId(), limite));
+                    } catch (RuntimeException e) {
+                        // fica na fila para a próxima rodada
+                        log.warn("Não foi possível remover a imagem {}: {}", descartado.getChave(), e.getMessage());
+                    }
+                }
+            } while (lote.size() == TAMANHO_LOTE && travaTarefaService.renovar(TAREFA_LIMPEZA, DURACAO_TRAVA));
+        } finally {
+            travaTarefaService.liberar(TAREFA_LIMPEZA);
+        }
+    }
+
+    // Uma transação por chave, com a linha da fila travada até o fim
+    private void removerSeSemUso(Long id, LocalDateTime limite) {
+        blobDescartadoRepository.travar(id).ifPresent(descartado -> {
+            String chave = descartado.getChave();
+            if (!blobDescartadoRepository.existsByChaveAndDescartadoEmAfter(chave, limite)
+                    && !fotoNegocioRepository.usaChave(chave)
+                    && !prestadorRepository.existsByFotoPerfilChave(chave)) {
+                armazenamentoBlob.remover(chave);
+            }
+            blobDescartadoRepository.delete(descartado);
+        });
+    }
+
+    private LocalDateTime agora() {
+        return LocalDateTime.now(ZoneId.of("America/Sao_Paulo"));
+    }
+
+    @FunctionalInterface
+    private interface Conteudo {
+        InputStream abrir() throws IOException;
+    }
+}
@@ -2,38 +2,74 @@ package com.java360.agendei.domain.applicationservice;
 
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.OrdenacaoBuscaNegocio;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.PlanoPrestador;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.domain.repository.projection.NegocioSemGeohash;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.dto.*;
 import com.java360.agendei.infrastructure.dto.negocio.*;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
 import com.java360.agendei.infrastructure.util.DistanciaUtils;
+import com.java360.agendei.infrastructure.util.GeoHashUtils;
 import com.java360.agendei.infrastructure.util.GeocodingService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class NegocioService {
+
+    private static final double RAIO_MAXIMO_KM = 100;
+    private static final int LIMITE_MAXIMO_BUSCA = 100;
+
+    static final String TAREFA_COORDENADAS = "preencher-coordenadas-negocios";
+    static final int LOTE_COORDENADAS = 100;
+    private static final Duration DURACAO_TRAVA_COORDENADAS = Duration.ofMinutes(10);
+    // Endereço não encontrado (ou geocoder fora do ar): não volta ao Google a cada rodada
+    private static final Duration NOVA_TENTATIVA_GEOCODIFICACAO = Duration.ofDays(1);
+
     private final NegocioRepository negocioRepository;
     private final UsuarioRepository usuarioRepository;
     private final ServicoRepository servicoRepository;
     private final PrestadorRepository prestadorRepository;
     private final GeocodingService geocodingService;
     private final AgendamentoRepository agendamentoRepository;
+    private final CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    private final ResumoAgendamentoService resumoAgendamentoService;
+    private final IndiceBuscaService indiceBuscaService;
+    private final SugestaoBuscaService sugestaoBuscaService;
+    private final UsuarioPrincipalService usuarioPrincipalService;
+    private final TravaTarefaService travaTarefaService;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public NegocioDTO criarNegocio(CreateNegocioDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Prestador prestador = (Prestador) usuario;
+        Prestador prestador = (Prestador) UsuarioAutenticado.get(); // vinculado ao negócio criado
 
         if (prestador.getNegocio() != null) {
             throw new IllegalArgumentException("Você já está vinculado a um negócio. Saia do atual antes de criar outro.");
@@ -52,26 +88,30 @@ public class NegocioService {
                 .criador(prestador)
                 .ativo(false) // por padrão negocio é criado desativo
                 .build();
+        atualizarCoordenadas(negocio);
 
         Negocio criado = negocioRepository.save(negocio);
+        indiceBuscaService.atualizarNegocio(criado);
+        sugestaoBuscaService.atualizarNegocio(criado);
 
         prestador.setNegocio(criado);
         usuarioRepository.save(prestador); // ou prestadorRepository.save(prestador)
+        usuarioPrincipalService.invalidar(prestador.getId());
 
         return NegocioDTO.fromEntity(criado);
     }
 
     @Transactional
     public NegocioDTO atualizarNegocio(Integer id, UpdateNegocioDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         Negocio negocio = negocioRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Negócio não encontrado."));
 
         boolean isAdmin = PermissaoUtils.isAdmin(usuario);
-        boolean isPrestador = usuario.getPerfil() == PerfilUsuario.PRESTADOR;
-        boolean isDono = isPrestador && negocio.getCriador().getId().equals(usuario.getId());
+        boolean isPrestador = usuario.perfil() == PerfilUsuario.PRESTADOR;
+        boolean isDono = isPrestador && negocio.getCriador().getId().equals(usuario.id());
 
         if (!isDono && !isAdmin) {
             throw new SecurityException("Você não tem permissão para atualizar este negócio.");
@@ -94,6 +134,11 @@ public class NegocioService {
             if (dto.getCep() != null) negocio.setCep(dto.getCep());
             if (dto.getCategoria() != null) negocio.setCategoria(dto.getCategoria());
             if (dto.getAtivo() != null) negocio.setAtivo(dto.getAtivo());
+
+            // Endereço alterado: recalcula as coordenadas
+            if (dto.getEndereco() != null || dto.getNumero() != null || dto.getCep() != null) {
+                atualizarCoordenadas(negocio);
+            }
         }
 
         if (isDono && !isAdmin) {
@@ -111,22 +156,24 @@ public class NegocioService {
         }
 
         Negocio atualizado = negocioRepository.save(negocio);
+        indiceBuscaService.atualizarNegocio(atualizado);
+        sugestaoBuscaService.atualizarNegocio(atualizado);
         return NegocioDTO.fromEntity(atualizado);
     }
 
 
     @Transactional
     public void convidarPrestadorParaNegocio(ConviteNegocioDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Prestador prestadorDono = (Prestador) usuario;
-        Negocio negocio = prestadorDono.getNegocio();
-        if (negocio == null) {
+        if (usuario.negocioId() == null) {
             throw new IllegalArgumentException("Você não está vinculado a nenhum negócio.");
         }
+        Negocio negocio = negocioRepository.findById(usuario.negocioId())
+                .orElseThrow(() -> new IllegalArgumentException("Você não está vinculado a nenhum negócio."));
 
-        if (!negocio.getCriador().getId().equals(prestadorDono.getId()) && !PermissaoUtils.isAdmin(usuario)) {
+        if (!negocio.getCriador().getId().equals(usuario.id()) && !PermissaoUtils.isAdmin(usuario)) {
             throw new IllegalArgumentException("Apenas o dono do negócio pode convidar prestadores.");
         }
 
@@ -134,7 +181,7 @@ public class NegocioService {
         String emailNormalizado = dto.getEmailPrestador().toLowerCase().trim();
 
         // Verifica o limite do plano
-        PlanoPrestador plano = prestadorDono.getPlano();
+        PlanoPrestador plano = usuario.plano();
         long quantidadeAtual = prestadorRepository.findByNegocio_Id(negocio.getId()).size() - 1;
 
         if (quantidadeAtual >= plano.getLimiteConvites()) {
@@ -158,6 +205,7 @@ public class NegocioService {
 
         prestadorConvidado.setNegocio(negocio);
         usuarioRepository.save(prestadorConvidado);
+        usuarioPrincipalService.invalidar(prestadorConvidado.getId());
     }
 
 
@@ -165,10 +213,9 @@ public class NegocioService {
     // Sair prestador convidado
     @Transactional
     public void sairDoNegocio() {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Prestador prestador = (Prestador) usuario;
+        Prestador prestador = (Prestador) UsuarioAutenticado.get(); // desvinculado do negócio no final
 
         Negocio negocio = prestador.getNegocio();
         if (negocio == null) {
@@ -182,28 +229,36 @@ public class NegocioService {
         // Desativa os serviços ativos desse prestador nesse negócio
         List<Servico> servicos = servicoRepository.findByPrestadorIdAndNegocioId(prestador.getId(), negocio.getId());
         servicos.forEach(s -> s.setAtivo(false));
+        indiceBuscaService.atualizarServicos(servicos);
+        sugestaoBuscaService.atualizarServicos(servicos);
 
         // Cancela agendamentos pendentes
         List<Agendamento> agendamentosAtivos = agendamentoRepository.findByPrestadorId(prestador.getId());
         agendamentosAtivos.stream()
                 .filter(a -> a.getStatus() == StatusAgendamento.PENDENTE)
-                .forEach(a -> a.setStatus(StatusAgendamento.CANCELADO));
+                .filter(a -> agendamentoRepository.alterarStatus(a.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO) == 1)
+                .forEach(a -> {
+                    a.setStatus(StatusAgendamento.CANCELADO);
+                    resumoAgendamentoService.registrarTransicao(a, StatusAgendamento.PENDENTE);
+                });
+        calendarioDisponibilidadeService.invalidarPrestador(prestador.getId());
 
         // Desvincula o prestador do negócio
         prestador.setNegocio(null);
         usuarioRepository.save(prestador); // ou prestadorRepository.save(prestador);
+        usuarioPrincipalService.invalidar(prestador.getId());
     }
 
     // Sair APENAS DONO
     @Transactional
     public void excluirNegocio(Integer negocioId) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         Negocio negocio = negocioRepository.findById(negocioId)
                 .orElseThrow(() -> new IllegalArgumentException("Negócio não encontrado."));
 
-        if (!negocio.getCriador().getId().equals(usuario.getId()) &&
+        if (!negocio.getCriador().getId().equals(usuario.id()) &&
                 !PermissaoUtils.isAdmin(usuario)) {
             throw new IllegalArgumentException("Apenas o dono do negócio pode excluí-lo.");
         }
@@ -213,6 +268,9 @@ public class NegocioService {
         // Desativa serviços
         List<Servico> servicos = servicoRepository.findByNegocio_IdAndAtivoTrue(negocioId);
         servicos.forEach(s -> s.setAtivo(false));
+        indiceBuscaService.atualizarServicos(servicos);
+        sugestaoBuscaService.atualizarServicos(servicos);
+        sugestaoBuscaService.atualizarNegocio(negocio);
 
         // Desvincula prestadores e cancela agendamentos de todos
         List<Prestador> prestadores = prestadorRepository.findByNegocio_Id(negocioId);
@@ -221,139 +279,171 @@ public class NegocioService {
             List<Agendamento> ags = agendamentoRepository.findByPrestadorId(p.getId());
             ags.stream()
                     .filter(a -> a.getStatus() == StatusAgendamento.PENDENTE)
-                    .forEach(a -> a.setStatus(StatusAgendamento.CANCELADO));
+                    .filter(a -> agendamentoRepository.alterarStatus(a.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO) == 1)
+                    .forEach(a -> {
+                        a.setStatus(StatusAgendamento.CANCELADO);
+                        resumoAgendamentoService.registrarTransicao(a, StatusAgendamento.PENDENTE);
+                    });
+            calendarioDisponibilidadeService.invalidarPrestador(p.getId());
 
             p.setNegocio(null);
+            usuarioPrincipalService.invalidar(p.getId());
         }
     }
 
+    // Busca única de negócios: filtros, raio, ordenação e paginação avaliados em uma consulta.
+    // Lê no máximo tamanho + 1 linhas, independente do tamanho do catálogo.
     @Transactional
-    public List<NegocioBuscaDTO> buscarNegociosProximos(String nome, CategoriaNegocio categoria) {
+    public PaginaNegociosDTO buscarNegocios(String nome, CategoriaNegocio categoria, Double notaMinima, double raioKm,
+                                            OrdenacaoBuscaNegocio ordenacao, int pagina, int tamanho) {
+        return buscar(clienteDaBusca("Somente clientes podem buscar negócios."),
+                nome, categoria, notaMinima, raioKm, ordenacao, pagina, tamanho);
+    }
 
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
+    @Transactional
+    public List<NegocioBuscaDTO> buscarNegociosProximos(String nome, CategoriaNegocio categoria, double raioKm, int limite) {
+        return buscar(clienteDaBusca("Somente clientes podem buscar negócios próximos."),
+                nome, categoria, null, raioKm, OrdenacaoBuscaNegocio.DISTANCIA, 0, limite).getNegocios();
+    }
 
-        if (!(usuario instanceof Cliente cliente)) {
-            throw new IllegalArgumentException("Somente clientes podem buscar negócios próximos.");
-        }
+    @Transactional
+    public List<NegocioBuscaDTO> buscarNegociosPorAvaliacao(Double notaMinima, double raioKm, int limite) {
+        return buscar(clienteDaBusca("Somente clientes podem buscar negócios por avaliação."),
+                null, null, notaMinima, raioKm, OrdenacaoBuscaNegocio.AVALIACAO, 0, limite).getNegocios();
+    }
 
-        if (cliente.getEndereco() == null || cliente.getNumero() == null || cliente.getCep() == null) {
-            throw new IllegalArgumentException("Cliente precisa ter endereço completo cadastrado.");
+    private PaginaNegociosDTO buscar(Cliente cliente, String nome, CategoriaNegocio categoria, Double notaMinima, double raioKm,
+                                     OrdenacaoBuscaNegocio ordenacao, int pagina, int tamanho) {
+        validarRaioELimite(raioKm, tamanho);
+        if (pagina < 0) {
+            throw new IllegalArgumentException("A página deve ser maior ou igual a 0.");
         }
 
-        String enderecoCliente = cliente.getEndereco() + ", " + cliente.getNumero() + ", " + cliente.getCep() + ", Brasil";
+        LatLngDTO origem = localizarCliente(cliente);
 
-        LatLngDTO clienteLatLng = geocodingService.buscarLatLong(enderecoCliente);
+        Specification<Negocio> filtro = NegocioSpecifications.ativo();
+        if (nome != null && !nome.isBlank()) filtro = filtro.and(NegocioSpecifications.nomeContem(nome.trim()));
+        if (categoria != null) filtro = filtro.and(NegocioSpecifications.categoria(categoria));
+        if (notaMinima != null && notaMinima > 0) filtro = filtro.and(NegocioSpecifications.notaMinima(notaMinima));
 
-        List<Negocio> negocios = negocioRepository.findByAtivoTrue().stream()
-                .filter(n -> nome == null || n.getNome().toLowerCase().contains(nome.toLowerCase()))
-                .filter(n -> categoria == null || n.getCategoria() == categoria)
-                .toList();
-
-        if (clienteLatLng == null) {
-            // Retorna negócios sem calcular distância
-            return negocios.stream()
-                    .map(n -> NegocioBuscaDTO.fromEntity(n, 0.0))
-                    .toList();
+        // Cliente localizado: faixas do índice de geohash + raio; sem localização a busca segue sem distância
+        if (origem != null) {
+            Set<String> celulas = GeoHashUtils.celulasDoRaio(origem.getLat(), origem.getLng(), raioKm);
+            filtro = filtro
+                    .and(NegocioSpecifications.geohashEm(celulas))
+                    .and(NegocioSpecifications.dentroDoRaio(origem.getLat(), origem.getLng(), raioKm));
         }
+        filtro = filtro.and(NegocioSpecifications.ordenadoPor(ordenacao, origem));
 
-        return negocios.stream()
-                .map(n -> {
-                    try {
-                        String enderecoNegocio = montarEnderecoCompleto(n);
-                        LatLngDTO negocioLatLng = geocodingService.buscarLatLong(enderecoNegocio);
-
-                        if (negocioLatLng == null) return null;
-
-                        double distancia = DistanciaUtils.calcularDistancia(
-                                clienteLatLng.getLat(), clienteLatLng.getLng(),
-                                negocioLatLng.getLat(), negocioLatLng.getLng()
-                        );
-
-                        return NegocioBuscaDTO.fromEntity(n, distancia);
-
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
-                .filter(dto -> dto != null && dto.getDistanciaKm() <= 20.0)
-                .sorted((a, b) -> Double.compare(a.getDistanciaKm(), b.getDistanciaKm()))
-                .toList();
-    }
+        ScrollPosition posicao = pagina == 0 ? ScrollPosition.offset() : ScrollPosition.offset((long) pagina * tamanho - 1);
+        Window<Negocio> janela = negocioRepository.findBy(filtro, q -> q.limit(tamanho).scroll(posicao));
 
-    private String montarEnderecoCompleto(Negocio n) {
-        return n.getEndereco() + ", " + n.getNumero() + ", " + n.getCep() + ", Brasil";
+        List<NegocioBuscaDTO> negocios = janela.getContent().stream()
+                .map(n -> NegocioBuscaDTO.fromEntity(n, origem == null ? 0.0 : DistanciaUtils.calcularDistancia(
+                        origem.getLat(), origem.getLng(), n.getLatitude(), n.getLongitude())))
+                .toList();
+        return new PaginaNegociosDTO(negocios, janela.hasNext() ? pagina + 1 : null);
     }
 
-
-
-    @Transactional
-    public List<NegocioBuscaDTO> buscarNegociosPorAvaliacao(Double notaMinima) {
-
+    // Cliente autenticado com endereço completo (a busca parte do endereço dele)
+    private Cliente clienteDaBusca(String mensagemPerfil) {
         Usuario usuario = UsuarioAutenticado.get();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.CLIENTE);
 
         if (!(usuario instanceof Cliente cliente)) {
-            throw new IllegalArgumentException("Somente clientes podem buscar negócios por avaliação.");
+            throw new IllegalArgumentException(mensagemPerfil);
         }
 
-        // Cliente deve ter endereço completo
         if (cliente.getEndereco() == null || cliente.getNumero() == null || cliente.getCep() == null) {
             throw new IllegalArgumentException("Cliente precisa ter endereço completo cadastrado.");
         }
+        return cliente;
+    }
 
-        String enderecoCliente = cliente.getEndereco() + ", " +
-                cliente.getNumero() + ", " +
-                cliente.getCep() + ", Brasil";
+    private void validarRaioELimite(double raioKm, int limite) {
+        if (raioKm <= 0 || raioKm > RAIO_MAXIMO_KM) {
+            throw new IllegalArgumentException("O raio deve estar entre 0 e " + (int) RAIO_MAXIMO_KM + " km.");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO_BUSCA) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_BUSCA + ".");
+        }
+    }
 
-        LatLngDTO clienteLatLng = geocodingService.buscarLatLong(enderecoCliente);
+    // Coordenadas gravadas do cliente; cadastros anteriores às colunas são geocodificados uma vez e salvos
+    private LatLngDTO localizarCliente(Cliente cliente) {
+        if (cliente.getLatitude() == null || cliente.getLongitude() == null) {
+            LatLngDTO latLng = geocodingService.buscarLatLong(cliente.getEndereco(), cliente.getNumero(), cliente.getCep());
+            if (latLng == null) return null;
 
-        double notaMin = (notaMinima != null) ? notaMinima : 0.0;
+            cliente.setLatitude(latLng.getLat());
+            cliente.setLongitude(latLng.getLng());
+            usuarioRepository.save(cliente);
+        }
+        return new LatLngDTO(cliente.getLatitude(), cliente.getLongitude());
+    }
 
-        List<Negocio> negocios = negocioRepository.findByAtivoTrue().stream()
-                .filter(n -> (n.getNotaMedia() != null ? n.getNotaMedia() : 0.0) >= notaMin)
-                .filter(n -> n.getEndereco() != null && n.getNumero() != null && n.getCep() != null)
-                .toList();
+    // Negócios sem geohash (cadastros anteriores às colunas de coordenadas, ou geocoder fora do ar no cadastro)
+    // ficam fora da busca. Roda fora da subida, em apenas uma instância do cluster: cada lote é geocodificado
+    // sem transação aberta e gravado depois numa transação curta
+    @Scheduled(initialDelay = 60000, fixedDelay = 21600000) // 1 minuto após a subida, depois a cada 6 horas
+    public void preencherCoordenadasPendentes() {
+        if (!travaTarefaService.adquirir(TAREFA_COORDENADAS, DURACAO_TRAVA_COORDENADAS)) {
+            return;
+        }
 
-        // Se não conseguiu localizar o cliente, retorna sem distância
-        if (clienteLatLng == null) {
-            return negocios.stream()
-                    .map(n -> NegocioBuscaDTO.fromEntity(n, 0.0))
-                    .toList();
+        try {
+            LocalDateTime agora = LocalDateTime.now(ZoneId.of("America/Sao_Paulo"));
+            LocalDateTime tentarAntesDe = agora.minus(NOVA_TENTATIVA_GEOCODIFICACAO);
+            int ultimoId = 0;
+            List<NegocioSemGeohash> lote;
+            do {
+                lote = negocioRepository.buscarSemGeohash(tentarAntesDe, ultimoId, Limit.of(LOTE_COORDENADAS));
+                if (lote.isEmpty()) return;
+
+                ultimoId = lote.get(lote.size() - 1).id();
+                preencherLote(lote, agora);
+            } while (lote.size() == LOTE_COORDENADAS
+                    && travaTarefaService.renovar(TAREFA_COORDENADAS, DURACAO_TRAVA_COORDENADAS));
+        } finally {
+            travaTarefaService.liberar(TAREFA_COORDENADAS);
         }
+    }
 
-        return negocios.stream()
-                .map(n -> {
-                    try {
-                        // Endereço completo do negócio
-                        String enderecoNegocio = n.getEndereco() + ", " +
-                                n.getNumero() + ", " +
-                                n.getCep() + ", Brasil";
-
-                        LatLngDTO negocioLatLng = geocodingService.buscarLatLong(enderecoNegocio);
-
-                        if (negocioLatLng == null) return null;
-
-                        double distancia = DistanciaUtils.calcularDistancia(
-                                clienteLatLng.getLat(), clienteLatLng.getLng(),
-                                negocioLatLng.getLat(), negocioLatLng.getLng()
-                        );
-                        return NegocioBuscaDTO.fromEntity(n, distancia);
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
-                .filter(dto -> dto != null && dto.getDistanciaKm() <= 20.0)
-                .sorted((a, b) -> Double.compare(
-                        b.getNotaMedia() != null ? b.getNotaMedia() : 0.0,
-                        a.getNotaMedia() != null ? a.getNotaMedia() : 0.0
-                ))
+    private void preencherLote(List<NegocioSemGeohash> lote, LocalDateTime agora) {
+        // Endereços ainda sem coordenadas: consultados em paralelo
+        List<String> enderecos = lote.stream()
+                .filter(n -> !n.temCoordenadas())
+                .map(NegocioSemGeohash::enderecoCompleto)
                 .toList();
+        Map<String, LatLngDTO> encontrados = enderecos.isEmpty()
+                ? Map.of()
+                : geocodingService.buscarLatLongEmLote(enderecos).join();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (NegocioSemGeohash negocio : lote) {
+                LatLngDTO latLng = negocio.temCoordenadas()
+                        ? new LatLngDTO(negocio.latitude(), negocio.longitude())
+                        : encontrados.get(negocio.enderecoCompleto());
+
+                if (latLng == null) {
+                    negocioRepository.marcarFalhaGeocodificacao(negocio.id(),
+                            negocio.endereco(), negocio.numero(), negocio.cep(), agora);
+                } else {
+                    negocioRepository.definirCoordenadas(negocio.id(),
+                            negocio.endereco(), negocio.numero(), negocio.cep(),
+                            latLng.getLat(), latLng.getLng(), GeoHashUtils.codificar(latLng.getLat(), latLng.getLng()));
+                }
+            }
+        });
     }
 
-
-
-
+    private void atualizarCoordenadas(Negocio negocio) {
+        LatLngDTO latLng = geocodingService.buscarLatLong(negocio.getEndereco(), negocio.getNumero(), negocio.getCep());
+        negocio.setLatitude(latLng != null ? latLng.getLat() : null);
+        negocio.setLongitude(latLng != null ? latLng.getLng() : null);
+        negocio.setGeohash(latLng != null ? GeoHashUtils.codificar(latLng.getLat(), latLng.getLng()) : null);
+        negocio.setGeocodificacaoFalhouEm(null); // endereço novo: o preenchimento tenta já na próxima rodada
+    }
 
     @Transactional
     public NegocioDTO buscarNegocioPorId(Integer id) {
@@ -365,8 +455,7 @@ public class NegocioService {
     // Lista todos negocios Admin
     @Transactional
     public List<NegocioResumoDTO> listarTodosNegocios() {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.ADMIN);
 
         List<Negocio> negocios = negocioRepository.findAll();
         return negocios.stream()
@@ -376,15 +465,19 @@ public class NegocioService {
 
     @Transactional
     public List<NegocioResumoDTO> buscarNegociosPorNome(String nome) {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.ADMIN);
 
         if (nome == null || nome.isBlank()) {
             throw new IllegalArgumentException("O nome do negócio não pode estar vazio.");
         }
 
-        List<Negocio> negocios = negocioRepository.findByNomeContainingIgnoreCase(nome);
-        return negocios.stream()
+        // Índice de busca: sem acento, pelo radical e ordenado por relevância
+        List<Integer> ids = indiceBuscaService.buscarNegocios(nome, 0, LIMITE_MAXIMO_BUSCA).ids();
+        Map<Integer, Negocio> negocios = negocioRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Negocio::getId, n -> n));
+        return ids.stream()
+                .map(negocios::get)
+                .filter(Objects::nonNull)
                 .map(NegocioResumoDTO::fromEntity)
                 .toList();
     }
@@ -1,16 +1,17 @@
 package com.java360.agendei.domain.applicationservice;
 
-import com.java360.agendei.domain.entity.Agendamento;
 import com.java360.agendei.domain.entity.Negocio;
 import com.java360.agendei.domain.entity.Prestador;
-import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.PerfilUsuario;
-import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.domain.repository.projection.TotalPorPeriodo;
+import com.java360.agendei.domain.repository.projection.TotalPorPrestador;
+import com.java360.agendei.domain.repository.projection.TotalResumo;
 import com.java360.agendei.infrastructure.dto.admin.ResumoAdministrativoDTO;
 import com.java360.agendei.infrastructure.dto.relatorios.*;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -21,12 +22,13 @@ import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class RelatorioService {
 
-    private final AgendamentoRepository agendamentoRepository;
+    private final ResumoAgendamentoRepository resumoAgendamentoRepository;
     private final NegocioRepository negocioRepository;
     private final PrestadorRepository prestadorRepository;
     private final UsuarioRepository usuarioRepository;
@@ -34,11 +36,11 @@ public class RelatorioService {
 
 
     private Integer getPrestadorIdFromToken() {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        if (usuario instanceof Prestador prestador) {
-            return prestador.getId();
+        if (usuario.perfil() == PerfilUsuario.PRESTADOR) {
+            return usuario.id();
         }
 
         throw new SecurityException("Somente prestadores ou administradores podem acessar os relatórios.");
@@ -48,26 +50,14 @@ public class RelatorioService {
     public RelatorioFinanceiroDTO relatorioFinanceiroMensal(YearMonth mes) {
         Integer prestadorId  = getPrestadorIdFromToken();
 
-        LocalDate inicio = mes.atDay(1);
-        LocalDate fim = mes.atEndOfMonth();
+        // Contadores do mês já agregados (resumo_agendamentos)
+        TotalResumo resumo = resumoAgendamentoRepository.totalizarMes(prestadorId, mes.atDay(1));
 
-        var agendamentos = agendamentoRepository
-                .findByPrestadorIdAndDataHoraBetween(prestadorId, inicio.atStartOfDay(), fim.atTime(23, 59));
+        BigDecimal ganhosEsperados = resumo.valorPendente();
+        BigDecimal ganhosRealizados = resumo.valorConcluido();
 
-        BigDecimal ganhosEsperados = agendamentos.stream()
-                .filter(a -> a.getStatus() == StatusAgendamento.PENDENTE) // <-- filtra apenas pendentes
-                .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal ganhosRealizados = agendamentos.stream()
-                .filter(a -> a.getStatus() == StatusAgendamento.CONCLUIDO)
-                .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long total = agendamentos.size();
-        long cancelados = agendamentos.stream()
-                .filter(a -> a.getStatus() == StatusAgendamento.CANCELADO)
-                .count();
+        long total = resumo.total();
+        long cancelados = resumo.cancelados();
 
         // a taxa de cancelamento é a porcentagem total de agendamentos dividido pelos agendamentos cancelados
         double taxaCancelamento = total > 0 ? (cancelados * 100.0 / total) : 0;
@@ -79,22 +69,15 @@ public class RelatorioService {
     public List<EvolucaoMensalDTO> evolucaoMensal(int ano) {
         Integer prestadorId = getPrestadorIdFromToken();
 
-        return java.util.stream.IntStream.rangeClosed(1, 12)
-                .mapToObj(m -> {
-                    YearMonth mes = YearMonth.of(ano, m);
-                    LocalDate inicio = mes.atDay(1);
-                    LocalDate fim = mes.atEndOfMonth();
-
-                    BigDecimal total = agendamentoRepository
-                            .findByPrestadorIdAndStatusAndDataHoraBetween(
-                                    prestadorId, StatusAgendamento.CONCLUIDO,
-                                    inicio.atStartOfDay(), fim.atTime(23, 59))
-                            .stream()
-                            .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return new EvolucaoMensalDTO(mes, total);
-                })
+        // Meses sem agendamentos concluídos não vêm do banco
+        Map<Integer, BigDecimal> faturamentoPorMes = resumoAgendamentoRepository
+                .totalizarPorMes(prestadorId, LocalDate.of(ano, 1, 1), LocalDate.of(ano + 1, 1, 1))
+                .stream()
+                .collect(Collectors.toMap(TotalPorPeriodo::periodo, TotalPorPeriodo::valorTotal));
+
+        return IntStream.rangeClosed(1, 12)
+                .mapToObj(m -> new EvolucaoMensalDTO(
+                        YearMonth.of(ano, m), faturamentoPorMes.getOrDefault(m, BigDecimal.ZERO)))
                 .toList();
     }
 
@@ -102,21 +85,13 @@ public class RelatorioService {
     public List<EvolucaoAnualDTO> evolucaoAnual(int anoInicio, int anoFim) {
         Integer prestadorId = getPrestadorIdFromToken();
 
-        return java.util.stream.IntStream.rangeClosed(anoInicio, anoFim)
-                .mapToObj(ano -> {
-                    LocalDate inicio = LocalDate.of(ano, 1, 1);
-                    LocalDate fim = LocalDate.of(ano, 12, 31);
-
-                    BigDecimal total = agendamentoRepository
-                            .findByPrestadorIdAndStatusAndDataHoraBetween(
-                                    prestadorId, StatusAgendamento.CONCLUIDO,
-                                    inicio.atStartOfDay(), fim.atTime(23, 59))
-                            .stream()
-                            .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return new EvolucaoAnualDTO(ano, total);
-                })
+        Map<Integer, BigDecimal> faturamentoPorAno = resumoAgendamentoRepository
+                .totalizarPorAno(prestadorId, LocalDate.of(anoInicio, 1, 1), LocalDate.of(anoFim + 1, 1, 1))
+                .stream()
+                .collect(Collectors.toMap(TotalPorPeriodo::periodo, TotalPorPeriodo::valorTotal));
+
+        return IntStream.rangeClosed(anoInicio, anoFim)
+                .mapToObj(ano -> new EvolucaoAnualDTO(ano, faturamentoPorAno.getOrDefault(ano, BigDecimal.ZERO)))
                 .toList();
     }
 
@@ -124,32 +99,16 @@ public class RelatorioService {
     public List<ServicoMaisVendidoDTO> servicosMaisVendidos(YearMonth mes) {
         Integer prestadorId = getPrestadorIdFromToken();
 
-        LocalDate inicio = mes.atDay(1);
-        LocalDate fim = mes.atEndOfMonth();
-
-        var agendamentos = agendamentoRepository
-                .findByPrestadorIdAndStatusAndDataHoraBetween(
-                        prestadorId, StatusAgendamento.CONCLUIDO,
-                        inicio.atStartOfDay(), fim.atTime(23, 59));
-
-        Map<String, List<Agendamento>> agrupado = agendamentos.stream()
-                .collect(Collectors.groupingBy(a -> a.getServico().getTitulo()));
-
-        return agrupado.entrySet().stream()
-                .map(e -> new ServicoMaisVendidoDTO(
-                        e.getKey(),
-                        e.getValue().size(),
-                        e.getValue().stream()
-                                .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                ))
-                .sorted((a, b) -> Long.compare(b.getQuantidadeAgendamentos(), a.getQuantidadeAgendamentos()))
+        return resumoAgendamentoRepository
+                .totalizarPorServico(prestadorId, mes.atDay(1))
+                .stream()
+                .map(t -> new ServicoMaisVendidoDTO(t.titulo(), t.quantidade(), t.valorTotal()))
                 .toList();
     }
 
     @Transactional
     public RelatorioNegocioDTO relatorioNegocio(Integer negocioId, YearMonth mes) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         // Buscar o negócio
@@ -157,53 +116,41 @@ public class RelatorioService {
                 .orElseThrow(() -> new IllegalArgumentException("Negócio não encontrado."));
 
         // Apenas o dono ou admin pode ver
-        boolean isDono = negocio.getCriador().getId().equals(usuario.getId());
+        boolean isDono = negocio.getCriador().getId().equals(usuario.id());
         if (!isDono && !PermissaoUtils.isAdmin(usuario)) {
             throw new SecurityException("Apenas o dono do negócio pode visualizar este relatório.");
         }
 
-        LocalDate inicio = mes.atDay(1);
-        LocalDate fim = mes.atEndOfMonth();
-
-        // Buscar todos agendamentos no período
-        List<Agendamento> agendamentos = agendamentoRepository.findAll().stream()
-                .filter(a -> a.getPrestador() != null)
-                .filter(a -> a.getPrestador().getNegocio() != null)
-                .filter(a -> a.getPrestador().getNegocio().getId().equals(negocioId))
-                .filter(a -> !a.getDataHora().isBefore(inicio.atStartOfDay()) && !a.getDataHora().isAfter(fim.atTime(23, 59)))
-                .toList();
+        // Totais de cada prestador do negócio no mês (resumo_agendamentos)
+        Map<Integer, TotalPorPrestador> totais = resumoAgendamentoRepository
+                .totalizarPorPrestadorDoNegocio(negocioId, mes.atDay(1))
+                .stream()
+                .collect(Collectors.toMap(TotalPorPrestador::prestadorId, t -> t));
 
         // Totais gerais
-        BigDecimal ganhosTotais = agendamentos.stream()
-                .filter(a -> a.getStatus() == StatusAgendamento.CONCLUIDO)
-                .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
+        BigDecimal ganhosTotais = totais.values().stream()
+                .map(TotalPorPrestador::valorConcluido)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        long totalServicos = agendamentos.stream()
-                .filter(a -> a.getStatus() == StatusAgendamento.CONCLUIDO)
-                .count();
+        long totalServicos = totais.values().stream()
+                .mapToLong(TotalPorPrestador::concluidos)
+                .sum();
 
-        // Lista de prestadores do negócio
+        // Lista de prestadores do negócio (inclui os que não tiveram agendamentos no mês)
         List<Prestador> todosPrestadores = prestadorRepository.findByNegocio_Id(negocioId);
 
         // Monta relatório por prestador
         List<PrestadorRelatorioDTO> relatorioPrestadores = todosPrestadores.stream().map(prestador -> {
-            List<Agendamento> agsPrestador = agendamentos.stream()
-                    .filter(a -> a.getPrestador().getId().equals(prestador.getId()))
-                    .toList();
-
-            // ganhos
-            BigDecimal ganhos = agsPrestador.stream()
-                    .filter(a -> a.getStatus() == StatusAgendamento.CONCLUIDO)
-                    .map(a -> BigDecimal.valueOf(a.getServico().getValor()))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            TotalPorPrestador total = totais.get(prestador.getId());
+            if (total == null) {
+                return new PrestadorRelatorioDTO(prestador.getId(), prestador.getNome(), BigDecimal.ZERO, 0.0);
+            }
 
             // taxa de cancelamento
-            long total = agsPrestador.size();
-            long cancelados = agsPrestador.stream().filter(a -> a.getStatus() == StatusAgendamento.CANCELADO).count();
-            double taxaCancelamento = total > 0 ? (cancelados * 100.0 / total) : 0.0;
+            double taxaCancelamento = total.quantidade() > 0 ? (total.cancelados() * 100.0 / total.quantidade()) : 0.0;
 
-            return new PrestadorRelatorioDTO(prestador.getId(), prestador.getNome(), ganhos, taxaCancelamento);
+            return new PrestadorRelatorioDTO(prestador.getId(), prestador.getNome(),
+                    total.valorConcluido(), taxaCancelamento);
         }).toList();
 
         return new RelatorioNegocioDTO(
@@ -217,8 +164,7 @@ public class RelatorioService {
 
     @Transactional
     public ResumoAdministrativoDTO resumoAdministrativo() {
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.ADMIN);
 
         long totalPrestadores = usuarioRepository.countByPerfil(PerfilUsuario.PRESTADOR);
         long totalClientes = usuarioRepository.countByPerfil(PerfilUsuario.CLIENTE);
@@ -226,7 +172,7 @@ public class RelatorioService {
         long totalServicosAtivos = servicoRepository.countByAtivoTrue();
         long totalNegociosAtivos = negocioRepository.countByAtivoTrue();
 
-        long totalAgendamentos = agendamentoRepository.count();
+        long totalAgendamentos = resumoAgendamentoRepository.contarAgendamentos();
 
         return new ResumoAdministrativoDTO(
                 totalPrestadores,
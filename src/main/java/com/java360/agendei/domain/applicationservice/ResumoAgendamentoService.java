@@ -0,0 +1,196 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.entity.Agendamento;
+import com.java360.agendei.domain.entity.ResumoAgendamento;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.PeriodoResumo;
+import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.ResumoAgendamentoRepository;
+import com.java360.agendei.domain.repository.projection.ContagemDiaria;
+import com.java360.agendei.infrastructure.persistence.ResumoAgendamentoUpsert;
+import com.java360.agendei.infrastructure.security.PermissaoUtils;
+import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Mantém a tabela resumo_agendamentos (contadores por dia/mês, prestador e serviço) lida pelos relatórios.
+// Cada mudança de status aplica um delta na mesma transação do agendamento.
+@Slf4j
+@Service
+public class ResumoAgendamentoService {
+
+    static final String TAREFA_RECONSTRUCAO = "reconstruir-resumo-agendamentos";
+    private static final Duration DURACAO_TRAVA_RECONSTRUCAO = Duration.ofMinutes(30);
+
+    private final ResumoAgendamentoRepository resumoAgendamentoRepository;
+    private final AgendamentoRepository agendamentoRepository;
+    private final TravaTarefaService travaTarefaService;
+    private final ResumoAgendamentoUpsert resumoAgendamentoUpsert;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumoAgendamentoService(ResumoAgendamentoRepository resumoAgendamentoRepository,
+                                    AgendamentoRepository agendamentoRepository,
+                                    TravaTarefaService travaTarefaService,
+                                    ResumoAgendamentoUpsert resumoAgendamentoUpsert,
+                                    PlatformTransactionManager transactionManager) {
+        this.resumoAgendamentoRepository = resumoAgendamentoRepository;
+        this.agendamentoRepository = agendamentoRepository;
+        this.travaTarefaService = travaTarefaService;
+        this.resumoAgendamentoUpsert = resumoAgendamentoUpsert;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Agendamento novo: +1 no status atual
+    public void registrarCriacao(Agendamento agendamento) {
+        aplicar(ChaveResumo.de(agendamento), delta(agendamento.getStatus(), 1));
+    }
+
+    // Mudança de status sem mudar dia/prestador/serviço (conclusão, cancelamento)
+    public void registrarTransicao(ChaveResumo chave, StatusAgendamento de, StatusAgendamento para, long quantidade) {
+        if (de == para || quantidade == 0) return;
+
+        long[] deltas = delta(de, -quantidade);
+        deltas[para.ordinal()] += quantidade;
+        aplicar(chave, deltas);
+    }
+
+    public void registrarTransicao(Agendamento agendamento, StatusAgendamento anterior) {
+        registrarTransicao(ChaveResumo.de(agendamento), anterior, agendamento.getStatus(), 1);
+    }
+
+    // Remarcação: sai do dia/prestador/serviço/status anteriores e entra nos atuais
+    public void registrarRemarcacao(LocalDateTime dataHoraAnterior, Integer prestadorAnteriorId, Servico servicoAnterior,
+                                    StatusAgendamento statusAnterior, Agendamento atual) {
+        ChaveResumo anterior = new ChaveResumo(dataHoraAnterior.toLocalDate(), prestadorAnteriorId,
+                servicoAnterior.getId(), servicoAnterior.getNegocio().getId());
+        ChaveResumo nova = ChaveResumo.de(atual);
+        if (anterior.equals(nova)) {
+            registrarTransicao(nova, statusAnterior, atual.getStatus(), 1);
+            return;
+        }
+        aplicar(anterior, delta(statusAnterior, -1));
+        aplicar(nova, delta(atual.getStatus(), 1));
+    }
+
+    // Recalcula todos os resumos a partir dos agendamentos (backfill ou correção de divergências)
+    public int reconstruir() {
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.ADMIN);
+
+        if (!travaTarefaService.adquirir(TAREFA_RECONSTRUCAO, DURACAO_TRAVA_RECONSTRUCAO)) {
+            throw new IllegalArgumentException("A reconstrução dos resumos já está em andamento.");
+        }
+        try {
+            return transactionTemplate.execute(status -> reconstruirResumos());
+        } finally {
+            travaTarefaService.liberar(TAREFA_RECONSTRUCAO);
+        }
+    }
+
+    // Primeira subida com a tabela vazia: preenche a partir do histórico (apenas uma instância)
+    @EventListener(ApplicationReadyEvent.class)
+    public void preencherSeVazio() {
+        if (resumoAgendamentoRepository.count() > 0 || agendamentoRepository.count() == 0) return;
+        if (!travaTarefaService.adquirir(TAREFA_RECONSTRUCAO, DURACAO_TRAVA_RECONSTRUCAO)) return;
+
+        try {
+            Integer linhas = transactionTemplate.execute(status -> reconstruirResumos());
+            log.info("Resumos de agendamentos preenchidos: {} linhas", linhas);
+        } finally {
+            travaTarefaService.liberar(TAREFA_RECONSTRUCAO);
+        }
+    }
+
+    private int reconstruirResumos() {
+        resumoAgendamentoRepository.deleteAllInBatch();
+
+        // Uma leitura agrupada por dia; os meses são somados aqui a partir dos dias
+        Map<ChaveLinha, ResumoAgendamento> linhas = new LinkedHashMap<>();
+        for (ContagemDiaria dia : agendamentoRepository.contarPorDia()) {
+            somar(linhas, PeriodoResumo.DIA, dia.data(), dia);
+            somar(linhas, PeriodoResumo.MES, dia.data().withDayOfMonth(1), dia);
+        }
+
+        List<ResumoAgendamento> novas = new ArrayList<>(linhas.values());
+        resumoAgendamentoRepository.saveAll(novas);
+        return novas.size();
+    }
+
+    private void somar(Map<ChaveLinha, ResumoAgendamento> linhas, PeriodoResumo tipo, LocalDate periodo, ContagemDiaria dia) {
+        ResumoAgendamento linha = linhas.computeIfAbsent(
+                new ChaveLinha(tipo, periodo, dia.prestadorId(), dia.servicoId()),
+                chave -> novaLinha(tipo, periodo, new ChaveResumo(dia.data(), dia.prestadorId(), dia.servicoId(), dia.negocioId())));
+
+        linha.setPendentes(linha.getPendentes() + dia.pendentes());
+        linha.setConcluidos(linha.getConcluidos() + dia.concluidos());
+        linha.setCancelados(linha.getCancelados() + dia.cancelados());
+    }
+
+    private void aplicar(ChaveResumo chave, long[] deltas) {
+        incrementar(PeriodoResumo.DIA, chave.data(), chave, deltas);
+        incrementar(PeriodoResumo.MES, chave.data().withDayOfMonth(1), chave, deltas);
+    }
+
+    private void incrementar(PeriodoResumo tipo, LocalDate periodo, ChaveResumo chave, long[] deltas) {
+        if (executarIncremento(tipo, periodo, chave, deltas) > 0) return;
+
+        // Primeira movimentação da chave: cria a linha já com os deltas, na mesma transação.
+        // Se outra transação a criou nesse meio tempo, o upsert soma em vez de falhar
+        ResumoAgendamento linha = novaLinha(tipo, periodo, chave);
+        linha.setPendentes(deltas[StatusAgendamento.PENDENTE.ordinal()]);
+        linha.setConcluidos(deltas[StatusAgendamento.CONCLUIDO.ordinal()]);
+        linha.setCancelados(deltas[StatusAgendamento.CANCELADO.ordinal()]);
+        resumoAgendamentoUpsert.somar(linha);
+    }
+
+    private int executarIncremento(PeriodoResumo tipo, LocalDate periodo, ChaveResumo chave, long[] deltas) {
+        return resumoAgendamentoRepository.incrementar(tipo, periodo, chave.prestadorId(), chave.servicoId(),
+                deltas[StatusAgendamento.PENDENTE.ordinal()],
+                deltas[StatusAgendamento.CONCLUIDO.ordinal()],
+                deltas[StatusAgendamento.CANCELADO.ordinal()]);
+    }
+
+    private ResumoAgendamento novaLinha(PeriodoResumo tipo, LocalDate periodo, ChaveResumo chave) {
+        return ResumoAgendamento.builder()
+                .tipo(tipo)
+                .periodo(periodo)
+                .prestadorId(chave.prestadorId())
+                .servicoId(chave.servicoId())
+                .negocioId(chave.negocioId())
+                .build();
+    }
+
+    private long[] delta(StatusAgendamento status, long quantidade) {
+        long[] deltas = new long[StatusAgendamento.values().length];
+        deltas[status.ordinal()] = quantidade;
+        return deltas;
+    }
+
+    // Onde um agendamento é contabilizado: dia, prestador e serviço (o negócio é o do serviço)
+    public record ChaveResumo(LocalDate data, Integer prestadorId, Integer servicoId, Integer negocioId) {
+
+        public static ChaveResumo de(Agendamento agendamento) {
+            return new ChaveResumo(
+                    agendamento.getDataHora().toLocalDate(),
+                    agendamento.getPrestador().getId(),
+                    agendamento.getServico().getId(),
+                    agendamento.getServico().getNegocio().getId());
+        }
+    }
+
+    private record ChaveLinha(PeriodoResumo tipo, LocalDate periodo, Integer prestadorId, Integer servicoId) {
+    }
+}
@@ -5,39 +5,46 @@ import com.java360.agendei.domain.model.DiaSemanaDisponivel;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.dto.*;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ServicoService {
 
+    private static final int MAXIMO_DIAS_PERIODO = 60;
+
     private final ServicoRepository servicoRepository;
     private final UsuarioRepository usuarioRepository;
-    private final DisponibilidadeRepository disponibilidadeRepository;
     private final AgendamentoRepository agendamentoRepository;
     private final NegocioRepository negocioRepository;
+    private final CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    private final IndiceBuscaService indiceBuscaService;
+    private final SugestaoBuscaService sugestaoBuscaService;
 
     @Transactional
     public Servico cadastrarServico(SaveServicoDTO dto) {
 
-        Usuario usuario = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
-        Prestador prestador = (Prestador) usuario;
+        Prestador prestador = (Prestador) UsuarioAutenticado.get(); // associado ao serviço criado
 
         if (prestador.getNegocio() == null) {
             throw new IllegalArgumentException("Prestador não está associado a um negócio.");
@@ -74,7 +81,10 @@ public class ServicoService {
                 .negocio(negocio)
                 .build();
 
-        return servicoRepository.save(servico);
+        Servico salvo = servicoRepository.save(servico);
+        indiceBuscaService.atualizarServicos(List.of(salvo));
+        sugestaoBuscaService.atualizarServicos(List.of(salvo));
+        return salvo;
     }
 
     @Transactional
@@ -87,81 +97,16 @@ public class ServicoService {
         }
 
         Prestador prestador = servico.getPrestador();
-        int duracao = servico.getDuracaoMinutos();
         DayOfWeek diaSemana = dataSelecionada.getDayOfWeek();
 
-        // Obtém a disponibilidade do prestador para aquele dia da semana
-        Disponibilidade disponibilidade = disponibilidadeRepository
-                .findByPrestadorId(prestador.getId()).stream()
-                .filter(d -> d.getDiaSemana().name().equalsIgnoreCase(traduzirDiaDaSemana(diaSemana)))
-                .filter(Disponibilidade::isAtivo)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("O prestador não tem disponibilidade nesse dia."));
-
-        // Busca agendamentos pendentes do dia
-        List<Agendamento> agendamentos = agendamentoRepository
-                .findByPrestadorIdAndDataHoraBetween(
-                        prestador.getId(),
-                        dataSelecionada.atStartOfDay(),
-                        dataSelecionada.plusDays(1).atStartOfDay()
-                )
-                .stream()
-                .filter(a ->
-                        a.getStatus() == StatusAgendamento.PENDENTE ||
-                                a.getStatus() == StatusAgendamento.CONCLUIDO
-                )
-                .toList();
-
-
-        List<String> horariosDisponiveis = new ArrayList<>();
-        LocalTime horaAtual = LocalTime.now(ZoneId.of("America/Sao_Paulo"));
-        LocalTime hora = disponibilidade.getHoraInicio();
-        LocalTime limite = disponibilidade.getHoraFim().minusMinutes(duracao);
-
-        // Recupera horário de almoço do prestador (caso exista)
-        LocalTime almocoInicio = prestador.getHoraInicioAlmoco();
-        LocalTime almocoFim = prestador.getHoraFimAlmoco();
-
-        // Se a data for anterior à atual, retorna lista vazia
-        if (dataSelecionada.isBefore(LocalDate.now(ZoneId.of("America/Sao_Paulo")))) {
-            return new HorariosDisponiveisDTO(servicoId, List.of());
-        }
-
-        while (!hora.isAfter(limite)) {
-            LocalTime inicio = hora;
-            LocalTime fim = hora.plusMinutes(duracao);
-
-            // Se for hoje e horário já passou, ignora
-            if (dataSelecionada.isEqual(LocalDate.now(ZoneId.of("America/Sao_Paulo"))) && inicio.isBefore(horaAtual)) {
-                hora = hora.plusMinutes(duracao);
-                continue;
-            }
-
-            // Ignora horários que caem dentro do horário de almoço
-            if (almocoInicio != null && almocoFim != null &&
-                    overlaps(inicio, fim, almocoInicio, almocoFim)) {
-                hora = hora.plusMinutes(duracao);
-                continue;
-            }
-
-            // Verifica conflitos com agendamentos pendentes
-            boolean conflita = agendamentos.stream().anyMatch(ag ->
-                    overlaps(inicio, fim,
-                            ag.getDataHora().toLocalTime(),
-                            ag.getDataHora().toLocalTime().plusMinutes(ag.getServico().getDuracaoMinutos()))
-            );
-
-            // Se não conflitar com nada, adiciona à lista de horários disponíveis
-            if (!conflita) {
-                horariosDisponiveis.add(inicio.toString());
-            }
-
-            hora = hora.plusMinutes(duracao);
-        }
+        // Varredura no mapa de minutos livres do dia (montado uma vez por prestador/data)
+        List<String> horariosDisponiveis = calendarioDisponibilidadeService
+                .listarHorariosLivres(prestador, dataSelecionada, servico.getDuracaoMinutos());
 
         List<HorariosPorDiaDTO> dias = new ArrayList<>();
         if (!horariosDisponiveis.isEmpty()) {
             dias.add(new HorariosPorDiaDTO(
+                    dataSelecionada,
                     DiaSemanaDisponivel.valueOf(traduzirDiaDaSemana(diaSemana)),
                     horariosDisponiveis
             ));
@@ -170,10 +115,38 @@ public class ServicoService {
         return new HorariosDisponiveisDTO(servicoId, dias);
     }
 
+    // Horários disponíveis de um período (máx. 60 dias), com uma única leitura de agendamentos.
+    // As validações são feitas aqui; os dias são calculados à medida que o Stream é consumido
+    public Stream<HorariosPorDiaDTO> listarHorariosPorServicoEPeriodo(Integer servicoId, LocalDate inicio, LocalDate fim) {
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final deve ser igual ou posterior à data inicial.");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) >= MAXIMO_DIAS_PERIODO) {
+            throw new IllegalArgumentException("O período máximo de consulta é de " + MAXIMO_DIAS_PERIODO + " dias.");
+        }
 
+        Servico servico = servicoRepository.findById(servicoId)
+                .orElseThrow(() -> new IllegalArgumentException("Serviço não encontrado."));
 
-    private boolean overlaps(LocalTime inicio1, LocalTime fim1, LocalTime inicio2, LocalTime fim2) {
-        return !(fim1.isBefore(inicio2) || inicio1.isAfter(fim2) || fim1.equals(inicio2) || inicio1.equals(fim2));
+        if (!servico.isAtivo()) {
+            throw new IllegalArgumentException("Serviço está desativado.");
+        }
+
+        // Dias passados nunca têm horários
+        LocalDate hoje = LocalDate.now(ZoneId.of("America/Sao_Paulo"));
+        LocalDate primeiroDia = inicio.isBefore(hoje) ? hoje : inicio;
+        if (fim.isBefore(primeiroDia)) {
+            return Stream.empty();
+        }
+
+        return calendarioDisponibilidadeService
+                .listarHorariosLivresNoPeriodo(servico.getPrestador(), primeiroDia, fim, servico.getDuracaoMinutos())
+                .filter(dia -> !dia.horarios().isEmpty())
+                .map(dia -> new HorariosPorDiaDTO(
+                        dia.data(),
+                        DiaSemanaDisponivel.valueOf(traduzirDiaDaSemana(dia.data().getDayOfWeek())),
+                        dia.horarios()
+                ));
     }
 
     private String traduzirDiaDaSemana(DayOfWeek dia) {
@@ -190,13 +163,13 @@ public class ServicoService {
 
     @Transactional
     public Servico atualizarServico(Integer id, SaveServicoDTO dto) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
 
         Servico servico = servicoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Serviço não encontrado."));
 
-        if (!servico.getPrestador().getId().equals(usuario.getId()) &&
+        if (!servico.getPrestador().getId().equals(usuario.id()) &&
                 !PermissaoUtils.isAdmin(usuario)) {
             throw new SecurityException("Você não tem permissão para editar este serviço.");
         }
@@ -226,7 +199,7 @@ public class ServicoService {
 
         // Verifica duplicação de título para o mesmo prestador, ignorando o próprio serviço atual
         boolean tituloDuplicado = servicoRepository
-                .existsByTituloAndPrestadorIdAndIdNot(dto.getTitulo(), usuario.getId(), id);
+                .existsByTituloAndPrestadorIdAndIdNot(dto.getTitulo(), usuario.id(), id);
 
         if (tituloDuplicado) {
             throw new IllegalArgumentException("Já existe outro serviço com esse título.");
@@ -237,14 +210,37 @@ public class ServicoService {
         servico.setValor(dto.getValor());
         servico.setDuracaoMinutos(dto.getDuracaoMinutos());
         servico.setAtivo(dto.getAtivo());
+        indiceBuscaService.atualizarServicos(List.of(servico));
+        sugestaoBuscaService.atualizarServicos(List.of(servico));
 
         return servico;
     }
 
 
-    public List<ServicoDTO> buscarServicos(String titulo, String nomePrestador, DiaSemanaDisponivel diaSemana) {
-        List<Servico> resultados = servicoRepository.buscarServicos(titulo, nomePrestador, diaSemana);
-        return resultados.stream().map(ServicoDTO::fromEntity).toList();
+    // Busca por título e/ou nome do prestador (índice de busca, ordenada por relevância)
+    public List<ServicoDTO> buscarServicos(String titulo, String nomePrestador, DiaSemanaDisponivel diaSemana,
+                                           int pagina, int tamanho) {
+        var resultado = indiceBuscaService.buscarServicos(titulo, nomePrestador, diaSemana, pagina, tamanho);
+        return carregarNaOrdem(resultado.ids());
+    }
+
+    // Busca textual em título, descrição, prestador e negócio: sem acento, pelo radical e por relevância
+    public PaginaServicosDTO pesquisarServicos(String texto, DiaSemanaDisponivel diaSemana, int pagina, int tamanho) {
+        var resultado = indiceBuscaService.buscarServicos(texto, diaSemana, pagina, tamanho);
+        return new PaginaServicosDTO(carregarNaOrdem(resultado.ids()), resultado.temMais() ? pagina + 1 : null);
+    }
+
+    // Carrega os serviços do índice mantendo a ordem de relevância (ignora os desativados desde a indexação)
+    private List<ServicoDTO> carregarNaOrdem(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Integer, Servico> servicos = servicoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Servico::getId, s -> s));
+        return ids.stream()
+                .map(servicos::get)
+                .filter(s -> s != null && s.isAtivo())
+                .map(ServicoDTO::fromEntity)
+                .toList();
     }
 
     // Lista TODOS serviços ativos
@@ -263,7 +259,7 @@ public class ServicoService {
     // Lista todos os serviços por negócio (ativos/inativos)
     @Transactional
     public List<ServicoDTO> listarTodosServicosPorNegocio(Integer negocioId) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
 
         // Permite apenas Prestadores ou Administradores
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN);
@@ -273,8 +269,8 @@ public class ServicoService {
                 .orElseThrow(() -> new IllegalArgumentException("Negócio não encontrado."));
 
         // Se for prestador, precisa estar vinculado a esse negócio
-        if (usuario instanceof Prestador prestador && !PermissaoUtils.isAdmin(usuario)) {
-            if (prestador.getNegocio() == null || !prestador.getNegocio().getId().equals(negocioId)) {
+        if (usuario.perfil() == PerfilUsuario.PRESTADOR) {
+            if (!negocioId.equals(usuario.negocioId())) {
                 throw new SecurityException("Você não tem permissão para visualizar os serviços deste negócio.");
             }
         }
@@ -0,0 +1,62 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.entity.TarefaAgendada;
+import com.java360.agendei.domain.repository.TarefaAgendadaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class TravaTarefaService {
+
+    // Identifica esta instância da aplicação na tabela de travas
+    private static final String INSTANCIA = UUID.randomUUID().toString();
+
+    private final TarefaAgendadaRepository tarefaAgendadaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Tenta tomar a trava da tarefa por 'duracao'. Se a instância cair, a trava expira sozinha
+    public boolean adquirir(String tarefa, Duration duracao) {
+        LocalDateTime agora = agora();
+
+        // Primeira execução da tarefa no banco: cria a linha já expirada
+        if (!tarefaAgendadaRepository.existsById(tarefa)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> tarefaAgendadaRepository.saveAndFlush(
+                        TarefaAgendada.builder().nome(tarefa).bloqueadaAte(agora.minusSeconds(1)).build()));
+            } catch (DataIntegrityViolationException e) {
+                // outra instância criou ao mesmo tempo; segue para a disputa pelo UPDATE
+            }
+        }
+
+        Integer tomadas = transactionTemplate.execute(status ->
+                tarefaAgendadaRepository.adquirir(tarefa, INSTANCIA, agora, agora.plus(duracao)));
+        return tomadas != null && tomadas == 1;
+    }
+
+    // Mantém a trava por mais 'duracao' a partir de agora. Falso se ela expirou no meio da execução
+    // (e outra instância pode já ter assumido): quem chamou deve parar
+    public boolean renovar(String tarefa, Duration duracao) {
+        LocalDateTime agora = agora();
+        Integer renovadas = transactionTemplate.execute(status ->
+                tarefaAgendadaRepository.renovar(tarefa, INSTANCIA, agora, agora.plus(duracao)));
+        return renovadas != null && renovadas == 1;
+    }
+
+    // Libera a trava antes do prazo (apenas se ainda pertencer a esta instância)
+    public void liberar(String tarefa) {
+        transactionTemplate.executeWithoutResult(status ->
+                tarefaAgendadaRepository.liberar(tarefa, INSTANCIA, agora()));
+    }
+
+    private LocalDateTime agora() {
+        return LocalDateTime.now(ZoneId.of("America/Sao_Paulo"));
+    }
+}
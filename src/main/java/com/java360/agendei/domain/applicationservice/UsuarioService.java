@@ -7,13 +7,22 @@ import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.PlanoPrestador;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
+import com.java360.agendei.infrastructure.dto.LatLngDTO;
 import com.java360.agendei.infrastructure.dto.admin.AtualizarUsuarioAdminDTO;
 import com.java360.agendei.infrastructure.dto.usuario.*;
 import com.java360.agendei.infrastructure.security.JwtService;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import com.java360.agendei.infrastructure.util.GeocodingService;
+import io.jsonwebtoken.Claims;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +32,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalTime;
+import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +42,11 @@ public class UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final GeocodingService geocodingService;
+    private final IndiceBuscaService indiceBuscaService;
+    private final SugestaoBuscaService sugestaoBuscaService;
+    private final UsuarioPrincipalService usuarioPrincipalService;
+    private final ImagemService imagemService;
 
     @Transactional
     public Usuario registrarUsuario(RegistroUsuarioDTO dto) {
@@ -59,6 +75,7 @@ public class UsuarioService {
                 cliente.setCep(dto.getCep());
                 cliente.setEndereco(dto.getEndereco());
                 cliente.setNumero(dto.getNumero());
+                atualizarCoordenadas(cliente);
                 usuario = cliente;
             }
             case PRESTADOR -> {
@@ -84,11 +101,7 @@ public class UsuarioService {
     }
 
     public UsuarioDetalhadoDTO buscarDadosUsuarioPorToken(String token) {
-        if (token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-
-        Integer userId = jwtService.extractUserId(token);
+        Integer userId = usuarioIdDoToken(token);
         if (userId == null) {
             throw new IllegalArgumentException("Token inválido.");
         }
@@ -101,13 +114,8 @@ public class UsuarioService {
 
     @Transactional
     public Page<UsuarioDetalhadoDTO> listarTodosUsuariosPaginado(String token, int page, int size, String sortBy, String direction) {
-        // Remove o prefixo "Bearer " do token
-        if (token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-
         // Extrai o ID do usuário logado
-        Integer userId = jwtService.extractUserId(token);
+        Integer userId = usuarioIdDoToken(token);
         if (userId == null) {
             throw new IllegalArgumentException("Token inválido.");
         }
@@ -137,7 +145,7 @@ public class UsuarioService {
 
     @Transactional
     public void alterarPlanoPrestador(Integer id, PlanoPrestador novoPlano) {
-        Usuario usuario = UsuarioAutenticado.get();
+        UsuarioPrincipal usuario = UsuarioAutenticado.principal();
         PermissaoUtils.validarPermissao(usuario, PerfilUsuario.ADMIN, PerfilUsuario.PRESTADOR);
 
         Prestador prestador = (Prestador) usuarioRepository.findById(id)
@@ -155,9 +163,11 @@ public class UsuarioService {
         // Ativa o negócio automaticamente após escolher um plano
         if (isDono && prestador.getNegocio() != null && !prestador.getNegocio().isAtivo()) {
             prestador.getNegocio().setAtivo(true);
+            sugestaoBuscaService.atualizarNegocio(prestador.getNegocio());
         }
 
         usuarioRepository.save(prestador);
+        usuarioPrincipalService.invalidar(prestador.getId());
     }
 
 
@@ -175,13 +185,8 @@ public class UsuarioService {
             String email,
             String telefone
     ) {
-        // Remove prefixo "Bearer "
-        if (token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-
         // Extrai ID do usuário
-        Integer userId = jwtService.extractUserId(token);
+        Integer userId = usuarioIdDoToken(token);
         if (userId == null) {
             throw new IllegalArgumentException("Token inválido.");
         }
@@ -228,11 +233,17 @@ public class UsuarioService {
         cliente.setTelefone(dto.getTelefone());
         cliente.setEmail(emailNormalizado);
 
+        boolean enderecoAlterado = !Objects.equals(cliente.getCep(), dto.getCep())
+                || !Objects.equals(cliente.getEndereco(), dto.getEndereco())
+                || !Objects.equals(cliente.getNumero(), dto.getNumero());
+
         cliente.setCep(dto.getCep());
         cliente.setEndereco(dto.getEndereco());
         cliente.setNumero(dto.getNumero());
+        if (enderecoAlterado) atualizarCoordenadas(cliente);
 
         usuarioRepository.save(cliente);
+        usuarioPrincipalService.invalidar(cliente.getId());
 
         return UsuarioDetalhadoDTO.fromEntity(cliente);
     }
@@ -263,6 +274,8 @@ public class UsuarioService {
         prestador.setTelefone(dto.getTelefone());
 
         usuarioRepository.save(prestador);
+        indiceBuscaService.atualizarPrestador(prestador.getId()); // nome do prestador nos serviços
+        usuarioPrincipalService.invalidar(prestador.getId());
         return UsuarioDetalhadoDTO.fromEntity(prestador);
     }
 
@@ -279,9 +292,12 @@ public class UsuarioService {
                 throw new IllegalArgumentException("Arquivo de imagem inválido ou vazio.");
             }
 
-            byte[] bytes = arquivo.getBytes();
-            prestador.setFotoPerfil(bytes);
+            String anterior = prestador.getFotoPerfilChave();
+            prestador.setFotoPerfilChave(imagemService.salvar(arquivo));
             usuarioRepository.save(prestador);
+            if (!prestador.getFotoPerfilChave().equals(anterior)) {
+                imagemService.descartar(anterior);
+            }
 
         } catch (Exception e) {
             throw new RuntimeException("Erro ao processar a imagem: " + e.getMessage());
@@ -297,19 +313,19 @@ public class UsuarioService {
             throw new IllegalArgumentException("Usuário não é um prestador.");
         }
 
-        if (prestador.getFotoPerfil() == null) {
+        if (prestador.getFotoPerfilChave() == null) {
             throw new IllegalArgumentException("Prestador não possui foto de perfil cadastrada.");
         }
 
         return new FotoPrestadorDTO(
                 prestador.getId(),
                 prestador.getNome(),
-                "/usuarios/" + prestador.getId() + "/foto-perfil"
+                FotoPrestadorDTO.url(prestador.getId(), prestador.getFotoPerfilChave())
         );
     }
 
     @Transactional(readOnly = true)
-    public byte[] buscarFotoPerfilBytes(Integer prestadorId) {
+    public ImagemDTO buscarFotoPerfil(Integer prestadorId) {
         Usuario usuario = usuarioRepository.findById(prestadorId)
                 .orElseThrow(() -> new IllegalArgumentException("Prestador não encontrado."));
 
@@ -317,17 +333,17 @@ public class UsuarioService {
             throw new IllegalArgumentException("Usuário não é um prestador.");
         }
 
-        if (prestador.getFotoPerfil() == null) {
+        if (prestador.getFotoPerfilChave() == null) {
             throw new IllegalArgumentException("Prestador não possui foto de perfil cadastrada.");
         }
 
-        return prestador.getFotoPerfil();
+        return imagemService.abrir(prestador.getFotoPerfilChave(),
+                "foto-perfil-" + prestadorId + ".jpg", MediaType.IMAGE_JPEG_VALUE);
     }
 
     @Transactional
     public UsuarioDetalhadoDTO atualizarUsuarioComoAdmin(Integer id, AtualizarUsuarioAdminDTO dto) {
-        Usuario admin = UsuarioAutenticado.get();
-        PermissaoUtils.validarPermissao(admin, PerfilUsuario.ADMIN);
+        PermissaoUtils.validarPermissao(UsuarioAutenticado.principal(), PerfilUsuario.ADMIN);
 
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado."));
@@ -354,13 +370,39 @@ public class UsuarioService {
             if (dto.getCep() != null) cliente.setCep(dto.getCep());
             if (dto.getEndereco() != null) cliente.setEndereco(dto.getEndereco());
             if (dto.getNumero() != null) cliente.setNumero(dto.getNumero());
+
+            if (dto.getCep() != null || dto.getEndereco() != null || dto.getNumero() != null) {
+                atualizarCoordenadas(cliente);
+            }
         }
 
         usuarioRepository.save(usuario);
+        usuarioPrincipalService.invalidar(usuario.getId());
+        if (usuario instanceof Prestador) {
+            indiceBuscaService.atualizarPrestador(usuario.getId());
+        }
 
         return UsuarioDetalhadoDTO.fromEntity(usuario);
     }
 
+    // O filtro JWT já verificou o token desta requisição: reaproveita as claims em vez de interpretá-lo de novo
+    private Integer usuarioIdDoToken(String token) {
+        Optional<Claims> claims = UsuarioAutenticado.getClaims();
+        if (claims.isPresent()) {
+            return JwtService.extractUserId(claims.get());
+        }
 
+        // Remove o prefixo "Bearer " do token
+        if (token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+        return jwtService.extractUserId(token);
+    }
 
+    // Coordenadas do endereço do cliente (usadas na busca de negócios próximos)
+    private void atualizarCoordenadas(Cliente cliente) {
+        LatLngDTO latLng = geocodingService.buscarLatLong(cliente.getEndereco(), cliente.getNumero(), cliente.getCep());
+        cliente.setLatitude(latLng != null ? latLng.getLat() : null);
+        cliente.setLongitude(latLng != null ? latLng.getLng() : null);
+    }
 }
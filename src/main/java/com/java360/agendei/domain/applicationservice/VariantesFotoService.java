@@ -0,0 +1,107 @@
+package com.java360.agendei.domain.applicationservice;
+
+import com.java360.agendei.domain.model.TamanhoImagem;
+import com.java360.agendei.domain.repository.FotoNegocioRepository;
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlob;
+import com.java360.agendei.infrastructure.imagem.ProcessadorImagem;
+import com.java360.agendei.infrastructure.util.TransacaoUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gera as variantes das fotos de negócio fora da thread da requisição.
+// Redimensionar é CPU e memória: poucas threads fixas e fila limitada; com a fila cheia a
+// foto fica só com o original (servido no lugar das variantes) e é reagendada quando pedida.
+@Slf4j
+@Service
+public class VariantesFotoService {
+
+    private final ArmazenamentoBlob armazenamentoBlob;
+    private final FotoNegocioRepository fotoNegocioRepository;
+    private final ProcessadorImagem processadorImagem;
+    private final ImagemService imagemService;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<Integer> emProcessamento = ConcurrentHashMap.newKeySet();
+
+    public VariantesFotoService(ArmazenamentoBlob armazenamentoBlob,
+                                FotoNegocioRepository fotoNegocioRepository,
+                                ProcessadorImagem processadorImagem,
+                                ImagemService imagemService,
+                                @Value("${spring.imagens.processamento.threads:2}") int threads,
+                                @Value("${spring.imagens.processamento.fila:100}") int fila) {
+        this.armazenamentoBlob = armazenamentoBlob;
+        this.fotoNegocioRepository = fotoNegocioRepository;
+        this.processadorImagem = processadorImagem;
+        this.imagemService = imagemService;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "variantes-foto-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Enfileira depois do commit: antes disso a foto ainda não existe para as outras threads
+    public void agendar(Integer fotoId, String chaveOriginal) {
+        TransacaoUtils.aposCommit(() -> {
+            if (!emProcessamento.add(fotoId)) return; // já na fila
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        gerar(fotoId, chaveOriginal);
+                    } finally {
+                        emProcessamento.remove(fotoId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                emProcessamento.remove(fotoId);
+                log.warn("Fila de variantes cheia; foto {} segue só com o original por enquanto", fotoId);
+            }
+        });
+    }
+
+    void gerar(Integer fotoId, String chaveOriginal) {
+        Map<TamanhoImagem, String> chaves = new EnumMap<>(TamanhoImagem.class);
+        try (InputStream original = armazenamentoBlob.abrir(chaveOriginal).getInputStream()) {
+            for (Map.Entry<TamanhoImagem, byte[]> variante : processadorImagem.gerarVariantes(original).entrySet()) {
+                chaves.put(variante.getKey(), imagemService.salvar(variante.getValue()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Não foi possível gerar as variantes da foto {}: {}", fotoId, e.getMessage(), e);
+            chaves.values().forEach(imagemService::descartar);
+            return;
+        }
+
+        int atualizadas = fotoNegocioRepository.definirVariantes(fotoId, chaveOriginal,
+                chaves.get(TamanhoImagem.MINIATURA), chaves.get(TamanhoImagem.CARTAO), chaves.get(TamanhoImagem.COMPLETA));
+
+        // Foto apagada enquanto processava: as variantes gravadas não têm dono
+        if (atualizadas == 0) {
+            chaves.values().forEach(imagemService::descartar);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
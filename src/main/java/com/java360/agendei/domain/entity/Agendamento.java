@@ -14,7 +14,23 @@ import java.time.LocalDateTime;
         uniqueConstraints = @UniqueConstraint(
                 name = "uk_agendamento_prestador_horario",
                 columnNames = {"prestador_id", "dataHora"}
-        ))
+        ),
+        indexes = {
+                @Index(
+                        name = "idx_agendamento_prestador_status_periodo",
+                        columnList = "prestador_id, status, dataHora, dataHoraFim"
+                ),
+                // Listagem paginada do cliente (a do prestador usa uk_agendamento_prestador_horario)
+                @Index(
+                        name = "idx_agendamento_cliente_data",
+                        columnList = "cliente_id, dataHora, id"
+                ),
+                // Conclusão automática: pendentes já encerrados
+                @Index(
+                        name = "idx_agendamento_status_fim",
+                        columnList = "status, dataHoraFim"
+                )
+        })
 @Data
 @Builder
 @AllArgsConstructor
@@ -25,18 +41,23 @@ public class Agendamento {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @ManyToOne(optional = false)
+    // LAZY: cada leitura busca só o que usa (ver os JOIN FETCH de findByClienteId, findByPrestadorId e buscarComDetalhes);
+    // EAGER aqui puxava em cascata prestador -> negócio -> criador a cada agendamento
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Cliente cliente;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Servico servico;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Prestador prestador;
 
     @Column(nullable = false)
     private LocalDateTime dataHora;
 
+    // Início + duração do serviço no momento do agendamento (permite checar sobreposição no banco)
+    private LocalDateTime dataHoraFim;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private StatusAgendamento status;
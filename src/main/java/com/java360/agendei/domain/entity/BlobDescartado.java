@@ -0,0 +1,37 @@
+package com.java360.agendei.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Chave do ArmazenamentoBlob que deixou de ser usada por alguma entidade. O conteúdo só é removido
+// pela varredura de ImagemService, depois de uma carência e se nenhuma entidade voltou a usá-lo.
+// Sem unicidade na chave: descartes simultâneos do mesmo conteúdo apenas geram mais de uma linha
+@Entity
+@Table(name = "blobs_descartados",
+        indexes = {
+                // Envio do mesmo conteúdo tira a chave da fila
+                @Index(name = "idx_blob_descartado_chave", columnList = "chave"),
+                // Varredura: linhas com a carência vencida
+                @Index(name = "idx_blob_descartado_em", columnList = "descartado_em")
+        })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlobDescartado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String chave;
+
+    @Column(name = "descartado_em", nullable = false)
+    private LocalDateTime descartadoEm;
+}
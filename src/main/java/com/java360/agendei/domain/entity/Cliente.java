@@ -24,4 +24,9 @@ public class Cliente extends Usuario {
 
     @Column(nullable = false, length = 10)
     private String numero;
+
+    // Coordenadas do endereço, calculadas ao cadastrar/alterar o endereço (evita geocodificar a cada busca)
+    private Double latitude;
+
+    private Double longitude;
 }
@@ -4,7 +4,14 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "fotos_negocio")
+@Table(name = "fotos_negocio",
+        indexes = {
+                // Descarte de imagem: a chave pode estar em qualquer das colunas (FotoNegocioRepository.usaChave)
+                @Index(name = "idx_foto_negocio_imagem_chave", columnList = "imagem_chave"),
+                @Index(name = "idx_foto_negocio_miniatura_chave", columnList = "miniatura_chave"),
+                @Index(name = "idx_foto_negocio_cartao_chave", columnList = "cartao_chave"),
+                @Index(name = "idx_foto_negocio_completa_chave", columnList = "completa_chave")
+        })
 @Data
 @Builder
 @AllArgsConstructor
@@ -15,14 +22,25 @@ public class FotoNegocio {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(nullable = false, columnDefinition = "BYTEA")
-    @ToString.Exclude
-    private byte[] imagem;
+    // SHA-256 do conteúdo no ArmazenamentoBlob; os bytes não ficam na linha
+    @Column(name = "imagem_chave", length = 64)
+    private String imagemChave;
+
+    // Variantes redimensionadas, geradas em segundo plano depois do upload; null até ficarem prontas
+    @Column(name = "miniatura_chave", length = 64)
+    private String miniaturaChave;
+
+    @Column(name = "cartao_chave", length = 64)
+    private String cartaoChave;
+
+    @Column(name = "completa_chave", length = 64)
+    private String completaChave;
 
     @Column(nullable = false)
     private String nomeArquivo; // Para saber a extensão/nome do arquivo
 
-    @ManyToOne(optional = false)
+    // LAZY: listar/servir fotos não precisa do negócio (nem do criador que viria junto)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "negocio_id")
     @ToString.Exclude
     private Negocio negocio;
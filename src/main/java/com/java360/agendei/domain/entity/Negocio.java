@@ -5,8 +5,12 @@ import com.java360.agendei.domain.model.CategoriaNegocio;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "negocios", uniqueConstraints = @UniqueConstraint(columnNames = "nome"))
+@Table(name = "negocios",
+        uniqueConstraints = @UniqueConstraint(columnNames = "nome"),
+        indexes = @Index(name = "idx_negocio_geohash", columnList = "geohash"))
 @Data
 @Builder
 @AllArgsConstructor
@@ -40,7 +44,20 @@ public class Negocio {
     @Column(name = "nota_media")
     private Double notaMedia;
 
-    @ManyToOne(optional = false)
+    // Coordenadas do endereço, calculadas ao cadastrar/alterar o endereço (evita geocodificar a cada busca)
+    private Double latitude;
+
+    private Double longitude;
+
+    // Geohash das coordenadas (GeoHashUtils): índice da busca por raio
+    @Column(length = 12)
+    private String geohash;
+
+    // Última vez que o preenchimento de coordenadas não encontrou o endereço: só tenta de novo depois de um tempo
+    @Column(name = "geocodificacao_falhou_em")
+    private LocalDateTime geocodificacaoFalhouEm;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "criador_id")
     @ToString.Exclude //evita loop de referencia infinita
     @JsonIgnore
@@ -8,19 +8,23 @@ import lombok.*;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "prestadores")
+@Table(name = "prestadores",
+        indexes = {
+                // Descarte de imagem: alguma foto de perfil ainda usa a chave?
+                @Index(name = "idx_prestador_foto_perfil_chave", columnList = "foto_perfil_chave")
+        })
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Prestador extends Usuario {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "negocio_id")
     @JsonIgnore
     @ToString.Exclude // evita loop de referencia infinita
     private Negocio negocio;
 
-    @Column(name = "foto_perfil", columnDefinition = "BYTEA")
-    private byte[] fotoPerfil;
+    @Column(name = "foto_perfil_chave", length = 64)
+    private String fotoPerfilChave; // chave da imagem no ArmazenamentoBlob
 
     @Enumerated(EnumType.STRING)
     @Column(name = "plano", nullable = false)
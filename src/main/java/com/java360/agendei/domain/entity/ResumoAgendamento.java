@@ -0,0 +1,60 @@
+package com.java360.agendei.domain.entity;
+
+import com.java360.agendei.domain.model.PeriodoResumo;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Contadores pré-agregados de agendamentos por dia/mês, prestador e serviço.
+// Mantidos incrementalmente a cada criação/cancelamento/conclusão (ResumoAgendamentoService).
+// O faturamento é obtido multiplicando os contadores pelo valor do serviço na leitura.
+@Entity
+@Table(name = "resumo_agendamentos",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_resumo_agendamento",
+                columnNames = {"tipo", "periodo", "prestador_id", "servico_id"}
+        ),
+        indexes = {
+                // Relatório do negócio (por mês)
+                @Index(
+                        name = "idx_resumo_negocio_periodo",
+                        columnList = "tipo, negocio_id, periodo"
+                )
+        })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoAgendamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private PeriodoResumo tipo;
+
+    // Dia do resumo; para MES, o primeiro dia do mês
+    @Column(nullable = false)
+    private LocalDate periodo;
+
+    @Column(name = "prestador_id", nullable = false)
+    private Integer prestadorId;
+
+    @Column(name = "servico_id", nullable = false)
+    private Integer servicoId;
+
+    @Column(name = "negocio_id", nullable = false)
+    private Integer negocioId;
+
+    private long pendentes;
+
+    private long concluidos;
+
+    private long cancelados;
+}
@@ -32,12 +32,12 @@ public class Servico {
     @Column(nullable = false)
     private boolean ativo = true;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "prestador_id")
     @JsonIgnore
     private Prestador prestador;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "negocio_id", nullable = false)
     @ToString.Exclude
     @JsonIgnore
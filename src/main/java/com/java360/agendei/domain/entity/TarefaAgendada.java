@@ -0,0 +1,29 @@
+package com.java360.agendei.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Trava (lease) de tarefas agendadas: garante que só uma instância da aplicação execute a tarefa por vez
+@Entity
+@Table(name = "tarefas_agendadas")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarefaAgendada {
+
+    @Id
+    @Column(length = 100)
+    private String nome;
+
+    @Column(nullable = false)
+    private LocalDateTime bloqueadaAte;
+
+    @Column(length = 100)
+    private String bloqueadaPor;
+}
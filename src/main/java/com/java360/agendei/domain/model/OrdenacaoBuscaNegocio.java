@@ -0,0 +1,6 @@
+package com.java360.agendei.domain.model;
+
+public enum OrdenacaoBuscaNegocio {
+    DISTANCIA,
+    AVALIACAO
+}
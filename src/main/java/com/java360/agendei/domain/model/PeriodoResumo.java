@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.model;
+
+// Granularidade das linhas de resumo de agendamentos
+public enum PeriodoResumo {
+    DIA,
+    MES
+}
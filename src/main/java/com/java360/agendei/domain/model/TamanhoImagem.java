@@ -0,0 +1,19 @@
+package com.java360.agendei.domain.model;
+
+import lombok.Getter;
+
+// Variantes geradas para cada foto de negócio; o lado maior da imagem não passa de ladoMaximo
+@Getter
+public enum TamanhoImagem {
+    MINIATURA(200, "miniatura"),
+    CARTAO(640, "cartao"),
+    COMPLETA(1600, "completa");
+
+    private final int ladoMaximo;
+    private final String sufixo;
+
+    TamanhoImagem(int ladoMaximo, String sufixo) {
+        this.ladoMaximo = ladoMaximo;
+        this.sufixo = sufixo;
+    }
+}
@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.model;
+
+public enum TipoSugestao {
+    SERVICO,
+    NEGOCIO,
+    CATEGORIA
+}
@@ -2,18 +2,56 @@ package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Agendamento;
 import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.projection.AgendamentoVencido;
+import com.java360.agendei.domain.repository.projection.ContagemDiaria;
+import com.java360.agendei.domain.repository.projection.IntervaloAgendamento;
+import com.java360.agendei.infrastructure.dto.AgendamentoDTO;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AgendamentoRepository extends JpaRepository<Agendamento, Integer> {
-    List<Agendamento> findByClienteId(Integer clienteId);
-    List<Agendamento> findByPrestadorId(Integer prestadorId);
+    // Listagens convertidas em AgendamentoDTO: cliente, prestador, serviço e negócio no mesmo SELECT
+    @Query("""
+        SELECT a FROM Agendamento a
+        JOIN FETCH a.cliente
+        JOIN FETCH a.prestador
+        JOIN FETCH a.servico s
+        JOIN FETCH s.negocio
+        WHERE a.cliente.id = :clienteId
+        """)
+    List<Agendamento> findByClienteId(@Param("clienteId") Integer clienteId);
+
+    @Query("""
+        SELECT a FROM Agendamento a
+        JOIN FETCH a.cliente
+        JOIN FETCH a.prestador
+        JOIN FETCH a.servico s
+        JOIN FETCH s.negocio
+        WHERE a.prestador.id = :prestadorId
+        """)
+    List<Agendamento> findByPrestadorId(@Param("prestadorId") Integer prestadorId);
+
+    // Remarcação: o agendamento volta como AgendamentoDTO, então vem com o grafo inteiro
+    @Query("""
+        SELECT a FROM Agendamento a
+        JOIN FETCH a.cliente
+        JOIN FETCH a.prestador
+        JOIN FETCH a.servico s
+        JOIN FETCH s.negocio
+        WHERE a.id = :id
+        """)
+    Optional<Agendamento> buscarComDetalhes(@Param("id") Integer id);
     boolean existsByPrestadorIdAndDataHoraBetween(Integer prestadorId, LocalDateTime inicio, LocalDateTime fim);
 
 
@@ -23,21 +61,148 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Intege
                                        @Param("inicio") LocalDateTime inicio,
                                        @Param("fim") LocalDateTime fim);
 
-    List<Agendamento> findByPrestadorIdAndDataHoraBetween(Integer prestadorId,
-                                                          LocalDateTime inicio,
-                                                          LocalDateTime fim);
+    long countByClienteIdAndStatus(Integer clienteId, StatusAgendamento status);
 
-    List<Agendamento> findByPrestadorIdAndStatusAndDataHoraBetween(Integer prestadorId,
-                                                                   StatusAgendamento status,
-                                                                   LocalDateTime inicio,
-                                                                   LocalDateTime fim);
+    // Clientes do negócio: só o cliente de cada agendamento é usado
+    @Query("""
+        SELECT a FROM Agendamento a
+        JOIN FETCH a.cliente
+        WHERE a.prestador.negocio.id = :negocioId
+        """)
+    List<Agendamento> findByPrestador_Negocio_Id(@Param("negocioId") Integer negocioId);
 
-    List<Agendamento> findByStatus(StatusAgendamento status);
+    boolean existsByServicoIdAndStatus(Integer servicoId, StatusAgendamento status);
 
-    long countByClienteIdAndStatus(Integer clienteId, StatusAgendamento status);
+    // Sonda de sobreposição [inicio, fim) contra pendentes do prestador.
+    // janelaInicio limita a varredura do índice (inicio - maior duração possível de um serviço)
+    @Query("""
+        SELECT COUNT(a) > 0 FROM Agendamento a
+        WHERE a.prestador.id = :prestadorId
+        AND a.status = com.java360.agendei.domain.model.StatusAgendamento.PENDENTE
+        AND a.dataHora > :janelaInicio
+        AND a.dataHora < :fim
+        AND a.dataHoraFim > :inicio
+        AND (:ignorarId IS NULL OR a.id <> :ignorarId)
+        """)
+    boolean existeConflito(@Param("prestadorId") Integer prestadorId,
+                           @Param("janelaInicio") LocalDateTime janelaInicio,
+                           @Param("inicio") LocalDateTime inicio,
+                           @Param("fim") LocalDateTime fim,
+                           @Param("ignorarId") Integer ignorarId);
 
-    List<Agendamento> findByPrestador_Negocio_Id(Integer negocioId);
+    // Períodos que ocupam a agenda do prestador (pendentes e concluídos) e tocam [inicio, fim).
+    // janelaInicio limita a varredura do índice (inicio - maior duração possível de um serviço)
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.IntervaloAgendamento(a.id, a.dataHora, a.dataHoraFim)
+        FROM Agendamento a
+        WHERE a.prestador.id = :prestadorId
+        AND a.status IN (com.java360.agendei.domain.model.StatusAgendamento.PENDENTE,
+                         com.java360.agendei.domain.model.StatusAgendamento.CONCLUIDO)
+        AND a.dataHora > :janelaInicio
+        AND a.dataHora < :fim
+        AND a.dataHoraFim > :inicio
+        """)
+    List<IntervaloAgendamento> buscarIntervalosOcupados(@Param("prestadorId") Integer prestadorId,
+                                                        @Param("janelaInicio") LocalDateTime janelaInicio,
+                                                        @Param("inicio") LocalDateTime inicio,
+                                                        @Param("fim") LocalDateTime fim);
 
-    boolean existsByServicoIdAndStatus(Integer servicoId, StatusAgendamento status);
+    // Página de agendamentos do cliente (mais recentes primeiro), já no formato do DTO.
+    // Keyset: a próxima página começa depois do par (dataHora, id) do último item da anterior
+    @Query("""
+        SELECT new com.java360.agendei.infrastructure.dto.AgendamentoDTO(
+            a.id, c.nome, p.nome, s.titulo, s.id, n.endereco, n.numero, n.nome, a.dataHora, a.status)
+        FROM Agendamento a
+        JOIN a.cliente c
+        JOIN a.prestador p
+        JOIN a.servico s
+        LEFT JOIN s.negocio n
+        WHERE c.id = :clienteId
+        AND (:status IS NULL OR a.status = :status)
+        AND (:de IS NULL OR a.dataHora >= :de)
+        AND (:ate IS NULL OR a.dataHora < :ate)
+        AND (:cursorDataHora IS NULL OR a.dataHora < :cursorDataHora
+             OR (a.dataHora = :cursorDataHora AND a.id < :cursorId))
+        ORDER BY a.dataHora DESC, a.id DESC
+        """)
+    List<AgendamentoDTO> buscarPaginaDoCliente(@Param("clienteId") Integer clienteId,
+                                               @Param("status") StatusAgendamento status,
+                                               @Param("de") LocalDateTime de,
+                                               @Param("ate") LocalDateTime ate,
+                                               @Param("cursorDataHora") LocalDateTime cursorDataHora,
+                                               @Param("cursorId") Integer cursorId,
+                                               Limit limite);
+
+    // Mesma consulta, pela agenda do prestador
+    @Query("""
+        SELECT new com.java360.agendei.infrastructure.dto.AgendamentoDTO(
+            a.id, c.nome, p.nome, s.titulo, s.id, n.endereco, n.numero, n.nome, a.dataHora, a.status)
+        FROM Agendamento a
+        JOIN a.cliente c
+        JOIN a.prestador p
+        JOIN a.servico s
+        LEFT JOIN s.negocio n
+        WHERE p.id = :prestadorId
+        AND (:status IS NULL OR a.status = :status)
+        AND (:de IS NULL OR a.dataHora >= :de)
+        AND (:ate IS NULL OR a.dataHora < :ate)
+        AND (:cursorDataHora IS NULL OR a.dataHora < :cursorDataHora
+             OR (a.dataHora = :cursorDataHora AND a.id < :cursorId))
+        ORDER BY a.dataHora DESC, a.id DESC
+        """)
+    List<AgendamentoDTO> buscarPaginaDoPrestador(@Param("prestadorId") Integer prestadorId,
+                                                 @Param("status") StatusAgendamento status,
+                                                 @Param("de") LocalDateTime de,
+                                                 @Param("ate") LocalDateTime ate,
+                                                 @Param("cursorDataHora") LocalDateTime cursorDataHora,
+                                                 @Param("cursorId") Integer cursorId,
+                                                 Limit limite);
+
+    // Lote de pendentes cujo horário já terminou (conclusão automática).
+    // Trava as linhas até o fim da transação: ninguém cancela ou conclui o lote entre a leitura e o UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.AgendamentoVencido(
+            a.id, a.prestador.id, a.dataHora, s.id, s.negocio.id)
+        FROM Agendamento a
+        JOIN a.servico s
+        WHERE a.status = com.java360.agendei.domain.model.StatusAgendamento.PENDENTE
+        AND a.dataHoraFim < :agora
+        ORDER BY a.dataHoraFim
+        """)
+    List<AgendamentoVencido> buscarVencidos(@Param("agora") LocalDateTime agora, Limit limite);
+
+    // Conclui o lote em um único UPDATE; ignora os que mudaram de status nesse meio tempo
+    @Modifying
+    @Query("""
+        UPDATE Agendamento a
+        SET a.status = com.java360.agendei.domain.model.StatusAgendamento.CONCLUIDO
+        WHERE a.id IN :ids
+        AND a.status = com.java360.agendei.domain.model.StatusAgendamento.PENDENTE
+        """)
+    int concluirPendentes(@Param("ids") List<Integer> ids);
+
+    // Troca o status só se ainda for o lido antes: 0 quando outra transação já o alterou
+    @Modifying
+    @Query("UPDATE Agendamento a SET a.status = :novo WHERE a.id = :id AND a.status = :anterior")
+    int alterarStatus(@Param("id") Integer id,
+                      @Param("anterior") StatusAgendamento anterior,
+                      @Param("novo") StatusAgendamento novo);
+
+    // Contagem por dia, prestador e serviço de todo o histórico (reconstrução dos resumos de relatórios)
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.ContagemDiaria(
+            CAST(a.dataHora AS LocalDate),
+            a.prestador.id,
+            s.id,
+            s.negocio.id,
+            SUM(CASE WHEN a.status = com.java360.agendei.domain.model.StatusAgendamento.PENDENTE THEN 1 ELSE 0 END),
+            SUM(CASE WHEN a.status = com.java360.agendei.domain.model.StatusAgendamento.CONCLUIDO THEN 1 ELSE 0 END),
+            SUM(CASE WHEN a.status = com.java360.agendei.domain.model.StatusAgendamento.CANCELADO THEN 1 ELSE 0 END))
+        FROM Agendamento a
+        JOIN a.servico s
+        GROUP BY CAST(a.dataHora AS LocalDate), a.prestador.id, s.id, s.negocio.id
+        """)
+    List<ContagemDiaria> contarPorDia();
 
 }
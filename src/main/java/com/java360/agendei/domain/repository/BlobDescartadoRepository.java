@@ -0,0 +1,46 @@
+package com.java360.agendei.domain.repository;
+
+import com.java360.agendei.domain.entity.BlobDescartado;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobDescartadoRepository extends JpaRepository<BlobDescartado, Long> {
+
+    // Próximo lote da varredura, em ordem de id (a varredura avança mesmo se uma remoção falhar)
+    @Query("""
+        SELECT b FROM BlobDescartado b
+        WHERE b.descartadoEm <= :limite
+        AND b.id > :depoisDe
+        ORDER BY b.id
+        """)
+    List<BlobDescartado> buscarVencidos(@Param("limite") LocalDateTime limite,
+                                        @Param("depoisDe") Long depoisDe,
+                                        Limit limit);
+
+    // Trava a linha até o fim da remoção: um envio do mesmo conteúdo espera no DELETE de cancelarDescarte.
+    // Vazio se o envio chegou antes e já a apagou
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BlobDescartado b WHERE b.id = :id")
+    Optional<BlobDescartado> travar(@Param("id") Long id);
+
+    // Descartada de novo há pouco: a remoção fica para quando essa linha vencer
+    boolean existsByChaveAndDescartadoEmAfter(String chave, LocalDateTime limite);
+
+    // O conteúdo voltou a ser usado: sai da fila de remoção
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BlobDescartado b WHERE b.chave = :chave")
+    int cancelarDescarte(@Param("chave") String chave);
+}
@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.repository;
+
+import com.java360.agendei.domain.entity.Cliente;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
+}
@@ -2,7 +2,9 @@ package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Disponibilidade;
 import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import com.java360.agendei.domain.repository.projection.DiaAtivoPrestador;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,4 +14,12 @@ public interface DisponibilidadeRepository extends JpaRepository<Disponibilidade
 
     Optional<Disponibilidade> findByPrestadorIdAndDiaSemana(Integer prestadorId, DiaSemanaDisponivel diaSemana);
 
+    // Dias ativos de todos os prestadores (carga do índice de busca)
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.DiaAtivoPrestador(d.prestador.id, d.diaSemana)
+        FROM Disponibilidade d
+        WHERE d.ativo = true
+        """)
+    List<DiaAtivoPrestador> listarDiasAtivos();
+
 }
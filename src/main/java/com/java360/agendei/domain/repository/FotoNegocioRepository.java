@@ -1,10 +1,57 @@
 package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.FotoNegocio;
+import com.java360.agendei.domain.repository.projection.ArquivoFotoNegocio;
+import com.java360.agendei.domain.repository.projection.ResumoFotoNegocio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface FotoNegocioRepository extends JpaRepository<FotoNegocio, Integer> {
     List<FotoNegocio> findByNegocioId(Integer negocioId);
-}
\ No newline at end of file
+
+    // f.negocio.id é a própria FK: consulta só fotos_negocio, sem join
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.ResumoFotoNegocio(f.id, f.nomeArquivo)
+        FROM FotoNegocio f
+        WHERE f.negocio.id = :negocioId
+        ORDER BY f.id
+        """)
+    List<ResumoFotoNegocio> listarResumos(@Param("negocioId") Integer negocioId);
+
+    // A chave pode ser o original de uma foto ou uma das variantes de outra
+    @Query("""
+        SELECT COUNT(f) > 0
+        FROM FotoNegocio f
+        WHERE f.imagemChave = :chave OR f.miniaturaChave = :chave
+           OR f.cartaoChave = :chave OR f.completaChave = :chave
+        """)
+    boolean usaChave(@Param("chave") String chave);
+
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.ArquivoFotoNegocio(
+            f.negocio.id, f.nomeArquivo, f.imagemChave, f.miniaturaChave, f.cartaoChave, f.completaChave)
+        FROM FotoNegocio f
+        WHERE f.id = :id
+        """)
+    Optional<ArquivoFotoNegocio> buscarArquivo(@Param("id") Integer id);
+
+    // Só grava se a foto ainda existe e ainda aponta para o mesmo original; devolve as linhas alteradas
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE FotoNegocio f
+        SET f.miniaturaChave = :miniatura, f.cartaoChave = :cartao, f.completaChave = :completa
+        WHERE f.id = :id AND f.imagemChave = :original
+        """)
+    int definirVariantes(@Param("id") Integer id,
+                         @Param("original") String original,
+                         @Param("miniatura") String miniatura,
+                         @Param("cartao") String cartao,
+                         @Param("completa") String completa);
+}
@@ -1,12 +1,20 @@
 package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.repository.projection.NegocioIndexado;
+import com.java360.agendei.domain.repository.projection.NegocioSemGeohash;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface NegocioRepository extends JpaRepository<Negocio, Integer> {
+public interface NegocioRepository extends JpaRepository<Negocio, Integer>, JpaSpecificationExecutor<Negocio> {
     boolean existsByNome(String nome);
 
     Optional<Negocio> findByNome(String nome);
@@ -17,7 +25,55 @@ public interface NegocioRepository extends JpaRepository<Negocio, Integer> {
 
     long countByAtivoTrue();
 
-    List<Negocio> findByNomeContainingIgnoreCase(String nome);
+    // Carga dos índices de busca e de sugestões em blocos por id (sem carregar as associações)
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.NegocioIndexado(n.id, n.nome, n.categoria, n.ativo)
+        FROM Negocio n
+        WHERE n.id > :ultimoId
+        ORDER BY n.id
+        """)
+    List<NegocioIndexado> buscarParaIndice(@Param("ultimoId") Integer ultimoId, Limit limite);
 
+    // Negócios ainda sem geohash, em blocos por id; os não encontrados recentemente ficam para depois
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.NegocioSemGeohash(
+            n.id, n.endereco, n.numero, n.cep, n.latitude, n.longitude)
+        FROM Negocio n
+        WHERE n.geohash IS NULL
+        AND (n.geocodificacaoFalhouEm IS NULL OR n.geocodificacaoFalhouEm < :tentarAntesDe)
+        AND n.id > :ultimoId
+        ORDER BY n.id
+        """)
+    List<NegocioSemGeohash> buscarSemGeohash(@Param("tentarAntesDe") LocalDateTime tentarAntesDe,
+                                             @Param("ultimoId") Integer ultimoId,
+                                             Limit limite);
 
-}
\ No newline at end of file
+    // Só grava se o endereço não mudou desde a leitura: a alteração de endereço já geocodifica o novo
+    @Modifying
+    @Query("""
+        UPDATE Negocio n
+        SET n.latitude = :latitude, n.longitude = :longitude, n.geohash = :geohash, n.geocodificacaoFalhouEm = NULL
+        WHERE n.id = :id AND n.geohash IS NULL
+        AND n.endereco = :endereco AND n.numero = :numero AND n.cep = :cep
+        """)
+    int definirCoordenadas(@Param("id") Integer id,
+                           @Param("endereco") String endereco,
+                           @Param("numero") String numero,
+                           @Param("cep") String cep,
+                           @Param("latitude") Double latitude,
+                           @Param("longitude") Double longitude,
+                           @Param("geohash") String geohash);
+
+    @Modifying
+    @Query("""
+        UPDATE Negocio n
+        SET n.geocodificacaoFalhouEm = :agora
+        WHERE n.id = :id AND n.geohash IS NULL
+        AND n.endereco = :endereco AND n.numero = :numero AND n.cep = :cep
+        """)
+    int marcarFalhaGeocodificacao(@Param("id") Integer id,
+                                  @Param("endereco") String endereco,
+                                  @Param("numero") String numero,
+                                  @Param("cep") String cep,
+                                  @Param("agora") LocalDateTime agora);
+}
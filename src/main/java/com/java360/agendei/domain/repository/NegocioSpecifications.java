@@ -0,0 +1,92 @@
+package com.java360.agendei.domain.repository;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.OrdenacaoBuscaNegocio;
+import com.java360.agendei.infrastructure.dto.LatLngDTO;
+import com.java360.agendei.infrastructure.util.DistanciaUtils;
+import com.java360.agendei.infrastructure.util.GeoHashUtils;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+// Filtros combináveis da busca de negócios (NegocioRepository.findAll(Specification))
+public class NegocioSpecifications {
+
+    public static Specification<Negocio> ativo() {
+        return (root, query, cb) -> cb.isTrue(root.get("ativo"));
+    }
+
+    public static Specification<Negocio> nomeContem(String nome) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("nome")), "%" + nome.toLowerCase() + "%");
+    }
+
+    public static Specification<Negocio> categoria(CategoriaNegocio categoria) {
+        return (root, query, cb) -> cb.equal(root.get("categoria"), categoria);
+    }
+
+    public static Specification<Negocio> notaMinima(double nota) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("notaMedia"), nota);
+    }
+
+    // Uma faixa do índice de geohash por célula: geohash >= prefixo AND geohash < próximo prefixo.
+    // Células consecutivas na ordem do geohash viram uma faixa só.
+    public static Specification<Negocio> geohashEm(Collection<String> prefixos) {
+        List<String[]> faixas = new ArrayList<>();
+        for (String prefixo : new TreeSet<>(prefixos)) {
+            String fim = GeoHashUtils.proximoPrefixo(prefixo);
+            String[] ultima = faixas.isEmpty() ? null : faixas.get(faixas.size() - 1);
+            if (ultima != null && prefixo.equals(ultima[1])) {
+                ultima[1] = fim;
+            } else {
+                faixas.add(new String[]{prefixo, fim});
+            }
+        }
+
+        return (root, query, cb) -> cb.or(faixas.stream()
+                .map(faixa -> {
+                    Predicate inicio = cb.greaterThanOrEqualTo(root.get("geohash"), faixa[0]);
+                    return faixa[1] == null ? inicio : cb.and(inicio, cb.lessThan(root.get("geohash"), faixa[1]));
+                })
+                .toArray(Predicate[]::new));
+    }
+
+    // Distância aproximada (equiretangular, em graus ao quadrado): aritmética simples, avaliada no banco.
+    // Em raios de até 100 km difere da haversine em menos de 1%.
+    public static Specification<Negocio> dentroDoRaio(double lat, double lng, double raioKm) {
+        double raioGraus = raioKm / DistanciaUtils.KM_POR_GRAU;
+        return (root, query, cb) -> cb.le(distanciaAoQuadrado(root, cb, lat, lng), raioGraus * raioGraus);
+    }
+
+    // Ordem da busca; 'origem' nula (cliente sem coordenadas) ordena por nome no lugar da distância.
+    // O id no fim deixa a ordem estável entre páginas.
+    public static Specification<Negocio> ordenadoPor(OrdenacaoBuscaNegocio ordenacao, LatLngDTO origem) {
+        return (root, query, cb) -> {
+            Order porProximidade = origem != null
+                    ? cb.asc(distanciaAoQuadrado(root, cb, origem.getLat(), origem.getLng()))
+                    : cb.asc(root.get("nome"));
+
+            if (ordenacao == OrdenacaoBuscaNegocio.AVALIACAO) {
+                query.orderBy(cb.desc(cb.coalesce(root.<Double>get("notaMedia"), 0.0)), porProximidade, cb.asc(root.get("id")));
+            } else {
+                query.orderBy(porProximidade, cb.asc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    private static Expression<Double> distanciaAoQuadrado(Root<Negocio> root, CriteriaBuilder cb, double lat, double lng) {
+        double fatorLongitude = Math.cos(Math.toRadians(lat));
+        Expression<Double> dLat = cb.diff(root.<Double>get("latitude"), lat);
+        Expression<Double> dLng = cb.prod(cb.diff(root.<Double>get("longitude"), lng), fatorLongitude);
+        return cb.sum(cb.prod(dLat, dLat), cb.prod(dLng, dLng));
+    }
+}
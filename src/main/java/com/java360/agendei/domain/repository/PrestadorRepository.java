@@ -1,10 +1,23 @@
 package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.infrastructure.dto.HorarioAlmocoDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface PrestadorRepository extends JpaRepository<Prestador, Integer> {
     List<Prestador> findByNegocio_Id(Integer negocioId);
+
+    boolean existsByFotoPerfilChave(String fotoPerfilChave);
+
+    @Query("""
+        SELECT new com.java360.agendei.infrastructure.dto.HorarioAlmocoDTO(p.horaInicioAlmoco, p.horaFimAlmoco)
+        FROM Prestador p
+        WHERE p.id = :prestadorId
+        """)
+    Optional<HorarioAlmocoDTO> buscarHorarioAlmoco(@Param("prestadorId") Integer prestadorId);
 }
\ No newline at end of file
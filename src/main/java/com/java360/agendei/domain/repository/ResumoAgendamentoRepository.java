@@ -0,0 +1,128 @@
+package com.java360.agendei.domain.repository;
+
+import com.java360.agendei.domain.entity.ResumoAgendamento;
+import com.java360.agendei.domain.model.PeriodoResumo;
+import com.java360.agendei.domain.repository.projection.TotalPorPeriodo;
+import com.java360.agendei.domain.repository.projection.TotalPorPrestador;
+import com.java360.agendei.domain.repository.projection.TotalPorServico;
+import com.java360.agendei.domain.repository.projection.TotalResumo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResumoAgendamentoRepository extends JpaRepository<ResumoAgendamento, Long> {
+
+    // Soma atômica no banco: transações concorrentes não perdem incrementos (retorna 0 se a linha não existe)
+    @Modifying
+    @Query("""
+        UPDATE ResumoAgendamento r
+        SET r.pendentes = r.pendentes + :pendentes,
+            r.concluidos = r.concluidos + :concluidos,
+            r.cancelados = r.cancelados + :cancelados
+        WHERE r.tipo = :tipo
+        AND r.periodo = :periodo
+        AND r.prestadorId = :prestadorId
+        AND r.servicoId = :servicoId
+        """)
+    int incrementar(@Param("tipo") PeriodoResumo tipo,
+                    @Param("periodo") LocalDate periodo,
+                    @Param("prestadorId") Integer prestadorId,
+                    @Param("servicoId") Integer servicoId,
+                    @Param("pendentes") long pendentes,
+                    @Param("concluidos") long concluidos,
+                    @Param("cancelados") long cancelados);
+
+    // Relatórios: leem apenas as linhas mensais, cujo número não cresce com o histórico de agendamentos.
+    // Faturamento = quantidade x valor atual do serviço (mesma regra das consultas sobre agendamentos),
+    // somado como decimal: em double, 3 x 10.10 daria 30.299999999999997
+
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.TotalResumo(
+            COALESCE(SUM(r.pendentes), 0L), COALESCE(SUM(r.concluidos), 0L), COALESCE(SUM(r.cancelados), 0L),
+            COALESCE(SUM(r.pendentes * CAST(s.valor AS BigDecimal)), CAST(0 AS BigDecimal)),
+            COALESCE(SUM(r.concluidos * CAST(s.valor AS BigDecimal)), CAST(0 AS BigDecimal)))
+        FROM ResumoAgendamento r
+        JOIN Servico s ON s.id = r.servicoId
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        AND r.prestadorId = :prestadorId
+        AND r.periodo = :mes
+        """)
+    TotalResumo totalizarMes(@Param("prestadorId") Integer prestadorId,
+                             @Param("mes") LocalDate mes);
+
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.TotalPorPeriodo(
+            MONTH(r.periodo), SUM(r.concluidos), SUM(r.concluidos * CAST(s.valor AS BigDecimal)))
+        FROM ResumoAgendamento r
+        JOIN Servico s ON s.id = r.servicoId
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        AND r.prestadorId = :prestadorId
+        AND r.periodo >= :inicio
+        AND r.periodo < :fim
+        GROUP BY MONTH(r.periodo)
+        """)
+    List<TotalPorPeriodo> totalizarPorMes(@Param("prestadorId") Integer prestadorId,
+                                          @Param("inicio") LocalDate inicio,
+                                          @Param("fim") LocalDate fim);
+
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.TotalPorPeriodo(
+            YEAR(r.periodo), SUM(r.concluidos), SUM(r.concluidos * CAST(s.valor AS BigDecimal)))
+        FROM ResumoAgendamento r
+        JOIN Servico s ON s.id = r.servicoId
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        AND r.prestadorId = :prestadorId
+        AND r.periodo >= :inicio
+        AND r.periodo < :fim
+        GROUP BY YEAR(r.periodo)
+        """)
+    List<TotalPorPeriodo> totalizarPorAno(@Param("prestadorId") Integer prestadorId,
+                                          @Param("inicio") LocalDate inicio,
+                                          @Param("fim") LocalDate fim);
+
+    // Mais vendidos primeiro; serviços sem conclusões no mês não aparecem
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.TotalPorServico(
+            s.id, s.titulo, SUM(r.concluidos), SUM(r.concluidos * CAST(s.valor AS BigDecimal)))
+        FROM ResumoAgendamento r
+        JOIN Servico s ON s.id = r.servicoId
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        AND r.prestadorId = :prestadorId
+        AND r.periodo = :mes
+        GROUP BY s.id, s.titulo
+        HAVING SUM(r.concluidos) > 0
+        ORDER BY SUM(r.concluidos) DESC, s.titulo
+        """)
+    List<TotalPorServico> totalizarPorServico(@Param("prestadorId") Integer prestadorId,
+                                              @Param("mes") LocalDate mes);
+
+    @Query("""
+        SELECT new com.java360.agendei.domain.repository.projection.TotalPorPrestador(
+            r.prestadorId,
+            SUM(r.pendentes + r.concluidos + r.cancelados),
+            SUM(r.concluidos),
+            SUM(r.cancelados),
+            SUM(r.concluidos * CAST(s.valor AS BigDecimal)))
+        FROM ResumoAgendamento r
+        JOIN Servico s ON s.id = r.servicoId
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        AND r.negocioId = :negocioId
+        AND r.periodo = :mes
+        GROUP BY r.prestadorId
+        """)
+    List<TotalPorPrestador> totalizarPorPrestadorDoNegocio(@Param("negocioId") Integer negocioId,
+                                                           @Param("mes") LocalDate mes);
+
+    @Query("""
+        SELECT COALESCE(SUM(r.pendentes + r.concluidos + r.cancelados), 0L)
+        FROM ResumoAgendamento r
+        WHERE r.tipo = com.java360.agendei.domain.model.PeriodoResumo.MES
+        """)
+    long contarAgendamentos();
+}
@@ -1,13 +1,14 @@
 package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Servico;
-import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ServicoRepository extends JpaRepository<Servico, Integer> {
@@ -26,24 +27,28 @@ public interface ServicoRepository extends JpaRepository<Servico, Integer> {
 
     List<Servico> findByNegocio_Id(Integer negocioId);
 
+    List<Servico> findByPrestadorId(Integer prestadorId);
+
+    // Criação/remarcação de agendamento: valida almoço e negócio do prestador e monta o e-mail sem outro SELECT
+    @Query("""
+        SELECT s FROM Servico s
+        JOIN FETCH s.prestador p
+        LEFT JOIN FETCH p.negocio
+        JOIN FETCH s.negocio
+        WHERE s.id = :id
+        """)
+    Optional<Servico> buscarParaAgendamento(@Param("id") Integer id);
+
+    // Carga do índice de busca em blocos por id, com prestador e negócio no mesmo SELECT
     @Query("""
         SELECT s FROM Servico s
-        JOIN s.prestador p
+        JOIN FETCH s.prestador
+        JOIN FETCH s.negocio
         WHERE s.ativo = true
-        AND (:titulo IS NULL OR LOWER(s.titulo) LIKE LOWER(CONCAT('%', :titulo, '%')))
-        AND (:nomePrestador IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nomePrestador, '%')))
-        AND EXISTS (
-            SELECT 1 FROM Disponibilidade d
-            WHERE d.prestador.id = p.id
-            AND (:diaSemana IS NULL OR d.diaSemana = :diaSemana)
-            AND d.ativo = true
-        )
+        AND s.id > :ultimoId
+        ORDER BY s.id
         """)
-    List<Servico> buscarServicos(
-            @Param("titulo") String titulo,
-            @Param("nomePrestador") String nomePrestador,
-            @Param("diaSemana") DiaSemanaDisponivel diaSemana
-    );
+    List<Servico> buscarParaIndice(@Param("ultimoId") Integer ultimoId, Limit limite);
 
     long countByAtivoTrue();
 
@@ -0,0 +1,48 @@
+package com.java360.agendei.domain.repository;
+
+import com.java360.agendei.domain.entity.TarefaAgendada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TarefaAgendadaRepository extends JpaRepository<TarefaAgendada, String> {
+
+    // UPDATE condicional: só uma instância consegue tomar a trava expirada (retorna 1 para quem conseguiu)
+    @Modifying
+    @Query("""
+        UPDATE TarefaAgendada t
+        SET t.bloqueadaAte = :bloquearAte, t.bloqueadaPor = :instancia
+        WHERE t.nome = :nome AND t.bloqueadaAte <= :agora
+        """)
+    int adquirir(@Param("nome") String nome,
+                 @Param("instancia") String instancia,
+                 @Param("agora") LocalDateTime agora,
+                 @Param("bloquearAte") LocalDateTime bloquearAte);
+
+    // Estende o prazo de uma trava ainda válida desta instância; 0 se ela já expirou ou foi tomada
+    @Modifying
+    @Query("""
+        UPDATE TarefaAgendada t
+        SET t.bloqueadaAte = :bloquearAte
+        WHERE t.nome = :nome AND t.bloqueadaPor = :instancia AND t.bloqueadaAte > :agora
+        """)
+    int renovar(@Param("nome") String nome,
+                @Param("instancia") String instancia,
+                @Param("agora") LocalDateTime agora,
+                @Param("bloquearAte") LocalDateTime bloquearAte);
+
+    @Modifying
+    @Query("""
+        UPDATE TarefaAgendada t
+        SET t.bloqueadaAte = :agora
+        WHERE t.nome = :nome AND t.bloqueadaPor = :instancia
+        """)
+    int liberar(@Param("nome") String nome,
+                @Param("instancia") String instancia,
+                @Param("agora") LocalDateTime agora);
+}
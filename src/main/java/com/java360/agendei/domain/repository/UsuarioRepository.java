@@ -2,6 +2,7 @@ package com.java360.agendei.domain.repository;
 
 import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -34,4 +35,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
 
     long countByPerfil(PerfilUsuario perfil);
 
+    // Só as colunas do principal: junta apenas prestadores (negócio e plano), sem a foto nem as demais subclasses
+    @Query("""
+        SELECT new com.java360.agendei.infrastructure.security.UsuarioPrincipal(u.id, u.perfil, p.negocio.id, p.plano)
+        FROM Usuario u LEFT JOIN Prestador p ON p.id = u.id
+        WHERE u.id = :id
+        """)
+    Optional<UsuarioPrincipal> buscarPrincipal(@Param("id") Integer id);
+
 }
\ No newline at end of file
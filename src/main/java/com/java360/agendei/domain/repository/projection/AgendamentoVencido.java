@@ -0,0 +1,9 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Identificação mínima de um agendamento pendente cujo horário já terminou
+// (com o necessário para atualizar os resumos de relatórios)
+public record AgendamentoVencido(Integer id, Integer prestadorId, LocalDateTime dataHora,
+                                 Integer servicoId, Integer negocioId) {
+}
@@ -0,0 +1,17 @@
+package com.java360.agendei.domain.repository.projection;
+
+import com.java360.agendei.domain.model.TamanhoImagem;
+
+// O necessário para servir uma foto do negócio, sem carregar a foto, o negócio e o criador
+public record ArquivoFotoNegocio(Integer negocioId, String nomeArquivo, String imagemChave,
+                                 String miniaturaChave, String cartaoChave, String completaChave) {
+
+    // Chave da variante; null enquanto ainda não foi gerada
+    public String chave(TamanhoImagem tamanho) {
+        return switch (tamanho) {
+            case MINIATURA -> miniaturaChave;
+            case CARTAO -> cartaoChave;
+            case COMPLETA -> completaChave;
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.time.LocalDate;
+
+// Agendamentos de um dia agrupados por prestador e serviço (reconstrução dos resumos)
+public record ContagemDiaria(LocalDate data, Integer prestadorId, Integer servicoId, Integer negocioId,
+                             Long pendentes, Long concluidos, Long cancelados) {
+}
@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.repository.projection;
+
+import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+
+// Dia da semana em que o prestador atende (carga do índice de busca)
+public record DiaAtivoPrestador(Integer prestadorId, DiaSemanaDisponivel diaSemana) {
+}
@@ -0,0 +1,16 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.time.LocalDateTime;
+
+// Projeção leve de um agendamento: apenas id, início e fim (sem carregar cliente/serviço/prestador)
+public record IntervaloAgendamento(Integer id, LocalDateTime inicio, LocalDateTime fim) {
+
+    // Usado nas consultas JPQL que calculam o fim a partir da duração do serviço
+    public IntervaloAgendamento(Integer id, LocalDateTime inicio, Integer duracaoMinutos) {
+        this(id, inicio, inicio.plusMinutes(duracaoMinutos));
+    }
+
+    public boolean sobrepoe(LocalDateTime outroInicio, LocalDateTime outroFim) {
+        return inicio.isBefore(outroFim) && fim.isAfter(outroInicio);
+    }
+}
@@ -0,0 +1,12 @@
+package com.java360.agendei.domain.repository.projection;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+
+// Dados de um negócio usados pelos índices de busca e de sugestões
+public record NegocioIndexado(Integer id, String nome, CategoriaNegocio categoria, boolean ativo) {
+
+    public static NegocioIndexado de(Negocio negocio) {
+        return new NegocioIndexado(negocio.getId(), negocio.getNome(), negocio.getCategoria(), negocio.isAtivo());
+    }
+}
@@ -0,0 +1,16 @@
+package com.java360.agendei.domain.repository.projection;
+
+import com.java360.agendei.infrastructure.util.GeocodingService;
+
+// Negócio fora da busca por raio: endereço e coordenadas já conhecidas (ou null)
+public record NegocioSemGeohash(Integer id, String endereco, String numero, String cep,
+                                Double latitude, Double longitude) {
+
+    public boolean temCoordenadas() {
+        return latitude != null && longitude != null;
+    }
+
+    public String enderecoCompleto() {
+        return GeocodingService.enderecoCompleto(endereco, numero, cep);
+    }
+}
@@ -0,0 +1,5 @@
+package com.java360.agendei.domain.repository.projection;
+
+// Só o que a galeria lista: id e nome, sem a entidade nem o negócio
+public record ResumoFotoNegocio(Integer id, String nomeArquivo) {
+}
@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.math.BigDecimal;
+
+// Quantidade e faturamento agrupados por um período (mês 1-12 ou ano)
+public record TotalPorPeriodo(Integer periodo, Long quantidade, BigDecimal valorTotal) {
+}
@@ -0,0 +1,8 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.math.BigDecimal;
+
+// Totais de um prestador no período: agendamentos, concluídos, cancelados e valor concluído
+public record TotalPorPrestador(Integer prestadorId, Long quantidade, Long concluidos,
+                                Long cancelados, BigDecimal valorConcluido) {
+}
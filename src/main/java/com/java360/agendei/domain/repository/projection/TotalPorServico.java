@@ -0,0 +1,7 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.math.BigDecimal;
+
+// Quantidade e faturamento agrupados por serviço
+public record TotalPorServico(Integer servicoId, String titulo, Long quantidade, BigDecimal valorTotal) {
+}
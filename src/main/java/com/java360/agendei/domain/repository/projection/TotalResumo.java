@@ -0,0 +1,12 @@
+package com.java360.agendei.domain.repository.projection;
+
+import java.math.BigDecimal;
+
+// Totais de um período: quantidade por status e valores pendente/concluído
+public record TotalResumo(Long pendentes, Long concluidos, Long cancelados,
+                          BigDecimal valorPendente, BigDecimal valorConcluido) {
+
+    public long total() {
+        return pendentes + concluidos + cancelados;
+    }
+}
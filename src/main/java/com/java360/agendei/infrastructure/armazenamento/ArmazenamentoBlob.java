@@ -0,0 +1,22 @@
+package com.java360.agendei.infrastructure.armazenamento;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Armazenamento de arquivos endereçado pelo conteúdo: a chave é o SHA-256 (hex) dos bytes.
+// O mesmo arquivo enviado duas vezes ocupa espaço uma vez só e uma chave nunca muda de conteúdo.
+public interface ArmazenamentoBlob {
+
+    // Grava o conteúdo em fluxo (sem carregá-lo inteiro na memória) e devolve a chave
+    String salvar(InputStream conteudo) throws IOException;
+
+    // Conteúdo para leitura em fluxo, sem ler nada ainda. Chave inexistente: IllegalArgumentException aqui
+    // ou FileNotFoundException ao consultar/ler o Resource, conforme a implementação
+    Resource abrir(String chave);
+
+    boolean existe(String chave);
+
+    void remover(String chave);
+}
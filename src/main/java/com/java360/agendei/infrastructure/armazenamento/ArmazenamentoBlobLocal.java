@@ -0,0 +1,75 @@
+package com.java360.agendei.infrastructure.armazenamento;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Padrão: arquivos em disco, em subpastas pelos dois primeiros caracteres da chave (ab/abcdef...)
+@Component
+@ConditionalOnProperty(name = "spring.armazenamento.tipo", havingValue = "local", matchIfMissing = true)
+public class ArmazenamentoBlobLocal implements ArmazenamentoBlob {
+
+    private final Path raiz;
+    private final Path temporarios;
+
+    public ArmazenamentoBlobLocal(@Value("${spring.armazenamento.local.diretorio:dados/blobs}") String diretorio)
+            throws IOException {
+        this.raiz = Path.of(diretorio).toAbsolutePath();
+        this.temporarios = Files.createDirectories(raiz.resolve("tmp"));
+    }
+
+    @Override
+    public String salvar(InputStream conteudo) throws IOException {
+        // Grava num temporário do mesmo disco e só então move: quem lê nunca vê um arquivo pela metade
+        Path temporario = Files.createTempFile(temporarios, "envio-", ".tmp");
+        try {
+            String chave = ConteudoComHash.copiar(conteudo, temporario);
+            Path destino = caminho(chave);
+            if (!Files.exists(destino)) {
+                Files.createDirectories(destino.getParent());
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return chave;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    // FileSystemResource lê pelo FileChannel do arquivo: a resposta sai em fluxo, sem passar pelo heap inteira
+    @Override
+    public Resource abrir(String chave) {
+        Path arquivo = caminho(chave);
+        if (!Files.isRegularFile(arquivo)) {
+            throw new IllegalArgumentException("Arquivo não encontrado.");
+        }
+        return new FileSystemResource(arquivo);
+    }
+
+    @Override
+    public boolean existe(String chave) {
+        return Files.isRegularFile(caminho(chave));
+    }
+
+    @Override
+    public void remover(String chave) {
+        try {
+            Files.deleteIfExists(caminho(chave));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path caminho(String chave) {
+        ConteudoComHash.validarChave(chave);
+        return raiz.resolve(chave.substring(0, 2)).resolve(chave);
+    }
+}
@@ -0,0 +1,265 @@
+package com.java360.agendei.infrastructure.armazenamento;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+
+// Bucket compatível com S3 (AWS, MinIO, LocalStack...) acessado por HTTP com URL no estilo caminho
+// (endpoint/bucket/chave) e assinatura AWS Signature V4, sem depender do SDK
+@Component
+@ConditionalOnProperty(name = "spring.armazenamento.tipo", havingValue = "s3")
+public class ArmazenamentoBlobS3 implements ArmazenamentoBlob {
+
+    private static final String ALGORITMO = "AWS4-HMAC-SHA256";
+    private static final String HASH_VAZIO = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String regiao;
+    private final String chaveAcesso;
+    private final String chaveSecreta;
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public ArmazenamentoBlobS3(@Value("${spring.armazenamento.s3.endpoint}") String endpoint,
+                               @Value("${spring.armazenamento.s3.bucket}") String bucket,
+                               @Value("${spring.armazenamento.s3.regiao:us-east-1}") String regiao,
+                               @Value("${spring.armazenamento.s3.chave-acesso}") String chaveAcesso,
+                               @Value("${spring.armazenamento.s3.chave-secreta}") String chaveSecreta) {
+        this.endpoint = URI.create(endpoint);
+        this.bucket = bucket;
+        this.regiao = regiao;
+        this.chaveAcesso = chaveAcesso;
+        this.chaveSecreta = chaveSecreta;
+    }
+
+    @Override
+    public String salvar(InputStream conteudo) throws IOException {
+        // O hash precisa existir antes do envio (ele é a chave): passa por um temporário local
+        Path temporario = Files.createTempFile("agendei-envio-", ".tmp");
+        try {
+            String chave = ConteudoComHash.copiar(conteudo, temporario);
+            if (!existe(chave)) {
+                // O hash do corpo é a própria chave: o servidor confere a integridade do que recebeu
+                HttpResponse<Void> resposta = enviar("PUT", chave, chave,
+                        HttpRequest.BodyPublishers.ofFile(temporario), HttpResponse.BodyHandlers.discarding());
+                verificar(resposta, "gravar");
+            }
+            return chave;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public Resource abrir(String chave) {
+        ConteudoComHash.validarChave(chave);
+        return new ObjetoS3(chave); // nenhuma requisição até alguém consultar ou ler
+    }
+
+    @Override
+    public boolean existe(String chave) {
+        return consultar(chave).statusCode() != 404;
+    }
+
+    @Override
+    public void remover(String chave) {
+        HttpResponse<Void> resposta = enviarSemCorpo("DELETE", chave, HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() != 404) verificar(resposta, "remover");
+    }
+
+    // HEAD do objeto: 404 se não existir, senão tamanho e data nos cabeçalhos
+    private HttpResponse<Void> consultar(String chave) {
+        HttpResponse<Void> resposta = enviarSemCorpo("HEAD", chave, HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() != 404) verificar(resposta, "consultar");
+        return resposta;
+    }
+
+    private <T> HttpResponse<T> enviarSemCorpo(String metodo, String chave, HttpResponse.BodyHandler<T> leitor) {
+        try {
+            return enviar(metodo, chave, HASH_VAZIO, HttpRequest.BodyPublishers.noBody(), leitor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> HttpResponse<T> enviar(String metodo, String chave, String hashCorpo,
+                                       HttpRequest.BodyPublisher corpo,
+                                       HttpResponse.BodyHandler<T> leitor) throws IOException {
+        ConteudoComHash.validarChave(chave);
+        String caminho = "/" + bucket + "/" + chave;
+        URI uri = endpoint.resolve(caminho);
+        ZonedDateTime agora = ZonedDateTime.now(ZoneOffset.UTC);
+
+        HttpRequest requisicao = HttpRequest.newBuilder(uri)
+                .method(metodo, corpo)
+                .timeout(Duration.ofSeconds(30))
+                .header("x-amz-content-sha256", hashCorpo)
+                .header("x-amz-date", DATA_HORA.format(agora))
+                .header("Authorization", assinatura(metodo, uri, hashCorpo, agora))
+                .build();
+        try {
+            return http.send(requisicao, leitor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Envio ao armazenamento interrompido.", e);
+        }
+    }
+
+    // Cabeçalho Authorization da Signature V4 assinando host, x-amz-content-sha256 e x-amz-date
+    private String assinatura(String metodo, URI uri, String hashCorpo, ZonedDateTime agora) {
+        String dataHora = DATA_HORA.format(agora);
+        String escopo = DATA.format(agora) + "/" + regiao + "/s3/aws4_request";
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        String cabecalhosAssinados = "host;x-amz-content-sha256;x-amz-date";
+
+        String requisicaoCanonica = String.join("\n",
+                metodo,
+                uri.getRawPath(),
+                "", // sem query string
+                "host:" + host,
+                "x-amz-content-sha256:" + hashCorpo,
+                "x-amz-date:" + dataHora,
+                "",
+                cabecalhosAssinados,
+                hashCorpo);
+        String textoAssinado = String.join("\n",
+                ALGORITMO, dataHora, escopo, hex(ConteudoComHash.sha256().digest(utf8(requisicaoCanonica))));
+
+        byte[] chave = hmac(utf8("AWS4" + chaveSecreta), DATA.format(agora));
+        chave = hmac(chave, regiao);
+        chave = hmac(chave, "s3");
+        chave = hmac(chave, "aws4_request");
+
+        return ALGORITMO + " Credential=" + chaveAcesso + "/" + escopo
+                + ", SignedHeaders=" + cabecalhosAssinados
+                + ", Signature=" + hex(hmac(chave, textoAssinado));
+    }
+
+    private static void verificar(HttpResponse<?> resposta, String operacao) {
+        if (resposta.statusCode() / 100 != 2) {
+            throw new UncheckedIOException(new IOException(
+                    "Falha ao " + operacao + " arquivo no armazenamento S3: HTTP " + resposta.statusCode()));
+        }
+    }
+
+    private static byte[] hmac(byte[] chave, String texto) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(chave, "HmacSHA256"));
+            return mac.doFinal(utf8(texto));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    // Objeto lido sob demanda: cada getInputStream abre um GET em fluxo, sem copiar o corpo para a memória.
+    // Tamanho e data vêm de um único HEAD, guardado no objeto (vale para uma resposta)
+    private final class ObjetoS3 extends AbstractResource {
+
+        private final String chave;
+        private HttpHeaders metadados;
+
+        private ObjetoS3(String chave) {
+            this.chave = chave;
+        }
+
+        private HttpHeaders metadados() throws FileNotFoundException {
+            if (metadados == null) {
+                HttpResponse<Void> resposta = consultar(chave);
+                if (resposta.statusCode() == 404) throw new FileNotFoundException(getDescription());
+                metadados = resposta.headers();
+            }
+            return metadados;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            HttpResponse<InputStream> resposta =
+                    enviar("GET", chave, HASH_VAZIO, HttpRequest.BodyPublishers.noBody(),
+                            HttpResponse.BodyHandlers.ofInputStream());
+            if (resposta.statusCode() == 404) {
+                resposta.body().close();
+                throw new FileNotFoundException(getDescription());
+            }
+            if (resposta.statusCode() / 100 != 2) {
+                resposta.body().close();
+                verificar(resposta, "ler");
+            }
+            return resposta.body();
+        }
+
+        // Sem isto o AbstractResource leria o objeto inteiro só para contar os bytes
+        @Override
+        public long contentLength() throws IOException {
+            return metadados().firstValueAsLong("Content-Length")
+                    .orElseThrow(() -> new IOException("HEAD sem Content-Length: " + getDescription()));
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return metadados().firstValue("Last-Modified")
+                    .map(data -> ZonedDateTime.parse(data, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                    .orElse(0L);
+        }
+
+        @Override
+        public boolean exists() {
+            return existe(chave);
+        }
+
+        @Override
+        public String getFilename() {
+            return chave;
+        }
+
+        @Override
+        public String getDescription() {
+            return "objeto S3 [" + bucket + "/" + chave + "]";
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof ObjetoS3 objeto && objeto.chave.equals(chave);
+        }
+
+        @Override
+        public int hashCode() {
+            return chave.hashCode();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.java360.agendei.infrastructure.armazenamento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+final class ConteudoComHash {
+
+    private static final Pattern CHAVE = Pattern.compile("[0-9a-f]{64}");
+
+    private ConteudoComHash() {
+    }
+
+    // Copia para o arquivo calculando o SHA-256 no mesmo passo; devolve o hash em hex
+    static String copiar(InputStream conteudo, Path destino) throws IOException {
+        MessageDigest sha256 = sha256();
+        try (DigestInputStream entrada = new DigestInputStream(conteudo, sha256)) {
+            Files.copy(entrada, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    // A chave vira caminho/URL: só aceita o formato gerado aqui
+    static void validarChave(String chave) {
+        if (chave == null || !CHAVE.matcher(chave).matches()) {
+            throw new IllegalArgumentException("Chave de arquivo inválida.");
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // obrigatório em toda JVM
+        }
+    }
+}
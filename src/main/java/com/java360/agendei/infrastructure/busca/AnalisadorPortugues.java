@@ -0,0 +1,47 @@
+package com.java360.agendei.infrastructure.busca;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.br.BrazilianAnalyzer;
+import org.apache.lucene.analysis.br.BrazilianStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+import java.text.Normalizer;
+
+// Texto em português: minúsculas e sem acento; com radical, também sem stopwords e reduzido ao radical
+// ("Cortes", "corte" e "córte" viram o mesmo termo). Sem radical serve à busca por prefixo.
+public class AnalisadorPortugues extends Analyzer {
+
+    // Stopwords sem acento, pois o filtro roda depois do ASCIIFolding ("não" -> "nao")
+    private static final CharArraySet STOPWORDS = semAcento(BrazilianAnalyzer.getDefaultStopSet());
+
+    private final boolean radical;
+
+    public AnalisadorPortugues(boolean radical) {
+        this.radical = radical;
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        Tokenizer tokenizer = new StandardTokenizer();
+        TokenStream fluxo = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+        if (radical) {
+            fluxo = new BrazilianStemFilter(new StopFilter(fluxo, STOPWORDS));
+        }
+        return new TokenStreamComponents(tokenizer, fluxo);
+    }
+
+    private static CharArraySet semAcento(CharArraySet palavras) {
+        CharArraySet resultado = new CharArraySet(palavras.size(), false);
+        for (Object palavra : palavras) {
+            String texto = new String((char[]) palavra);
+            resultado.add(Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", ""));
+        }
+        return CharArraySet.unmodifiableSet(resultado);
+    }
+}
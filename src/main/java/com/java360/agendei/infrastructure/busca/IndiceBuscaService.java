@@ -0,0 +1,421 @@
+package com.java360.agendei.infrastructure.busca;
+
+import com.java360.agendei.domain.entity.Disponibilidade;
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.ServicoRepository;
+import com.java360.agendei.domain.repository.projection.DiaAtivoPrestador;
+import com.java360.agendei.domain.repository.projection.NegocioIndexado;
+import com.java360.agendei.infrastructure.util.TransacaoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Índice de busca textual (Lucene, em memória) de serviços e negócios.
+// Carregado do banco na inicialização, atualizado depois do commit de cada alteração e
+// reconstruído periodicamente (cada instância tem o seu e converge com as alterações das outras).
+@Slf4j
+@Service
+public class IndiceBuscaService {
+
+    public static final int TAMANHO_MAXIMO_PAGINA = 100;
+    public static final int MAXIMO_RESULTADOS = 10_000; // limite da paginação por deslocamento
+
+    private static final int TAMANHO_BLOCO = 1000;
+
+    private static final String CHAVE = "chave";
+    private static final String TIPO = "tipo";
+    private static final String ID = "id";
+    private static final String DIA = "dia";
+    private static final String TITULO = "titulo";
+    private static final String DESCRICAO = "descricao";
+    private static final String PRESTADOR = "prestador";
+    private static final String NEGOCIO = "negocio";
+    private static final String NOME = "nome";
+    private static final String PREFIXO = "_prefixo"; // cópia sem radical de cada campo, para busca por prefixo
+
+    private static final String TIPO_SERVICO = "servico";
+    private static final String TIPO_NEGOCIO = "negocio";
+
+    // Campos da busca de serviços e seu peso na relevância
+    private static final Map<String, Float> CAMPOS_SERVICO = Map.of(TITULO, 3f, PRESTADOR, 2f, NEGOCIO, 2f, DESCRICAO, 1f);
+
+    private static final Analyzer ANALISADOR = new PerFieldAnalyzerWrapper(new AnalisadorPortugues(true),
+            Set.of(TITULO, DESCRICAO, PRESTADOR, NEGOCIO, NOME).stream()
+                    .collect(Collectors.toMap(campo -> campo + PREFIXO, campo -> new AnalisadorPortugues(false))));
+
+    public record Resultado(List<Integer> ids, boolean temMais) {
+    }
+
+    // Documento novo para a chave; documento nulo remove a chave do índice
+    private record Alteracao(Term chave, Document documento) {
+    }
+
+    private record Indice(IndexWriter escritor, SearcherManager leitores) {
+    }
+
+    private final ServicoRepository servicoRepository;
+    private final NegocioRepository negocioRepository;
+    private final DisponibilidadeRepository disponibilidadeRepository;
+
+    private volatile Indice indice;
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+    private List<Alteracao> alteracoesDuranteReconstrucao; // guardado por this
+
+    public IndiceBuscaService(ServicoRepository servicoRepository,
+                              NegocioRepository negocioRepository,
+                              DisponibilidadeRepository disponibilidadeRepository) {
+        this.servicoRepository = servicoRepository;
+        this.negocioRepository = negocioRepository;
+        this.disponibilidadeRepository = disponibilidadeRepository;
+        this.indice = novoIndice();
+    }
+
+    // Serviços ativos por relevância em título, prestador, negócio e descrição; sem texto, todos os do dia
+    public Resultado buscarServicos(String texto, DiaSemanaDisponivel diaSemana, int pagina, int tamanho) {
+        BooleanQuery.Builder consulta = filtroServicos(diaSemana);
+        adicionarTexto(consulta, texto, CAMPOS_SERVICO);
+        return buscar(consulta.build(), pagina, tamanho);
+    }
+
+    // Busca por campo: título e/ou nome do prestador
+    public Resultado buscarServicos(String titulo, String nomePrestador, DiaSemanaDisponivel diaSemana,
+                                    int pagina, int tamanho) {
+        BooleanQuery.Builder consulta = filtroServicos(diaSemana);
+        adicionarTexto(consulta, titulo, Map.of(TITULO, 1f));
+        adicionarTexto(consulta, nomePrestador, Map.of(PRESTADOR, 1f));
+        return buscar(consulta.build(), pagina, tamanho);
+    }
+
+    public Resultado buscarNegocios(String nome, int pagina, int tamanho) {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TIPO, TIPO_NEGOCIO)), BooleanClause.Occur.FILTER);
+        adicionarTexto(consulta, nome, Map.of(NOME, 1f));
+        return buscar(consulta.build(), pagina, tamanho);
+    }
+
+    // Reindexa os serviços depois do commit. Inativos ou de prestador sem dia de atendimento saem do índice.
+    public void atualizarServicos(Collection<Servico> servicos) {
+        if (servicos.isEmpty()) return;
+
+        Map<Integer, Set<DiaSemanaDisponivel>> dias = new HashMap<>();
+        List<Alteracao> alteracoes = servicos.stream()
+                .map(s -> alteracao(s, dias.computeIfAbsent(s.getPrestador().getId(), this::diasAtivos)))
+                .toList();
+        TransacaoUtils.aposCommit(() -> aplicar(alteracoes));
+    }
+
+    // Nome ou dias de atendimento do prestador mudaram
+    public void atualizarPrestador(Integer prestadorId) {
+        atualizarServicos(servicoRepository.findByPrestadorId(prestadorId));
+    }
+
+    // O nome do negócio também faz parte do documento de cada serviço
+    public void atualizarNegocio(Negocio negocio) {
+        Alteracao alteracao = new Alteracao(chave(TIPO_NEGOCIO, negocio.getId()),
+                documento(NegocioIndexado.de(negocio)));
+        TransacaoUtils.aposCommit(() -> aplicar(List.of(alteracao)));
+        atualizarServicos(servicoRepository.findByNegocio_Id(negocio.getId()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    // Monta um índice novo a partir do banco e troca pelo atual; alterações feitas durante a carga são reaplicadas
+    @Scheduled(initialDelayString = "${spring.busca.reconstrucao:PT15M}", fixedDelayString = "${spring.busca.reconstrucao:PT15M}")
+    public void reconstruir() {
+        if (!reconstruindo.compareAndSet(false, true)) return;
+
+        synchronized (this) {
+            alteracoesDuranteReconstrucao = new ArrayList<>();
+        }
+        try {
+            Indice novo = novoIndice();
+            int documentos = carregar(novo);
+
+            Indice antigo;
+            synchronized (this) {
+                gravar(novo, alteracoesDuranteReconstrucao);
+                antigo = indice;
+                indice = novo;
+            }
+            fechar(antigo);
+            log.info("Índice de busca reconstruído com {} documentos", documentos);
+        } catch (Exception e) {
+            log.error("Falha ao reconstruir o índice de busca", e);
+        } finally {
+            synchronized (this) {
+                alteracoesDuranteReconstrucao = null;
+            }
+            reconstruindo.set(false);
+        }
+    }
+
+    private int carregar(Indice destino) throws IOException {
+        Map<Integer, Set<DiaSemanaDisponivel>> dias = disponibilidadeRepository.listarDiasAtivos().stream()
+                .collect(Collectors.groupingBy(DiaAtivoPrestador::prestadorId,
+                        Collectors.mapping(DiaAtivoPrestador::diaSemana,
+                                Collectors.toCollection(() -> EnumSet.noneOf(DiaSemanaDisponivel.class)))));
+
+        int documentos = 0;
+        int ultimoId = 0;
+        List<Servico> servicos;
+        do {
+            servicos = servicoRepository.buscarParaIndice(ultimoId, Limit.of(TAMANHO_BLOCO));
+            for (Servico servico : servicos) {
+                Alteracao alteracao = alteracao(servico, dias.getOrDefault(servico.getPrestador().getId(), Set.of()));
+                if (alteracao.documento() != null) {
+                    destino.escritor().addDocument(alteracao.documento());
+                    documentos++;
+                }
+                ultimoId = servico.getId();
+            }
+        } while (servicos.size() == TAMANHO_BLOCO);
+
+        ultimoId = 0;
+        List<NegocioIndexado> negocios;
+        do {
+            negocios = negocioRepository.buscarParaIndice(ultimoId, Limit.of(TAMANHO_BLOCO));
+            for (NegocioIndexado negocio : negocios) {
+                destino.escritor().addDocument(documento(negocio));
+                documentos++;
+                ultimoId = negocio.id();
+            }
+        } while (negocios.size() == TAMANHO_BLOCO);
+
+        destino.leitores().maybeRefresh();
+        return documentos;
+    }
+
+    private synchronized void aplicar(List<Alteracao> alteracoes) {
+        try {
+            gravar(indice, alteracoes);
+        } catch (Exception e) {
+            // A próxima reconstrução corrige o índice
+            log.warn("Falha ao atualizar o índice de busca: {}", e.toString());
+        }
+        if (alteracoesDuranteReconstrucao != null) {
+            alteracoesDuranteReconstrucao.addAll(alteracoes);
+        }
+    }
+
+    private void gravar(Indice destino, List<Alteracao> alteracoes) {
+        try {
+            for (Alteracao alteracao : alteracoes) {
+                if (alteracao.documento() == null) {
+                    destino.escritor().deleteDocuments(alteracao.chave());
+                } else {
+                    destino.escritor().updateDocument(alteracao.chave(), alteracao.documento());
+                }
+            }
+            destino.leitores().maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Resultado buscar(Query consulta, int pagina, int tamanho) {
+        if (pagina < 0) {
+            throw new IllegalArgumentException("A página deve ser maior ou igual a 0.");
+        }
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        if ((long) (pagina + 1) * tamanho > MAXIMO_RESULTADOS) {
+            throw new IllegalArgumentException("A busca retorna no máximo " + MAXIMO_RESULTADOS + " resultados. Refine os termos.");
+        }
+
+        while (true) {
+            Indice atual = indice;
+            try {
+                return buscar(atual, consulta, pagina * tamanho, tamanho);
+            } catch (AlreadyClosedException e) {
+                if (atual == indice) throw e; // só repete se o índice foi trocado pela reconstrução
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Lê apenas os 'inicio + tamanho + 1' melhores: o excedente indica se há próxima página
+    private Resultado buscar(Indice atual, Query consulta, int inicio, int tamanho) throws IOException {
+        IndexSearcher buscador = atual.leitores().acquire();
+        try {
+            int fim = inicio + tamanho;
+            TopDocs melhores = buscador.search(consulta, fim + 1);
+            StoredFields campos = buscador.storedFields();
+
+            List<Integer> ids = new ArrayList<>();
+            for (int i = inicio; i < Math.min(fim, melhores.scoreDocs.length); i++) {
+                ids.add(campos.document(melhores.scoreDocs[i].doc, Set.of(ID)).getField(ID).numericValue().intValue());
+            }
+            return new Resultado(ids, melhores.scoreDocs.length > fim);
+        } finally {
+            atual.leitores().release(buscador);
+        }
+    }
+
+    private BooleanQuery.Builder filtroServicos(DiaSemanaDisponivel diaSemana) {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TIPO, TIPO_SERVICO)), BooleanClause.Occur.FILTER);
+        if (diaSemana != null) {
+            consulta.add(new TermQuery(new Term(DIA, diaSemana.name())), BooleanClause.Occur.FILTER);
+        }
+        return consulta;
+    }
+
+    // Cada palavra precisa aparecer em algum dos campos (pelo radical, sem acento).
+    // A última também casa por prefixo, pois pode estar incompleta ("cor" encontra "Corte").
+    private void adicionarTexto(BooleanQuery.Builder consulta, String texto, Map<String, Float> campos) {
+        if (texto == null || texto.isBlank()) return;
+
+        // Todos os campos usam o mesmo analisador: o título serve de referência
+        List<String> palavras = termos(TITULO + PREFIXO, texto);
+        if (palavras.isEmpty()) {
+            consulta.add(new MatchNoDocsQuery(), BooleanClause.Occur.MUST);
+            return;
+        }
+
+        for (int i = 0; i < palavras.size(); i++) {
+            String palavra = palavras.get(i);
+            BooleanQuery.Builder alternativas = new BooleanQuery.Builder();
+
+            for (String radical : termos(TITULO, palavra)) {
+                campos.forEach((campo, peso) -> alternativas.add(
+                        new BoostQuery(new TermQuery(new Term(campo, radical)), peso), BooleanClause.Occur.SHOULD));
+            }
+            if (i == palavras.size() - 1 && palavra.length() >= 2) {
+                campos.forEach((campo, peso) -> alternativas.add(
+                        new BoostQuery(new PrefixQuery(new Term(campo + PREFIXO, palavra)), peso / 2), BooleanClause.Occur.SHOULD));
+            }
+
+            BooleanQuery palavraConsulta = alternativas.build();
+            if (!palavraConsulta.clauses().isEmpty()) { // stopword no meio do texto não filtra
+                consulta.add(palavraConsulta, BooleanClause.Occur.MUST);
+            }
+        }
+    }
+
+    private List<String> termos(String campo, String texto) {
+        List<String> termos = new ArrayList<>();
+        try (TokenStream fluxo = ANALISADOR.tokenStream(campo, texto)) {
+            CharTermAttribute termo = fluxo.addAttribute(CharTermAttribute.class);
+            fluxo.reset();
+            while (fluxo.incrementToken()) {
+                termos.add(termo.toString());
+            }
+            fluxo.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return termos;
+    }
+
+    private Alteracao alteracao(Servico servico, Set<DiaSemanaDisponivel> dias) {
+        Term chave = chave(TIPO_SERVICO, servico.getId());
+        // Mesma regra da busca anterior: só serviços ativos de prestador com algum dia de atendimento
+        if (!servico.isAtivo() || dias.isEmpty()) {
+            return new Alteracao(chave, null);
+        }
+
+        Document documento = new Document();
+        documento.add(new StringField(CHAVE, chave.text(), Field.Store.NO));
+        documento.add(new StringField(TIPO, TIPO_SERVICO, Field.Store.NO));
+        documento.add(new StoredField(ID, servico.getId()));
+        texto(documento, TITULO, servico.getTitulo());
+        texto(documento, DESCRICAO, servico.getDescricao());
+        texto(documento, PRESTADOR, servico.getPrestador().getNome());
+        texto(documento, NEGOCIO, servico.getNegocio().getNome());
+        dias.forEach(dia -> documento.add(new StringField(DIA, dia.name(), Field.Store.NO)));
+        return new Alteracao(chave, documento);
+    }
+
+    private Document documento(NegocioIndexado negocio) {
+        Document documento = new Document();
+        documento.add(new StringField(CHAVE, chave(TIPO_NEGOCIO, negocio.id()).text(), Field.Store.NO));
+        documento.add(new StringField(TIPO, TIPO_NEGOCIO, Field.Store.NO));
+        documento.add(new StoredField(ID, negocio.id()));
+        texto(documento, NOME, negocio.nome());
+        return documento;
+    }
+
+    private void texto(Document documento, String campo, String valor) {
+        if (valor == null) return;
+        documento.add(new TextField(campo, valor, Field.Store.NO));
+        documento.add(new TextField(campo + PREFIXO, valor, Field.Store.NO));
+    }
+
+    private Term chave(String tipo, Integer id) {
+        return new Term(CHAVE, tipo + ":" + id);
+    }
+
+    private Set<DiaSemanaDisponivel> diasAtivos(Integer prestadorId) {
+        return disponibilidadeRepository.findByPrestadorId(prestadorId).stream()
+                .filter(Disponibilidade::isAtivo)
+                .map(Disponibilidade::getDiaSemana)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(DiaSemanaDisponivel.class)));
+    }
+
+    private Indice novoIndice() {
+        try {
+            IndexWriter escritor = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(ANALISADOR));
+            return new Indice(escritor, new SearcherManager(escritor, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void fechar(Indice antigo) {
+        try {
+            antigo.leitores().close();
+            antigo.escritor().close();
+        } catch (IOException e) {
+            log.warn("Falha ao fechar o índice de busca anterior: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.java360.agendei.infrastructure.busca;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.TipoSugestao;
+import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.ServicoRepository;
+import com.java360.agendei.domain.repository.projection.NegocioIndexado;
+import com.java360.agendei.infrastructure.dto.SugestaoDTO;
+import com.java360.agendei.infrastructure.util.TransacaoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Autocompletar da caixa de busca: títulos de serviço, nomes de negócio e categorias em uma trie em memória.
+// Carregada na inicialização, atualizada depois do commit de cada alteração e reconstruída periodicamente.
+@Slf4j
+@Service
+public class SugestaoBuscaService {
+
+    public static final int MAXIMO_SUGESTOES = 10;
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 40;
+    private static final int TAMANHO_BLOCO = 1000;
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    // Mesmo peso: ordem alfabética; o restante só torna a ordem total (exigido pela trie)
+    private static final Comparator<SugestaoDTO> DESEMPATE = Comparator
+            .comparing(SugestaoDTO::getTexto, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(SugestaoDTO::getTexto)
+            .thenComparing(SugestaoDTO::getTipo)
+            .thenComparing(SugestaoDTO::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private record ServicoSugerido(String titulo, Integer negocioId) {
+    }
+
+    private final ServicoRepository servicoRepository;
+    private final NegocioRepository negocioRepository;
+
+    private volatile Sugestoes sugestoes = new Sugestoes();
+    private final AtomicBoolean reconstruindo = new AtomicBoolean();
+    private List<Consumer<Sugestoes>> alteracoesDuranteReconstrucao; // guardado por this
+
+    public SugestaoBuscaService(ServicoRepository servicoRepository, NegocioRepository negocioRepository) {
+        this.servicoRepository = servicoRepository;
+        this.negocioRepository = negocioRepository;
+    }
+
+    // Sugestões de maior peso que começam pelo texto (ou por uma palavra do meio): sem acento e sem caixa
+    public List<SugestaoDTO> sugerir(String texto, int limite) {
+        if (limite < 1 || limite > MAXIMO_SUGESTOES) {
+            throw new IllegalArgumentException("O limite de sugestões deve estar entre 1 e " + MAXIMO_SUGESTOES + ".");
+        }
+
+        String prefixo = normalizar(texto);
+        if (prefixo.isEmpty()) return List.of();
+        return sugestoes.trie.buscar(prefixo, limite);
+    }
+
+    public void atualizarServicos(Collection<Servico> servicos) {
+        List<Consumer<Sugestoes>> alteracoes = new ArrayList<>();
+        for (Servico servico : servicos) {
+            Integer id = servico.getId();
+            ServicoSugerido dados = servico.isAtivo()
+                    ? new ServicoSugerido(servico.getTitulo(), servico.getNegocio().getId())
+                    : null;
+            alteracoes.add(s -> s.servico(id, dados));
+        }
+        TransacaoUtils.aposCommit(() -> aplicar(alteracoes));
+    }
+
+    public void atualizarNegocio(Negocio negocio) {
+        NegocioIndexado dados = NegocioIndexado.de(negocio);
+        TransacaoUtils.aposCommit(() -> aplicar(List.of(s -> s.negocio(dados))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    // Monta as sugestões a partir do banco e troca pelas atuais; alterações feitas durante a carga são reaplicadas
+    @Scheduled(initialDelayString = "${spring.busca.reconstrucao:PT15M}", fixedDelayString = "${spring.busca.reconstrucao:PT15M}")
+    public void reconstruir() {
+        if (!reconstruindo.compareAndSet(false, true)) return;
+
+        synchronized (this) {
+            alteracoesDuranteReconstrucao = new ArrayList<>();
+        }
+        try {
+            Sugestoes novas = new Sugestoes();
+            novas.carregando = true;
+
+            int ultimoId = 0;
+            List<NegocioIndexado> negocios;
+            do {
+                negocios = negocioRepository.buscarParaIndice(ultimoId, Limit.of(TAMANHO_BLOCO));
+                for (NegocioIndexado negocio : negocios) {
+                    novas.negocio(negocio);
+                    ultimoId = negocio.id();
+                }
+            } while (negocios.size() == TAMANHO_BLOCO);
+
+            ultimoId = 0;
+            List<Servico> servicos;
+            do {
+                servicos = servicoRepository.buscarParaIndice(ultimoId, Limit.of(TAMANHO_BLOCO));
+                for (Servico servico : servicos) {
+                    novas.servico(servico.getId(), new ServicoSugerido(servico.getTitulo(), servico.getNegocio().getId()));
+                    ultimoId = servico.getId();
+                }
+            } while (servicos.size() == TAMANHO_BLOCO);
+
+            novas.concluirCarga();
+
+            synchronized (this) {
+                alteracoesDuranteReconstrucao.forEach(alteracao -> alteracao.accept(novas));
+                sugestoes = novas;
+            }
+            log.info("Sugestões de busca reconstruídas com {} entradas", novas.trie.tamanho());
+        } catch (Exception e) {
+            log.error("Falha ao reconstruir as sugestões de busca", e);
+        } finally {
+            synchronized (this) {
+                alteracoesDuranteReconstrucao = null;
+            }
+            reconstruindo.set(false);
+        }
+    }
+
+    private synchronized void aplicar(List<Consumer<Sugestoes>> alteracoes) {
+        alteracoes.forEach(alteracao -> alteracao.accept(sugestoes));
+        if (alteracoesDuranteReconstrucao != null) {
+            alteracoesDuranteReconstrucao.addAll(alteracoes);
+        }
+    }
+
+    // Minúsculas, sem acento e só letras/dígitos separados por um espaço: "Café  & Cia." -> "cafe cia"
+    static String normalizar(String texto) {
+        if (texto == null) return "";
+        String semAcento = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcento.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Uma chave a partir de cada palavra: "corte de cabelo" também é encontrado por "cab"
+    private static Set<String> chaves(String normalizado) {
+        Set<String> chaves = new LinkedHashSet<>();
+        for (int i = 0; i < normalizado.length(); i++) {
+            if (i == 0 || normalizado.charAt(i - 1) == ' ') {
+                chaves.add(normalizado.substring(i, Math.min(normalizado.length(), i + TAMANHO_MAXIMO_CHAVE)));
+            }
+        }
+        return chaves;
+    }
+
+    // Estado das sugestões. Pesos: título = serviços ativos com ele; negócio = 1 + serviços ativos;
+    // categoria = negócios ativos. Alterado apenas sob a trava do serviço.
+    private static final class Sugestoes {
+        final TriePrefixos<SugestaoDTO> trie = new TriePrefixos<>(MAXIMO_SUGESTOES, DESEMPATE);
+
+        final Map<Integer, ServicoSugerido> servicos = new HashMap<>(); // ativos
+        final Map<Integer, NegocioIndexado> negocios = new HashMap<>(); // ativos
+        final Map<String, SugestaoDTO> titulos = new HashMap<>(); // título normalizado -> primeira grafia
+        final Map<String, Integer> servicosPorTitulo = new HashMap<>();
+        final Map<Integer, Integer> servicosPorNegocio = new HashMap<>();
+        final Map<CategoriaNegocio, Integer> negociosPorCategoria = new EnumMap<>(CategoriaNegocio.class);
+
+        boolean carregando; // carga completa: a trie é montada uma única vez em concluirCarga()
+
+        void concluirCarga() {
+            carregando = false;
+            Map<SugestaoDTO, Integer> pesos = new HashMap<>();
+            Map<SugestaoDTO, Set<String>> chavesPorSugestao = new HashMap<>();
+
+            titulos.forEach((titulo, sugestao) -> {
+                pesos.put(sugestao, servicosPorTitulo.get(titulo));
+                chavesPorSugestao.put(sugestao, chaves(titulo));
+            });
+            negocios.values().forEach(negocio -> {
+                pesos.put(sugestao(negocio), 1 + servicosPorNegocio.getOrDefault(negocio.id(), 0));
+                chavesPorSugestao.put(sugestao(negocio), chaves(normalizar(negocio.nome())));
+            });
+            negociosPorCategoria.forEach((categoria, total) -> {
+                pesos.put(categoria(categoria), total);
+                chavesPorSugestao.put(categoria(categoria), chaves(normalizar(categoria.name())));
+            });
+            trie.carregar(pesos, chavesPorSugestao);
+        }
+
+        void servico(Integer id, ServicoSugerido novo) {
+            ServicoSugerido antigo = novo != null ? servicos.put(id, novo) : servicos.remove(id);
+            if (Objects.equals(antigo, novo)) return;
+
+            if (antigo != null) contarServico(antigo, -1);
+            if (novo != null) contarServico(novo, 1);
+        }
+
+        void negocio(NegocioIndexado novo) {
+            NegocioIndexado antigo = novo.ativo() ? negocios.put(novo.id(), novo) : negocios.remove(novo.id());
+            if (Objects.equals(antigo, novo)) return;
+
+            if (antigo != null) {
+                definir(sugestao(antigo), "", 0);
+                contarCategoria(antigo.categoria(), -1);
+            }
+            if (novo.ativo()) {
+                contarCategoria(novo.categoria(), 1);
+                definirNegocio(novo.id());
+            }
+        }
+
+        private void contarServico(ServicoSugerido servico, int delta) {
+            String titulo = normalizar(servico.titulo());
+            if (!titulo.isEmpty()) {
+                int total = servicosPorTitulo.merge(titulo, delta, Integer::sum);
+                SugestaoDTO sugestao = titulos.computeIfAbsent(titulo,
+                        t -> new SugestaoDTO(servico.titulo().trim(), TipoSugestao.SERVICO, null));
+                definir(sugestao, titulo, total);
+                if (total <= 0) {
+                    servicosPorTitulo.remove(titulo);
+                    titulos.remove(titulo);
+                }
+            }
+
+            if (servicosPorNegocio.merge(servico.negocioId(), delta, Integer::sum) <= 0) {
+                servicosPorNegocio.remove(servico.negocioId());
+            }
+            definirNegocio(servico.negocioId());
+        }
+
+        private void definirNegocio(Integer negocioId) {
+            NegocioIndexado negocio = negocios.get(negocioId);
+            if (negocio == null || carregando) return;
+
+            int peso = 1 + servicosPorNegocio.getOrDefault(negocioId, 0);
+            definir(sugestao(negocio), normalizar(negocio.nome()), peso);
+        }
+
+        private void contarCategoria(CategoriaNegocio categoria, int delta) {
+            if (categoria == null) return;
+
+            int total = negociosPorCategoria.merge(categoria, delta, Integer::sum);
+            definir(categoria(categoria), normalizar(categoria.name()), total);
+        }
+
+        // Durante a carga só os contadores mudam: as chaves nem são calculadas
+        private void definir(SugestaoDTO sugestao, String normalizado, int peso) {
+            if (!carregando) trie.definir(sugestao, chaves(normalizado), peso);
+        }
+
+        private SugestaoDTO categoria(CategoriaNegocio categoria) {
+            return new SugestaoDTO(categoria.name(), TipoSugestao.CATEGORIA, null);
+        }
+
+        private SugestaoDTO sugestao(NegocioIndexado negocio) {
+            return new SugestaoDTO(negocio.nome(), TipoSugestao.NEGOCIO, negocio.id());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.java360.agendei.infrastructure.busca;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trie de prefixos compactada (cada aresta guarda um trecho do texto) com as melhores entradas já calculadas
+// em cada nó: a consulta só percorre o prefixo (custo proporcional ao texto digitado, não ao número de entradas).
+// Cada alteração recalcula apenas os nós do caminho das chaves da entrada.
+// O desempate precisa ser total (0 só para entradas iguais): ele ordena as entradas dentro de cada nó.
+public class TriePrefixos<T> {
+
+    private final int maximoPorNo;
+    private final Comparator<T> ordem;
+
+    private final No raiz = new No("");
+    private final Map<T, Integer> pesos = new HashMap<>();
+    private final Map<T, List<String>> chavesPorEntrada = new HashMap<>();
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+
+    // Filhos indexados pelo primeiro caractere do rótulo; filhos e entradas são criados sob demanda
+    private final class No {
+        String rotulo; // trecho da aresta que vem do pai
+        Map<Character, No> filhos;
+        TreeSet<T> entradas; // entradas cuja chave termina neste nó, da maior para a menor
+        List<T> melhores = List.of();
+
+        No(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        No filho(char c) {
+            return filhos == null ? null : filhos.get(c);
+        }
+
+        void ligar(No filho) {
+            if (filhos == null) filhos = new HashMap<>(4);
+            filhos.put(filho.rotulo.charAt(0), filho);
+        }
+
+        boolean semEntradas() {
+            return entradas == null || entradas.isEmpty();
+        }
+
+        int totalFilhos() {
+            return filhos == null ? 0 : filhos.size();
+        }
+    }
+
+    public TriePrefixos(int maximoPorNo, Comparator<T> desempate) {
+        this.maximoPorNo = maximoPorNo;
+        this.ordem = Comparator.<T>comparingInt(pesos::get).reversed().thenComparing(desempate);
+    }
+
+    // Até 'limite' entradas de maior peso com alguma chave começando pelo prefixo
+    public List<T> buscar(String prefixo, int limite) {
+        trava.readLock().lock();
+        try {
+            No no = raiz;
+            int i = 0;
+            while (i < prefixo.length()) {
+                no = no.filho(prefixo.charAt(i));
+                if (no == null) return List.of();
+
+                // O prefixo pode terminar no meio da aresta: o nó abaixo dela já tem as melhores
+                int trecho = Math.min(no.rotulo.length(), prefixo.length() - i);
+                if (!prefixo.regionMatches(i, no.rotulo, 0, trecho)) return List.of();
+                i += trecho;
+            }
+            return no.melhores.subList(0, Math.min(limite, no.melhores.size()));
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Insere, altera o peso/chaves ou remove (peso <= 0) a entrada
+    public void definir(T entrada, Collection<String> chaves, int peso) {
+        trava.writeLock().lock();
+        try {
+            Set<String> afetadas = new HashSet<>();
+            // Sai dos nós antes de mudar o peso: ele define a posição da entrada no TreeSet
+            List<String> antigas = chavesPorEntrada.remove(entrada);
+            if (antigas != null) {
+                for (String chave : antigas) {
+                    List<No> caminho = caminho(chave);
+                    No no = caminho.get(caminho.size() - 1);
+                    if (no.entradas != null) no.entradas.remove(entrada);
+                }
+                afetadas.addAll(antigas);
+            }
+            pesos.remove(entrada);
+
+            if (peso > 0 && !chaves.isEmpty()) {
+                pesos.put(entrada, peso);
+                chavesPorEntrada.put(entrada, List.copyOf(chaves));
+                chaves.forEach(chave -> inserir(chave, entrada));
+                afetadas.addAll(chaves);
+            }
+
+            afetadas.forEach(this::recalcular);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Carga em bloco: substitui todas as entradas e calcula os nós uma única vez, das folhas para a raiz
+    public void carregar(Map<T, Integer> novosPesos, Map<T, ? extends Collection<String>> chaves) {
+        trava.writeLock().lock();
+        try {
+            raiz.filhos = null;
+            raiz.entradas = null;
+            pesos.clear();
+            chavesPorEntrada.clear();
+
+            novosPesos.forEach((entrada, peso) -> {
+                Collection<String> chavesEntrada = chaves.get(entrada);
+                if (peso <= 0 || chavesEntrada == null || chavesEntrada.isEmpty()) return;
+
+                pesos.put(entrada, peso);
+                chavesPorEntrada.put(entrada, List.copyOf(chavesEntrada));
+                chavesEntrada.forEach(chave -> inserir(chave, entrada));
+            });
+            recalcularSubarvore(raiz);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return pesos.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Desce pela chave criando o que faltar; uma aresta que diverge no meio é dividida em duas
+    private void inserir(String chave, T entrada) {
+        No no = raiz;
+        int i = 0;
+        while (i < chave.length()) {
+            No filho = no.filho(chave.charAt(i));
+            if (filho == null) {
+                filho = new No(chave.substring(i));
+                no.ligar(filho);
+                no = filho;
+                break;
+            }
+
+            int comum = 1;
+            int maximo = Math.min(filho.rotulo.length(), chave.length() - i);
+            while (comum < maximo && filho.rotulo.charAt(comum) == chave.charAt(i + comum)) comum++;
+
+            if (comum < filho.rotulo.length()) {
+                No meio = new No(filho.rotulo.substring(0, comum));
+                filho.rotulo = filho.rotulo.substring(comum);
+                meio.ligar(filho);
+                meio.melhores = filho.melhores;
+                no.ligar(meio);
+                filho = meio;
+            }
+            no = filho;
+            i += comum;
+        }
+
+        if (no.entradas == null) no.entradas = new TreeSet<>(ordem);
+        no.entradas.add(entrada);
+    }
+
+    // Nós percorridos pela chave, da raiz até o último que casa com ela por inteiro
+    private List<No> caminho(String chave) {
+        List<No> caminho = new ArrayList<>();
+        caminho.add(raiz);
+        No no = raiz;
+        int i = 0;
+        while (i < chave.length()) {
+            no = no.filho(chave.charAt(i));
+            if (no == null || !chave.startsWith(no.rotulo, i)) break;
+            caminho.add(no);
+            i += no.rotulo.length();
+        }
+        return caminho;
+    }
+
+    private void recalcularSubarvore(No no) {
+        if (no.filhos != null) no.filhos.values().forEach(this::recalcularSubarvore);
+        melhores(no);
+    }
+
+    // Recalcula do fim da chave até a raiz; nós vazios saem e nós sem entradas com um só filho são fundidos a ele
+    private void recalcular(String chave) {
+        List<No> caminho = caminho(chave);
+        for (int i = caminho.size() - 1; i >= 0; i--) {
+            No atual = caminho.get(i);
+            melhores(atual);
+            if (i == 0 || !atual.semEntradas() || atual.totalFilhos() > 1) continue;
+
+            No pai = caminho.get(i - 1);
+            pai.filhos.remove(atual.rotulo.charAt(0));
+            if (atual.totalFilhos() == 1) {
+                No filho = atual.filhos.values().iterator().next();
+                filho.rotulo = atual.rotulo + filho.rotulo;
+                pai.ligar(filho);
+            }
+        }
+    }
+
+    // Melhores do nó: as primeiras entradas próprias mais as melhores de cada filho
+    private void melhores(No no) {
+        if (no.semEntradas() && no.totalFilhos() == 1) {
+            no.melhores = no.filhos.values().iterator().next().melhores;
+            return;
+        }
+
+        Set<T> candidatos = new LinkedHashSet<>();
+        if (!no.semEntradas()) {
+            for (T entrada : no.entradas) {
+                if (candidatos.size() == maximoPorNo) break;
+                candidatos.add(entrada);
+            }
+        }
+        if (no.filhos != null) {
+            no.filhos.values().forEach(filho -> candidatos.addAll(filho.melhores));
+        }
+        candidatos.retainAll(pesos.keySet()); // filho de outra chave alterada ainda pode citar entrada removida
+        no.melhores = candidatos.stream().sorted(ordem).limit(maximoPorNo).toList();
+    }
+}
@@ -2,14 +2,18 @@ package com.java360.agendei.infrastructure.controller;
 
 import com.java360.agendei.domain.applicationservice.AgendamentoService;
 import com.java360.agendei.domain.entity.Agendamento;
+import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.infrastructure.dto.AgendamentoDTO;
 import com.java360.agendei.infrastructure.dto.ClienteResumoDTO;
 import com.java360.agendei.infrastructure.dto.CreateAgendamentoDTO;
+import com.java360.agendei.infrastructure.dto.PaginaAgendamentosDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -64,6 +68,30 @@ public class AgendamentoController {
         return ResponseEntity.ok(lista);
     }
 
+    // Agendamentos do cliente em páginas (?status=PENDENTE&de=2025-01-01&ate=2025-01-31&cursor=...&tamanho=20)
+    @GetMapping("/cliente/pagina")
+    public ResponseEntity<PaginaAgendamentosDTO> listarClientePaginado(
+            @RequestParam(required = false) StatusAgendamento status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho
+    ) {
+        return ResponseEntity.ok(agendamentoService.listarAgendamentosClientePaginado(status, de, ate, cursor, tamanho));
+    }
+
+    // Agendamentos do prestador em páginas (mesmos filtros da listagem do cliente)
+    @GetMapping("/prestador/pagina")
+    public ResponseEntity<PaginaAgendamentosDTO> listarPrestadorPaginado(
+            @RequestParam(required = false) StatusAgendamento status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho
+    ) {
+        return ResponseEntity.ok(agendamentoService.listarAgendamentosPrestadorPaginado(status, de, ate, cursor, tamanho));
+    }
+
     // Lista todos os clientes atendidos pelo negócio do prestador
     @GetMapping("/clientes")
     public ResponseEntity<List<ClienteResumoDTO>> listarClientesDoPrestador() {
@@ -0,0 +1,26 @@
+package com.java360.agendei.infrastructure.controller;
+
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
+import com.java360.agendei.infrastructure.dto.SugestaoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/busca")
+@RequiredArgsConstructor
+public class BuscaController {
+
+    private final SugestaoBuscaService sugestaoBuscaService;
+
+    // Autocompletar da caixa de busca (serviços, negócios e categorias)
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<SugestaoDTO>> sugerir(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "8") int limite
+    ) {
+        return ResponseEntity.ok(sugestaoBuscaService.sugerir(q, limite));
+    }
+}
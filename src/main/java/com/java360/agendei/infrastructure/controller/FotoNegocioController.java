@@ -1,16 +1,18 @@
 package com.java360.agendei.infrastructure.controller;
 
 import com.java360.agendei.domain.applicationservice.FotoNegocioService;
-import com.java360.agendei.domain.entity.FotoNegocio;
-import com.java360.agendei.domain.repository.FotoNegocioRepository;
+import com.java360.agendei.domain.model.TamanhoImagem;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.negocio.FotoNegocioDTO;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.MediaType;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/negocios")
@@ -18,7 +20,6 @@ import java.util.List;
 public class FotoNegocioController {
 
     private final FotoNegocioService fotoNegocioService;
-    private final FotoNegocioRepository fotoNegocioRepository;
 
     // Upload de foto
     @PostMapping("/{id}/fotos")
@@ -35,24 +36,19 @@ public class FotoNegocioController {
         return ResponseEntity.ok(fotos);
     }
 
-    // Acessar foto individual
+    // Acessar foto individual (tamanho: MINIATURA, CARTAO ou COMPLETA; sem ele, o original)
     @GetMapping("/{negocioId}/fotos/{fotoId}")
-    public ResponseEntity<byte[]> baixarFoto(@PathVariable Integer negocioId,
-                                             @PathVariable Integer fotoId) {
-        FotoNegocio foto = fotoNegocioRepository.findById(fotoId)
-                .orElseThrow(() -> new IllegalArgumentException("Foto não encontrada"));
-
-        if (!foto.getNegocio().getId().equals(negocioId)) {
-            throw new IllegalArgumentException("Foto não pertence a este negócio");
-        }
-
-        String contentType = foto.getNomeArquivo().endsWith(".png") ?
-                MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE;
-
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "inline; filename=\"" + foto.getNomeArquivo() + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(foto.getImagem());
+    public ResponseEntity<Resource> baixarFoto(@PathVariable Integer negocioId,
+                                               @PathVariable Integer fotoId,
+                                               @RequestParam(required = false) TamanhoImagem tamanho) {
+        ImagemDTO imagem = fotoNegocioService.abrirFoto(negocioId, fotoId, tamanho);
+
+        // Uma foto nunca muda de conteúdo (só é criada ou apagada): cache público sem revalidação.
+        // O original servido no lugar de uma variante ainda não gerada revalida, para trocar por ela depois
+        CacheControl cache = imagem.isProvisoria()
+                ? CacheControl.noCache().cachePublic()
+                : CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        return RespostaImagem.de(imagem, cache);
     }
 
 
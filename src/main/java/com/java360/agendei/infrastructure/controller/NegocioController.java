@@ -2,6 +2,7 @@ package com.java360.agendei.infrastructure.controller;
 
 import com.java360.agendei.domain.applicationservice.NegocioService;
 import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.OrdenacaoBuscaNegocio;
 import com.java360.agendei.domain.repository.ServicoRepository;
 import com.java360.agendei.infrastructure.dto.*;
 import com.java360.agendei.infrastructure.dto.negocio.*;
@@ -63,20 +64,38 @@ public class NegocioController {
         return ResponseEntity.ok("Negócio excluído com sucesso.");
     }
 
+    // Busca de negócios com filtros, raio, ordenação (DISTANCIA ou AVALIACAO) e paginação
+    @GetMapping("/busca")
+    public ResponseEntity<PaginaNegociosDTO> buscar(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) CategoriaNegocio categoria,
+            @RequestParam(required = false) Double notaMinima,
+            @RequestParam(defaultValue = "20") double raioKm,
+            @RequestParam(defaultValue = "DISTANCIA") OrdenacaoBuscaNegocio ordenacao,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho
+    ) {
+        return ResponseEntity.ok(negocioService.buscarNegocios(nome, categoria, notaMinima, raioKm, ordenacao, pagina, tamanho));
+    }
+
     @GetMapping("/busca-negocios")
     public ResponseEntity<List<NegocioBuscaDTO>> buscarNegociosProximos(
             @RequestParam(required = false) String nome,
-            @RequestParam(required = false) CategoriaNegocio categoria
+            @RequestParam(required = false) CategoriaNegocio categoria,
+            @RequestParam(defaultValue = "20") double raioKm,
+            @RequestParam(defaultValue = "50") int limite
     ) {
-        var lista = negocioService.buscarNegociosProximos(nome, categoria);
+        var lista = negocioService.buscarNegociosProximos(nome, categoria, raioKm, limite);
         return ResponseEntity.ok(lista);
     }
 
     @GetMapping("/avaliacao")
     public ResponseEntity<List<NegocioBuscaDTO>> buscarPorAvaliacao(
-            @RequestParam(required = false) Double notaMinima
+            @RequestParam(required = false) Double notaMinima,
+            @RequestParam(defaultValue = "20") double raioKm,
+            @RequestParam(defaultValue = "50") int limite
     ) {
-        return ResponseEntity.ok(negocioService.buscarNegociosPorAvaliacao(notaMinima));
+        return ResponseEntity.ok(negocioService.buscarNegociosPorAvaliacao(notaMinima, raioKm, limite));
     }
 
 
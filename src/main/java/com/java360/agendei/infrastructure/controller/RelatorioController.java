@@ -1,6 +1,7 @@
 package com.java360.agendei.infrastructure.controller;
 
 import com.java360.agendei.domain.applicationservice.RelatorioService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
 import com.java360.agendei.infrastructure.dto.admin.ResumoAdministrativoDTO;
 import com.java360.agendei.infrastructure.dto.relatorios.*;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,7 @@ import java.util.List;
 public class RelatorioController {
 
     private final RelatorioService relatorioService;
+    private final ResumoAgendamentoService resumoAgendamentoService;
 
     @GetMapping("/financeiro-mensal")
     public ResponseEntity<RelatorioFinanceiroDTO> financeiroMensal(
@@ -63,6 +65,13 @@ public class RelatorioController {
         return ResponseEntity.ok(relatorioService.resumoAdministrativo());
     }
 
+    // Recalcula as tabelas de resumo a partir dos agendamentos (backfill)
+    @PostMapping("/admin/resumos/reconstruir")
+    public ResponseEntity<String> reconstruirResumos() {
+        int linhas = resumoAgendamentoService.reconstruir();
+        return ResponseEntity.ok("Resumos reconstruídos: " + linhas + " linhas.");
+    }
+
 
 
 }
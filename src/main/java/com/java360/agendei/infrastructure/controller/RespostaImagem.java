@@ -0,0 +1,28 @@
+package com.java360.agendei.infrastructure.controller;
+
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// Resposta de imagem com validadores de cache. Com ETag/Last-Modified na ResponseEntity o Spring
+// responde 304 sozinho (If-None-Match / If-Modified-Since) sem ler o conteúdo, e para corpo Resource
+// atende Range com 206 lendo só o trecho pedido.
+final class RespostaImagem {
+
+    private RespostaImagem() {
+    }
+
+    static ResponseEntity<Resource> de(ImagemDTO imagem, CacheControl cache) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .eTag(imagem.getChave()) // forte: a chave é o hash do conteúdo
+                .cacheControl(cache)
+                .header("Content-Disposition", "inline; filename=\"" + imagem.getNomeArquivo() + "\"")
+                .contentType(MediaType.parseMediaType(imagem.getTipoConteudo()));
+        if (imagem.getUltimaModificacao() > 0) {
+            resposta.lastModified(imagem.getUltimaModificacao());
+        }
+        return resposta.body(imagem.getConteudo());
+    }
+}
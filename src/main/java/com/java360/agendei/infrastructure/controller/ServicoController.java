@@ -1,20 +1,28 @@
 package com.java360.agendei.infrastructure.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.java360.agendei.domain.applicationservice.ServicoService;
 import com.java360.agendei.domain.entity.Servico;
 import com.java360.agendei.domain.model.DiaSemanaDisponivel;
 import com.java360.agendei.infrastructure.dto.HorariosDisponiveisDTO;
+import com.java360.agendei.infrastructure.dto.HorariosPorDiaDTO;
+import com.java360.agendei.infrastructure.dto.PaginaServicosDTO;
 import com.java360.agendei.infrastructure.dto.SaveServicoDTO;
 import com.java360.agendei.infrastructure.dto.ServicoDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @RestController
@@ -23,6 +31,7 @@ import java.util.List;
 public class ServicoController {
 
     private final ServicoService servicoService;
+    private final ObjectMapper objectMapper;
 
     //Cadastra serviço
     @PostMapping
@@ -43,6 +52,37 @@ public class ServicoController {
         return ResponseEntity.ok(dto);
     }
 
+    //Verifica horarios disponiveis em um periodo de até 60 dias (?inicio=2025-12-01&fim=2025-12-31)
+    //Os dias são escritos na resposta à medida que são calculados
+    @GetMapping("/{id}/horarios-disponiveis-periodo")
+    public ResponseEntity<StreamingResponseBody> listarHorariosPorPeriodo(
+            @PathVariable("id") Integer servicoId,
+            @RequestParam("inicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam("fim") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+
+        // Validações acontecem antes de iniciar a resposta (erros ainda viram 400/500 normais)
+        Stream<HorariosPorDiaDTO> dias = servicoService.listarHorariosPorServicoEPeriodo(servicoId, inicio, fim);
+
+        // Mesmo formato de HorariosDisponiveisDTO: { "servicoId": ..., "diasDisponiveis": [ ... ] }
+        StreamingResponseBody corpo = saida -> {
+            try (dias; JsonGenerator json = objectMapper.getFactory().createGenerator(saida)) {
+                json.writeStartObject();
+                json.writeNumberField("servicoId", servicoId);
+                json.writeArrayFieldStart("diasDisponiveis");
+                for (Iterator<HorariosPorDiaDTO> it = dias.iterator(); it.hasNext(); ) {
+                    json.writeObject(it.next());
+                    json.flush();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(corpo);
+    }
+
     // Atualiza serviço
     @PutMapping("/{id}")
     public ResponseEntity<ServicoDTO> atualizar(@PathVariable Integer id, @RequestBody @Valid SaveServicoDTO dto) {
@@ -55,12 +95,25 @@ public class ServicoController {
     public ResponseEntity<List<ServicoDTO>> buscar(
             @RequestParam(required = false) String titulo,
             @RequestParam(required = false) String nomePrestador,
-            @RequestParam(required = false) DiaSemanaDisponivel diaSemana
+            @RequestParam(required = false) DiaSemanaDisponivel diaSemana,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamanho
     ) {
-        var resultado = servicoService.buscarServicos(titulo, nomePrestador, diaSemana);
+        var resultado = servicoService.buscarServicos(titulo, nomePrestador, diaSemana, pagina, tamanho);
         return ResponseEntity.ok(resultado);
     }
 
+    // Busca textual (título, descrição, prestador e negócio) ordenada por relevância
+    @GetMapping("/pesquisa")
+    public ResponseEntity<PaginaServicosDTO> pesquisar(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) DiaSemanaDisponivel diaSemana,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho
+    ) {
+        return ResponseEntity.ok(servicoService.pesquisarServicos(q, diaSemana, pagina, tamanho));
+    }
+
     // Lista TODOS serviços ativos
     @GetMapping("/ativos")
     public ResponseEntity<List<ServicoDTO>> listarAtivos() {
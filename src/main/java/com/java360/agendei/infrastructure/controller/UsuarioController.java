@@ -3,15 +3,20 @@ package com.java360.agendei.infrastructure.controller;
 import com.java360.agendei.domain.applicationservice.UsuarioService;
 import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.PlanoPrestador;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.admin.AtualizarUsuarioAdminDTO;
 import com.java360.agendei.infrastructure.dto.usuario.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/usuarios")
 @RequiredArgsConstructor
@@ -63,17 +68,19 @@ public class UsuarioController {
         return ResponseEntity.ok(dto);
     }
 
-    // pega a foto (base64)
+    // pega a foto (em fluxo, direto do armazenamento)
     @GetMapping("/{id}/foto-perfil")
-    public ResponseEntity<byte[]> getFotoPerfil(@PathVariable Integer id) {
-        byte[] imagem = usuarioService.buscarFotoPerfilBytes(id);
-
-        // Detecta tipo de imagem (padrão: JPEG)
-        String contentType = "image/jpeg";
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "inline; filename=\"foto-perfil-" + id + ".jpg\"")
-                .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
-                .body(imagem);
+    public ResponseEntity<Resource> getFotoPerfil(@PathVariable Integer id,
+                                                  @RequestParam(name = "v", required = false) String versao) {
+        ImagemDTO imagem = usuarioService.buscarFotoPerfil(id);
+
+        // Com a versão atual na URL o conteúdo daquele endereço nunca muda; sem ela (ou com uma antiga)
+        // o navegador revalida a cada uso pelo ETag e recebe 304 enquanto a foto for a mesma
+        boolean versaoAtual = versao != null && !versao.isEmpty() && imagem.getChave().startsWith(versao);
+        CacheControl cache = versaoAtual
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        return RespostaImagem.de(imagem, cache);
     }
 
 
@@ -4,11 +4,13 @@ import com.java360.agendei.domain.model.DiaSemanaDisponivel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
 @AllArgsConstructor
 public class HorariosPorDiaDTO {
+    private LocalDate data;
     private DiaSemanaDisponivel dia;
     private List<String> horarios; // formato "HH:mm"
 
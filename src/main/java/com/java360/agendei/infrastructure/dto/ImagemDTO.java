@@ -0,0 +1,16 @@
+package com.java360.agendei.infrastructure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+@Data
+@AllArgsConstructor
+public class ImagemDTO {
+    private String nomeArquivo;
+    private String tipoConteudo;
+    private String chave; // hash do conteúdo: serve de ETag forte
+    private long ultimaModificacao; // epoch em ms; 0 se desconhecida
+    private Resource conteudo; // lido em fluxo na resposta (só se não for 304)
+    private boolean provisoria; // original no lugar de uma variante ainda não gerada: não vale cache longo
+}
@@ -0,0 +1,13 @@
+package com.java360.agendei.infrastructure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaAgendamentosDTO {
+    private List<AgendamentoDTO> agendamentos;
+    private String proximoCursor; // nulo quando não há mais páginas
+}
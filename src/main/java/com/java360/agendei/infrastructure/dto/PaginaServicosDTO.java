@@ -0,0 +1,13 @@
+package com.java360.agendei.infrastructure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaServicosDTO {
+    private List<ServicoDTO> servicos;
+    private Integer proximaPagina; // nulo quando não há mais páginas
+}
@@ -1,6 +1,7 @@
 package com.java360.agendei.infrastructure.dto;
 
 import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.infrastructure.dto.usuario.FotoPrestadorDTO;
 import lombok.Data;
 
 import java.util.Base64;
@@ -21,8 +22,8 @@ public class ServicoDTO {
     public static ServicoDTO fromEntity(Servico servico) {
         String fotoPrestadorUrl = null;
 
-        if (servico.getPrestador().getFotoPerfil() != null) {
-            fotoPrestadorUrl = "/usuarios/" + servico.getPrestador().getId() + "/foto-perfil";
+        if (servico.getPrestador().getFotoPerfilChave() != null) {
+            fotoPrestadorUrl = FotoPrestadorDTO.url(servico.getPrestador().getId(), servico.getPrestador().getFotoPerfilChave());
         }
 
         return new ServicoDTO(
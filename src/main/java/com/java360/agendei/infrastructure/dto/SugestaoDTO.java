@@ -0,0 +1,12 @@
+package com.java360.agendei.infrastructure.dto;
+
+import com.java360.agendei.domain.model.TipoSugestao;
+import lombok.Data;
+
+// Sugestão do autocompletar: título de serviço, negócio (com id) ou categoria (texto = nome do enum)
+@Data
+public class SugestaoDTO {
+    private final String texto;
+    private final TipoSugestao tipo;
+    private final Integer id;
+}
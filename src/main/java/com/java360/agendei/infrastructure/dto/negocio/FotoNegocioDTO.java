@@ -9,4 +9,7 @@ public class FotoNegocioDTO {
     private Integer id;
     private String nomeArquivo;
     private String url; // Endpoint para baixar a imagem
+    private String urlMiniatura;
+    private String urlCartao;
+    private String urlCompleta;
 }
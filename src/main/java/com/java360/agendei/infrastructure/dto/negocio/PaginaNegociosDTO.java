@@ -0,0 +1,13 @@
+package com.java360.agendei.infrastructure.dto.negocio;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaNegociosDTO {
+    private List<NegocioBuscaDTO> negocios;
+    private Integer proximaPagina; // nulo quando não há mais páginas
+}
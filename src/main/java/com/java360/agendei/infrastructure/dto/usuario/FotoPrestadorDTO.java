@@ -9,4 +9,9 @@ public class FotoPrestadorDTO {
     private Integer prestadorId;
     private String nomePrestador;
     private String urlFoto; // endpoint para baixar
+
+    // A versão (início da chave do conteúdo) muda a cada nova foto: a URL pode ficar em cache sem prazo
+    public static String url(Integer prestadorId, String fotoPerfilChave) {
+        return "/usuarios/" + prestadorId + "/foto-perfil?v=" + fotoPerfilChave.substring(0, 16);
+    }
 }
@@ -51,8 +51,8 @@ public class UsuarioDetalhadoDTO {
                 negocio = NegocioResumoDTO.fromEntity(prestador.getNegocio());
             }
 
-            if (prestador.getFotoPerfil() != null) {
-                fotoPerfilUrl = "/usuarios/" + prestador.getId() + "/foto-perfil";
+            if (prestador.getFotoPerfilChave() != null) {
+                fotoPerfilUrl = FotoPrestadorDTO.url(prestador.getId(), prestador.getFotoPerfilChave());
             }
             plano = prestador.getPlano();
         }
@@ -0,0 +1,93 @@
+package com.java360.agendei.infrastructure.imagem;
+
+import org.springframework.http.MediaType;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+
+// Valida a imagem enquanto ela passa para o armazenamento, sem guardá-la na memória:
+// o formato pelos primeiros bytes (o Content-Type do cliente não prova nada) e o tamanho pelo que já passou.
+// Os erros saem como IllegalArgumentException no meio da cópia, e o armazenamento descarta o que gravou.
+public class EntradaImagem extends FilterInputStream {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final long tamanhoMaximo;
+    private long lidos;
+    private String tipoConteudo; // null até ler o cabeçalho
+
+    public EntradaImagem(InputStream conteudo, long tamanhoMaximo) {
+        super(new PushbackInputStream(conteudo, PNG.length));
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    // image/jpeg ou image/png, conforme os bytes; disponível depois da primeira leitura
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    @Override
+    public int read() throws IOException {
+        verificarCabecalho();
+        int b = in.read();
+        if (b >= 0) contar(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        verificarCabecalho();
+        int n = in.read(b, off, len);
+        if (n > 0) contar(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        verificarCabecalho();
+        long pulados = in.skip(n);
+        contar(pulados);
+        return pulados;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    // Lê só a assinatura e a devolve ao fluxo: quem copia recebe o arquivo inteiro
+    private void verificarCabecalho() throws IOException {
+        if (tipoConteudo != null) return;
+
+        PushbackInputStream entrada = (PushbackInputStream) in;
+        byte[] cabecalho = entrada.readNBytes(PNG.length);
+        if (cabecalho.length == 0) {
+            throw new IllegalArgumentException("Arquivo vazio.");
+        }
+
+        if (comecaCom(cabecalho, JPEG)) {
+            tipoConteudo = MediaType.IMAGE_JPEG_VALUE;
+        } else if (comecaCom(cabecalho, PNG)) {
+            tipoConteudo = MediaType.IMAGE_PNG_VALUE;
+        } else {
+            throw new IllegalArgumentException("Formato inválido. Apenas JPEG ou PNG são aceitos.");
+        }
+        entrada.unread(cabecalho);
+    }
+
+    private void contar(long quantidade) {
+        lidos += quantidade;
+        if (lidos > tamanhoMaximo) {
+            throw new IllegalArgumentException("Arquivo muito grande. Máximo " + tamanhoMaximo / (1024 * 1024) + "MB.");
+        }
+    }
+
+    private static boolean comecaCom(byte[] cabecalho, byte[] assinatura) {
+        return cabecalho.length >= assinatura.length
+                && Arrays.equals(cabecalho, 0, assinatura.length, assinatura, 0, assinatura.length);
+    }
+}
@@ -0,0 +1,139 @@
+package com.java360.agendei.infrastructure.imagem;
+
+import com.java360.agendei.domain.model.TamanhoImagem;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+// Gera as variantes redimensionadas de uma foto em JPEG, sem metadados (EXIF, GPS, perfil ICC, miniatura embutida)
+@Component
+public class ProcessadorImagem {
+
+    private static final float QUALIDADE_JPEG = 0.82f;
+
+    // Limite de pixels do original: acima disso a decodificação é subamostrada para não estourar a memória
+    private static final int LADO_DECODIFICADO_MAXIMO = 2 * TamanhoImagem.COMPLETA.getLadoMaximo();
+
+    // Decodifica uma vez só e reduz do maior tamanho para o menor, cada um partindo do anterior
+    public Map<TamanhoImagem, byte[]> gerarVariantes(InputStream original) throws IOException {
+        BufferedImage atual = paraRgb(decodificar(original));
+
+        Map<TamanhoImagem, byte[]> variantes = new EnumMap<>(TamanhoImagem.class);
+        TamanhoImagem[] doMaiorParaOMenor = TamanhoImagem.values();
+        Arrays.sort(doMaiorParaOMenor, Comparator.comparingInt(TamanhoImagem::getLadoMaximo).reversed());
+        for (TamanhoImagem tamanho : doMaiorParaOMenor) {
+            atual = reduzir(atual, tamanho.getLadoMaximo());
+            variantes.put(tamanho, codificarJpeg(atual));
+        }
+        return variantes;
+    }
+
+    private BufferedImage decodificar(InputStream original) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(original)) {
+            Iterator<ImageReader> leitores = entrada == null ? null : ImageIO.getImageReaders(entrada);
+            if (leitores == null || !leitores.hasNext()) {
+                throw new IllegalArgumentException("Formato de imagem não suportado.");
+            }
+
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true); // ignora metadados: nem chegam a ser lidos
+                int lado = Math.max(leitor.getWidth(0), leitor.getHeight(0));
+
+                // Uma foto de 50 MP ocuparia 200 MB decodificada; subamostrando já na leitura
+                // ela chega com no máximo o dobro do maior tamanho gerado
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                int passo = Math.max(1, lado / LADO_DECODIFICADO_MAXIMO);
+                parametros.setSourceSubsampling(passo, passo, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    // JPEG não tem transparência: o fundo transparente do PNG vira branco em vez de preto
+    private static BufferedImage paraRgb(BufferedImage imagem) {
+        if (imagem.getType() == BufferedImage.TYPE_INT_RGB) return imagem;
+
+        BufferedImage rgb = new BufferedImage(imagem.getWidth(), imagem.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(imagem, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    // Só reduz (imagem menor que o limite fica como está). Reduz pela metade em passos bilineares
+    // até chegar perto do alvo: um passo só de 4000 para 200 px descartaria pixels e serrilharia
+    private static BufferedImage reduzir(BufferedImage imagem, int ladoMaximo) {
+        int largura = imagem.getWidth();
+        int altura = imagem.getHeight();
+        if (Math.max(largura, altura) <= ladoMaximo) return imagem;
+
+        double escala = (double) ladoMaximo / Math.max(largura, altura);
+        int larguraAlvo = Math.max(1, (int) Math.round(largura * escala));
+        int alturaAlvo = Math.max(1, (int) Math.round(altura * escala));
+
+        BufferedImage atual = imagem;
+        do {
+            largura = Math.max(larguraAlvo, largura / 2);
+            altura = Math.max(alturaAlvo, altura / 2);
+            atual = redimensionar(atual, largura, altura);
+        } while (largura != larguraAlvo || altura != alturaAlvo);
+        return atual;
+    }
+
+    private static BufferedImage redimensionar(BufferedImage imagem, int largura, int altura) {
+        BufferedImage destino = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(imagem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private static byte[] codificarJpeg(BufferedImage imagem) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream destino = new MemoryCacheImageOutputStream(saida)) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(QUALIDADE_JPEG);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT); // progressivo: aparece antes em rede lenta
+
+            escritor.setOutput(destino);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros); // sem metadados
+        } finally {
+            escritor.dispose();
+        }
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package com.java360.agendei.infrastructure.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os comandos SQL que o Hibernate prepara na thread atual, entre iniciar() e encerrar().
+// Registrado como StatementInspector: só incrementa e devolve o SQL intacto.
+public class ContadorSql implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    public static void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    // Total desde iniciar(); limpa a thread (que volta ao pool do servidor)
+    public static int encerrar() {
+        int[] contagem = CONTAGEM.get();
+        CONTAGEM.remove();
+        return contagem == null ? 0 : contagem[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] contagem = CONTAGEM.get();
+        if (contagem != null) contagem[0]++;
+        return sql;
+    }
+}
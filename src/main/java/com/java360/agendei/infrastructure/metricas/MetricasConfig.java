@@ -0,0 +1,28 @@
+package com.java360.agendei.infrastructure.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricasConfig {
+
+    // Liga o contador de SQL por requisição ao Hibernate
+    @Bean
+    public HibernatePropertiesCustomizer contadorSql() {
+        return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSql());
+    }
+
+    // Antes do Spring Security, para contar também o SQL da autenticação
+    @Bean
+    public FilterRegistrationBean<MetricasRequisicaoFilter> metricasRequisicaoFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<MetricasRequisicaoFilter> registro =
+                new FilterRegistrationBean<>(new MetricasRequisicaoFilter(meterRegistry));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
@@ -0,0 +1,39 @@
+package com.java360.agendei.infrastructure.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Comandos SQL por requisição, por rota. A latência por rota já vem do Actuator (http.server.requests);
+// aqui entra o que ela não mostra: um N+1 aparece como aumento de agendei.requisicao.sql no endpoint.
+// Conta só a thread da requisição (consultas em threads próprias, como o geocoding em lote, ficam de fora)
+// Registrado em MetricasConfig
+@RequiredArgsConstructor
+public class MetricasRequisicaoFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContadorSql.iniciar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int comandos = ContadorSql.encerrar();
+            DistributionSummary.builder("agendei.requisicao.sql")
+                    .description("Comandos SQL executados por requisição")
+                    .baseUnit("comandos")
+                    .tag("endpoint", MetricasTags.endpoint(request))
+                    .register(meterRegistry)
+                    .record(comandos);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.java360.agendei.infrastructure.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Tempo de cada método público dos serviços de aplicação e de cada execução agendada.
+// Só chamadas que passam pelo proxy (de outro bean): chamadas internas ficam dentro do método que as fez.
+// Sem a rota nas tags: o timer tem histograma, e cada combinação de tags multiplica os buckets.
+// A rota de quem chamou fica em http.server.requests
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasServicoAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(com.java360.agendei.domain.applicationservice..*) && execution(public * *(..))")
+    public Object medirServico(ProceedingJoinPoint chamada) throws Throwable {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String excecao = MetricasTags.NENHUM;
+        try {
+            return chamada.proceed();
+        } catch (Throwable e) {
+            excecao = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder("agendei.servico.duracao")
+                    .description("Duração dos métodos dos serviços de aplicação")
+                    .tag("servico", chamada.getSignature().getDeclaringType().getSimpleName())
+                    .tag("metodo", chamada.getSignature().getName())
+                    .tag("perfil", MetricasTags.perfil())
+                    .tag("excecao", excecao)
+                    .register(meterRegistry));
+        }
+    }
+
+    // O _count do timer é o contador de execuções por tarefa e resultado
+    @Around("@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object medirTarefaAgendada(ProceedingJoinPoint chamada) throws Throwable {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "sucesso";
+        try {
+            return chamada.proceed();
+        } catch (Throwable e) {
+            resultado = "erro";
+            throw e;
+        } finally {
+            amostra.stop(Timer.builder("agendei.agendador.execucoes")
+                    .description("Execuções das tarefas agendadas")
+                    .tag("tarefa", chamada.getSignature().getDeclaringType().getSimpleName()
+                            + "." + chamada.getSignature().getName())
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+}
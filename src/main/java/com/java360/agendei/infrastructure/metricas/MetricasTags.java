@@ -0,0 +1,32 @@
+package com.java360.agendei.infrastructure.metricas;
+
+import com.java360.agendei.infrastructure.security.UsuarioAutenticacao;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Tags comuns às métricas da aplicação. Sempre valores de um conjunto pequeno:
+// a rota vem como padrão (/negocios/{id}), nunca com o id, e o perfil é o do enum
+final class MetricasTags {
+
+    static final String NENHUM = "nenhum";
+
+    private MetricasTags() {
+    }
+
+    // Rota da requisição; "nenhum" quando nenhum handler atendeu (404, recurso estático)
+    static String endpoint(HttpServletRequest requisicao) {
+        Object padrao = requisicao.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return padrao != null ? requisicao.getMethod() + " " + padrao : NENHUM;
+    }
+
+    static String perfil() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao instanceof UsuarioAutenticacao usuarioAutenticacao
+                && usuarioAutenticacao.getPrincipal().perfil() != null) {
+            return usuarioAutenticacao.getPrincipal().perfil().name();
+        }
+        return "ANONIMO";
+    }
+}
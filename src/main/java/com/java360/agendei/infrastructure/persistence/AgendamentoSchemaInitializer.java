@@ -0,0 +1,99 @@
+package com.java360.agendei.infrastructure.persistence;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Ajustes de schema que o ddl-auto do Hibernate não cobre.
+// Roda depois da inicialização do JPA, quando a tabela já foi criada/atualizada.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgendamentoSchemaInitializer implements ApplicationRunner {
+
+    private static final String RESTRICAO_SOBREPOSICAO = "ex_agendamento_prestador_periodo";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean postgres = ehPostgres();
+
+        preencherDataHoraFim(postgres);
+
+        if (postgres) {
+            criarRestricaoSobreposicao();
+        }
+    }
+
+    // Agendamentos anteriores à coluna data_hora_fim: fim = início + duração atual do serviço
+    private void preencherDataHoraFim(boolean postgres) {
+        if (postgres) {
+            int atualizados = jdbcTemplate.update("""
+                    UPDATE agendamentos a
+                       SET data_hora_fim = a.data_hora + s.duracao_minutos * INTERVAL '1 minute'
+                      FROM servicos s
+                     WHERE a.servico_id = s.id
+                       AND a.data_hora_fim IS NULL
+                    """);
+            if (atualizados > 0) {
+                log.info("data_hora_fim preenchido em {} agendamentos", atualizados);
+            }
+            return;
+        }
+
+        // Demais bancos: aritmética de datas não é portável, calcula no Java em lote
+        List<Object[]> pendentes = jdbcTemplate.query("""
+                        SELECT a.id, a.data_hora, s.duracao_minutos
+                          FROM agendamentos a
+                          JOIN servicos s ON s.id = a.servico_id
+                         WHERE a.data_hora_fim IS NULL
+                        """,
+                (rs, i) -> new Object[]{
+                        Timestamp.valueOf(rs.getTimestamp(2).toLocalDateTime().plusMinutes(rs.getInt(3))),
+                        rs.getInt(1)
+                });
+
+        if (!pendentes.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE agendamentos SET data_hora_fim = ? WHERE id = ?", pendentes);
+            log.info("data_hora_fim preenchido em {} agendamentos", pendentes.size());
+        }
+    }
+
+    // Garante no banco que dois agendamentos PENDENTES do mesmo prestador nunca se sobrepõem,
+    // mesmo com várias instâncias da aplicação gravando ao mesmo tempo
+    private void criarRestricaoSobreposicao() {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, RESTRICAO_SOBREPOSICAO);
+        if (existentes != null && existentes > 0) return;
+
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("""
+                    ALTER TABLE agendamentos
+                      ADD CONSTRAINT %s
+                      EXCLUDE USING gist (
+                          prestador_id WITH =,
+                          tsrange(data_hora, data_hora_fim, '[)') WITH &&
+                      ) WHERE (status = 'PENDENTE' AND data_hora_fim IS NOT NULL)
+                    """.formatted(RESTRICAO_SOBREPOSICAO));
+            log.info("Restrição {} criada", RESTRICAO_SOBREPOSICAO);
+        } catch (Exception e) {
+            // Ex.: dados legados já sobrepostos ou sem permissão para criar a extensão.
+            // A aplicação continua protegida pela verificação em ConflitoAgendamentoService.
+            log.warn("Não foi possível criar a restrição {}: {}", RESTRICAO_SOBREPOSICAO, e.getMessage());
+        }
+    }
+
+    private boolean ehPostgres() {
+        String banco = jdbcTemplate.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        return banco != null && banco.toLowerCase().contains("postgres");
+    }
+}
@@ -0,0 +1,82 @@
+package com.java360.agendei.infrastructure.persistence;
+
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+// Imagens gravadas antes do ArmazenamentoBlob ficavam em colunas binárias das próprias tabelas.
+// Move cada uma para o armazenamento, guarda a chave na coluna nova e remove a coluna antiga
+// (que era NOT NULL em fotos_negocio e impediria inserir fotos novas).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagemSchemaInitializer implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArmazenamentoBlob armazenamentoBlob;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrar("fotos_negocio", "imagem", "imagem_chave");
+        migrar("prestadores", "foto_perfil", "foto_perfil_chave");
+    }
+
+    private void migrar(String tabela, String colunaAntiga, String colunaNova) {
+        if (!colunaExiste(tabela, colunaAntiga)) return;
+
+        try {
+            // Uma linha por vez: cada imagem pode ter alguns MB
+            List<Integer> pendentes = jdbcTemplate.queryForList(
+                    "SELECT id FROM %s WHERE %s IS NOT NULL AND %s IS NULL".formatted(tabela, colunaAntiga, colunaNova),
+                    Integer.class);
+            for (Integer id : pendentes) {
+                String chave = jdbcTemplate.query(
+                        "SELECT %s FROM %s WHERE id = ?".formatted(colunaAntiga, tabela),
+                        rs -> rs.next() ? salvar(rs.getBinaryStream(1)) : null,
+                        id);
+                jdbcTemplate.update("UPDATE %s SET %s = ? WHERE id = ?".formatted(tabela, colunaNova), chave, id);
+            }
+
+            jdbcTemplate.execute("ALTER TABLE %s DROP COLUMN %s".formatted(tabela, colunaAntiga));
+            log.info("{} imagens de {}.{} movidas para o armazenamento", pendentes.size(), tabela, colunaAntiga);
+        } catch (Exception e) {
+            // A coluna antiga só sai depois de todas as imagens migradas: a próxima inicialização continua daqui
+            log.error("Não foi possível migrar {}.{}: {}", tabela, colunaAntiga, e.getMessage(), e);
+        }
+    }
+
+    private String salvar(InputStream conteudo) {
+        try (conteudo) {
+            return armazenamentoBlob.salvar(conteudo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Postgres guarda nomes em minúsculas e o H2 em maiúsculas
+    private boolean colunaExiste(String tabela, String coluna) {
+        Boolean existe = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexao -> {
+            DatabaseMetaData metadados = conexao.getMetaData();
+            for (String[] nomes : List.of(new String[]{tabela, coluna},
+                    new String[]{tabela.toUpperCase(), coluna.toUpperCase()})) {
+                try (ResultSet colunas = metadados.getColumns(null, null, nomes[0], nomes[1])) {
+                    if (colunas.next()) return true;
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(existe);
+    }
+}
@@ -0,0 +1,85 @@
+package com.java360.agendei.infrastructure.persistence;
+
+import com.java360.agendei.domain.entity.ResumoAgendamento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+// Cria a linha de resumo já com os deltas, ou soma neles se outra transação acabou de criá-la.
+// Um único comando na transação (e conexão) de quem chamou: conflito de chave nunca vira erro,
+// então não é preciso uma transação separada para isolá-lo.
+@Component
+public class ResumoAgendamentoUpsert {
+
+    private static final String COLUNAS = "tipo, periodo, prestador_id, servico_id, negocio_id, pendentes, concluidos, cancelados";
+
+    private static final String POSTGRES = """
+            INSERT INTO resumo_agendamentos (%s)
+            VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8)
+            ON CONFLICT (tipo, periodo, prestador_id, servico_id) DO UPDATE SET
+                pendentes = resumo_agendamentos.pendentes + EXCLUDED.pendentes,
+                concluidos = resumo_agendamentos.concluidos + EXCLUDED.concluidos,
+                cancelados = resumo_agendamentos.cancelados + EXCLUDED.cancelados
+            """.formatted(COLUNAS);
+
+    private static final String MYSQL = """
+            INSERT INTO resumo_agendamentos (%s)
+            VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8)
+            ON DUPLICATE KEY UPDATE
+                pendentes = pendentes + VALUES(pendentes),
+                concluidos = concluidos + VALUES(concluidos),
+                cancelados = cancelados + VALUES(cancelados)
+            """.formatted(COLUNAS);
+
+    // MERGE padrão (SQL Server e H2). No SQL Server o HOLDLOCK trava a faixa da chave:
+    // sem ele dois MERGE simultâneos podem não encontrar a linha e inserir os dois
+    private static final String MERGE = """
+            MERGE INTO resumo_agendamentos %s AS r
+            USING (VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8)) AS n (%s)
+            ON r.tipo = n.tipo AND r.periodo = n.periodo AND r.prestador_id = n.prestador_id AND r.servico_id = n.servico_id
+            WHEN MATCHED THEN UPDATE SET
+                pendentes = r.pendentes + n.pendentes,
+                concluidos = r.concluidos + n.concluidos,
+                cancelados = r.cancelados + n.cancelados
+            WHEN NOT MATCHED THEN INSERT (%s)
+                VALUES (n.tipo, n.periodo, n.prestador_id, n.servico_id, n.negocio_id, n.pendentes, n.concluidos, n.cancelados)%s
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final String sql;
+
+    public ResumoAgendamentoUpsert(EntityManagerFactory entityManagerFactory) {
+        Dialect dialeto = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (dialeto instanceof PostgreSQLDialect) {
+            sql = POSTGRES;
+        } else if (dialeto instanceof MySQLDialect) {
+            sql = MYSQL;
+        } else if (dialeto instanceof SQLServerDialect) {
+            sql = MERGE.formatted("WITH (HOLDLOCK)", COLUNAS, COLUNAS, ";");
+        } else {
+            sql = MERGE.formatted("", COLUNAS, COLUNAS, "");
+        }
+    }
+
+    // 'linha' traz a chave e os deltas a somar nos contadores
+    public void somar(ResumoAgendamento linha) {
+        entityManager.createNativeQuery(sql)
+                .setParameter(1, linha.getTipo().name())
+                .setParameter(2, linha.getPeriodo())
+                .setParameter(3, linha.getPrestadorId())
+                .setParameter(4, linha.getServicoId())
+                .setParameter(5, linha.getNegocioId())
+                .setParameter(6, linha.getPendentes())
+                .setParameter(7, linha.getConcluidos())
+                .setParameter(8, linha.getCancelados())
+                .executeUpdate();
+    }
+}
@@ -1,14 +1,13 @@
 package com.java360.agendei.infrastructure.security;
 
 
-import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -22,6 +21,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UsuarioRepository usuarioRepository;
+    private final UsuarioPrincipalService usuarioPrincipalService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -36,20 +36,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         token = authHeader.substring(7);
-        if (!jwtService.isValid(token)) {
+        Claims claims = jwtService.verificar(token).orElse(null); // única interpretação do token na requisição
+        if (claims == null) {
             chain.doFilter(request, response);
             return;
         }
 
-        Integer userId = jwtService.extractUserId(token);
-        Usuario usuario = usuarioRepository.findById(userId).orElse(null);
+        Integer userId = JwtService.extractUserId(claims);
+        UsuarioPrincipal principal = usuarioPrincipalService.buscar(userId).orElse(null);
 
-        if (usuario != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    usuario, null, null
-            );
-            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Sem consulta ao banco aqui: a entidade só é carregada se algum serviço precisar dela
+            UsuarioAutenticacao autenticacao = new UsuarioAutenticacao(principal, claims, () -> usuarioRepository.findById(userId)
+                    .orElseThrow(() -> new SecurityException("Usuário não autenticado.")));
+            autenticacao.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(autenticacao);
         }
 
         chain.doFilter(request, response);
@@ -1,6 +1,8 @@
 package com.java360.agendei.infrastructure.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,17 +10,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Service
 public class JwtService {
 
-    @Value("${spring.maps.key}")
-    private String SECRET_KEY;
-
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 8; // 8h
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    // Chave e parser são imutáveis e thread-safe: montados uma vez só
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${spring.maps.key}") String secretKey) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(Integer userId) {
@@ -26,19 +33,25 @@ public class JwtService {
                 .setSubject(userId.toString()) // faz o id do usuário virar string
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Valida assinatura e expiração interpretando o token uma única vez; vazio se for inválido
+    public Optional<Claims> verificar(String token) {
+        try {
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static Integer extractUserId(Claims claims) {
+        return Integer.parseInt(claims.getSubject()); // converte o id de volta pra integer
+    }
+
     public Integer extractUserId(String token) {
-        String subject = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-
-        return Integer.parseInt(subject); // converte o id de volta pra integer
+        return extractUserId(parser.parseClaimsJws(token).getBody());
     }
 
     public boolean isValid(String token) {
@@ -14,4 +14,15 @@ public class PermissaoUtils {
         }
         throw new SecurityException("Você não tem permissão para executar esta ação.");
     }
+
+    public static boolean isAdmin(UsuarioPrincipal usuario) {
+        return usuario.perfil() == PerfilUsuario.ADMIN;
+    }
+
+    public static void validarPermissao(UsuarioPrincipal usuario, PerfilUsuario... permitidos) {
+        for (PerfilUsuario perfil : permitidos) {
+            if (usuario.perfil() == perfil) return;
+        }
+        throw new SecurityException("Você não tem permissão para executar esta ação.");
+    }
 }
@@ -1,6 +1,7 @@
 package com.java360.agendei.infrastructure.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,7 +24,8 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   @Value("${management.server.port:-1}") int portaGerenciamento) throws Exception {
         return http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // habilita CORS
                 .csrf(csrf -> csrf
@@ -34,13 +36,20 @@ public class SecurityConfig {
                         .frameOptions(frame -> frame.disable()) // Permite exibição do H2 em frame
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Actuator só na porta de gerenciamento, que não é publicada (apenas a rede do Prometheus e
+                        // os health checks a alcançam); se chegar pela porta pública, é recusado
+                        .requestMatchers(request -> request.getLocalPort() == portaGerenciamento).permitAll()
+                        .requestMatchers("/actuator/**").denyAll()
                         .requestMatchers(
                                 "/h2-console/**",
                                 "/auth/**",
                                 "/usuarios/registrar",
                                 "/servicos/ativos",
                                 "/servicos/*/horarios-disponiveis-data",
+                                "/servicos/*/horarios-disponiveis-periodo",
                                 "/servicos/busca",
+                                "/servicos/pesquisa",
+                                "/busca/sugestoes",
                                 "/servicos/negocio/**",
                                 "/negocios/*/fotos/**",
                                 "/negocios/**"
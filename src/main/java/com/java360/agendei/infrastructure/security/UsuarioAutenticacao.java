@@ -0,0 +1,44 @@
+package com.java360.agendei.infrastructure.security;
+
+import com.java360.agendei.domain.entity.Usuario;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Autenticação da requisição: o principal vem do cache e a entidade só é carregada se algum serviço pedir
+public class UsuarioAutenticacao extends AbstractAuthenticationToken {
+
+    private final UsuarioPrincipal principal;
+    private final Claims claims;
+    private final Supplier<Usuario> carregarUsuario;
+
+    public UsuarioAutenticacao(UsuarioPrincipal principal, Claims claims, Supplier<Usuario> carregarUsuario) {
+        super(List.of());
+        this.principal = principal;
+        this.claims = claims;
+        this.carregarUsuario = carregarUsuario;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public UsuarioPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    // Claims do token já verificado pelo filtro
+    public Claims getClaims() {
+        return claims;
+    }
+
+    // Sem memorizar: dentro de uma transação a consulta repetida sai do contexto de persistência
+    public Usuario getUsuario() {
+        return carregarUsuario.get();
+    }
+}
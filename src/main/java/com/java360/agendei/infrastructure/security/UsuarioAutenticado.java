@@ -1,19 +1,42 @@
 package com.java360.agendei.infrastructure.security;
 
 import com.java360.agendei.domain.entity.Usuario;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.Optional;
+
 public class UsuarioAutenticado {
+    // Principal da requisição, sem consulta ao banco: suficiente para permissões e filtros
+    public static UsuarioPrincipal principal() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao instanceof UsuarioAutenticacao usuarioAutenticacao) {
+            return usuarioAutenticacao.getPrincipal();
+        }
+        throw new SecurityException("Usuário não autenticado.");
+    }
+
+    // Entidade do usuário autenticado, carregada do banco (gerenciada na transação atual):
+    // usar só quando for alterá-la ou associá-la a outra entidade
     public static Usuario get() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof Usuario usuario) {
-            System.out.println(usuario);
-            return usuario;
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao instanceof UsuarioAutenticacao usuarioAutenticacao) {
+            return usuarioAutenticacao.getUsuario();
         }
         throw new SecurityException("Usuário não autenticado.");
     }
 
+    // Claims do token desta requisição (vazio sem autenticação JWT)
+    public static Optional<Claims> getClaims() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao instanceof UsuarioAutenticacao usuarioAutenticacao) {
+            return Optional.of(usuarioAutenticacao.getClaims());
+        }
+        return Optional.empty();
+    }
+
     public static Integer getId() {
-        return get().getId();
+        return principal().id();
     }
 }
@@ -0,0 +1,19 @@
+package com.java360.agendei.infrastructure.security;
+
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.entity.Usuario;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.PlanoPrestador;
+
+// Dados mínimos do usuário autenticado, guardados em cache no lugar da entidade.
+// negocioId e plano só existem para prestadores.
+public record UsuarioPrincipal(Integer id, PerfilUsuario perfil, Integer negocioId, PlanoPrestador plano) {
+
+    public static UsuarioPrincipal de(Usuario usuario) {
+        if (usuario instanceof Prestador prestador) {
+            Integer negocioId = prestador.getNegocio() != null ? prestador.getNegocio().getId() : null;
+            return new UsuarioPrincipal(prestador.getId(), prestador.getPerfil(), negocioId, prestador.getPlano());
+        }
+        return new UsuarioPrincipal(usuario.getId(), usuario.getPerfil(), null, null);
+    }
+}
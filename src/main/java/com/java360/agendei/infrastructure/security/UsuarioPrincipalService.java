@@ -0,0 +1,39 @@
+package com.java360.agendei.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.util.TransacaoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Cache dos usuários autenticados: o filtro JWT não vai ao banco a cada requisição.
+// Alterações no usuário removem a entrada depois do commit; o TTL cobre alterações feitas fora da aplicação.
+@Service
+public class UsuarioPrincipalService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<Integer, Optional<UsuarioPrincipal>> principais;
+
+    public UsuarioPrincipalService(UsuarioRepository usuarioRepository,
+                                   @Value("${spring.seguranca.cache-usuario.validade:PT5M}") Duration validade,
+                                   @Value("${spring.seguranca.cache-usuario.tamanho:10000}") long tamanho) {
+        this.usuarioRepository = usuarioRepository;
+        this.principais = Caffeine.newBuilder()
+                .maximumSize(tamanho)
+                .expireAfterWrite(validade)
+                .build();
+    }
+
+    // Vazio quando o usuário do token não existe mais (também fica em cache até expirar)
+    public Optional<UsuarioPrincipal> buscar(Integer usuarioId) {
+        return principais.get(usuarioId, usuarioRepository::buscarPrincipal);
+    }
+
+    public void invalidar(Integer usuarioId) {
+        TransacaoUtils.aposCommit(() -> principais.invalidate(usuarioId));
+    }
+}
@@ -0,0 +1,48 @@
+package com.java360.agendei.infrastructure.util;
+
+import java.time.Duration;
+
+// Circuit breaker: após N falhas seguidas bloqueia as chamadas por um intervalo;
+// depois libera uma única chamada de teste (sucesso fecha, falha reabre).
+// Toda chamada liberada por permitir() precisa terminar em registrarSucesso, registrarFalha ou liberarTeste.
+public class Disjuntor {
+
+    private final int falhasParaAbrir;
+    private final long intervaloAbertoNanos;
+
+    private int falhasSeguidas;
+    private long abertoAte;
+    private boolean testeEmAndamento;
+
+    public Disjuntor(int falhasParaAbrir, Duration intervaloAberto) {
+        this.falhasParaAbrir = falhasParaAbrir;
+        this.intervaloAbertoNanos = intervaloAberto.toNanos();
+    }
+
+    public synchronized boolean permitir() {
+        if (falhasSeguidas < falhasParaAbrir) return true;
+        if (System.nanoTime() - abertoAte < 0 || testeEmAndamento) return false;
+
+        testeEmAndamento = true;
+        return true;
+    }
+
+    public synchronized void registrarSucesso() {
+        falhasSeguidas = 0;
+        testeEmAndamento = false;
+    }
+
+    // A chamada liberada terminou sem dizer nada sobre o serviço (ex.: thread interrompida):
+    // não conta como sucesso nem falha, mas libera a vez da próxima chamada de teste
+    public synchronized void liberarTeste() {
+        testeEmAndamento = false;
+    }
+
+    public synchronized void registrarFalha() {
+        falhasSeguidas++;
+        testeEmAndamento = false;
+        if (falhasSeguidas >= falhasParaAbrir) {
+            abertoAte = System.nanoTime() + intervaloAbertoNanos;
+        }
+    }
+}
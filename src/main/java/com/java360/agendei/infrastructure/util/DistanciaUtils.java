@@ -3,6 +3,9 @@ package com.java360.agendei.infrastructure.util;
 public class DistanciaUtils {
     private static final int RAIO_TERRA_KM = 6371;
 
+    // Comprimento de um grau de latitude na mesma esfera usada no cálculo da distância
+    public static final double KM_POR_GRAU = RAIO_TERRA_KM * Math.PI / 180;
+
     public static double calcularDistancia(double lat1, double lon1, double lat2, double lon2) {
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
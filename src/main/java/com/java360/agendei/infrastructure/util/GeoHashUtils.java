@@ -0,0 +1,99 @@
+package com.java360.agendei.infrastructure.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Geohash: cada caractere divide a célula anterior em 32; endereços próximos compartilham o prefixo.
+// Gravado em negocios.geohash (índice B-tree) para a busca por raio ler apenas as células vizinhas.
+public class GeoHashUtils {
+
+    public static final int PRECISAO = 9; // células de ~5 m
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int MAXIMO_CELULAS = 9;
+
+    public static String codificar(double lat, double lng, int precisao) {
+        double[] latIntervalo = {-90, 90};
+        double[] lngIntervalo = {-180, 180};
+        StringBuilder hash = new StringBuilder(precisao);
+
+        boolean longitude = true; // bits alternados, começando pela longitude
+        int bit = 0;
+        int caractere = 0;
+        while (hash.length() < precisao) {
+            double[] intervalo = longitude ? lngIntervalo : latIntervalo;
+            double valor = longitude ? lng : lat;
+            double meio = (intervalo[0] + intervalo[1]) / 2;
+
+            caractere <<= 1;
+            if (valor >= meio) {
+                caractere |= 1;
+                intervalo[0] = meio;
+            } else {
+                intervalo[1] = meio;
+            }
+            longitude = !longitude;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(caractere));
+                bit = 0;
+                caractere = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static String codificar(double lat, double lng) {
+        return codificar(lat, lng, PRECISAO);
+    }
+
+    // Prefixos das células que cobrem o quadrado em volta do círculo: a menor célula que cubra com até 9 prefixos
+    public static Set<String> celulasDoRaio(double lat, double lng, double raioKm) {
+        double dLat = raioKm / DistanciaUtils.KM_POR_GRAU;
+        double dLng = raioKm / (DistanciaUtils.KM_POR_GRAU * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+
+        double latMin = Math.max(lat - dLat, -90);
+        double latMax = Math.min(lat + dLat, 90 - 1e-9);
+        double lngMin = lng - dLng;
+        double lngMax = lng + dLng;
+
+        for (int precisao = PRECISAO; precisao > 1; precisao--) {
+            double altura = 180 / Math.pow(2, (5 * precisao) / 2);
+            double largura = 360 / Math.pow(2, (5 * precisao + 1) / 2);
+
+            long linhas = (long) Math.floor((latMax + 90) / altura) - (long) Math.floor((latMin + 90) / altura) + 1;
+            long colunas = (long) Math.floor((lngMax + 180) / largura) - (long) Math.floor((lngMin + 180) / largura) + 1;
+            if (linhas * colunas <= MAXIMO_CELULAS) {
+                return celulas(latMin, latMax, lngMin, lngMax, altura, largura, precisao);
+            }
+        }
+        return celulas(latMin, latMax, lngMin, lngMax, 45, 45, 1);
+    }
+
+    // Limite superior exclusivo do intervalo de um prefixo (null = sem limite).
+    // A busca usa geohash >= prefixo AND geohash < proximo: usa o índice mesmo onde LIKE 'x%' não usaria.
+    public static String proximoPrefixo(String prefixo) {
+        for (int i = prefixo.length() - 1; i >= 0; i--) {
+            int posicao = BASE32.indexOf(prefixo.charAt(i));
+            if (posicao < BASE32.length() - 1) {
+                return prefixo.substring(0, i) + BASE32.charAt(posicao + 1);
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> celulas(double latMin, double latMax, double lngMin, double lngMax,
+                                       double altura, double largura, int precisao) {
+        Set<String> prefixos = new LinkedHashSet<>();
+        // Percorre o centro de cada célula da grade (a longitude dá a volta no antimeridiano)
+        double primeiraLat = (Math.floor((latMin + 90) / altura) + 0.5) * altura - 90;
+        double primeiraLng = (Math.floor((lngMin + 180) / largura) + 0.5) * largura - 180;
+        for (double la = primeiraLat; la < latMax + altura / 2; la += altura) {
+            for (double ln = primeiraLng; ln < lngMax + largura / 2; ln += largura) {
+                double lngNormalizada = ((ln + 180) % 360 + 360) % 360 - 180;
+                prefixos.add(codificar(la, lngNormalizada, precisao));
+            }
+        }
+        return prefixos;
+    }
+}
@@ -1,41 +1,268 @@
 package com.java360.agendei.infrastructure.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.maps.GeoApiContext;
 import com.google.maps.GeocodingApi;
+import com.google.maps.PendingResult;
+import com.google.maps.errors.NotFoundException;
+import com.google.maps.errors.OverQueryLimitException;
+import com.google.maps.errors.UnknownErrorException;
+import com.google.maps.errors.ZeroResultsException;
 import com.google.maps.model.GeocodingResult;
 import com.java360.agendei.infrastructure.dto.LatLngDTO;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class GeocodingService {
 
+    private static final int MAXIMO_TENTATIVAS_LOTE = 3;
+    private static final Duration ESPERA_INICIAL = Duration.ofMillis(200);
+
     private final GeoApiContext context;
+    private final Duration timeout;
+
+    // Bulkhead: limite de chamadas simultâneas à API, somando buscas e lotes
+    private final Semaphore chamadasSimultaneas;
+
+    // Geocoder fora do ar: para de chamar por 30s em vez de esperar o timeout em cada requisição
+    private final Disjuntor disjuntor = new Disjuntor(5, Duration.ofSeconds(30));
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Endereço normalizado -> coordenadas. Endereços não encontrados expiram antes, para nova tentativa.
+    // Falhas (timeout, erro da API, circuito aberto) não ficam em cache.
+    private final Cache<String, Optional<LatLngDTO>> coordenadas = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(new Expiry<String, Optional<LatLngDTO>>() {
+                @Override
+                public long expireAfterCreate(String endereco, Optional<LatLngDTO> latLng, long agora) {
+                    return (latLng.isPresent() ? Duration.ofDays(7) : Duration.ofHours(1)).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String endereco, Optional<LatLngDTO> latLng, long agora, long restante) {
+                    return expireAfterCreate(endereco, latLng, agora);
+                }
+
+                @Override
+                public long expireAfterRead(String endereco, Optional<LatLngDTO> latLng, long agora, long restante) {
+                    return restante;
+                }
+            })
+            .build();
+
+    private final MeterRegistry meterRegistry;
+
+    public GeocodingService(GeoApiContext context,
+                            @Value("${spring.maps.timeout:3s}") Duration timeout,
+                            @Value("${spring.maps.paralelismo:8}") int paralelismo,
+                            MeterRegistry meterRegistry) {
+        this.context = context;
+        this.timeout = timeout;
+        this.chamadasSimultaneas = new Semaphore(paralelismo);
+        this.meterRegistry = meterRegistry;
+    }
 
     // Recebe CEP, endereço completo ou qualquer string de endereço válida.
+    // Uma única tentativa limitada pelo timeout: usada dentro de requisições.
     public LatLngDTO buscarLatLong(String enderecoCompleto) {
+        if (enderecoCompleto == null || enderecoCompleto.isBlank()) return null;
+
+        return consultar(enderecoCompleto, 1).orElse(null);
+    }
+
+    // Endereço no formato usado por negócios e clientes
+    public LatLngDTO buscarLatLong(String endereco, String numero, String cep) {
+        return buscarLatLong(enderecoCompleto(endereco, numero, cep));
+    }
+
+    // Compatibilidade com antigo metodo (apenas CEP)
+    public LatLngDTO buscarLatLongPorCep(String cep) {
+        return buscarLatLong(cep);
+    }
+
+    // Consulta vários endereços em paralelo (threads virtuais), com nova tentativa e espera crescente.
+    // O resultado traz apenas os endereços encontrados.
+    public CompletableFuture<Map<String, LatLngDTO>> buscarLatLongEmLote(Collection<String> enderecos) {
+        Map<String, CompletableFuture<Optional<LatLngDTO>>> consultas = new LinkedHashMap<>();
+        for (String endereco : enderecos) {
+            if (endereco == null || endereco.isBlank() || consultas.containsKey(endereco)) continue;
+            consultas.put(endereco, CompletableFuture.supplyAsync(() -> consultar(endereco, MAXIMO_TENTATIVAS_LOTE), executor));
+        }
+
+        return CompletableFuture.allOf(consultas.values().toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    Map<String, LatLngDTO> encontrados = new LinkedHashMap<>();
+                    consultas.forEach((endereco, consulta) ->
+                            consulta.join().ifPresent(latLng -> encontrados.put(endereco, latLng)));
+                    return encontrados;
+                });
+    }
+
+    public static String enderecoCompleto(String endereco, String numero, String cep) {
+        if (endereco == null || numero == null || cep == null) return null;
+
+        return endereco + ", " + numero + ", " + cep + ", Brasil";
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private Optional<LatLngDTO> consultar(String enderecoCompleto, int tentativas) {
+        String chave = normalizar(enderecoCompleto);
+        Optional<LatLngDTO> emCache = coordenadas.getIfPresent(chave);
+        if (emCache != null) {
+            contarConsulta("cache");
+            return emCache;
+        }
+
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                Optional<LatLngDTO> latLng = consultarApi(enderecoCompleto);
+                coordenadas.put(chave, latLng);
+                contarConsulta(latLng.isPresent() ? "encontrado" : "nao_encontrado");
+                return latLng;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                contarConsulta("falha");
+                return Optional.empty();
+            } catch (Exception e) {
+                if (tentativa >= tentativas || !temporaria(e)) {
+                    log.warn("Falha ao geocodificar '{}' ({} tentativa(s)): {}", enderecoCompleto, tentativa, e.toString());
+                    contarConsulta("falha");
+                    return Optional.empty();
+                }
+                if (!esperar(tentativa)) return Optional.empty();
+            }
+        }
+    }
+
+    // Um único prazo ('timeout') cobre a espera por vaga no bulkhead e a resposta da API
+    private Optional<LatLngDTO> consultarApi(String enderecoCompleto) throws Exception {
+        long prazo = System.nanoTime() + timeout.toNanos();
+        if (!chamadasSimultaneas.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("Limite de consultas simultâneas ao Geocoding atingido");
+        }
         try {
-            GeocodingResult[] results = GeocodingApi.geocode(context, enderecoCompleto).await();
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                throw new TimeoutException("Prazo do Geocoding esgotado aguardando vaga");
+            }
+            if (!disjuntor.permitir()) {
+                throw new IllegalStateException("Geocoding temporariamente desativado após falhas seguidas");
+            }
 
-            if (results.length > 0) {
-                double lat = results[0].geometry.location.lat;
-                double lng = results[0].geometry.location.lng;
+            // Só as chamadas que chegam à API (cada nova tentativa conta)
+            Timer.Sample amostra = Timer.start(meterRegistry);
+            boolean sucesso = false;
+            try {
+                Optional<LatLngDTO> latLng = chamarApi(enderecoCompleto, restante);
+                disjuntor.registrarSucesso();
+                sucesso = true;
+                return latLng;
+            } catch (InterruptedException e) {
+                disjuntor.liberarTeste(); // interrupção é daqui, não do geocoder
+                throw e;
+            } catch (Throwable e) {
+                // Qualquer outro fim conta como falha, inclusive erro síncrono do cliente da API:
+                // uma chamada de teste sem desfecho deixaria o circuito aberto para sempre
+                disjuntor.registrarFalha();
+                throw e;
+            } finally {
+                amostra.stop(meterRegistry.timer("agendei.geocoding.chamadas", "resultado", sucesso ? "sucesso" : "erro"));
+            }
+        } finally {
+            chamadasSimultaneas.release();
+        }
+    }
 
-                return new LatLngDTO(lat, lng);
+    private Optional<LatLngDTO> chamarApi(String enderecoCompleto, long esperaNanos) throws Exception {
+        PendingResult<GeocodingResult[]> requisicao = GeocodingApi.geocode(context, enderecoCompleto);
+        CompletableFuture<GeocodingResult[]> resposta = new CompletableFuture<>();
+        requisicao.setCallback(new PendingResult.Callback<>() {
+            @Override
+            public void onResult(GeocodingResult[] resultados) {
+                resposta.complete(resultados);
             }
 
-            System.out.println("Não foi possível encontrar coordenadas para: " + enderecoCompleto);
-            return null;
+            @Override
+            public void onFailure(Throwable erro) {
+                resposta.completeExceptionally(erro);
+            }
+        });
 
-        } catch (Exception e) {
-            System.out.println("Erro ao consultar Geocoding API: " + e.getMessage());
-            return null;
+        GeocodingResult[] resultados;
+        try {
+            resultados = resposta.get(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            requisicao.cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            // Endereço inexistente é resposta válida do geocoder, não falha
+            if (e.getCause() instanceof ZeroResultsException || e.getCause() instanceof NotFoundException) {
+                return Optional.empty();
+            }
+            throw e.getCause() instanceof Exception causa ? causa : e;
+        }
+
+        if (resultados == null || resultados.length == 0) {
+            log.info("Não foi possível encontrar coordenadas para: {}", enderecoCompleto);
+            return Optional.empty();
         }
+        return Optional.of(new LatLngDTO(resultados[0].geometry.location.lat, resultados[0].geometry.location.lng));
     }
 
-    // Compatibilidade com antigo metodo (apenas CEP)
-    public LatLngDTO buscarLatLongPorCep(String cep) {
-        return buscarLatLong(cep);
+    private void contarConsulta(String resultado) {
+        meterRegistry.counter("agendei.geocoding.consultas", "resultado", resultado).increment();
+    }
+
+    // Vale nova tentativa: timeout, rede, limite de consultas e erro interno da API
+    private boolean temporaria(Exception e) {
+        return e instanceof TimeoutException
+                || e instanceof IOException
+                || e instanceof OverQueryLimitException
+                || e instanceof UnknownErrorException;
+    }
+
+    // Espera exponencial com jitter: ~200ms, ~400ms, ...
+    private boolean esperar(int tentativa) {
+        long base = ESPERA_INICIAL.toMillis() << (tentativa - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String normalizar(String endereco) {
+        return endereco.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 }
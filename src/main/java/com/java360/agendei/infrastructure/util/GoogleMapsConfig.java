@@ -5,6 +5,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class GoogleMapsConfig {
 
@@ -13,8 +15,12 @@ public class GoogleMapsConfig {
 
     @Bean
     public GeoApiContext geoApiContext() {
+        // Timeouts curtos e sem retentativas internas: GeocodingService controla timeout, retentativas e circuito
         return new GeoApiContext.Builder()
                 .apiKey(googleApiKey)
+                .connectTimeout(2, TimeUnit.SECONDS)
+                .readTimeout(3, TimeUnit.SECONDS)
+                .disableRetries()
                 .build();
     }
 }
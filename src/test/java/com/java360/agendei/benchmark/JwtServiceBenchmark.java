@@ -0,0 +1,69 @@
+package com.java360.agendei.benchmark;
+
+import com.java360.agendei.infrastructure.security.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Vazão da verificação do token por requisição.
+// Executar: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+//     "-Dexec.args=-cp %classpath com.java360.agendei.benchmark.JwtServiceBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SEGREDO = "chave-de-teste-do-benchmark-com-mais-de-32-bytes";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SEGREDO);
+        token = jwtService.generateToken(42);
+    }
+
+    // Caminho atual do filtro: uma interpretação com chave e parser prontos
+    @Benchmark
+    public Integer verificar() {
+        return JwtService.extractUserId(jwtService.verificar(token).orElseThrow());
+    }
+
+    // Caminho anterior: isValid + extractUserId, cada um montando chave e parser de novo
+    @Benchmark
+    public Integer verificarSemCache() {
+        extrairSemCache(); // isValid
+        return extrairSemCache();
+    }
+
+    private Integer extrairSemCache() {
+        return Integer.parseInt(Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SEGREDO.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -3,6 +3,7 @@ package com.java360.agendei.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.java360.agendei.domain.applicationservice.NegocioService;
 import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.OrdenacaoBuscaNegocio;
 import com.java360.agendei.domain.repository.ServicoRepository;
 import com.java360.agendei.infrastructure.controller.NegocioController;
 import com.java360.agendei.infrastructure.dto.ServicoDTO;
@@ -188,6 +189,32 @@ public class NegocioControllerTest {
         Mockito.verify(negocioService).excluirNegocio(5);
     }
 
+    // ---------------------------------------------------------------------
+    // GET /negocios/busca
+    // ---------------------------------------------------------------------
+    @Test
+    void buscar_repassaFiltrosEPaginacao() throws Exception {
+        NegocioBuscaDTO dto = NegocioBuscaDTO.builder()
+                .id(3)
+                .nome("Spa Zen")
+                .notaMedia(4.9)
+                .distanciaKm(1.2)
+                .build();
+
+        Mockito.when(negocioService.buscarNegocios("spa", null, 4.5, 10.0, OrdenacaoBuscaNegocio.AVALIACAO, 1, 20))
+                .thenReturn(new PaginaNegociosDTO(List.of(dto), 2));
+
+        mockMvc.perform(get("/negocios/busca")
+                        .param("nome", "spa")
+                        .param("notaMinima", "4.5")
+                        .param("raioKm", "10")
+                        .param("ordenacao", "AVALIACAO")
+                        .param("pagina", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.negocios[0].nome").value("Spa Zen"))
+                .andExpect(jsonPath("$.proximaPagina").value(2));
+    }
+
     // ---------------------------------------------------------------------
     // GET /negocios/busca-negocios
     // ---------------------------------------------------------------------
@@ -199,10 +226,12 @@ public class NegocioControllerTest {
                 .distanciaKm(2.5)
                 .build();
 
-        Mockito.when(negocioService.buscarNegociosProximos(any(), any())).thenReturn(List.of(dto));
+        Mockito.when(negocioService.buscarNegociosProximos("Studio", null, 5.0, 10)).thenReturn(List.of(dto));
 
         mockMvc.perform(get("/negocios/busca-negocios")
-                        .param("nome", "Studio"))
+                        .param("nome", "Studio")
+                        .param("raioKm", "5")
+                        .param("limite", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].nome").value("Studio X"));
     }
@@ -218,7 +247,7 @@ public class NegocioControllerTest {
                 .notaMedia(4.8)
                 .build();
 
-        Mockito.when(negocioService.buscarNegociosPorAvaliacao(4.0))
+        Mockito.when(negocioService.buscarNegociosPorAvaliacao(4.0, 20.0, 50)) // raio e limite padrão
                 .thenReturn(List.of(dto));
 
         mockMvc.perform(get("/negocios/avaliacao")
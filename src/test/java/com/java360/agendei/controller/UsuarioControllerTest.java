@@ -5,6 +5,7 @@ import com.java360.agendei.domain.applicationservice.UsuarioService;
 import com.java360.agendei.domain.entity.Cliente;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.infrastructure.controller.UsuarioController;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.admin.AtualizarUsuarioAdminDTO;
 import com.java360.agendei.infrastructure.dto.usuario.*;
 import com.java360.agendei.infrastructure.security.JwtAuthenticationFilter;
@@ -12,6 +13,7 @@ import com.java360.agendei.infrastructure.security.SecurityConfig;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -176,17 +178,59 @@ public class UsuarioControllerTest {
     // ------------------------------------------------------------------------
     // GET /usuarios/{id}/foto-perfil
     // ------------------------------------------------------------------------
+    private static final String CHAVE_FOTO = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    private void fotoPerfil(byte[] imagem) {
+        Mockito.when(usuarioService.buscarFotoPerfil(7))
+                .thenReturn(new ImagemDTO("foto-perfil-7.jpg", "image/jpeg", CHAVE_FOTO,
+                        1714564800000L, new ByteArrayResource(imagem), false));
+    }
+
     @Test
     void getFotoPerfil_sucesso() throws Exception {
 
         byte[] imagem = {10, 20, 30};
 
-        Mockito.when(usuarioService.buscarFotoPerfilBytes(7))
-                .thenReturn(imagem);
+        fotoPerfil(imagem);
 
         mockMvc.perform(get("/usuarios/7/foto-perfil"))
                 .andExpect(status().isOk())
-                .andExpect(content().bytes(imagem));
+                .andExpect(content().bytes(imagem))
+                .andExpect(header().string("ETag", "\"" + CHAVE_FOTO + "\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 12:00:00 GMT"))
+                .andExpect(header().string("Cache-Control", "no-cache, private")) // sem versão: revalida
+                .andExpect(header().string("Accept-Ranges", "bytes"));
+    }
+
+    @Test
+    void getFotoPerfil_versaoAtualNaUrl_cacheSemRevalidar() throws Exception {
+        fotoPerfil(new byte[]{10, 20, 30});
+
+        mockMvc.perform(get("/usuarios/7/foto-perfil").param("v", CHAVE_FOTO.substring(0, 16)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, private, immutable"));
+
+        mockMvc.perform(get("/usuarios/7/foto-perfil").param("v", "0000000000000000")) // foto antiga
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void getFotoPerfil_etagIgual_responde304SemCorpo() throws Exception {
+        fotoPerfil(new byte[]{10, 20, 30});
+
+        mockMvc.perform(get("/usuarios/7/foto-perfil").header("If-None-Match", "\"" + CHAVE_FOTO + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void getFotoPerfil_range_responde206ComOTrecho() throws Exception {
+        fotoPerfil(new byte[]{10, 20, 30});
+
+        mockMvc.perform(get("/usuarios/7/foto-perfil").header("Range", "bytes=1-2"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 1-2/3"))
+                .andExpect(content().bytes(new byte[]{20, 30}));
     }
 
 
@@ -0,0 +1,185 @@
+package com.java360.agendei.repository;
+
+import com.java360.agendei.domain.entity.*;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.ServicoRepository;
+import com.java360.agendei.domain.repository.projection.AgendamentoVencido;
+import com.java360.agendei.infrastructure.dto.AgendamentoDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Conta os comandos SQL de cada leitura de agendamentos: com as associações LAZY,
+// qualquer acesso fora do JOIN FETCH apareceria aqui como SELECT extra (N+1)
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class AgendamentoConsultasTest {
+
+    private static final int AGENDAMENTOS = 5;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private AgendamentoRepository agendamentoRepository;
+    @Autowired private ServicoRepository servicoRepository;
+
+    private Statistics estatisticas;
+    private Prestador prestador;
+    private Negocio negocio;
+    private Servico servico;
+    private Integer agendamentoId;
+
+    @BeforeEach
+    void setUp() {
+        prestador = usuario(new Prestador(), "prestador@teste.com", PerfilUsuario.PRESTADOR);
+        em.persist(prestador);
+
+        negocio = Negocio.builder()
+                .nome("Barbearia").endereco("Rua A").numero("10").cep("01001-000")
+                .categoria(CategoriaNegocio.BARBEARIA).ativo(true).criador(prestador)
+                .build();
+        em.persist(negocio);
+        prestador.setNegocio(negocio);
+
+        servico = Servico.builder()
+                .titulo("Corte").valor(50).duracaoMinutos(30).prestador(prestador).negocio(negocio)
+                .build();
+        em.persist(servico);
+
+        // Um cliente diferente por agendamento: o pior caso para o N+1
+        LocalDateTime inicio = LocalDateTime.of(2030, 1, 7, 9, 0);
+        for (int i = 0; i < AGENDAMENTOS; i++) {
+            Cliente cliente = usuario(new Cliente(), "cliente" + i + "@teste.com", PerfilUsuario.CLIENTE);
+            cliente.setCep("01001-000");
+            cliente.setEndereco("Rua B");
+            cliente.setNumero("1");
+            em.persist(cliente);
+
+            Agendamento agendamento = Agendamento.builder()
+                    .cliente(cliente).prestador(prestador).servico(servico)
+                    .dataHora(inicio.plusHours(i)).dataHoraFim(inicio.plusHours(i).plusMinutes(30))
+                    .status(StatusAgendamento.PENDENTE)
+                    .build();
+            em.persist(agendamento);
+            agendamentoId = agendamento.getId();
+        }
+
+        em.flush();
+        em.clear(); // nada em cache: cada associação usada precisa vir da consulta
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    private static <T extends Usuario> T usuario(T usuario, String email, PerfilUsuario perfil) {
+        usuario.setNome("Nome " + email);
+        usuario.setEmail(email);
+        usuario.setTelefone("11999999999");
+        usuario.setSenha("x");
+        usuario.setPerfil(perfil);
+        return usuario;
+    }
+
+    @Test
+    void listaDoPrestador_umSelect() {
+        List<AgendamentoDTO> dtos = agendamentoRepository.findByPrestadorId(prestador.getId()).stream()
+                .map(AgendamentoDTO::fromEntity)
+                .toList();
+
+        assertEquals(AGENDAMENTOS, dtos.size());
+        assertEquals("Barbearia", dtos.get(0).getNomeNegocio());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void listaDoCliente_umSelect() {
+        Agendamento qualquer = agendamentoRepository.findByPrestadorId(prestador.getId()).get(0);
+        em.clear();
+        estatisticas.clear();
+
+        List<AgendamentoDTO> dtos = agendamentoRepository.findByClienteId(qualquer.getCliente().getId()).stream()
+                .map(AgendamentoDTO::fromEntity)
+                .toList();
+
+        assertEquals(1, dtos.size());
+        assertEquals("Corte", dtos.get(0).getServicoTitulo());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void clientesDoNegocio_umSelect() {
+        List<Agendamento> agendamentos = agendamentoRepository.findByPrestador_Negocio_Id(negocio.getId());
+
+        assertEquals(AGENDAMENTOS, agendamentos.stream().map(a -> a.getCliente().getEmail()).distinct().count());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void remarcacao_agendamentoEServicoNovoComUmSelectCada() {
+        Agendamento agendamento = agendamentoRepository.buscarComDetalhes(agendamentoId).orElseThrow();
+        AgendamentoDTO dto = AgendamentoDTO.fromEntity(agendamento);
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+
+        em.clear();
+        estatisticas.clear();
+
+        // Criação/remarcação: almoço e negócio do prestador, mais os dados do e-mail
+        Servico encontrado = servicoRepository.buscarParaAgendamento(servico.getId()).orElseThrow();
+        assertTrue(encontrado.getPrestador().getNegocio().isAtivo());
+        assertNull(encontrado.getPrestador().getHoraInicioAlmoco());
+        assertEquals("Rua A", encontrado.getNegocio().getEndereco());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+
+        assertNotNull(dto.getClienteNome());
+    }
+
+    @Test
+    void conflito_soUmaSonda() {
+        agendamentoRepository.existeConflito(prestador.getId(), LocalDateTime.of(2030, 1, 7, 0, 0),
+                LocalDateTime.of(2030, 1, 7, 9, 15), LocalDateTime.of(2030, 1, 7, 9, 45), null);
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityLoadCount()); // nenhuma entidade carregada
+    }
+
+    @Test
+    void conclusaoAutomatica_loteTravadoEConcluidoInteiro() {
+        List<AgendamentoVencido> vencidos = agendamentoRepository.buscarVencidos(
+                LocalDateTime.of(2030, 1, 8, 0, 0), Limit.of(AGENDAMENTOS));
+
+        assertEquals(AGENDAMENTOS, vencidos.size());
+        assertEquals(AGENDAMENTOS, agendamentoRepository.concluirPendentes(
+                vencidos.stream().map(AgendamentoVencido::id).toList()));
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void alterarStatus_segundaTransicaoDoMesmoStatusNaoAlteraLinha() {
+        // Dois cancelamentos simultâneos leram PENDENTE: só o primeiro UPDATE encontra a linha
+        assertEquals(1, agendamentoRepository.alterarStatus(
+                agendamentoId, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO));
+        assertEquals(0, agendamentoRepository.alterarStatus(
+                agendamentoId, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO));
+        assertEquals(0, agendamentoRepository.alterarStatus(
+                agendamentoId, StatusAgendamento.PENDENTE, StatusAgendamento.CONCLUIDO));
+
+        em.clear();
+        assertEquals(StatusAgendamento.CANCELADO, agendamentoRepository.findById(agendamentoId).orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,56 @@
+package com.java360.agendei.repository;
+
+import com.java360.agendei.domain.entity.BlobDescartado;
+import com.java360.agendei.domain.repository.BlobDescartadoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Fila de remoção de imagens: só a carência vencida entra na varredura, e um envio do mesmo conteúdo a esvazia
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class BlobDescartadoRepositoryTest {
+
+    private static final String CHAVE = "a".repeat(64);
+    private static final LocalDateTime LIMITE = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Autowired private TestEntityManager em;
+    @Autowired private BlobDescartadoRepository blobDescartadoRepository;
+
+    private BlobDescartado descartar(String chave, LocalDateTime quando) {
+        return em.persist(BlobDescartado.builder().chave(chave).descartadoEm(quando).build());
+    }
+
+    @Test
+    void buscarVencidos_soAsDescartadasAntesDoLimite_emOrdemDeId() {
+        BlobDescartado antiga = descartar(CHAVE, LIMITE.minusHours(2));
+        BlobDescartado outra = descartar("b".repeat(64), LIMITE.minusMinutes(1));
+        descartar(CHAVE, LIMITE.plusMinutes(1)); // ainda na carência
+
+        List<BlobDescartado> vencidas = blobDescartadoRepository.buscarVencidos(LIMITE, 0L, Limit.of(10));
+
+        assertEquals(List.of(antiga.getId(), outra.getId()), vencidas.stream().map(BlobDescartado::getId).toList());
+        assertEquals(1, blobDescartadoRepository.buscarVencidos(LIMITE, antiga.getId(), Limit.of(10)).size());
+        assertTrue(blobDescartadoRepository.existsByChaveAndDescartadoEmAfter(CHAVE, LIMITE));
+    }
+
+    @Test
+    void cancelarDescarte_removeTodasAsLinhasDaChave() {
+        BlobDescartado primeira = descartar(CHAVE, LIMITE.minusHours(2));
+        descartar(CHAVE, LIMITE.minusHours(1)); // descartes simultâneos do mesmo conteúdo
+        em.flush();
+
+        assertEquals(2, blobDescartadoRepository.cancelarDescarte(CHAVE));
+        em.clear();
+
+        assertTrue(blobDescartadoRepository.travar(primeira.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.java360.agendei.repository;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.projection.NegocioSemGeohash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Preenchimento de coordenadas: blocos por id, endereços não encontrados esperam, e endereço alterado não é sobrescrito
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class NegocioCoordenadasPendentesTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Autowired private TestEntityManager em;
+    @Autowired private NegocioRepository negocioRepository;
+
+    private Prestador prestador;
+
+    @BeforeEach
+    void setUp() {
+        prestador = new Prestador();
+        prestador.setNome("Prestador");
+        prestador.setEmail("prestador@teste.com");
+        prestador.setTelefone("11999999999");
+        prestador.setSenha("x");
+        prestador.setPerfil(PerfilUsuario.PRESTADOR);
+        em.persist(prestador);
+    }
+
+    private Negocio negocio(String nome, String geohash, LocalDateTime falhouEm) {
+        return em.persist(Negocio.builder()
+                .nome(nome).endereco("Rua A").numero("10").cep("01001-000")
+                .categoria(CategoriaNegocio.BARBEARIA).ativo(true).criador(prestador)
+                .geohash(geohash).geocodificacaoFalhouEm(falhouEm)
+                .build());
+    }
+
+    @Test
+    void buscarSemGeohash_pulaComGeohashEFalhasRecentes_emOrdemDeId() {
+        Negocio pendente = negocio("A", null, null);
+        negocio("B", "6gyf4bf8m", null);
+        Negocio falhaAntiga = negocio("C", null, AGORA.minusDays(2));
+        negocio("D", null, AGORA.minusHours(1)); // falhou há pouco: espera a próxima tentativa
+        em.flush();
+
+        List<NegocioSemGeohash> pendentes = negocioRepository.buscarSemGeohash(AGORA.minusDays(1), 0, Limit.of(10));
+
+        assertEquals(List.of(pendente.getId(), falhaAntiga.getId()), pendentes.stream().map(NegocioSemGeohash::id).toList());
+        assertEquals(1, negocioRepository.buscarSemGeohash(AGORA.minusDays(1), pendente.getId(), Limit.of(10)).size());
+    }
+
+    @Test
+    void definirCoordenadas_enderecoAlteradoDesdeALeitura_naoGrava() {
+        Negocio negocio = negocio("A", null, AGORA.minusDays(2));
+        em.flush();
+
+        assertEquals(0, negocioRepository.definirCoordenadas(negocio.getId(), "Rua Antiga", "10", "01001-000",
+                -23.55, -46.63, "6gyf4bf8m"));
+        assertEquals(1, negocioRepository.definirCoordenadas(negocio.getId(), "Rua A", "10", "01001-000",
+                -23.55, -46.63, "6gyf4bf8m"));
+        em.clear();
+
+        Negocio gravado = em.find(Negocio.class, negocio.getId());
+        assertEquals("6gyf4bf8m", gravado.getGeohash());
+        assertEquals(-23.55, gravado.getLatitude());
+        assertNull(gravado.getGeocodificacaoFalhouEm());
+    }
+
+    @Test
+    void marcarFalhaGeocodificacao_registraOMomentoDaTentativa() {
+        Negocio negocio = negocio("A", null, null);
+        em.flush();
+
+        assertEquals(1, negocioRepository.marcarFalhaGeocodificacao(negocio.getId(), "Rua A", "10", "01001-000", AGORA));
+        em.clear();
+
+        assertEquals(AGORA, em.find(Negocio.class, negocio.getId()).getGeocodificacaoFalhouEm());
+    }
+}
@@ -0,0 +1,101 @@
+package com.java360.agendei.repository;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.entity.ResumoAgendamento;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.PeriodoResumo;
+import com.java360.agendei.domain.repository.ResumoAgendamentoRepository;
+import com.java360.agendei.domain.repository.projection.TotalPorPeriodo;
+import com.java360.agendei.domain.repository.projection.TotalPorPrestador;
+import com.java360.agendei.domain.repository.projection.TotalPorServico;
+import com.java360.agendei.domain.repository.projection.TotalResumo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Faturamento dos relatórios somado como decimal: valores com centavos não acumulam erro de double
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ResumoAgendamentoRelatoriosTest {
+
+    private static final LocalDate MES = LocalDate.of(2025, 3, 1);
+    private static final BigDecimal TRINTA_E_TRINTA = new BigDecimal("30.30");
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ResumoAgendamentoRepository resumoAgendamentoRepository;
+
+    private Prestador prestador;
+    private Negocio negocio;
+
+    @BeforeEach
+    void setUp() {
+        prestador = new Prestador();
+        prestador.setNome("Prestador");
+        prestador.setEmail("prestador@teste.com");
+        prestador.setTelefone("11999999999");
+        prestador.setSenha("x");
+        prestador.setPerfil(PerfilUsuario.PRESTADOR);
+        em.persist(prestador);
+
+        negocio = Negocio.builder()
+                .nome("Barbearia").endereco("Rua A").numero("10").cep("01001-000")
+                .categoria(CategoriaNegocio.BARBEARIA).ativo(true).criador(prestador)
+                .build();
+        em.persist(negocio);
+
+        Servico servico = Servico.builder()
+                .titulo("Corte").valor(10.10).duracaoMinutos(30).prestador(prestador).negocio(negocio)
+                .build();
+        em.persist(servico);
+
+        em.persist(ResumoAgendamento.builder()
+                .tipo(PeriodoResumo.MES).periodo(MES)
+                .prestadorId(prestador.getId()).servicoId(servico.getId()).negocioId(negocio.getId())
+                .pendentes(3).concluidos(3).cancelados(0)
+                .build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void totalizarMes_tresVezesDezEDez_somaExata() {
+        TotalResumo total = resumoAgendamentoRepository.totalizarMes(prestador.getId(), MES);
+
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(total.valorPendente()));
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(total.valorConcluido()));
+    }
+
+    @Test
+    void totalizarMes_semLinhas_retornaZero() {
+        TotalResumo total = resumoAgendamentoRepository.totalizarMes(prestador.getId(), MES.plusMonths(1));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(total.valorConcluido()));
+    }
+
+    @Test
+    void agrupamentos_tresVezesDezEDez_somaExata() {
+        List<TotalPorPeriodo> porMes = resumoAgendamentoRepository.totalizarPorMes(
+                prestador.getId(), LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1));
+        List<TotalPorPeriodo> porAno = resumoAgendamentoRepository.totalizarPorAno(
+                prestador.getId(), LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1));
+        List<TotalPorServico> porServico = resumoAgendamentoRepository.totalizarPorServico(prestador.getId(), MES);
+        List<TotalPorPrestador> porPrestador = resumoAgendamentoRepository.totalizarPorPrestadorDoNegocio(negocio.getId(), MES);
+
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(porMes.get(0).valorTotal()));
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(porAno.get(0).valorTotal()));
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(porServico.get(0).valorTotal()));
+        assertEquals(0, TRINTA_E_TRINTA.compareTo(porPrestador.get(0).valorConcluido()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.java360.agendei.repository;
+
+import com.java360.agendei.domain.entity.ResumoAgendamento;
+import com.java360.agendei.domain.model.PeriodoResumo;
+import com.java360.agendei.domain.repository.ResumoAgendamentoRepository;
+import com.java360.agendei.infrastructure.persistence.ResumoAgendamentoUpsert;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Primeira movimentação de uma chave de resumo: cria a linha ou soma na existente, sem erro de chave
+@DataJpaTest
+@Import(ResumoAgendamentoUpsert.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ResumoAgendamentoUpsertTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ResumoAgendamentoUpsert upsert;
+    @Autowired private ResumoAgendamentoRepository resumoAgendamentoRepository;
+
+    private static ResumoAgendamento delta(long pendentes, long concluidos, long cancelados) {
+        return ResumoAgendamento.builder()
+                .tipo(PeriodoResumo.DIA).periodo(DIA).prestadorId(2).servicoId(3).negocioId(10)
+                .pendentes(pendentes).concluidos(concluidos).cancelados(cancelados)
+                .build();
+    }
+
+    @Test
+    void somar_criaLinhaComOsDeltasESomaNaSeguinte() {
+        upsert.somar(delta(1, 0, 0));
+        upsert.somar(delta(-1, 0, 1)); // linha já existe: soma em vez de violar uk_resumo_agendamento
+        em.clear();
+
+        List<ResumoAgendamento> linhas = resumoAgendamentoRepository.findAll();
+        assertEquals(1, linhas.size());
+        assertEquals(0, linhas.get(0).getPendentes());
+        assertEquals(0, linhas.get(0).getConcluidos());
+        assertEquals(1, linhas.get(0).getCancelados());
+        assertEquals(10, linhas.get(0).getNegocioId());
+    }
+}
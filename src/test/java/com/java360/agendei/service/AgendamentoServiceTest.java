@@ -1,23 +1,32 @@
 package com.java360.agendei.service;
 
 import com.java360.agendei.domain.applicationservice.AgendamentoService;
+import com.java360.agendei.domain.applicationservice.CalendarioDisponibilidadeService;
+import com.java360.agendei.domain.applicationservice.ConflitoAgendamentoService;
 import com.java360.agendei.domain.applicationservice.DisponibilidadeService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.AgendamentoRepository;
 import com.java360.agendei.domain.repository.ClienteBloqueadoRepository;
+import com.java360.agendei.domain.repository.ClienteRepository;
 import com.java360.agendei.domain.repository.ServicoRepository;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.dto.AgendamentoDTO;
 import com.java360.agendei.infrastructure.dto.ClienteResumoDTO;
 import com.java360.agendei.infrastructure.dto.CreateAgendamentoDTO;
+import com.java360.agendei.infrastructure.dto.PaginaAgendamentosDTO;
 import com.java360.agendei.infrastructure.email.EmailService;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -39,11 +48,20 @@ class AgendamentoServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
     @Mock
+    private ClienteRepository clienteRepository;
+    @Mock
     private DisponibilidadeService disponibilidadeService;
     @Mock
     private ClienteBloqueadoRepository clienteBloqueadoRepository;
     @Mock
     private EmailService emailService;
+    @Mock
+    private ConflitoAgendamentoService conflitoAgendamentoService;
+    @Mock
+    private CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+
+    @Mock
+    private ResumoAgendamentoService resumoAgendamentoService;
 
     @InjectMocks
     private AgendamentoService agendamentoService;
@@ -117,8 +135,9 @@ class AgendamentoServiceTest {
     @Test
     void criarAgendamento_deveCriarComSucesso() {
         Cliente cliente = criarCliente(1);
-        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(cliente)).thenReturn(false);
+        when(clienteRepository.getReferenceById(cliente.getId())).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(cliente))).thenReturn(false);
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -131,14 +150,12 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(cliente.getId(), StatusAgendamento.PENDENTE))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
         when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
                 .thenReturn(Optional.empty());
         when(disponibilidadeService.prestadorEstaDisponivel(prestador.getId(), dataHora, servico.getDuracaoMinutos()))
                 .thenReturn(true);
-        when(agendamentoRepository.findByPrestadorId(prestador.getId()))
-                .thenReturn(List.of());
-        when(agendamentoRepository.save(any(Agendamento.class))).thenAnswer(inv -> {
+        when(agendamentoRepository.saveAndFlush(any(Agendamento.class))).thenAnswer(inv -> {
             Agendamento a = inv.getArgument(0);
             a.setId(99);
             return a;
@@ -151,13 +168,16 @@ class AgendamentoServiceTest {
         assertEquals(cliente, salvo.getCliente());
         assertEquals(servico, salvo.getServico());
         assertEquals(StatusAgendamento.PENDENTE, salvo.getStatus());
+        assertEquals(dataHora.plusMinutes(60), salvo.getDataHoraFim());
         verify(emailService).enviarConfirmacaoAgendamento(salvo);
+        verify(calendarioDisponibilidadeService).invalidarPeriodo(prestador.getId(), dataHora, dataHora.plusMinutes(60));
     }
 
     @Test
     void criarAgendamento_deveLancarErroQuandoClienteTemQuatroPendentes() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
         when(agendamentoRepository.countByClienteIdAndStatus(cliente.getId(), StatusAgendamento.PENDENTE))
@@ -177,6 +197,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_deveLancarErroQuandoServicoIdNulo() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
         when(dto.getServicoId()).thenReturn(null);
@@ -195,6 +216,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteDataNoPassado() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
         when(dto.getServicoId()).thenReturn(1);
@@ -213,6 +235,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteServicoInativo() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -224,7 +247,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> agendamentoService.criarAgendamento(dto));
@@ -236,6 +259,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteNegocioInativo() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, false);
         Prestador prestador = criarPrestador(2, negocio);
@@ -247,7 +271,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> agendamentoService.criarAgendamento(dto));
@@ -259,6 +283,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteClienteBloqueado() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -277,7 +302,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
         when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
                 .thenReturn(Optional.of(bloqueio));
 
@@ -291,6 +316,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteNoHorarioDeAlmoco() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -305,7 +331,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
         when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
                 .thenReturn(Optional.empty());
 
@@ -319,6 +345,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteQuandoPrestadorIndisponivel() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -331,7 +358,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
         when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
                 .thenReturn(Optional.empty());
         when(disponibilidadeService.prestadorEstaDisponivel(prestador.getId(), dataHora, servico.getDuracaoMinutos()))
@@ -347,6 +374,7 @@ class AgendamentoServiceTest {
     void criarAgendamento_naoPermiteConflitoComOutrosAgendamentos() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -359,29 +387,55 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
                 .thenReturn(0L);
-        when(servicoRepository.findById(servico.getId())).thenReturn(Optional.of(servico));
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
         when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
                 .thenReturn(Optional.empty());
         when(disponibilidadeService.prestadorEstaDisponivel(prestador.getId(), dataHora, servico.getDuracaoMinutos()))
                 .thenReturn(true);
 
-        // agendamento existente 10:00 - 11:00 pendente
-        Agendamento existente = Agendamento.builder()
-                .id(50)
-                .cliente(cliente)
-                .prestador(prestador)
-                .servico(servico)
-                .dataHora(dataHora)
-                .status(StatusAgendamento.PENDENTE)
-                .build();
+        // já existe agendamento pendente 10:00 - 11:00
+        when(conflitoAgendamentoService.conflita(prestador.getId(), dataHora, dataHora.plusMinutes(60), null))
+                .thenReturn(true);
 
-        when(agendamentoRepository.findByPrestadorId(prestador.getId()))
-                .thenReturn(List.of(existente));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> agendamentoService.criarAgendamento(dto));
+
+        assertTrue(ex.getMessage().contains("Horário indisponível"));
+    }
+
+
+    @Test
+    void criarAgendamento_traduzViolacaoDaRestricaoDeSobreposicao() {
+        Cliente cliente = criarCliente(1);
+        when(clienteRepository.getReferenceById(cliente.getId())).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+
+        Negocio negocio = criarNegocio(10, true);
+        Prestador prestador = criarPrestador(2, negocio);
+        Servico servico = criarServico(3, prestador, negocio, true, 60);
+
+        CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
+        LocalDateTime dataHora = LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).plusDays(1).withHour(10).withMinute(0);
+        when(dto.getServicoId()).thenReturn(servico.getId());
+        when(dto.getDataHora()).thenReturn(dataHora);
+
+        when(agendamentoRepository.countByClienteIdAndStatus(anyInt(), any()))
+                .thenReturn(0L);
+        when(servicoRepository.buscarParaAgendamento(servico.getId())).thenReturn(Optional.of(servico));
+        when(clienteBloqueadoRepository.findByNegocioIdAndClienteId(negocio.getId(), cliente.getId()))
+                .thenReturn(Optional.empty());
+        when(disponibilidadeService.prestadorEstaDisponivel(prestador.getId(), dataHora, servico.getDuracaoMinutos()))
+                .thenReturn(true);
+
+        // outra instância gravou um agendamento sobreposto entre a verificação e o INSERT
+        when(agendamentoRepository.saveAndFlush(any(Agendamento.class)))
+                .thenThrow(new DataIntegrityViolationException("ex_agendamento_prestador_periodo"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> agendamentoService.criarAgendamento(dto));
 
         assertTrue(ex.getMessage().contains("Horário indisponível"));
+        verify(emailService, never()).enviarConfirmacaoAgendamento(any());
     }
 
 
@@ -389,7 +443,8 @@ class AgendamentoServiceTest {
     void atualizarAgendamento_deveAtualizarComSucesso() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(cliente)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(cliente))).thenReturn(false);
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -411,20 +466,21 @@ class AgendamentoServiceTest {
         when(dto.getServicoId()).thenReturn(servicoNovo.getId());
         when(dto.getDataHora()).thenReturn(novaData);
 
-        when(agendamentoRepository.findById(agendamento.getId()))
+        when(agendamentoRepository.buscarComDetalhes(agendamento.getId()))
                 .thenReturn(Optional.of(agendamento));
-        when(servicoRepository.findById(servicoNovo.getId()))
+        when(servicoRepository.buscarParaAgendamento(servicoNovo.getId()))
                 .thenReturn(Optional.of(servicoNovo));
         when(disponibilidadeService.prestadorEstaDisponivel(prestador.getId(), novaData, servicoNovo.getDuracaoMinutos()))
                 .thenReturn(true);
-        when(agendamentoRepository.findByPrestadorId(prestador.getId()))
-                .thenReturn(List.of(agendamento));
-        when(agendamentoRepository.save(any(Agendamento.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(conflitoAgendamentoService.conflita(prestador.getId(), novaData, novaData.plusMinutes(60), agendamento.getId()))
+                .thenReturn(false);
+        when(agendamentoRepository.saveAndFlush(any(Agendamento.class))).thenAnswer(inv -> inv.getArgument(0));
 
         Agendamento atualizado = agendamentoService.atualizarAgendamento(agendamento.getId(), dto);
 
         assertEquals(servicoNovo, atualizado.getServico());
         assertEquals(novaData, atualizado.getDataHora());
+        assertEquals(novaData.plusMinutes(60), atualizado.getDataHoraFim());
         assertEquals(StatusAgendamento.PENDENTE, atualizado.getStatus());
     }
 
@@ -432,6 +488,7 @@ class AgendamentoServiceTest {
     void atualizarAgendamento_naoPermiteAlterarCancelado() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -449,7 +506,7 @@ class AgendamentoServiceTest {
         CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
         lenient().when(dto.getDataHora()).thenReturn(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).plusDays(2));
 
-        when(agendamentoRepository.findById(agendamento.getId()))
+        when(agendamentoRepository.buscarComDetalhes(agendamento.getId()))
                 .thenReturn(Optional.of(agendamento));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
@@ -466,7 +523,8 @@ class AgendamentoServiceTest {
         outro.setNome("Intruso");
         outro.setPerfil(PerfilUsuario.CLIENTE);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(outro);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(outro)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(outro));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(outro))).thenReturn(false);
 
         Cliente cliente = criarCliente(1);
         Negocio negocio = criarNegocio(10, true);
@@ -485,7 +543,7 @@ class AgendamentoServiceTest {
         CreateAgendamentoDTO dto = mock(CreateAgendamentoDTO.class);
         lenient().when(dto.getDataHora()).thenReturn(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).plusDays(2));
 
-        when(agendamentoRepository.findById(agendamento.getId()))
+        when(agendamentoRepository.buscarComDetalhes(agendamento.getId()))
                 .thenReturn(Optional.of(agendamento));
 
         assertThrows(SecurityException.class,
@@ -499,7 +557,8 @@ class AgendamentoServiceTest {
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(prestador)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(prestador))).thenReturn(false);
 
         Cliente cliente = criarCliente(1);
         Servico servico = criarServico(3, prestador, negocio, true, 30);
@@ -514,10 +573,12 @@ class AgendamentoServiceTest {
                 .build();
 
         when(agendamentoRepository.findById(ag.getId())).thenReturn(Optional.of(ag));
+        when(agendamentoRepository.alterarStatus(ag.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CONCLUIDO)).thenReturn(1);
 
         agendamentoService.concluirAgendamento(ag.getId());
 
         assertEquals(StatusAgendamento.CONCLUIDO, ag.getStatus());
+        verify(resumoAgendamentoService).registrarTransicao(ag, StatusAgendamento.PENDENTE);
     }
 
     @Test
@@ -529,7 +590,8 @@ class AgendamentoServiceTest {
         outro.setId(99);
         outro.setPerfil(PerfilUsuario.CLIENTE);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(outro);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(outro)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(outro));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(outro))).thenReturn(false);
 
         Cliente cliente = criarCliente(1);
         Servico servico = criarServico(3, prestador, negocio, true, 30);
@@ -553,7 +615,8 @@ class AgendamentoServiceTest {
     void cancelarAgendamento_deveCancelarQuandoCliente() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(cliente)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(cliente))).thenReturn(false);
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -569,10 +632,44 @@ class AgendamentoServiceTest {
                 .build();
 
         when(agendamentoRepository.findById(ag.getId())).thenReturn(Optional.of(ag));
+        when(agendamentoRepository.alterarStatus(ag.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO)).thenReturn(1);
 
         agendamentoService.cancelarAgendamento(ag.getId());
 
         assertEquals(StatusAgendamento.CANCELADO, ag.getStatus());
+        verify(calendarioDisponibilidadeService).invalidarPeriodo(prestador.getId(), ag.getDataHora(), ag.getDataHoraFim());
+        verify(resumoAgendamentoService).registrarTransicao(ag, StatusAgendamento.PENDENTE);
+    }
+
+    @Test
+    void cancelarAgendamento_statusJaAlteradoPorOutraTransacao_naoRegistraDelta() {
+        Cliente cliente = criarCliente(1);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(cliente))).thenReturn(false);
+
+        Negocio negocio = criarNegocio(10, true);
+        Prestador prestador = criarPrestador(2, negocio);
+        Servico servico = criarServico(3, prestador, negocio, true, 30);
+
+        // Os dois cancelamentos leram PENDENTE; o primeiro já gravou CANCELADO
+        Agendamento ag = Agendamento.builder()
+                .id(100)
+                .cliente(cliente)
+                .prestador(prestador)
+                .servico(servico)
+                .dataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).plusDays(1))
+                .status(StatusAgendamento.PENDENTE)
+                .build();
+
+        when(agendamentoRepository.findById(ag.getId())).thenReturn(Optional.of(ag));
+        when(agendamentoRepository.alterarStatus(ag.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO))
+                .thenReturn(0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> agendamentoService.cancelarAgendamento(ag.getId()));
+
+        assertEquals(StatusAgendamento.PENDENTE, ag.getStatus());
+        verifyNoInteractions(resumoAgendamentoService, calendarioDisponibilidadeService);
     }
 
     @Test
@@ -581,7 +678,8 @@ class AgendamentoServiceTest {
         outro.setId(99);
         outro.setPerfil(PerfilUsuario.CLIENTE);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(outro);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(outro)).thenReturn(false);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(outro));
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(outro))).thenReturn(false);
 
         Cliente cliente = criarCliente(1);
         Negocio negocio = criarNegocio(10, true);
@@ -607,6 +705,7 @@ class AgendamentoServiceTest {
     void cancelarAgendamento_naoPermiteSeNaoPendente() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
@@ -622,7 +721,7 @@ class AgendamentoServiceTest {
                 .build();
 
         when(agendamentoRepository.findById(ag.getId())).thenReturn(Optional.of(ag));
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(cliente)).thenReturn(true);
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(cliente))).thenReturn(true);
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
                 () -> agendamentoService.cancelarAgendamento(ag.getId()));
@@ -635,6 +734,7 @@ class AgendamentoServiceTest {
     void listarAgendamentosCliente_deveRetornarLista() {
         Cliente cliente = criarCliente(1);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
         when(agendamentoRepository.findByClienteId(cliente.getId()))
                 .thenReturn(List.of(new Agendamento(), new Agendamento()));
@@ -648,6 +748,7 @@ class AgendamentoServiceTest {
         Prestador prestador = criarPrestador(2, criarNegocio(10, true));
         prestador.setPerfil(PerfilUsuario.PRESTADOR);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
         when(agendamentoRepository.findByPrestadorId(prestador.getId()))
                 .thenReturn(List.of(new Agendamento()));
@@ -657,11 +758,76 @@ class AgendamentoServiceTest {
     }
 
 
+    private AgendamentoDTO agendamentoDTO(Integer id, LocalDateTime dataHora) {
+        return AgendamentoDTO.builder().id(id).dataHora(dataHora).status(StatusAgendamento.PENDENTE).build();
+    }
+
+    @Test
+    void listarAgendamentosClientePaginado_retornaCursorQuandoHaMaisItens() {
+        Cliente cliente = criarCliente(1);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 14, 0);
+        when(agendamentoRepository.buscarPaginaDoCliente(1, StatusAgendamento.PENDENTE,
+                LocalDate.of(2025, 3, 1).atStartOfDay(), LocalDate.of(2025, 4, 1).atStartOfDay(),
+                null, null, Limit.of(3)))
+                .thenReturn(List.of(
+                        agendamentoDTO(30, base),
+                        agendamentoDTO(20, base.minusHours(1)),
+                        agendamentoDTO(10, base.minusHours(2)) // item extra: indica que há próxima página
+                ));
+
+        PaginaAgendamentosDTO pagina = agendamentoService.listarAgendamentosClientePaginado(
+                StatusAgendamento.PENDENTE, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), null, 2);
+
+        assertEquals(List.of(30, 20), pagina.getAgendamentos().stream().map(AgendamentoDTO::getId).toList());
+        assertEquals("2025-03-10T13:00_20", pagina.getProximoCursor());
+        verify(agendamentoRepository, never()).findByClienteId(any());
+    }
+
+    @Test
+    void listarAgendamentosPrestadorPaginado_continuaDoCursorESemProximaPagina() {
+        Prestador prestador = criarPrestador(2, criarNegocio(10, true));
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+
+        LocalDateTime cursorDataHora = LocalDateTime.of(2025, 3, 10, 13, 0);
+        when(agendamentoRepository.buscarPaginaDoPrestador(2, null, null, null, cursorDataHora, 20, Limit.of(21)))
+                .thenReturn(List.of(agendamentoDTO(10, cursorDataHora.minusHours(1))));
+
+        PaginaAgendamentosDTO pagina = agendamentoService.listarAgendamentosPrestadorPaginado(
+                null, null, null, "2025-03-10T13:00_20", null);
+
+        assertEquals(1, pagina.getAgendamentos().size());
+        assertNull(pagina.getProximoCursor());
+    }
+
+    @Test
+    void listarAgendamentosClientePaginado_cursorInvalido_lancaErro() {
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(criarCliente(1));
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(criarCliente(1)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> agendamentoService.listarAgendamentosClientePaginado(null, null, null, "abc", 10));
+    }
+
+    @Test
+    void listarAgendamentosClientePaginado_tamanhoForaDoLimite_lancaErro() {
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(criarCliente(1));
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(criarCliente(1)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> agendamentoService.listarAgendamentosClientePaginado(null, null, null, null, 500));
+    }
+
+
     @Test
     void listarClientesDoPrestador_deveGerarResumo() {
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
         Cliente c1 = criarCliente(1);
         Cliente c2 = criarCliente(2);
@@ -712,6 +878,7 @@ class AgendamentoServiceTest {
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
         Cliente c1 = criarCliente(1);
         Cliente c2 = criarCliente(2);
@@ -746,6 +913,7 @@ class AgendamentoServiceTest {
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
         Cliente cliente = criarCliente(1);
 
@@ -768,6 +936,7 @@ class AgendamentoServiceTest {
 
         when(agendamentoRepository.findByPrestadorId(prestador.getId()))
                 .thenReturn(List.of(pendente, concluido));
+        when(agendamentoRepository.alterarStatus(pendente.getId(), StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO)).thenReturn(1);
 
         agendamentoService.bloquearCliente(cliente.getId());
 
@@ -781,6 +950,7 @@ class AgendamentoServiceTest {
         Negocio negocio = criarNegocio(10, true);
         Prestador prestador = criarPrestador(2, negocio);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
         Cliente cliente = criarCliente(1);
 
@@ -795,35 +965,4 @@ class AgendamentoServiceTest {
         assertFalse(bloqueio.isAtivo());
         verify(clienteBloqueadoRepository).save(bloqueio);
     }
-
-
-    @Test
-    void concluirAgendamentosVencidos_deveConcluirQuandoPassouHorario() {
-        Cliente cliente = criarCliente(1);
-        Negocio negocio = criarNegocio(10, true);
-        Prestador prestador = criarPrestador(2, negocio);
-        Servico servico = criarServico(3, prestador, negocio, true, 30);
-
-        // agendamento que terminou a uma hora
-        Agendamento agVencido = Agendamento.builder()
-                .id(1).cliente(cliente).prestador(prestador)
-                .servico(servico)
-                .dataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).minusHours(2))
-                .status(StatusAgendamento.PENDENTE).build();
-
-        // agendamento futuro
-        Agendamento agFuturo = Agendamento.builder()
-                .id(2).cliente(cliente).prestador(prestador)
-                .servico(servico)
-                .dataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")).plusHours(2))
-                .status(StatusAgendamento.PENDENTE).build();
-
-        when(agendamentoRepository.findByStatus(StatusAgendamento.PENDENTE))
-                .thenReturn(List.of(agVencido, agFuturo));
-
-        agendamentoService.concluirAgendamentosVencidos();
-
-        assertEquals(StatusAgendamento.CONCLUIDO, agVencido.getStatus());
-        assertEquals(StatusAgendamento.PENDENTE, agFuturo.getStatus());
-    }
 }
@@ -9,6 +9,7 @@ import com.java360.agendei.infrastructure.dto.negocio.AvaliacaoNegocioDTO;
 import com.java360.agendei.infrastructure.dto.negocio.CreateAvaliacaoNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -67,7 +68,9 @@ class AvaliacaoNegocioServiceTest {
         mockPerm = Mockito.mockStatic(PermissaoUtils.class);
 
         mockAuth.when(UsuarioAutenticado::get).thenReturn(cliente);
-        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(), any())).thenAnswer(i -> null);
+
+        mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any())).thenAnswer(i -> null);
     }
 
     @AfterEach
@@ -0,0 +1,221 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.CalendarioDisponibilidadeService;
+import com.java360.agendei.domain.entity.Disponibilidade;
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.projection.IntervaloAgendamento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarioDisponibilidadeServiceTest {
+
+    @Mock
+    private DisponibilidadeRepository disponibilidadeRepository;
+    @Mock
+    private AgendamentoRepository agendamentoRepository;
+
+    @InjectMocks
+    private CalendarioDisponibilidadeService service;
+
+    private Prestador prestador;
+    private LocalDate segunda;
+
+    @BeforeEach
+    void setUp() {
+        prestador = new Prestador();
+        prestador.setId(10);
+
+        segunda = LocalDate.now(ZoneId.of("America/Sao_Paulo")).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    private void expediente(LocalTime inicio, LocalTime fim, boolean ativo) {
+        Disponibilidade disp = new Disponibilidade();
+        disp.setDiaSemana(DiaSemanaDisponivel.SEGUNDA);
+        disp.setHoraInicio(inicio);
+        disp.setHoraFim(fim);
+        disp.setAtivo(ativo);
+
+        when(disponibilidadeRepository.findByPrestadorIdAndDiaSemana(10, DiaSemanaDisponivel.SEGUNDA))
+                .thenReturn(Optional.of(disp));
+    }
+
+    private void ocupados(IntervaloAgendamento... intervalos) {
+        when(agendamentoRepository.buscarIntervalosOcupados(eq(10), any(), any(), any()))
+                .thenReturn(List.of(intervalos));
+    }
+
+    @Test
+    void listarHorariosLivres_semAgendamentos_alinhaAoInicioDoExpediente() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados();
+
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 60);
+
+        assertEquals(List.of("08:00", "09:00", "10:00", "11:00"), horarios);
+    }
+
+    @Test
+    void listarHorariosLivres_agendamentoOcupaHorario() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados(new IntervaloAgendamento(1, LocalDateTime.of(segunda, LocalTime.of(8, 0)), 60));
+
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 60);
+
+        assertFalse(horarios.contains("08:00")); // conflito
+        assertTrue(horarios.contains("09:00"));  // encosta no fim do agendamento: livre
+    }
+
+    @Test
+    void listarHorariosLivres_agendamentoParcialBloqueiaHorarioInteiro() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados(new IntervaloAgendamento(1, LocalDateTime.of(segunda, LocalTime.of(9, 45)), 30));
+
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 60);
+
+        assertEquals(List.of("08:00", "11:00"), horarios);
+    }
+
+    @Test
+    void listarHorariosLivres_ignoraHorarioDeAlmoco() {
+        prestador.setHoraInicioAlmoco(LocalTime.of(10, 0));
+        prestador.setHoraFimAlmoco(LocalTime.of(11, 0));
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados();
+
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 60);
+
+        assertEquals(List.of("08:00", "09:00", "11:00"), horarios);
+    }
+
+    @Test
+    void listarHorariosLivres_consideraAgendamentoQueComecouNoDiaAnterior() {
+        expediente(LocalTime.of(0, 0), LocalTime.of(4, 0), true);
+        ocupados(new IntervaloAgendamento(1, LocalDateTime.of(segunda.minusDays(1), LocalTime.of(23, 0)), 120));
+
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 60);
+
+        assertEquals(List.of("01:00", "02:00", "03:00"), horarios);
+    }
+
+    @Test
+    void listarHorariosLivres_semDisponibilidade_lancaErro() {
+        when(disponibilidadeRepository.findByPrestadorIdAndDiaSemana(10, DiaSemanaDisponivel.SEGUNDA))
+                .thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listarHorariosLivres(prestador, segunda, 60));
+    }
+
+    @Test
+    void listarHorariosLivres_diaInativo_lancaErro() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listarHorariosLivres(prestador, segunda, 60));
+        verify(agendamentoRepository, never()).buscarIntervalosOcupados(any(), any(), any(), any());
+    }
+
+    @Test
+    void listarHorariosLivres_dataPassada_retornaVazio() {
+        LocalDate ontem = LocalDate.now(ZoneId.of("America/Sao_Paulo")).minusDays(1);
+        DiaSemanaDisponivel diaOntem = DiaSemanaDisponivel.values()[ontem.getDayOfWeek().getValue() - 1];
+
+        Disponibilidade disp = new Disponibilidade();
+        disp.setDiaSemana(diaOntem);
+        disp.setHoraInicio(LocalTime.of(8, 0));
+        disp.setHoraFim(LocalTime.of(12, 0));
+        disp.setAtivo(true);
+
+        when(disponibilidadeRepository.findByPrestadorIdAndDiaSemana(10, diaOntem)).thenReturn(Optional.of(disp));
+        ocupados();
+
+        assertTrue(service.listarHorariosLivres(prestador, ontem, 30).isEmpty());
+    }
+
+    @Test
+    void listarHorariosLivres_montaODiaUmaVezParaQualquerDuracao() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados();
+
+        service.listarHorariosLivres(prestador, segunda, 60);
+        List<String> horarios = service.listarHorariosLivres(prestador, segunda, 90);
+
+        assertEquals(List.of("08:00", "09:30"), horarios);
+        verify(disponibilidadeRepository, times(1)).findByPrestadorIdAndDiaSemana(10, DiaSemanaDisponivel.SEGUNDA);
+        verify(agendamentoRepository, times(1)).buscarIntervalosOcupados(eq(10), any(), any(), any());
+    }
+
+    @Test
+    void listarHorariosLivresNoPeriodo_usaUmaUnicaConsultaParaTodosOsDias() {
+        Disponibilidade segundaDisp = Disponibilidade.builder()
+                .diaSemana(DiaSemanaDisponivel.SEGUNDA).horaInicio(LocalTime.of(8, 0)).horaFim(LocalTime.of(10, 0)).ativo(true).build();
+        Disponibilidade tercaDisp = Disponibilidade.builder()
+                .diaSemana(DiaSemanaDisponivel.TERCA).horaInicio(LocalTime.of(14, 0)).horaFim(LocalTime.of(16, 0)).ativo(true).build();
+        when(disponibilidadeRepository.findByPrestadorId(10)).thenReturn(List.of(segundaDisp, tercaDisp));
+
+        LocalDate proximaSegunda = segunda.plusWeeks(1);
+        ocupados(
+                new IntervaloAgendamento(1, LocalDateTime.of(segunda, LocalTime.of(8, 0)), 60),
+                new IntervaloAgendamento(2, LocalDateTime.of(proximaSegunda.plusDays(1), LocalTime.of(15, 0)), 60)
+        );
+
+        List<CalendarioDisponibilidadeService.HorariosDoDia> dias =
+                service.listarHorariosLivresNoPeriodo(prestador, segunda, proximaSegunda.plusDays(1), 60).toList();
+
+        assertEquals(9, dias.size());
+        assertEquals(List.of("09:00"), dias.get(0).horarios());           // segunda: 08:00 ocupado
+        assertEquals(List.of("14:00", "15:00"), dias.get(1).horarios());  // terça livre
+        assertTrue(dias.get(2).horarios().isEmpty());                      // quarta sem expediente
+        assertEquals(List.of("08:00", "09:00"), dias.get(7).horarios());  // próxima segunda
+        assertEquals(List.of("14:00"), dias.get(8).horarios());           // próxima terça: 15:00 ocupado
+
+        verify(agendamentoRepository, times(1)).buscarIntervalosOcupados(eq(10), any(), any(), any());
+        verify(disponibilidadeRepository, never()).findByPrestadorIdAndDiaSemana(any(), any());
+    }
+
+    @Test
+    void invalidarPeriodo_forcaRemontarODia() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados();
+        service.listarHorariosLivres(prestador, segunda, 60);
+
+        service.invalidarPeriodo(10, LocalDateTime.of(segunda, LocalTime.of(9, 0)), LocalDateTime.of(segunda, LocalTime.of(10, 0)));
+        service.listarHorariosLivres(prestador, segunda, 60);
+
+        verify(agendamentoRepository, times(2)).buscarIntervalosOcupados(eq(10), any(), any(), any());
+    }
+
+    @Test
+    void invalidarPrestador_forcaRemontarTodosOsDias() {
+        expediente(LocalTime.of(8, 0), LocalTime.of(12, 0), true);
+        ocupados();
+        service.listarHorariosLivres(prestador, segunda, 60);
+
+        service.invalidarPrestador(10);
+        service.listarHorariosLivres(prestador, segunda, 60);
+
+        verify(disponibilidadeRepository, times(2)).findByPrestadorIdAndDiaSemana(10, DiaSemanaDisponivel.SEGUNDA);
+    }
+}
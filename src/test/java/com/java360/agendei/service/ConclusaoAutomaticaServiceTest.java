@@ -0,0 +1,154 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.ConclusaoAutomaticaService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService.ChaveResumo;
+import com.java360.agendei.domain.applicationservice.TravaTarefaService;
+import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.projection.AgendamentoVencido;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConclusaoAutomaticaServiceTest {
+
+    @Mock
+    private AgendamentoRepository agendamentoRepository;
+    @Mock
+    private ResumoAgendamentoService resumoAgendamentoService;
+    @Mock
+    private TravaTarefaService travaTarefaService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private static final LocalDateTime ONTEM = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConclusaoAutomaticaService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ConclusaoAutomaticaService(
+                agendamentoRepository, resumoAgendamentoService,
+                travaTarefaService, transactionTemplate, meterRegistry);
+    }
+
+    private void executarTransacoesDiretamente() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private List<AgendamentoVencido> vencidos(int quantidade, int primeiroId) {
+        return IntStream.range(primeiroId, primeiroId + quantidade)
+                .mapToObj(id -> new AgendamentoVencido(id, 7, ONTEM, 3, 10))
+                .toList();
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_semTrava_naoFazNada() {
+        when(travaTarefaService.adquirir(eq("concluir-agendamentos-vencidos"), any())).thenReturn(false);
+
+        service.concluirAgendamentosVencidos();
+
+        verifyNoInteractions(agendamentoRepository, transactionTemplate);
+        verify(travaTarefaService, never()).liberar(any());
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_processaEmLotesAteEsgotar() {
+        when(travaTarefaService.adquirir(eq("concluir-agendamentos-vencidos"), any())).thenReturn(true);
+        executarTransacoesDiretamente();
+
+        when(agendamentoRepository.buscarVencidos(any(), eq(Limit.of(500))))
+                .thenReturn(vencidos(500, 1))
+                .thenReturn(vencidos(2, 501));
+        when(agendamentoRepository.concluirPendentes(anyList()))
+                .thenReturn(500)
+                .thenReturn(2);
+        when(travaTarefaService.renovar(eq("concluir-agendamentos-vencidos"), any())).thenReturn(true);
+
+        service.concluirAgendamentosVencidos();
+
+        verify(agendamentoRepository, times(2)).concluirPendentes(anyList());
+        verify(agendamentoRepository, never()).findAll();
+
+        // um delta por chave de resumo em cada lote, não um por agendamento
+        ChaveResumo chave = new ChaveResumo(ONTEM.toLocalDate(), 7, 3, 10);
+        verify(resumoAgendamentoService).registrarTransicao(chave, StatusAgendamento.PENDENTE, StatusAgendamento.CONCLUIDO, 500);
+        verify(resumoAgendamentoService).registrarTransicao(chave, StatusAgendamento.PENDENTE, StatusAgendamento.CONCLUIDO, 2);
+        verify(travaTarefaService).liberar("concluir-agendamentos-vencidos");
+
+        assertEquals(502, meterRegistry.counter("agendei.agendamentos.concluidos.automaticamente").count());
+        assertEquals(1, meterRegistry.timer("agendei.agendamentos.conclusao.automatica.duracao").count());
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_travaNaoRenovada_paraAntesDoProximoLote() {
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(true);
+        executarTransacoesDiretamente();
+        when(agendamentoRepository.buscarVencidos(any(), any())).thenReturn(vencidos(500, 1));
+        when(agendamentoRepository.concluirPendentes(anyList())).thenReturn(500);
+        when(travaTarefaService.renovar(any(), any())).thenReturn(false); // expirou: outra instância pode ter assumido
+
+        service.concluirAgendamentosVencidos();
+
+        verify(agendamentoRepository, times(1)).buscarVencidos(any(), any());
+        verify(travaTarefaService).liberar("concluir-agendamentos-vencidos");
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_nadaVencido_apenasUmaConsulta() {
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(true);
+        executarTransacoesDiretamente();
+        when(agendamentoRepository.buscarVencidos(any(), any())).thenReturn(List.of());
+
+        service.concluirAgendamentosVencidos();
+
+        verify(agendamentoRepository, times(1)).buscarVencidos(any(), any());
+        verify(agendamentoRepository, never()).concluirPendentes(anyList());
+        verify(travaTarefaService).liberar("concluir-agendamentos-vencidos");
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_updateNaoAlcancouOLote_naoRegistraDeltas() {
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(true);
+        executarTransacoesDiretamente();
+        when(agendamentoRepository.buscarVencidos(any(), any())).thenReturn(vencidos(3, 1));
+        when(agendamentoRepository.concluirPendentes(anyList())).thenReturn(2); // um cancelado no meio do caminho
+
+        assertThrows(IllegalStateException.class, () -> service.concluirAgendamentosVencidos());
+
+        verifyNoInteractions(resumoAgendamentoService);
+        verify(travaTarefaService).liberar("concluir-agendamentos-vencidos");
+    }
+
+    @Test
+    void concluirAgendamentosVencidos_liberaTravaMesmoComErro() {
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(true);
+        executarTransacoesDiretamente();
+        when(agendamentoRepository.buscarVencidos(any(), any())).thenThrow(new RuntimeException("falha no banco"));
+
+        assertThrows(RuntimeException.class, () -> service.concluirAgendamentosVencidos());
+
+        verify(travaTarefaService).liberar("concluir-agendamentos-vencidos");
+    }
+}
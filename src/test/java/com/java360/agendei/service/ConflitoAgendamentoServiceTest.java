@@ -0,0 +1,60 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.ConflitoAgendamentoService;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConflitoAgendamentoServiceTest {
+
+    @Mock
+    private AgendamentoRepository agendamentoRepository;
+
+    @InjectMocks
+    private ConflitoAgendamentoService service;
+
+    private LocalDateTime amanha10h;
+
+    @BeforeEach
+    void setUp() {
+        amanha10h = LocalDateTime.now(ZoneId.of("America/Sao_Paulo"))
+                .plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void conflita_consultaJanelaDaMaiorDuracaoNoBanco() {
+        when(agendamentoRepository.existeConflito(2, amanha10h.minusMinutes(480), amanha10h, amanha10h.plusMinutes(30), null))
+                .thenReturn(true);
+
+        assertTrue(service.conflita(2, amanha10h, amanha10h.plusMinutes(30), null));
+    }
+
+    @Test
+    void conflita_repassaAgendamentoIgnorado() {
+        when(agendamentoRepository.existeConflito(2, amanha10h.minusMinutes(480), amanha10h, amanha10h.plusMinutes(60), 1))
+                .thenReturn(false);
+
+        assertFalse(service.conflita(2, amanha10h, amanha10h.plusMinutes(60), 1));
+    }
+
+    @Test
+    void conflita_semCacheLocal_cadaVerificacaoVaiAoBanco() {
+        // Cancelamentos e remarcações feitos em outros nós valem já na próxima verificação
+        when(agendamentoRepository.existeConflito(eq(2), any(), any(), any(), any())).thenReturn(true, false);
+
+        assertTrue(service.conflita(2, amanha10h, amanha10h.plusMinutes(30), null));
+        assertFalse(service.conflita(2, amanha10h, amanha10h.plusMinutes(30), null));
+        verify(agendamentoRepository, times(2)).existeConflito(eq(2), any(), any(), any(), any());
+    }
+}
@@ -1,17 +1,22 @@
 package com.java360.agendei.service;
 
+import com.java360.agendei.domain.applicationservice.CalendarioDisponibilidadeService;
 import com.java360.agendei.domain.applicationservice.DisponibilidadeService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
 import com.java360.agendei.domain.entity.Disponibilidade;
 import com.java360.agendei.domain.entity.Prestador;
 import com.java360.agendei.domain.model.DiaSemanaDisponivel;
 import com.java360.agendei.domain.repository.AgendamentoRepository;
 import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.PrestadorRepository;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
 import com.java360.agendei.infrastructure.dto.DisponibilidadeDTO;
 import com.java360.agendei.infrastructure.dto.HorarioAlmocoDTO;
 import com.java360.agendei.infrastructure.dto.SaveDisponibilidadeDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,7 +35,11 @@ class DisponibilidadeServiceTest {
 
     @Mock private DisponibilidadeRepository disponibilidadeRepository;
     @Mock private UsuarioRepository usuarioRepository;
+    @Mock private PrestadorRepository prestadorRepository;
     @Mock private AgendamentoRepository agendamentoRepository;
+    @Mock private CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    @Mock private ResumoAgendamentoService resumoAgendamentoService;
+    @Mock private IndiceBuscaService indiceBuscaService;
 
     @InjectMocks private DisponibilidadeService service;
 
@@ -49,8 +58,10 @@ class DisponibilidadeServiceTest {
         mockPerm = Mockito.mockStatic(PermissaoUtils.class);
 
         mockAuth.when(UsuarioAutenticado::get).thenReturn(prestador);
-        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(), any(), any())).thenAnswer(i -> null);
-        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(), any())).thenAnswer(i -> null);
+
+        mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any(), any())).thenAnswer(i -> null);
+        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any())).thenAnswer(i -> null);
     }
 
     @AfterEach
@@ -162,6 +173,7 @@ class DisponibilidadeServiceTest {
 
         when(disponibilidadeRepository.findByPrestadorIdAndDiaSemana(10, DiaSemanaDisponivel.SEGUNDA))
                 .thenReturn(Optional.empty());
+        when(prestadorRepository.getReferenceById(10)).thenReturn(prestador);
 
         Disponibilidade salvo = Disponibilidade.builder()
                 .id(99)
@@ -177,6 +189,7 @@ class DisponibilidadeServiceTest {
 
         assertEquals(99, result.getId());
         assertEquals("Prestador X", result.getNomePrestador());
+        verify(calendarioDisponibilidadeService).invalidarPrestador(10);
     }
 
     @Test
@@ -242,6 +255,7 @@ class DisponibilidadeServiceTest {
         Disponibilidade result = service.alterarStatusDia(DiaSemanaDisponivel.SEGUNDA, false);
 
         assertFalse(result.isAtivo());
+        verify(calendarioDisponibilidadeService).invalidarPrestador(10);
     }
 
     @Test
@@ -266,6 +280,7 @@ class DisponibilidadeServiceTest {
 
         assertEquals(LocalTime.of(12, 0), prestador.getHoraInicioAlmoco());
         assertEquals(LocalTime.of(13, 0), prestador.getHoraFimAlmoco());
+        verify(calendarioDisponibilidadeService).invalidarPrestador(10);
     }
 
 
@@ -277,8 +292,8 @@ class DisponibilidadeServiceTest {
 
     @Test
     void buscarHorarioAlmoco_sucesso() {
-        prestador.setHoraInicioAlmoco(LocalTime.of(11, 0));
-        prestador.setHoraFimAlmoco(LocalTime.of(12, 0));
+        when(prestadorRepository.buscarHorarioAlmoco(10))
+                .thenReturn(Optional.of(new HorarioAlmocoDTO(LocalTime.of(11, 0), LocalTime.of(12, 0))));
 
         HorarioAlmocoDTO dto = service.buscarHorarioAlmoco();
 
@@ -287,8 +302,8 @@ class DisponibilidadeServiceTest {
 
     @Test
     void buscarHorarioAlmoco_erro_naoDefinido() {
-        prestador.setHoraInicioAlmoco(null);
-        prestador.setHoraFimAlmoco(null);
+        when(prestadorRepository.buscarHorarioAlmoco(10))
+                .thenReturn(Optional.of(new HorarioAlmocoDTO(null, null)));
 
         assertThrows(IllegalArgumentException.class,
                 () -> service.buscarHorarioAlmoco());
@@ -1,18 +1,26 @@
 package com.java360.agendei.service;
 
 import com.java360.agendei.domain.applicationservice.FotoNegocioService;
+import com.java360.agendei.domain.applicationservice.ImagemService;
+import com.java360.agendei.domain.applicationservice.VariantesFotoService;
 import com.java360.agendei.domain.entity.*;
+import com.java360.agendei.domain.model.TamanhoImagem;
 import com.java360.agendei.domain.repository.FotoNegocioRepository;
 import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.projection.ArquivoFotoNegocio;
+import com.java360.agendei.domain.repository.projection.ResumoFotoNegocio;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.negocio.FotoNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -30,6 +38,12 @@ class FotoNegocioServiceTest {
     @Mock
     private FotoNegocioRepository fotoRepo;
 
+    @Mock
+    private ImagemService imagemService;
+
+    @Mock
+    private VariantesFotoService variantesFotoService;
+
     @InjectMocks
     private FotoNegocioService service;
 
@@ -51,8 +65,10 @@ class FotoNegocioServiceTest {
         mockPerm = Mockito.mockStatic(PermissaoUtils.class);
 
         mockAuth.when(UsuarioAutenticado::get).thenReturn(dono);
-        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(), any())).then(i -> null);
-        mockPerm.when(() -> PermissaoUtils.isAdmin(any())).thenReturn(false);
+
+        mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        mockPerm.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any())).then(i -> null);
+        mockPerm.when(() -> PermissaoUtils.isAdmin(any(UsuarioPrincipal.class))).thenReturn(false);
     }
 
     @AfterEach
@@ -66,10 +82,14 @@ class FotoNegocioServiceTest {
         MultipartFile file = new MockMultipartFile("f", "foto.jpg", "image/jpeg", "abc".getBytes());
 
         when(negocioRepo.findById(10)).thenReturn(Optional.of(negocio));
+        when(imagemService.salvar(file)).thenReturn("chave");
 
         service.adicionarFotoAoNegocio(10, file);
 
-        verify(fotoRepo).save(any());
+        ArgumentCaptor<FotoNegocio> salva = ArgumentCaptor.forClass(FotoNegocio.class);
+        verify(fotoRepo).save(salva.capture());
+        assertEquals("chave", salva.getValue().getImagemChave()); // só a referência vai para a entidade
+        verify(variantesFotoService).agendar(salva.getValue().getId(), "chave"); // variantes em segundo plano
     }
 
     @Test
@@ -87,6 +107,7 @@ class FotoNegocioServiceTest {
         Prestador outro = new Prestador();
         outro.setId(999);
         mockAuth.when(UsuarioAutenticado::get).thenReturn(outro);
+        mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(outro));
 
         MultipartFile file = new MockMultipartFile("f", "foto.jpg", "image/jpeg", "abc".getBytes());
         when(negocioRepo.findById(10)).thenReturn(Optional.of(negocio));
@@ -97,7 +118,7 @@ class FotoNegocioServiceTest {
 
     @Test
     void adicionarFoto_adminPodeAdicionar() throws Exception {
-        mockPerm.when(() -> PermissaoUtils.isAdmin(any())).thenReturn(true);
+        mockPerm.when(() -> PermissaoUtils.isAdmin(any(UsuarioPrincipal.class))).thenReturn(true);
 
         MultipartFile file = new MockMultipartFile("f", "foto.png", "image/png", "xxx".getBytes());
         when(negocioRepo.findById(10)).thenReturn(Optional.of(negocio));
@@ -143,7 +164,7 @@ class FotoNegocioServiceTest {
         FotoNegocio f = FotoNegocio.builder()
                 .id(5)
                 .nomeArquivo("x.jpg")
-                .imagem("abc".getBytes())
+                .imagemChave("abc")
                 .negocio(negocio)
                 .build();
 
@@ -158,19 +179,15 @@ class FotoNegocioServiceTest {
 
     @Test
     void listarFotosDTO_sucesso() {
-        FotoNegocio f = FotoNegocio.builder()
-                .id(5)
-                .nomeArquivo("foto.png")
-                .imagem("aaa".getBytes())
-                .negocio(negocio)
-                .build();
-
-        when(fotoRepo.findByNegocioId(10)).thenReturn(List.of(f));
+        when(fotoRepo.listarResumos(10)).thenReturn(List.of(new ResumoFotoNegocio(5, "foto.png")));
 
         List<FotoNegocioDTO> lista = service.listarFotosDoNegocioDTO(10);
 
         assertEquals(1, lista.size());
+        assertEquals("foto.png", lista.get(0).getNomeArquivo());
         assertEquals("/negocios/10/fotos/5", lista.get(0).getUrl());
+        assertEquals("/negocios/10/fotos/5?tamanho=MINIATURA", lista.get(0).getUrlMiniatura());
+        verify(fotoRepo, never()).findByNegocioId(any()); // só a projeção, sem entidades
     }
 
     @Test
@@ -178,7 +195,10 @@ class FotoNegocioServiceTest {
         FotoNegocio f = FotoNegocio.builder()
                 .id(9)
                 .negocio(negocio)
-                .imagem("X".getBytes())
+                .imagemChave("X")
+                .miniaturaChave("M")
+                .cartaoChave("C")
+                .completaChave("G")
                 .nomeArquivo("arq")
                 .build();
 
@@ -187,6 +207,62 @@ class FotoNegocioServiceTest {
         service.deletarFoto(10, 9);
 
         verify(fotoRepo).delete(f);
+        verify(imagemService).descartar("X");
+        verify(imagemService).descartar("M");
+        verify(imagemService).descartar("C");
+        verify(imagemService).descartar("G");
+    }
+
+    @Test
+    void abrirFoto_devolveConteudoDoArmazenamento() {
+        ImagemDTO imagem = new ImagemDTO("vitrine.png", "image/png", "chave", 0,
+                new ByteArrayResource("png".getBytes()), false);
+
+        when(fotoRepo.buscarArquivo(9)).thenReturn(Optional.of(arquivo(10, "vitrine.png", "chave", "mini")));
+        when(imagemService.abrir("chave", "vitrine.png", "image/png")).thenReturn(imagem);
+
+        assertSame(imagem, service.abrirFoto(10, 9, null));
+        assertFalse(imagem.isProvisoria());
+        verify(fotoRepo, never()).findById(any()); // só a projeção, sem carregar foto e negócio
+    }
+
+    @Test
+    void abrirFoto_variantePronta_serveJpegRedimensionado() {
+        ImagemDTO imagem = new ImagemDTO("vitrine-miniatura.jpg", "image/jpeg", "mini", 0,
+                new ByteArrayResource("jpg".getBytes()), false);
+
+        when(fotoRepo.buscarArquivo(9)).thenReturn(Optional.of(arquivo(10, "vitrine.png", "chave", "mini")));
+        when(imagemService.abrir("mini", "vitrine-miniatura.jpg", "image/jpeg")).thenReturn(imagem);
+
+        assertSame(imagem, service.abrirFoto(10, 9, TamanhoImagem.MINIATURA));
+        verifyNoInteractions(variantesFotoService);
+    }
+
+    @Test
+    void abrirFoto_varianteAindaNaoGerada_serveOriginalEAgenda() {
+        ImagemDTO imagem = new ImagemDTO("vitrine.png", "image/png", "chave", 0,
+                new ByteArrayResource("png".getBytes()), false);
+
+        when(fotoRepo.buscarArquivo(9)).thenReturn(Optional.of(arquivo(10, "vitrine.png", "chave", null)));
+        when(imagemService.abrir("chave", "vitrine.png", "image/png")).thenReturn(imagem);
+
+        ImagemDTO servida = service.abrirFoto(10, 9, TamanhoImagem.MINIATURA);
+
+        assertEquals("chave", servida.getChave());
+        assertTrue(servida.isProvisoria()); // sem cache longo: vira a variante quando ela ficar pronta
+        verify(variantesFotoService).agendar(9, "chave");
+    }
+
+    @Test
+    void abrirFoto_fotoDeOutroNegocio() {
+        when(fotoRepo.buscarArquivo(9)).thenReturn(Optional.of(arquivo(999, "a.jpg", "chave", null)));
+
+        assertThrows(IllegalArgumentException.class, () -> service.abrirFoto(10, 9, null));
+        verifyNoInteractions(imagemService);
+    }
+
+    private static ArquivoFotoNegocio arquivo(Integer negocioId, String nome, String chave, String miniatura) {
+        return new ArquivoFotoNegocio(negocioId, nome, chave, miniatura, null, null);
     }
 
     @Test
@@ -205,7 +281,7 @@ class FotoNegocioServiceTest {
         FotoNegocio f = FotoNegocio.builder()
                 .id(9)
                 .negocio(n2) // negocio com id diferente
-                .imagem("x".getBytes())
+                .imagemChave("x")
                 .nomeArquivo("a")
                 .build();
 
@@ -224,10 +300,12 @@ class FotoNegocioServiceTest {
 
         mockAuth.when(UsuarioAutenticado::get).thenReturn(outro);
 
+        mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(outro));
+
         FotoNegocio f = FotoNegocio.builder()
                 .id(9)
                 .negocio(negocio)
-                .imagem("x".getBytes())
+                .imagemChave("x")
                 .nomeArquivo("a")
                 .build();
 
@@ -239,12 +317,12 @@ class FotoNegocioServiceTest {
 
     @Test
     void deletarFoto_adminPode() {
-        mockPerm.when(() -> PermissaoUtils.isAdmin(any())).thenReturn(true);
+        mockPerm.when(() -> PermissaoUtils.isAdmin(any(UsuarioPrincipal.class))).thenReturn(true);
 
         FotoNegocio f = FotoNegocio.builder()
                 .id(9)
                 .negocio(negocio)
-                .imagem("x".getBytes())
+                .imagemChave("x")
                 .nomeArquivo("a")
                 .build();
 
@@ -0,0 +1,182 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.ImagemService;
+import com.java360.agendei.domain.applicationservice.TravaTarefaService;
+import com.java360.agendei.domain.entity.BlobDescartado;
+import com.java360.agendei.domain.repository.BlobDescartadoRepository;
+import com.java360.agendei.domain.repository.FotoNegocioRepository;
+import com.java360.agendei.domain.repository.PrestadorRepository;
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlob;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImagemServiceTest {
+
+    @Mock private ArmazenamentoBlob armazenamentoBlob;
+    @Mock private FotoNegocioRepository fotoNegocioRepository;
+    @Mock private PrestadorRepository prestadorRepository;
+    @Mock private BlobDescartadoRepository blobDescartadoRepository;
+    @Mock private TravaTarefaService travaTarefaService;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @InjectMocks private ImagemService service;
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    // Simula o armazenamento: consome o fluxo como a cópia real faria
+    private void armazenamentoLeTudo() throws Exception {
+        when(armazenamentoBlob.salvar(any(InputStream.class))).thenAnswer(i -> {
+            ((InputStream) i.getArgument(0)).transferTo(OutputStream.nullOutputStream());
+            return "chave";
+        });
+    }
+
+    @Test
+    void salvar_enviaOConteudoEmFluxo() throws Exception {
+        armazenamentoLeTudo();
+        when(armazenamentoBlob.existe("chave")).thenReturn(true);
+
+        String chave = service.salvar(new MockMultipartFile("f", "a.png", "image/png", PNG));
+
+        assertEquals("chave", chave);
+        verify(blobDescartadoRepository).cancelarDescarte("chave"); // conteúdo em uso de novo
+        verify(armazenamentoBlob, times(1)).salvar(any(InputStream.class));
+    }
+
+    @Test
+    void salvar_conteudoRemovidoPelaVarreduraAoMesmoTempo_gravaDeNovo() throws Exception {
+        // O armazenamento achou o conteúdo e não regravou, mas a varredura o removeu logo em seguida
+        armazenamentoLeTudo();
+        when(armazenamentoBlob.existe("chave")).thenReturn(false);
+
+        String chave = service.salvar(new MockMultipartFile("f", "a.png", "image/png", PNG));
+
+        assertEquals("chave", chave);
+        verify(armazenamentoBlob, times(2)).salvar(any(InputStream.class));
+    }
+
+    @Test
+    void salvar_conteudoQueNaoEImagem_recusaMesmoComContentTypeDeImagem() throws Exception {
+        armazenamentoLeTudo();
+
+        MockMultipartFile disfarcado = new MockMultipartFile("f", "a.png", "image/png", "<html>".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> service.salvar(disfarcado));
+    }
+
+    @Test
+    void salvar_acimaDoLimite_interrompeACopia() throws Exception {
+        armazenamentoLeTudo();
+
+        byte[] grande = Arrays.copyOf(PNG, (int) ImagemService.TAMANHO_MAXIMO + 1);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.salvar(new MockMultipartFile("f", "a.png", "image/png", grande)));
+    }
+
+    @Test
+    void abrir_conteudoSumiuDoArmazenamento_lancaErro() throws Exception {
+        Resource conteudo = mock(Resource.class);
+        when(conteudo.lastModified()).thenThrow(new FileNotFoundException());
+        when(armazenamentoBlob.abrir("chave")).thenReturn(conteudo);
+
+        assertThrows(IllegalArgumentException.class, () -> service.abrir("chave", "a.png", "image/png"));
+    }
+
+    @Test
+    void descartar_soEnfileiraSemRemoverNaHora() {
+        service.descartar("chave");
+        service.descartar(null);
+
+        verify(blobDescartadoRepository).save(argThat(b -> b.getChave().equals("chave")));
+        verifyNoInteractions(armazenamentoBlob);
+    }
+
+    private BlobDescartado varreduraCom(String chave) {
+        when(travaTarefaService.adquirir(eq("remover-imagens-descartadas"), any())).thenReturn(true);
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        BlobDescartado descartado = BlobDescartado.builder().id(7L).chave(chave).descartadoEm(LocalDateTime.now()).build();
+        when(blobDescartadoRepository.buscarVencidos(any(), eq(0L), any(Limit.class))).thenReturn(List.of(descartado));
+        return descartado;
+    }
+
+    @Test
+    void removerDescartados_removeQuandoNinguemMaisUsa() {
+        BlobDescartado descartado = varreduraCom("chave");
+        when(blobDescartadoRepository.travar(7L)).thenReturn(Optional.of(descartado));
+
+        service.removerDescartados();
+
+        verify(armazenamentoBlob).remover("chave");
+        verify(blobDescartadoRepository).delete(descartado);
+        verify(travaTarefaService).liberar("remover-imagens-descartadas");
+    }
+
+    @Test
+    void removerDescartados_mantemConteudoCompartilhado() {
+        BlobDescartado descartado = varreduraCom("chave");
+        when(blobDescartadoRepository.travar(7L)).thenReturn(Optional.of(descartado));
+        when(prestadorRepository.existsByFotoPerfilChave("chave")).thenReturn(true); // mesma imagem na foto de perfil
+
+        service.removerDescartados();
+
+        verify(armazenamentoBlob, never()).remover(any());
+        verify(blobDescartadoRepository).delete(descartado); // sai da fila mesmo assim
+    }
+
+    @Test
+    void removerDescartados_envioDoMesmoConteudoTirouDaFila_naoRemove() {
+        varreduraCom("chave");
+        when(blobDescartadoRepository.travar(7L)).thenReturn(Optional.empty()); // cancelarDescarte chegou antes
+
+        service.removerDescartados();
+
+        verifyNoInteractions(armazenamentoBlob, fotoNegocioRepository, prestadorRepository);
+    }
+
+    @Test
+    void removerDescartados_descartadaDeNovoDentroDaCarencia_naoRemove() {
+        BlobDescartado descartado = varreduraCom("chave");
+        when(blobDescartadoRepository.travar(7L)).thenReturn(Optional.of(descartado));
+        when(blobDescartadoRepository.existsByChaveAndDescartadoEmAfter(eq("chave"), any())).thenReturn(true);
+
+        service.removerDescartados();
+
+        verify(armazenamentoBlob, never()).remover(any());
+    }
+
+    @Test
+    void removerDescartados_semTrava_naoFazNada() {
+        when(travaTarefaService.adquirir(eq("remover-imagens-descartadas"), any())).thenReturn(false);
+
+        service.removerDescartados();
+
+        verifyNoInteractions(blobDescartadoRepository, armazenamentoBlob);
+    }
+}
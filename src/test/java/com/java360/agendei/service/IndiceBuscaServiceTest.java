@@ -0,0 +1,173 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.entity.Disponibilidade;
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Prestador;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.DiaSemanaDisponivel;
+import com.java360.agendei.domain.repository.DisponibilidadeRepository;
+import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.ServicoRepository;
+import com.java360.agendei.domain.repository.projection.DiaAtivoPrestador;
+import com.java360.agendei.domain.repository.projection.NegocioIndexado;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceBuscaServiceTest {
+
+    @Mock private ServicoRepository servicoRepository;
+    @Mock private NegocioRepository negocioRepository;
+    @Mock private DisponibilidadeRepository disponibilidadeRepository;
+
+    private IndiceBuscaService service;
+    private Prestador joana;
+    private Negocio studio;
+
+    @BeforeEach
+    void setUp() {
+        service = new IndiceBuscaService(servicoRepository, negocioRepository, disponibilidadeRepository);
+
+        studio = new Negocio();
+        studio.setId(1);
+        studio.setNome("Studio Beleza Pura");
+
+        joana = new Prestador();
+        joana.setId(10);
+        joana.setNome("Joana Araújo");
+    }
+
+    private Servico servico(int id, String titulo, String descricao, Prestador prestador) {
+        return Servico.builder().id(id).titulo(titulo).descricao(descricao).ativo(true)
+                .prestador(prestador).negocio(studio).build();
+    }
+
+    private void atende(Prestador prestador, DiaSemanaDisponivel... dias) {
+        List<Disponibilidade> disponibilidades = Arrays.stream(dias)
+                .map(dia -> Disponibilidade.builder().prestador(prestador).diaSemana(dia).build())
+                .toList();
+        lenient().when(disponibilidadeRepository.findByPrestadorId(prestador.getId())).thenReturn(disponibilidades);
+    }
+
+    @Test
+    void buscarServicos_ignoraAcentoEUsaORadical() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        service.atualizarServicos(List.of(servico(1, "Corte de cabelo masculino", null, joana)));
+
+        assertEquals(List.of(1), service.buscarServicos("cortes", null, 0, 10).ids());
+        assertEquals(List.of(1), service.buscarServicos("CABÉLOS", null, 0, 10).ids());
+        assertEquals(List.of(1), service.buscarServicos("corte araujo", null, 0, 10).ids()); // título + prestador
+        assertTrue(service.buscarServicos("corte manicure", null, 0, 10).ids().isEmpty()); // todas as palavras
+    }
+
+    @Test
+    void buscarServicos_ultimaPalavraCasaPorPrefixo() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        service.atualizarServicos(List.of(servico(1, "Manicure e pedicure", null, joana)));
+
+        assertEquals(List.of(1), service.buscarServicos("manic", null, 0, 10).ids());
+        assertEquals(List.of(1), service.buscarServicos("pedicure mani", null, 0, 10).ids());
+    }
+
+    @Test
+    void buscarServicos_tituloTemMaisRelevanciaQueDescricao() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        service.atualizarServicos(List.of(
+                servico(1, "Hidratação", "Inclui escova ao final", joana),
+                servico(2, "Escova progressiva", "Alisamento", joana)));
+
+        assertEquals(List.of(2, 1), service.buscarServicos("escova", null, 0, 10).ids());
+    }
+
+    @Test
+    void buscarServicos_filtraPeloDiaEIgnoraPrestadorSemAtendimento() {
+        Prestador carlos = new Prestador();
+        carlos.setId(11);
+        carlos.setNome("Carlos");
+        atende(joana, DiaSemanaDisponivel.SEGUNDA, DiaSemanaDisponivel.TERCA);
+        atende(carlos);
+        service.atualizarServicos(List.of(servico(1, "Corte", null, joana), servico(2, "Corte", null, carlos)));
+
+        assertEquals(List.of(1), service.buscarServicos("corte", DiaSemanaDisponivel.TERCA, 0, 10).ids());
+        assertTrue(service.buscarServicos("corte", DiaSemanaDisponivel.SABADO, 0, 10).ids().isEmpty());
+        assertEquals(List.of(1), service.buscarServicos(null, null, 0, 10).ids());
+    }
+
+    @Test
+    void atualizarServicos_desativadoSaiDoIndice() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        Servico corte = servico(1, "Corte", null, joana);
+        service.atualizarServicos(List.of(corte));
+
+        corte.setAtivo(false);
+        service.atualizarServicos(List.of(corte));
+
+        assertTrue(service.buscarServicos("corte", null, 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    void buscarServicos_paginaPelaRelevancia() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        service.atualizarServicos(IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> servico(i, "Massagem " + i, null, joana))
+                .toList());
+
+        IndiceBuscaService.Resultado primeira = service.buscarServicos("massagem", null, 0, 2);
+        IndiceBuscaService.Resultado ultima = service.buscarServicos("massagem", null, 2, 2);
+
+        assertEquals(2, primeira.ids().size());
+        assertTrue(primeira.temMais());
+        assertEquals(1, ultima.ids().size());
+        assertFalse(ultima.temMais());
+    }
+
+    @Test
+    void buscarServicos_paginacaoInvalida_lancaErro() {
+        assertThrows(IllegalArgumentException.class, () -> service.buscarServicos("corte", null, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarServicos("corte", null, 0, 500));
+        assertThrows(IllegalArgumentException.class, () -> service.buscarServicos("corte", null, 200, 100));
+    }
+
+    @Test
+    void reconstruir_carregaServicosENegociosDoBanco() {
+        when(disponibilidadeRepository.listarDiasAtivos())
+                .thenReturn(List.of(new DiaAtivoPrestador(10, DiaSemanaDisponivel.SEGUNDA)));
+        when(servicoRepository.buscarParaIndice(eq(0), any())).thenReturn(List.of(servico(1, "Sobrancelha", null, joana)));
+        when(negocioRepository.buscarParaIndice(eq(0), any()))
+                .thenReturn(List.of(new NegocioIndexado(1, "Studio Beleza Pura", CategoriaNegocio.BELEZA, true), new NegocioIndexado(2, "Barbearia São João", CategoriaNegocio.BARBEARIA, true)));
+
+        service.reconstruir();
+
+        assertEquals(List.of(1), service.buscarServicos("sobrancelhas", null, 0, 10).ids());
+        assertEquals(List.of(2), service.buscarNegocios("sao joao", 0, 10).ids());
+        verify(servicoRepository, never()).findByPrestadorId(anyInt());
+    }
+
+    @Test
+    void atualizarNegocio_reindexaNomeNosServicos() {
+        atende(joana, DiaSemanaDisponivel.SEGUNDA);
+        Servico corte = servico(1, "Corte", null, joana);
+        when(servicoRepository.findByNegocio_Id(1)).thenReturn(List.of(corte));
+
+        studio.setNome("Espaço Vênus");
+        service.atualizarNegocio(studio);
+
+        assertEquals(List.of(1), service.buscarServicos("venus", null, 0, 10).ids());
+        assertEquals(List.of(1), service.buscarNegocios("espaco", 0, 10).ids());
+    }
+}
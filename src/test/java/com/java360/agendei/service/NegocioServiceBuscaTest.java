@@ -1,23 +1,49 @@
 package com.java360.agendei.service;
 
 import com.java360.agendei.domain.applicationservice.NegocioService;
+import com.java360.agendei.domain.applicationservice.TravaTarefaService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.OrdenacaoBuscaNegocio;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.domain.repository.projection.NegocioSemGeohash;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.dto.LatLngDTO;
 import com.java360.agendei.infrastructure.dto.negocio.NegocioBuscaDTO;
+import com.java360.agendei.infrastructure.dto.negocio.PaginaNegociosDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import com.java360.agendei.infrastructure.util.GeoHashUtils;
 import com.java360.agendei.infrastructure.util.GeocodingService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +51,13 @@ class NegocioServiceBuscaTest {
 
     @Mock private NegocioRepository negocioRepository;
     @Mock private GeocodingService geocodingService;
+    @Mock private UsuarioRepository usuarioRepository;
+    @Mock private IndiceBuscaService indiceBuscaService;
+    @Mock private SugestaoBuscaService sugestaoBuscaService;
+    @Mock private UsuarioPrincipalService usuarioPrincipalService;
+    @Mock private TravaTarefaService travaTarefaService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock(answer = Answers.RETURNS_SELF) private FluentQuery.FetchableFluentQuery<Negocio> consulta;
 
     @InjectMocks private NegocioService negocioService;
 
@@ -61,46 +94,226 @@ class NegocioServiceBuscaTest {
     void buscarNegociosProximos_clienteSemCepFalha() {
         Cliente cliente = makeClienteWithCep(2, null);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
         permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(cliente, PerfilUsuario.CLIENTE)).thenAnswer(i->null);
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> negocioService.buscarNegociosProximos(null, null));
+                () -> negocioService.buscarNegociosProximos(null, null, 20, 50));
 
         assertEquals("Cliente precisa ter endereço completo cadastrado.", ex.getMessage());
     }
 
 
     @Test
-    void buscarNegociosPorAvaliacao_filtraPorNotaEOrdena() {
+    void buscarNegociosPorAvaliacao_mantemOrdemDaConsultaECalculaDistancia() {
         Cliente cliente = makeClienteWithCep(3, "00000-000");
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
         permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(cliente, PerfilUsuario.CLIENTE)).thenAnswer(i->null);
 
-        Negocio n1 = makeNegocio(1, "11111-111", 4.7, "A", CategoriaNegocio.SPA);
-        Negocio n2 = makeNegocio(2, "22222-222", 3.9, "B", CategoriaNegocio.SPA);
+        cliente.setLatitude(-23.5505);
+        cliente.setLongitude(-46.6333);
 
-        when(negocioRepository.findByAtivoTrue()).thenReturn(List.of(n1, n2));
+        // Nota mínima, raio e ordenação são aplicados na consulta; o serviço só calcula a distância exibida
+        Negocio n1 = makeNegocio(1, "11111-111", 4.2, "A", CategoriaNegocio.SPA);
+        posicionar(n1, -23.5600, -46.6400);
+        Negocio n2 = makeNegocio(2, "22222-222", 4.9, "B", CategoriaNegocio.SPA);
+        posicionar(n2, -23.5700, -46.6500);
+        FluentQuery.FetchableFluentQuery<Negocio> consulta = consultaRetorna(List.of(n2, n1), false);
 
-        List<NegocioBuscaDTO> res = negocioService.buscarNegociosPorAvaliacao(4.0);
+        List<NegocioBuscaDTO> res = negocioService.buscarNegociosPorAvaliacao(4.0, 20, 50);
 
-        assertTrue(res.stream().allMatch(dto -> dto.getNotaMedia() >= 4.0));
+        assertEquals(List.of("B", "A"), res.stream().map(NegocioBuscaDTO::getNome).toList());
+        assertTrue(res.get(1).getDistanciaKm() > 0 && res.get(1).getDistanciaKm() < 2);
+        verify(consulta).limit(50);
     }
 
     @Test
     void buscarNegociosPorAvaliacao_semNegociosRetornaListaVazia() {
         Cliente cliente = makeClienteWithCep(4, "00000-000");
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
         permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(cliente, PerfilUsuario.CLIENTE)).thenAnswer(i -> null);
 
-        when(negocioRepository.findByAtivoTrue()).thenReturn(List.of());
+        consultaRetorna(List.of(), false);
 
-        List<NegocioBuscaDTO> resultado = negocioService.buscarNegociosPorAvaliacao(4.5);
+        List<NegocioBuscaDTO> resultado = negocioService.buscarNegociosPorAvaliacao(4.5, 20, 50);
 
         assertNotNull(resultado);
         assertTrue(resultado.isEmpty());
     }
+    @Test
+    void buscarNegociosProximos_coordenadasGravadas_naoConsultaGeocoding() {
+        Cliente cliente = makeClienteWithCep(5, "00000-000");
+        cliente.setLatitude(-23.5505);
+        cliente.setLongitude(-46.6333);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+
+        Negocio perto = makeNegocio(1, "11111-111", 4.0, "Perto", CategoriaNegocio.SPA);
+        posicionar(perto, -23.5600, -46.6400);
+        consultaRetorna(List.of(perto), false);
+
+        List<NegocioBuscaDTO> res = negocioService.buscarNegociosProximos(null, null, 20, 50);
+
+        assertEquals(1, res.size());
+        assertEquals("Perto", res.get(0).getNome());
+        verifyNoInteractions(geocodingService);
+    }
+
+    @Test
+    void buscarNegociosProximos_clienteSemCoordenadas_geocodificaUmaVezEGrava() {
+        Cliente cliente = makeClienteWithCep(6, "00000-000");
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
+        Negocio negocio = makeNegocio(1, "11111-111", 4.0, "Perto", CategoriaNegocio.SPA);
+        posicionar(negocio, -23.5600, -46.6400);
+        consultaRetorna(List.of(negocio), false);
+        when(geocodingService.buscarLatLong("Rua Teste", "123", "00000-000"))
+                .thenReturn(new LatLngDTO(-23.5505, -46.6333));
 
+        List<NegocioBuscaDTO> res = negocioService.buscarNegociosProximos(null, null, 20, 50);
+
+        assertEquals(1, res.size());
+        assertEquals(-23.5505, cliente.getLatitude());
+        verify(usuarioRepository).save(cliente);
+        verify(geocodingService, times(1)).buscarLatLong(any(), any(), any());
+    }
+
+    @Test
+    void buscarNegocios_segundaPagina_continuaDoOffsetEIndicaProxima() {
+        Cliente cliente = makeClienteWithCep(7, "00000-000");
+        cliente.setLatitude(-23.5505);
+        cliente.setLongitude(-46.6333);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
+        Negocio c = makeNegocio(3, "33333-333", 4.0, "C", CategoriaNegocio.SPA);
+        posicionar(c, -23.5700, -46.6333);
+        Negocio d = makeNegocio(4, "44444-444", 4.0, "D", CategoriaNegocio.SPA);
+        posicionar(d, -23.6000, -46.6333);
+        FluentQuery.FetchableFluentQuery<Negocio> consulta = consultaRetorna(List.of(c, d), true);
 
+        PaginaNegociosDTO pagina = negocioService.buscarNegocios("spa", CategoriaNegocio.SPA, 4.0, 10,
+                OrdenacaoBuscaNegocio.DISTANCIA, 1, 2);
+
+        assertEquals(List.of("C", "D"), pagina.getNegocios().stream().map(NegocioBuscaDTO::getNome).toList());
+        assertEquals(2, pagina.getProximaPagina());
+        verify(consulta).limit(2);
+        verify(consulta).scroll(ScrollPosition.offset(1)); // itens 0 e 1 já entregues
+        verify(negocioRepository, never()).findAll(ArgumentMatchers.<Specification<Negocio>>any());
+    }
+
+    @Test
+    void buscarNegocios_ultimaPagina_semProxima() {
+        Cliente cliente = makeClienteWithCep(9, "00000-000");
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+        consultaRetorna(List.of(makeNegocio(1, "11111-111", 4.0, "A", CategoriaNegocio.SPA)), false);
+
+        PaginaNegociosDTO pagina = negocioService.buscarNegocios(null, null, null, 20,
+                OrdenacaoBuscaNegocio.AVALIACAO, 0, 20);
+
+        assertEquals(1, pagina.getNegocios().size());
+        assertEquals(0.0, pagina.getNegocios().get(0).getDistanciaKm()); // cliente sem coordenadas
+        assertNull(pagina.getProximaPagina());
+    }
+
+    @Test
+    void buscarNegocios_paginaNegativa_lancaErro() {
+        Cliente cliente = makeClienteWithCep(10, "00000-000");
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+
+        assertThrows(IllegalArgumentException.class, () -> negocioService.buscarNegocios(null, null, null, 20,
+                OrdenacaoBuscaNegocio.DISTANCIA, -1, 20));
+    }
+
+    @Test
+    void buscarNegociosProximos_raioInvalido_lancaErro() {
+        Cliente cliente = makeClienteWithCep(8, "00000-000");
+        usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(cliente);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> negocioService.buscarNegociosProximos(null, null, 500, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> negocioService.buscarNegociosProximos(null, null, 20, 0));
+        verifyNoInteractions(negocioRepository);
+    }
+
+    @Test
+    void preencherCoordenadasPendentes_geocodificaEmLoteSoOsSemCoordenadas() {
+        NegocioSemGeohash comCoordenadas = new NegocioSemGeohash(1, "Rua A", "1", "11111-111", -23.5505, -46.6333);
+        NegocioSemGeohash semCoordenadas = new NegocioSemGeohash(2, "Rua B", "2", "22222-222", null, null);
+        NegocioSemGeohash naoEncontrado = new NegocioSemGeohash(3, "Rua C", "3", "33333-333", null, null);
+        when(travaTarefaService.adquirir(eq("preencher-coordenadas-negocios"), any(Duration.class))).thenReturn(true);
+        when(negocioRepository.buscarSemGeohash(any(LocalDateTime.class), eq(0), any(Limit.class)))
+                .thenReturn(List.of(comCoordenadas, semCoordenadas, naoEncontrado));
+        when(geocodingService.buscarLatLongEmLote(List.of("Rua B, 2, 22222-222, Brasil", "Rua C, 3, 33333-333, Brasil")))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("Rua B, 2, 22222-222, Brasil", new LatLngDTO(-23.56, -46.64))));
+        gravacaoEmTransacao();
+
+        negocioService.preencherCoordenadasPendentes();
+
+        verify(negocioRepository).definirCoordenadas(1, "Rua A", "1", "11111-111",
+                -23.5505, -46.6333, GeoHashUtils.codificar(-23.5505, -46.6333));
+        verify(negocioRepository).definirCoordenadas(2, "Rua B", "2", "22222-222",
+                -23.56, -46.64, GeoHashUtils.codificar(-23.56, -46.64));
+        verify(negocioRepository).marcarFalhaGeocodificacao(eq(3), eq("Rua C"), eq("3"), eq("33333-333"), any(LocalDateTime.class));
+        verify(geocodingService, never()).buscarLatLong(any(), any(), any());
+        verify(negocioRepository, never()).save(any());
+        verify(travaTarefaService).liberar("preencher-coordenadas-negocios");
+    }
+
+    @Test
+    void preencherCoordenadasPendentes_loteCheio_continuaAPartirDoUltimoId() {
+        List<NegocioSemGeohash> primeiroLote = IntStream.rangeClosed(1, 100)
+                .mapToObj(id -> new NegocioSemGeohash(id, "Rua", String.valueOf(id), "11111-111", -23.5, -46.6))
+                .toList();
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(true);
+        when(travaTarefaService.renovar(any(), any())).thenReturn(true);
+        when(negocioRepository.buscarSemGeohash(any(LocalDateTime.class), eq(0), any(Limit.class))).thenReturn(primeiroLote);
+        when(negocioRepository.buscarSemGeohash(any(LocalDateTime.class), eq(100), any(Limit.class))).thenReturn(List.of());
+        gravacaoEmTransacao();
+
+        negocioService.preencherCoordenadasPendentes();
+
+        verify(negocioRepository, times(100)).definirCoordenadas(anyInt(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(geocodingService);
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(travaTarefaService).liberar("preencher-coordenadas-negocios");
+    }
+
+    @Test
+    void preencherCoordenadasPendentes_outraInstanciaComATrava_naoFazNada() {
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(false);
+
+        negocioService.preencherCoordenadasPendentes();
+
+        verifyNoInteractions(negocioRepository, geocodingService, transactionTemplate);
+        verify(travaTarefaService, never()).liberar(any());
+    }
+
+    private void gravacaoEmTransacao() {
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    // Executa a função passada a findBy sobre uma consulta falsa que devolve 'negocios'
+    private FluentQuery.FetchableFluentQuery<Negocio> consultaRetorna(List<Negocio> negocios, boolean temMais) {
+        when(consulta.scroll(any())).thenReturn(Window.from(negocios, ScrollPosition::offset, temMais));
+        when(negocioRepository.findBy(ArgumentMatchers.<Specification<Negocio>>any(), any())).thenAnswer(inv ->
+                inv.<Function<FluentQuery.FetchableFluentQuery<Negocio>, Object>>getArgument(1).apply(consulta));
+        return consulta;
+    }
+
+    private void posicionar(Negocio negocio, double lat, double lng) {
+        negocio.setLatitude(lat);
+        negocio.setLongitude(lng);
+        negocio.setGeohash(GeoHashUtils.codificar(lat, lng));
+    }
 }
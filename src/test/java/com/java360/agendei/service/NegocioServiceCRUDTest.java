@@ -9,11 +9,17 @@ import com.java360.agendei.domain.repository.UsuarioRepository;
 import com.java360.agendei.domain.repository.ServicoRepository;
 import com.java360.agendei.domain.repository.PrestadorRepository;
 import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
+import com.java360.agendei.infrastructure.dto.LatLngDTO;
 import com.java360.agendei.infrastructure.dto.negocio.CreateNegocioDTO;
 import com.java360.agendei.infrastructure.dto.negocio.NegocioDTO;
 import com.java360.agendei.infrastructure.dto.negocio.UpdateNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import com.java360.agendei.infrastructure.util.GeocodingService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -29,6 +35,10 @@ class NegocioServiceCRUDTest {
 
     @Mock private NegocioRepository negocioRepository;
     @Mock private UsuarioRepository usuarioRepository;
+    @Mock private GeocodingService geocodingService;
+    @Mock private IndiceBuscaService indiceBuscaService;
+    @Mock private SugestaoBuscaService sugestaoBuscaService;
+    @Mock private UsuarioPrincipalService usuarioPrincipalService;
 
     @InjectMocks private NegocioService negocioService;
 
@@ -74,7 +84,8 @@ class NegocioServiceCRUDTest {
     void criarNegocio_comSucesso() {
         Prestador prestador = makePrestador(10);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(prestador), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
                 .thenAnswer(inv -> null);
 
         CreateNegocioDTO dto = new CreateNegocioDTO();
@@ -85,6 +96,7 @@ class NegocioServiceCRUDTest {
         dto.setCategoria(CategoriaNegocio.BELEZA);
 
         when(negocioRepository.existsByNome(dto.getNome())).thenReturn(false);
+        when(geocodingService.buscarLatLong("Rua X", "10", "12345-678")).thenReturn(new LatLngDTO(-23.5, -46.6));
         Negocio salvo = makeNegocio(1, prestador);
         when(negocioRepository.save(any())).thenReturn(salvo);
         when(usuarioRepository.save(prestador)).thenReturn(prestador);
@@ -93,7 +105,10 @@ class NegocioServiceCRUDTest {
 
         assertNotNull(res);
         assertEquals(salvo.getNome(), res.getNome());
-        verify(negocioRepository).save(any());
+        ArgumentCaptor<Negocio> criado = ArgumentCaptor.forClass(Negocio.class);
+        verify(negocioRepository).save(criado.capture());
+        assertEquals(-23.5, criado.getValue().getLatitude()); // coordenadas gravadas no cadastro
+        assertEquals(-46.6, criado.getValue().getLongitude());
         verify(usuarioRepository).save(prestador);
     }
 
@@ -102,7 +117,8 @@ class NegocioServiceCRUDTest {
         Prestador prestador = makePrestador(11);
         prestador.setNegocio(makeNegocio(99, prestador)); // já vinculado
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(prestador), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
                 .thenAnswer(inv -> null);
 
         CreateNegocioDTO dto = new CreateNegocioDTO();
@@ -123,9 +139,10 @@ class NegocioServiceCRUDTest {
         admin.setId(1);
         admin.setPerfil(PerfilUsuario.ADMIN);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(admin);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(admin, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(admin));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(admin), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
                 .thenAnswer(inv -> null);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(admin)).thenReturn(true);
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(admin))).thenReturn(true);
 
         Prestador criador = makePrestador(5);
         Negocio existente = makeNegocio(7, criador);
@@ -147,6 +164,7 @@ class NegocioServiceCRUDTest {
 
         assertEquals("NovoNome", updated.getNome());
         assertEquals("NovoEnd", updated.getEndereco());
+        verify(geocodingService).buscarLatLong("NovoEnd", "2", "11111-111"); // endereço mudou: recalcula
     }
 
     @Test
@@ -8,6 +8,8 @@ import com.java360.agendei.domain.repository.*;
 import com.java360.agendei.infrastructure.dto.negocio.ConviteNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -22,8 +24,10 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class NegocioServiceConviteTest {
 
+    @Mock private NegocioRepository negocioRepository;
     @Mock private UsuarioRepository usuarioRepository;
     @Mock private PrestadorRepository prestadorRepository;
+    @Mock private UsuarioPrincipalService usuarioPrincipalService;
 
     @InjectMocks private NegocioService negocioService;
 
@@ -60,12 +64,15 @@ class NegocioServiceConviteTest {
         ((Prestador) convidado).setId(20);
 
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(dono);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(dono, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(dono)).thenReturn(false);
+
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(dono), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(dono))).thenReturn(false);
 
         ConviteNegocioDTO dto = new ConviteNegocioDTO();
         dto.setEmailPrestador("CONVIDADO@EXAMPLE.COM");
 
+        when(negocioRepository.findById(n.getId())).thenReturn(Optional.of(n));
         when(prestadorRepository.findByNegocio_Id(n.getId())).thenReturn(List.of(dono)); // só dono -> quantidadeAtual = 0
         when(usuarioRepository.findByEmail("convidado@example.com")).thenReturn(Optional.of(convidado));
         doAnswer(inv -> {
@@ -84,8 +91,10 @@ class NegocioServiceConviteTest {
         Prestador dono = makePrestador(2, n, PlanoPrestador.BASICO); // limiteConvites = 1
         n.setCriador(dono);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(dono);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(dono, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(dono), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
 
+        when(negocioRepository.findById(n.getId())).thenReturn(Optional.of(n));
         when(prestadorRepository.findByNegocio_Id(n.getId())).thenReturn(List.of(dono, new Prestador())); // tamanho 2
         ConviteNegocioDTO dto = new ConviteNegocioDTO();
         dto.setEmailPrestador("a@b.com");
@@ -101,8 +110,10 @@ class NegocioServiceConviteTest {
         Prestador dono = makePrestador(3, n, PlanoPrestador.AVANCADO);
         n.setCriador(dono);
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(dono);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(dono, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(dono), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
 
+        when(negocioRepository.findById(n.getId())).thenReturn(Optional.of(n));
         when(prestadorRepository.findByNegocio_Id(n.getId())).thenReturn(List.of(dono));
         when(usuarioRepository.findByEmail("x@y.com")).thenReturn(Optional.empty());
 
@@ -6,9 +6,14 @@ import com.java360.agendei.domain.entity.Prestador;
 import com.java360.agendei.domain.entity.Usuario;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.dto.negocio.UpdateNegocioDTO;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import com.java360.agendei.infrastructure.util.GeocodingService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -27,6 +32,10 @@ class NegocioServicePermissaoTest {
     @Mock private ServicoRepository servicoRepository;
     @Mock private PrestadorRepository prestadorRepository;
     @Mock private AgendamentoRepository agendamentoRepository;
+    @Mock private GeocodingService geocodingService;
+    @Mock private IndiceBuscaService indiceBuscaService;
+    @Mock private SugestaoBuscaService sugestaoBuscaService;
+    @Mock private UsuarioPrincipalService usuarioPrincipalService;
 
     @InjectMocks private NegocioService negocioService;
 
@@ -57,7 +66,9 @@ class NegocioServicePermissaoTest {
         }}).ativo(true).build();
 
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(prestador);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(prestador, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
+
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(prestador), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN))
                 .thenAnswer(i->null);
         when(negocioRepository.findById(10)).thenReturn(Optional.of(n));
 
@@ -78,7 +89,9 @@ class NegocioServicePermissaoTest {
         Negocio n = Negocio.builder().id(50).criador(dono).ativo(true).build();
 
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(dono);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(dono, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(dono), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
         when(negocioRepository.findById(50)).thenReturn(Optional.of(n));
 
         UpdateNegocioDTO dto = new UpdateNegocioDTO();
@@ -1,12 +1,18 @@
 package com.java360.agendei.service;
 
+import com.java360.agendei.domain.applicationservice.CalendarioDisponibilidadeService;
 import com.java360.agendei.domain.applicationservice.NegocioService;
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -28,6 +34,11 @@ class NegocioServiceSairExcluirTest {
     @Mock private ServicoRepository servicoRepository;
     @Mock private PrestadorRepository prestadorRepository;
     @Mock private AgendamentoRepository agendamentoRepository;
+    @Mock private CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+    @Mock private ResumoAgendamentoService resumoAgendamentoService;
+    @Mock private IndiceBuscaService indiceBuscaService;
+    @Mock private SugestaoBuscaService sugestaoBuscaService;
+    @Mock private UsuarioPrincipalService usuarioPrincipalService;
 
     @InjectMocks private NegocioService negocioService;
 
@@ -60,7 +71,9 @@ class NegocioServiceSairExcluirTest {
         n.setCriador(dono);
 
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(convidado);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(convidado, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(convidado));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(convidado), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
 
         Servico s1 = Servico.builder().id(11).prestador(convidado).negocio(n).ativo(true).build();
         when(servicoRepository.findByPrestadorIdAndNegocioId(convidado.getId(), n.getId())).thenReturn(List.of(s1));
@@ -70,6 +83,7 @@ class NegocioServiceSairExcluirTest {
                 .dataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo"))).status(StatusAgendamento.PENDENTE).build();
 
         when(agendamentoRepository.findByPrestadorId(convidado.getId())).thenReturn(List.of(pend));
+        when(agendamentoRepository.alterarStatus(100, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO)).thenReturn(1);
 
         negocioService.sairDoNegocio();
 
@@ -88,8 +102,10 @@ class NegocioServiceSairExcluirTest {
         Negocio n = Negocio.builder().id(20).criador(dono).build();
 
         usuarioAutenticadoMock.when(UsuarioAutenticado::get).thenReturn(dono);
-        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(dono, PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
-        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(dono)).thenReturn(false);
+
+        usuarioAutenticadoMock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
+        permissaoUtilsMock.when(() -> PermissaoUtils.validarPermissao(UsuarioPrincipal.de(dono), PerfilUsuario.PRESTADOR, PerfilUsuario.ADMIN)).thenAnswer(i->null);
+        permissaoUtilsMock.when(() -> PermissaoUtils.isAdmin(UsuarioPrincipal.de(dono))).thenReturn(false);
 
         when(negocioRepository.findById(20)).thenReturn(Optional.of(n));
         Servico s = Servico.builder().id(1).negocio(n).ativo(true).build();
@@ -101,6 +117,7 @@ class NegocioServiceSairExcluirTest {
         Agendamento pend = Agendamento.builder().id(5).prestador(p1).servico(s).cliente(new Cliente())
                 .dataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo"))).status(StatusAgendamento.PENDENTE).build();
         when(agendamentoRepository.findByPrestadorId(p1.getId())).thenReturn(List.of(pend));
+        when(agendamentoRepository.alterarStatus(5, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO)).thenReturn(1);
 
         negocioService.excluirNegocio(20);
 
@@ -3,17 +3,21 @@ package com.java360.agendei.service;
 import com.java360.agendei.domain.applicationservice.RelatorioService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.PerfilUsuario;
-import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.domain.repository.projection.TotalPorPeriodo;
+import com.java360.agendei.domain.repository.projection.TotalPorPrestador;
+import com.java360.agendei.domain.repository.projection.TotalPorServico;
+import com.java360.agendei.domain.repository.projection.TotalResumo;
 import com.java360.agendei.infrastructure.dto.admin.ResumoAdministrativoDTO;
 import com.java360.agendei.infrastructure.dto.relatorios.*;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.List;
@@ -24,7 +28,7 @@ import static org.mockito.Mockito.*;
 
 class RelatorioServiceTest {
 
-    private AgendamentoRepository agRepo;
+    private ResumoAgendamentoRepository resumoRepo;
     private NegocioRepository negRepo;
     private PrestadorRepository prestRepo;
     private UsuarioRepository userRepo;
@@ -51,13 +55,13 @@ class RelatorioServiceTest {
 
     @BeforeEach
     void setup() {
-        agRepo = mock(AgendamentoRepository.class);
+        resumoRepo = mock(ResumoAgendamentoRepository.class);
         negRepo = mock(NegocioRepository.class);
         prestRepo = mock(PrestadorRepository.class);
         userRepo = mock(UsuarioRepository.class);
         servRepo = mock(ServicoRepository.class);
 
-        service = new RelatorioService(agRepo, negRepo, prestRepo, userRepo, servRepo);
+        service = new RelatorioService(resumoRepo, negRepo, prestRepo, userRepo, servRepo);
         auth = Mockito.mockStatic(UsuarioAutenticado.class);
     }
 
@@ -70,10 +74,11 @@ class RelatorioServiceTest {
     void getPrestadorId_sucesso() {
         Prestador p = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(p);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
         YearMonth mes = YearMonth.of(2025, 1);
-        when(agRepo.findByPrestadorIdAndDataHoraBetween(anyInt(), any(), any()))
-                .thenReturn(List.of());
+        when(resumoRepo.totalizarMes(1, LocalDate.of(2025, 1, 1)))
+                .thenReturn(new TotalResumo(0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO));
 
         var r = service.relatorioFinanceiroMensal(mes);
         assertNotNull(r);
@@ -86,6 +91,8 @@ class RelatorioServiceTest {
 
         auth.when(UsuarioAutenticado::get).thenReturn(u);
 
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(u));
+
         assertThrows(SecurityException.class, () ->
                 service.evolucaoMensal(2025));
     }
@@ -96,28 +103,15 @@ class RelatorioServiceTest {
     void relatorioFinanceiroMensal_sucesso() {
         Prestador p = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(p);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
-        Servico serv = new Servico();
-        serv.setValor(100);
-
-        Agendamento a1 = new Agendamento();
-        a1.setPrestador(p);
-        a1.setServico(serv);
-        a1.setStatus(StatusAgendamento.CONCLUIDO);
-        a1.setDataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")));
-
-        Agendamento a2 = new Agendamento();
-        a2.setPrestador(p);
-        a2.setServico(serv);
-        a2.setStatus(StatusAgendamento.CANCELADO);
-        a2.setDataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")));
+        YearMonth mes = YearMonth.of(2025, 3);
+        when(resumoRepo.totalizarMes(1, LocalDate.of(2025, 3, 1)))
+                .thenReturn(new TotalResumo(0L, 1L, 1L, BigDecimal.ZERO, new BigDecimal("100.00")));
 
-        when(agRepo.findByPrestadorIdAndDataHoraBetween(anyInt(), any(), any()))
-                .thenReturn(List.of(a1, a2));
+        RelatorioFinanceiroDTO dto = service.relatorioFinanceiroMensal(mes);
 
-        RelatorioFinanceiroDTO dto = service.relatorioFinanceiroMensal(YearMonth.now(ZoneId.of("America/Sao_Paulo")));
-
-        assertEquals(new BigDecimal("0"), dto.getGanhosEsperados()); // 0 pois o agendamento já foi concluido
+        assertEquals(0, dto.getGanhosEsperados().compareTo(BigDecimal.ZERO)); // 0 pois o agendamento já foi concluido
         assertEquals(0, dto.getGanhosRealizados().compareTo(new BigDecimal("100")));
         assertEquals(50.0, dto.getTaxaCancelamentos());
     }
@@ -127,12 +121,18 @@ class RelatorioServiceTest {
     void evolucaoMensal_sucesso() {
         Prestador p = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(p);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
-        when(agRepo.findByPrestadorIdAndStatusAndDataHoraBetween(anyInt(), eq(StatusAgendamento.CONCLUIDO), any(), any()))
-                .thenReturn(List.of());
+        when(resumoRepo.totalizarPorMes(1, LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1)))
+                .thenReturn(List.of(new TotalPorPeriodo(3, 2L, new BigDecimal("150.00"))));
 
         var lista = service.evolucaoMensal(2025);
+
         assertEquals(12, lista.size());
+        assertEquals(YearMonth.of(2025, 3), lista.get(2).getMes());
+        assertEquals(0, lista.get(2).getFaturamento().compareTo(new BigDecimal("150")));
+        assertEquals(BigDecimal.ZERO, lista.get(0).getFaturamento());
+        verify(resumoRepo, times(1)).totalizarPorMes(anyInt(), any(), any());
     }
 
 
@@ -141,12 +141,17 @@ class RelatorioServiceTest {
     void evolucaoAnual_sucesso() {
         Prestador p = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(p);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
-        when(agRepo.findByPrestadorIdAndStatusAndDataHoraBetween(anyInt(), eq(StatusAgendamento.CONCLUIDO), any(), any()))
-                .thenReturn(List.of());
+        when(resumoRepo.totalizarPorAno(1, LocalDate.of(2023, 1, 1), LocalDate.of(2026, 1, 1)))
+                .thenReturn(List.of(new TotalPorPeriodo(2024, 4L, new BigDecimal("400.00"))));
 
         var lista = service.evolucaoAnual(2023, 2025);
+
         assertEquals(3, lista.size());
+        assertEquals(BigDecimal.ZERO, lista.get(0).getFaturamento());
+        assertEquals(0, lista.get(1).getFaturamento().compareTo(new BigDecimal("400")));
+        verify(resumoRepo, times(1)).totalizarPorAno(anyInt(), any(), any());
     }
 
     // servicos mais  vendidos
@@ -154,35 +159,31 @@ class RelatorioServiceTest {
     void servicosMaisVendidos_sucesso() {
         Prestador p = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(p);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
-        Servico s = new Servico();
-        s.setValor(50);
-        s.setTitulo("Corte");
-
-        Agendamento a = new Agendamento();
-        a.setPrestador(p);
-        a.setServico(s);
-        a.setStatus(StatusAgendamento.CONCLUIDO);
-        a.setDataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")));
-
-        when(agRepo.findByPrestadorIdAndStatusAndDataHoraBetween(anyInt(), eq(StatusAgendamento.CONCLUIDO), any(), any()))
-                .thenReturn(List.of(a));
+        when(resumoRepo.totalizarPorServico(anyInt(), any()))
+                .thenReturn(List.of(
+                        new TotalPorServico(5, "Corte", 3L, new BigDecimal("150.00")),
+                        new TotalPorServico(6, "Barba", 1L, new BigDecimal("30.00"))));
 
         var result = service.servicosMaisVendidos(YearMonth.now(ZoneId.of("America/Sao_Paulo")));
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
         assertEquals("Corte", result.get(0).getTituloServico());
+        assertEquals(3, result.get(0).getQuantidadeAgendamentos());
+        assertEquals(0, result.get(0).getTotalFaturado().compareTo(new BigDecimal("150")));
     }
 
     // resumo administrativo
     @Test
     void resumoAdministrativo_sucesso() {
         auth.when(UsuarioAutenticado::get).thenReturn(mockAdmin());
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(mockAdmin()));
 
         when(userRepo.countByPerfil(PerfilUsuario.PRESTADOR)).thenReturn(10L);
         when(userRepo.countByPerfil(PerfilUsuario.CLIENTE)).thenReturn(20L);
         when(servRepo.countByAtivoTrue()).thenReturn(5L);
         when(negRepo.countByAtivoTrue()).thenReturn(3L);
-        when(agRepo.count()).thenReturn(100L);
+        when(resumoRepo.contarAgendamentos()).thenReturn(100L);
 
         ResumoAdministrativoDTO dto = service.resumoAdministrativo();
 
@@ -197,6 +198,7 @@ class RelatorioServiceTest {
     void relatorioNegocio_sucesso() {
         Prestador dono = mockPrestador();
         auth.when(UsuarioAutenticado::get).thenReturn(dono);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(dono));
 
         Negocio n = new Negocio();
         n.setId(10);
@@ -208,25 +210,24 @@ class RelatorioServiceTest {
         prest1.setNome("João");
         prest1.setNegocio(n);
 
-        Servico s = new Servico();
-        s.setValor(100);
-
-        Agendamento ag = new Agendamento();
-        ag.setPrestador(prest1);
-        ag.setServico(s);
-        ag.setStatus(StatusAgendamento.CONCLUIDO);
-        ag.setDataHora(LocalDateTime.now(ZoneId.of("America/Sao_Paulo")));
+        Prestador prest2 = new Prestador();
+        prest2.setId(2);
+        prest2.setNome("Maria");
+        prest2.setNegocio(n);
 
         when(negRepo.findById(10)).thenReturn(Optional.of(n));
-        when(prestRepo.findByNegocio_Id(10)).thenReturn(List.of(prest1));
-        when(agRepo.findAll()).thenReturn(List.of(ag));
+        when(prestRepo.findByNegocio_Id(10)).thenReturn(List.of(prest1, prest2));
+        when(resumoRepo.totalizarPorPrestadorDoNegocio(eq(10), any()))
+                .thenReturn(List.of(new TotalPorPrestador(1, 2L, 1L, 1L, new BigDecimal("100.00"))));
 
         RelatorioNegocioDTO dto = service.relatorioNegocio(10, YearMonth.now());
 
         assertEquals("Studio X", dto.getNomeNegocio());
         assertEquals(1, dto.getTotalServicos());
         assertEquals(0, dto.getGanhosTotais().compareTo(new BigDecimal("100")));
-        assertEquals(1, dto.getPrestadores().size());
+        assertEquals(2, dto.getPrestadores().size());
+        assertEquals(50.0, dto.getPrestadores().get(0).getTaxaCancelamento());
+        assertEquals(BigDecimal.ZERO, dto.getPrestadores().get(1).getGanhos()); // sem agendamentos no mês
     }
 
     @Test
@@ -237,6 +238,8 @@ class RelatorioServiceTest {
 
         auth.when(UsuarioAutenticado::get).thenReturn(u);
 
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(u));
+
         Prestador dono = mockPrestador();
 
         Negocio n = new Negocio();
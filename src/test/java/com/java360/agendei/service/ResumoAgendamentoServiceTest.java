@@ -0,0 +1,203 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.ResumoAgendamentoService;
+import com.java360.agendei.domain.applicationservice.TravaTarefaService;
+import com.java360.agendei.domain.entity.*;
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.model.PeriodoResumo;
+import com.java360.agendei.domain.model.StatusAgendamento;
+import com.java360.agendei.domain.repository.AgendamentoRepository;
+import com.java360.agendei.domain.repository.ResumoAgendamentoRepository;
+import com.java360.agendei.domain.repository.projection.ContagemDiaria;
+import com.java360.agendei.infrastructure.persistence.ResumoAgendamentoUpsert;
+import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResumoAgendamentoServiceTest {
+
+    @Mock
+    private ResumoAgendamentoRepository resumoAgendamentoRepository;
+    @Mock
+    private AgendamentoRepository agendamentoRepository;
+    @Mock
+    private TravaTarefaService travaTarefaService;
+    @Mock
+    private ResumoAgendamentoUpsert resumoAgendamentoUpsert;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResumoAgendamentoService service;
+    private MockedStatic<UsuarioAutenticado> auth;
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+    private static final LocalDate MES = LocalDate.of(2025, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        service = new ResumoAgendamentoService(
+                resumoAgendamentoRepository, agendamentoRepository, travaTarefaService, resumoAgendamentoUpsert, transactionManager);
+        auth = Mockito.mockStatic(UsuarioAutenticado.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auth.close();
+    }
+
+    private Agendamento criarAgendamento(LocalDateTime dataHora, StatusAgendamento status) {
+        Negocio negocio = new Negocio();
+        negocio.setId(10);
+        Prestador prestador = new Prestador();
+        prestador.setId(2);
+        Servico servico = Servico.builder().id(3).valor(50).negocio(negocio).build();
+        return Agendamento.builder()
+                .id(100)
+                .prestador(prestador)
+                .servico(servico)
+                .dataHora(dataHora)
+                .status(status)
+                .build();
+    }
+
+    @Test
+    void registrarCriacao_incrementaDiaEMes() {
+        when(resumoAgendamentoRepository.incrementar(any(), any(), any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+
+        service.registrarCriacao(criarAgendamento(DIA.atTime(9, 0), StatusAgendamento.PENDENTE));
+
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.DIA, DIA, 2, 3, 1, 0, 0);
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.MES, MES, 2, 3, 1, 0, 0);
+        verifyNoInteractions(resumoAgendamentoUpsert);
+    }
+
+    @Test
+    void registrarTransicao_moveContagemEntreStatus() {
+        when(resumoAgendamentoRepository.incrementar(any(), any(), any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+        Agendamento ag = criarAgendamento(DIA.atTime(9, 0), StatusAgendamento.CANCELADO);
+
+        service.registrarTransicao(ag, StatusAgendamento.PENDENTE);
+
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.DIA, DIA, 2, 3, -1, 0, 1);
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.MES, MES, 2, 3, -1, 0, 1);
+    }
+
+    @Test
+    void registrarTransicao_mesmoStatus_naoAlteraResumo() {
+        Agendamento ag = criarAgendamento(DIA.atTime(9, 0), StatusAgendamento.CONCLUIDO);
+
+        service.registrarTransicao(ag, StatusAgendamento.CONCLUIDO);
+
+        verifyNoInteractions(resumoAgendamentoRepository);
+    }
+
+    @Test
+    void registrarRemarcacao_outroMes_saiDoAnteriorEEntraNoNovo() {
+        when(resumoAgendamentoRepository.incrementar(any(), any(), any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+        Agendamento ag = criarAgendamento(LocalDateTime.of(2025, 4, 2, 9, 0), StatusAgendamento.PENDENTE);
+
+        service.registrarRemarcacao(DIA.atTime(9, 0), 2, ag.getServico(), StatusAgendamento.PENDENTE, ag);
+
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.DIA, DIA, 2, 3, -1, 0, 0);
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.MES, MES, 2, 3, -1, 0, 0);
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.DIA, LocalDate.of(2025, 4, 2), 2, 3, 1, 0, 0);
+        verify(resumoAgendamentoRepository).incrementar(PeriodoResumo.MES, LocalDate.of(2025, 4, 1), 2, 3, 1, 0, 0);
+    }
+
+    @Test
+    void incrementar_linhaInexistente_upsertComOsDeltasNaMesmaTransacao() {
+        when(resumoAgendamentoRepository.incrementar(any(), any(), any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(0)
+                .thenReturn(1);
+
+        service.registrarCriacao(criarAgendamento(DIA.atTime(9, 0), StatusAgendamento.PENDENTE));
+
+        ArgumentCaptor<ResumoAgendamento> criada = ArgumentCaptor.forClass(ResumoAgendamento.class);
+        verify(resumoAgendamentoUpsert).somar(criada.capture());
+        assertEquals(PeriodoResumo.DIA, criada.getValue().getTipo());
+        assertEquals(10, criada.getValue().getNegocioId());
+        assertEquals(1, criada.getValue().getPendentes()); // o delta vai junto: nada de segundo UPDATE
+        verify(resumoAgendamentoRepository, times(1)).incrementar(PeriodoResumo.DIA, DIA, 2, 3, 1, 0, 0);
+        verifyNoInteractions(transactionManager); // nenhuma transação (nem conexão) extra
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconstruir_somaOsDiasNoMes() {
+        Usuario admin = new Usuario();
+        admin.setId(1);
+        admin.setPerfil(PerfilUsuario.ADMIN);
+        auth.when(UsuarioAutenticado::get).thenReturn(admin);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(admin));
+
+        when(travaTarefaService.adquirir(eq("reconstruir-resumo-agendamentos"), any(Duration.class))).thenReturn(true);
+        when(agendamentoRepository.contarPorDia()).thenReturn(List.of(
+                new ContagemDiaria(DIA, 2, 3, 10, 1L, 2L, 0L),
+                new ContagemDiaria(DIA.plusDays(1), 2, 3, 10, 0L, 1L, 1L)));
+
+        int linhas = service.reconstruir();
+
+        ArgumentCaptor<List<ResumoAgendamento>> salvas = ArgumentCaptor.forClass(List.class);
+        verify(resumoAgendamentoRepository).deleteAllInBatch();
+        verify(resumoAgendamentoRepository).saveAll(salvas.capture());
+        assertEquals(3, linhas); // dois dias + um mês
+
+        ResumoAgendamento mes = salvas.getValue().stream()
+                .filter(r -> r.getTipo() == PeriodoResumo.MES)
+                .findFirst().orElseThrow();
+        assertEquals(MES, mes.getPeriodo());
+        assertEquals(1, mes.getPendentes());
+        assertEquals(3, mes.getConcluidos());
+        assertEquals(1, mes.getCancelados());
+        verify(travaTarefaService).liberar("reconstruir-resumo-agendamentos");
+    }
+
+    @Test
+    void reconstruir_jaEmAndamento_lancaErro() {
+        Usuario admin = new Usuario();
+        admin.setId(1);
+        admin.setPerfil(PerfilUsuario.ADMIN);
+        auth.when(UsuarioAutenticado::get).thenReturn(admin);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(admin));
+        when(travaTarefaService.adquirir(any(), any())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.reconstruir());
+        verifyNoInteractions(resumoAgendamentoRepository);
+    }
+
+    @Test
+    void reconstruir_naoAdmin_lancaErro() {
+        Usuario prestador = new Usuario();
+        prestador.setId(2);
+        prestador.setPerfil(PerfilUsuario.PRESTADOR);
+        auth.when(UsuarioAutenticado::get).thenReturn(prestador);
+        auth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+
+        assertThrows(SecurityException.class, () -> service.reconstruir());
+        verifyNoInteractions(travaTarefaService);
+    }
+}
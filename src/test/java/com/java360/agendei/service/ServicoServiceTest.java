@@ -1,13 +1,16 @@
 package com.java360.agendei.service;
 
+import com.java360.agendei.domain.applicationservice.CalendarioDisponibilidadeService;
 import com.java360.agendei.domain.applicationservice.ServicoService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.DiaSemanaDisponivel;
-import com.java360.agendei.domain.model.StatusAgendamento;
 import com.java360.agendei.domain.repository.*;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
 import com.java360.agendei.infrastructure.dto.*;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +21,7 @@ import java.lang.reflect.Method;
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,11 +34,17 @@ class ServicoServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
     @Mock
-    private DisponibilidadeRepository disponibilidadeRepository;
-    @Mock
     private AgendamentoRepository agendamentoRepository;
     @Mock
     private NegocioRepository negocioRepository;
+    @Mock
+    private CalendarioDisponibilidadeService calendarioDisponibilidadeService;
+
+    @Mock
+    private IndiceBuscaService indiceBuscaService;
+
+    @Mock
+    private SugestaoBuscaService sugestaoBuscaService;
 
     @InjectMocks
     private ServicoService servicoService;
@@ -59,8 +69,10 @@ class ServicoServiceTest {
         mockPermissao = Mockito.mockStatic(PermissaoUtils.class);
 
         mockUsuarioAuth.when(UsuarioAutenticado::get).thenReturn(prestador);
-        mockPermissao.when(() -> PermissaoUtils.validarPermissao(any(), any(), any())).thenAnswer(inv -> null);
-        mockPermissao.when(() -> PermissaoUtils.isAdmin(any())).thenReturn(false);
+
+        mockUsuarioAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
+        mockPermissao.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any(), any())).thenAnswer(inv -> null);
+        mockPermissao.when(() -> PermissaoUtils.isAdmin(any(UsuarioPrincipal.class))).thenReturn(false);
     }
 
     @AfterEach
@@ -96,6 +108,7 @@ class ServicoServiceTest {
 
         assertEquals(99, result.getId());
         verify(servicoRepository).save(any());
+        verify(indiceBuscaService).atualizarServicos(List.of(salvo));
     }
 
     @Test
@@ -153,17 +166,11 @@ class ServicoServiceTest {
         when(servicoRepository.findById(1))
                 .thenReturn(Optional.of(servico));
 
-        Disponibilidade disp = new Disponibilidade();
-        disp.setDiaSemana(DiaSemanaDisponivel.values()[LocalDate.now(ZoneId.of("America/Sao_Paulo")).minusDays(1).getDayOfWeek().getValue() - 1]);
-        disp.setAtivo(true);
-        disp.setHoraInicio(LocalTime.of(8, 0));
-        disp.setHoraFim(LocalTime.of(12, 0));
-
-        when(disponibilidadeRepository.findByPrestadorId(prestador.getId()))
-                .thenReturn(List.of(disp));
-
         LocalDate ontem = LocalDate.now(ZoneId.of("America/Sao_Paulo")).minusDays(1);
 
+        when(calendarioDisponibilidadeService.listarHorariosLivres(prestador, ontem, 30))
+                .thenReturn(List.of());
+
         HorariosDisponiveisDTO dto =
                 servicoService.listarHorariosPorServicoEData(1, ontem);
 
@@ -197,12 +204,14 @@ class ServicoServiceTest {
                 .negocio(negocio)
                 .build();
 
+        LocalDate hoje = LocalDate.now(ZoneId.of("America/Sao_Paulo"));
+
         when(servicoRepository.findById(1)).thenReturn(Optional.of(servico));
-        when(disponibilidadeRepository.findByPrestadorId(10))
-                .thenReturn(List.of());
+        when(calendarioDisponibilidadeService.listarHorariosLivres(prestador, hoje, 30))
+                .thenThrow(new IllegalArgumentException("O prestador não tem disponibilidade nesse dia."));
 
         assertThrows(IllegalArgumentException.class, () ->
-                servicoService.listarHorariosPorServicoEData(1, LocalDate.now(ZoneId.of("America/Sao_Paulo"))));
+                servicoService.listarHorariosPorServicoEData(1, hoje));
     }
 
     @Test
@@ -217,79 +226,83 @@ class ServicoServiceTest {
 
         when(servicoRepository.findById(1)).thenReturn(Optional.of(servico));
 
-        Disponibilidade disp = new Disponibilidade();
-        disp.setDiaSemana(DiaSemanaDisponivel.SEGUNDA);
-        disp.setAtivo(true);
-        disp.setHoraInicio(LocalTime.of(8, 0));
-        disp.setHoraFim(LocalTime.of(12, 0));
-
-        when(disponibilidadeRepository.findByPrestadorId(10))
-                .thenReturn(List.of(disp));
-
-        // corrigido:
-        lenient().when(agendamentoRepository
-                        .findByPrestadorIdAndStatusAndDataHoraBetween(any(), any(), any(), any()))
-                .thenReturn(List.of());
-
         LocalDate data = LocalDate.now(ZoneId.of("America/Sao_Paulo")).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
 
+        when(calendarioDisponibilidadeService.listarHorariosLivres(prestador, data, 60))
+                .thenReturn(List.of("08:00", "09:00", "10:00", "11:00"));
+
         HorariosDisponiveisDTO dto = servicoService.listarHorariosPorServicoEData(1, data);
 
         assertFalse(dto.getDiasDisponiveis().isEmpty());
+        assertEquals(DiaSemanaDisponivel.SEGUNDA, dto.getDiasDisponiveis().get(0).getDia());
         assertEquals("08:00", dto.getDiasDisponiveis().get(0).getHorarios().get(0));
     }
 
 
-
     @Test
-    void listarHorarios_conflitoComAgendamento_naoAdicionaHorario() {
-
+    void listarHorariosPeriodo_retornaApenasDiasComHorarios() {
         Servico servico = Servico.builder()
                 .id(1)
                 .ativo(true)
-                .duracaoMinutos(60)
                 .prestador(prestador)
+                .duracaoMinutos(60)
                 .negocio(negocio)
                 .build();
 
         when(servicoRepository.findById(1)).thenReturn(Optional.of(servico));
 
-        Disponibilidade disp = new Disponibilidade();
-        disp.setDiaSemana(DiaSemanaDisponivel.SEGUNDA);
-        disp.setHoraInicio(LocalTime.of(8, 0));
-        disp.setHoraFim(LocalTime.of(12, 0));
-        disp.setAtivo(true);
+        LocalDate segunda = LocalDate.now(ZoneId.of("America/Sao_Paulo")).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        LocalDate terca = segunda.plusDays(1);
 
-        when(disponibilidadeRepository.findByPrestadorId(10))
-                .thenReturn(List.of(disp));
+        when(calendarioDisponibilidadeService.listarHorariosLivresNoPeriodo(prestador, segunda, terca, 60))
+                .thenReturn(Stream.of(
+                        new CalendarioDisponibilidadeService.HorariosDoDia(segunda, List.of("08:00", "09:00")),
+                        new CalendarioDisponibilidadeService.HorariosDoDia(terca, List.of())
+                ));
 
-        LocalDate data = LocalDate.now(ZoneId.of("America/Sao_Paulo")).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        List<HorariosPorDiaDTO> dias = servicoService.listarHorariosPorServicoEPeriodo(1, segunda, terca).toList();
 
-        Agendamento ag = new Agendamento();
-        ag.setDataHora(LocalDateTime.of(data, LocalTime.of(8, 0)));
-        ag.setServico(servico);
+        assertEquals(1, dias.size());
+        assertEquals(segunda, dias.get(0).getData());
+        assertEquals(DiaSemanaDisponivel.SEGUNDA, dias.get(0).getDia());
+        assertEquals(List.of("08:00", "09:00"), dias.get(0).getHorarios());
+    }
 
-        // corrigido:
-        lenient().when(agendamentoRepository.findByPrestadorIdAndStatusAndDataHoraBetween(
-                eq(prestador.getId()),
-                eq(StatusAgendamento.PENDENTE),
-                any(LocalDateTime.class),
-                any(LocalDateTime.class)
-        )).thenReturn(List.of(ag));
+    @Test
+    void listarHorariosPeriodo_comecaHojeQuandoInicioNoPassado() {
+        Servico servico = Servico.builder()
+                .id(1)
+                .ativo(true)
+                .prestador(prestador)
+                .duracaoMinutos(30)
+                .negocio(negocio)
+                .build();
 
+        when(servicoRepository.findById(1)).thenReturn(Optional.of(servico));
 
+        LocalDate hoje = LocalDate.now(ZoneId.of("America/Sao_Paulo"));
+        when(calendarioDisponibilidadeService.listarHorariosLivresNoPeriodo(prestador, hoje, hoje.plusDays(3), 30))
+                .thenReturn(Stream.empty());
 
-        HorariosDisponiveisDTO dto =
-                servicoService.listarHorariosPorServicoEData(1, data);
+        assertTrue(servicoService.listarHorariosPorServicoEPeriodo(1, hoje.minusDays(5), hoje.plusDays(3)).toList().isEmpty());
+    }
 
-        List<String> horarios = dto.getDiasDisponiveis().get(0).getHorarios();
+    @Test
+    void listarHorariosPeriodo_maiorQue60Dias_lancaErro() {
+        LocalDate inicio = LocalDate.now(ZoneId.of("America/Sao_Paulo"));
 
-        assertTrue(horarios.contains("08:00")); // conflito
-        assertTrue(horarios.contains("09:00"));  // livre
+        assertThrows(IllegalArgumentException.class,
+                () -> servicoService.listarHorariosPorServicoEPeriodo(1, inicio, inicio.plusDays(60)));
+        verifyNoInteractions(servicoRepository, calendarioDisponibilidadeService);
     }
 
+    @Test
+    void listarHorariosPeriodo_fimAntesDoInicio_lancaErro() {
+        LocalDate inicio = LocalDate.now(ZoneId.of("America/Sao_Paulo")).plusDays(5);
 
-
+        assertThrows(IllegalArgumentException.class,
+                () -> servicoService.listarHorariosPorServicoEPeriodo(1, inicio, inicio.minusDays(1)));
+    }
 
     @Test
     void atualizarServico_sucesso() {
@@ -356,16 +369,33 @@ class ServicoServiceTest {
         s.setPrestador(prestador);
         s.setNegocio(negocio);
 
-        when(servicoRepository.buscarServicos(any(), any(), any()))
-                .thenReturn(List.of(s));
+        when(indiceBuscaService.buscarServicos("Corte", "Prestador X", DiaSemanaDisponivel.SEGUNDA, 0, 50))
+                .thenReturn(new IndiceBuscaService.Resultado(List.of(1), false));
+        when(servicoRepository.findAllById(List.of(1))).thenReturn(List.of(s));
 
         List<ServicoDTO> result =
-                servicoService.buscarServicos("Corte", "Prestador X", DiaSemanaDisponivel.SEGUNDA);
+                servicoService.buscarServicos("Corte", "Prestador X", DiaSemanaDisponivel.SEGUNDA, 0, 50);
 
         assertEquals(1, result.size());
         assertEquals("Corte", result.get(0).getTitulo());
     }
 
+    @Test
+    void pesquisarServicos_mantemOrdemDoIndiceEIgnoraDesativados() {
+        Servico manicure = Servico.builder().id(2).titulo("Manicure").ativo(true).prestador(prestador).negocio(negocio).build();
+        Servico corte = Servico.builder().id(1).titulo("Corte").ativo(true).prestador(prestador).negocio(negocio).build();
+        Servico desativado = Servico.builder().id(3).titulo("Barba").ativo(false).prestador(prestador).negocio(negocio).build();
+
+        when(indiceBuscaService.buscarServicos("cort", null, 1, 3))
+                .thenReturn(new IndiceBuscaService.Resultado(List.of(2, 3, 1), true));
+        when(servicoRepository.findAllById(List.of(2, 3, 1))).thenReturn(List.of(corte, desativado, manicure));
+
+        PaginaServicosDTO pagina = servicoService.pesquisarServicos("cort", null, 1, 3);
+
+        assertEquals(List.of(2, 1), pagina.getServicos().stream().map(ServicoDTO::getId).toList());
+        assertEquals(2, pagina.getProximaPagina());
+    }
+
     @Test
     void listarServicosAtivos_sucesso() {
         when(servicoRepository.findAllByAtivoTrue())
@@ -402,7 +432,7 @@ class ServicoServiceTest {
         Prestador p = new Prestador();
         p.setId(10);
         p.setNome("Prestador");
-        p.setFotoPerfil("foto".getBytes()); // pega bytes da foto
+        p.setFotoPerfilChave("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"); // tem foto no armazenamento
         p.setNegocio(neg);
 
         Servico servico = new Servico();
@@ -426,41 +456,7 @@ class ServicoServiceTest {
 
         assertEquals(1, result.size());
         assertEquals("Corte", result.get(0).getTitulo());
-    }
-
-    // teste de sobreposiçao de horario
-    @Test
-    void overlaps_quandoNaoSobrepoe_retornaFalse() {
-        LocalTime a1 = LocalTime.of(8, 0);
-        LocalTime a2 = LocalTime.of(9, 0);
-
-        LocalTime b1 = LocalTime.of(9, 0);
-        LocalTime b2 = LocalTime.of(10, 0);
-
-        assertFalse(invokeOverlaps(a1, a2, b1, b2));
-    }
-
-    @Test
-    void overlaps_quandoSobrepoe_retornaTrue() {
-        LocalTime a1 = LocalTime.of(8, 0);
-        LocalTime a2 = LocalTime.of(10, 0);
-
-        LocalTime b1 = LocalTime.of(9, 0);
-        LocalTime b2 = LocalTime.of(11, 0);
-
-        assertTrue(invokeOverlaps(a1, a2, b1, b2));
-    }
-
-    // Helper usando reflexão para testar método private
-    private boolean invokeOverlaps(LocalTime i1, LocalTime f1, LocalTime i2, LocalTime f2) {
-        try {
-            Method m = ServicoService.class.getDeclaredMethod("overlaps",
-                    LocalTime.class, LocalTime.class, LocalTime.class, LocalTime.class);
-            m.setAccessible(true);
-            return (boolean) m.invoke(servicoService, i1, f1, i2, f2);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        assertEquals("/usuarios/10/foto-perfil?v=ba7816bf8f01cfea", result.get(0).getFotoPrestadorUrl());
     }
 
     @Test
@@ -506,11 +502,14 @@ class ServicoServiceTest {
                 .negocio(negocio)
                 .build();
 
+        LocalDate amanha = LocalDate.now(ZoneId.of("America/Sao_Paulo")).plusDays(1);
+
         when(servicoRepository.findById(1)).thenReturn(Optional.of(servico));
-        when(disponibilidadeRepository.findByPrestadorId(10)).thenReturn(List.of());
+        when(calendarioDisponibilidadeService.listarHorariosLivres(prestador, amanha, 30))
+                .thenThrow(new IllegalArgumentException("O prestador não tem disponibilidade nesse dia."));
 
         assertThrows(IllegalArgumentException.class,
-                () -> servicoService.listarHorariosPorServicoEData(1, LocalDate.now(ZoneId.of("America/Sao_Paulo")).plusDays(1)));
+                () -> servicoService.listarHorariosPorServicoEData(1, amanha));
     }
 
     @Test
@@ -518,6 +517,7 @@ class ServicoServiceTest {
         Prestador p = new Prestador();
         p.setId(10);
         mockUsuarioAuth.when(UsuarioAutenticado::get).thenReturn(p);
+        mockUsuarioAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
 
         Servico servico = Servico.builder()
@@ -549,6 +549,7 @@ class ServicoServiceTest {
         Prestador p = new Prestador();
         p.setNegocio(new Negocio());
         mockUsuarioAuth.when(UsuarioAutenticado::get).thenReturn(p);
+        mockUsuarioAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
         Servico servico = Servico.builder()
                 .id(1)
@@ -589,6 +590,7 @@ class ServicoServiceTest {
         Prestador p = new Prestador();
         p.setNegocio(new Negocio());
         mockUsuarioAuth.when(UsuarioAutenticado::get).thenReturn(p);
+        mockUsuarioAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
         assertThrows(IllegalArgumentException.class,
                 () -> servicoService.cadastrarServico(dto));
@@ -606,6 +608,7 @@ class ServicoServiceTest {
         Prestador p = new Prestador();
         p.setNegocio(new Negocio());
         mockUsuarioAuth.when(UsuarioAutenticado::get).thenReturn(p);
+        mockUsuarioAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(p));
 
         assertThrows(IllegalArgumentException.class,
                 () -> servicoService.cadastrarServico(dto));
@@ -0,0 +1,162 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.entity.Negocio;
+import com.java360.agendei.domain.entity.Servico;
+import com.java360.agendei.domain.model.CategoriaNegocio;
+import com.java360.agendei.domain.model.TipoSugestao;
+import com.java360.agendei.domain.repository.NegocioRepository;
+import com.java360.agendei.domain.repository.ServicoRepository;
+import com.java360.agendei.domain.repository.projection.NegocioIndexado;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
+import com.java360.agendei.infrastructure.dto.SugestaoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SugestaoBuscaServiceTest {
+
+    @Mock private ServicoRepository servicoRepository;
+    @Mock private NegocioRepository negocioRepository;
+
+    private SugestaoBuscaService service;
+    private Negocio studio;
+
+    @BeforeEach
+    void setUp() {
+        service = new SugestaoBuscaService(servicoRepository, negocioRepository);
+
+        studio = new Negocio();
+        studio.setId(1);
+        studio.setNome("Studio Cabelo & Cia");
+        studio.setCategoria(CategoriaNegocio.BELEZA);
+        studio.setAtivo(true);
+        service.atualizarNegocio(studio);
+    }
+
+    private Servico servico(int id, String titulo) {
+        return Servico.builder().id(id).titulo(titulo).ativo(true).negocio(studio).build();
+    }
+
+    private List<String> textos(String prefixo) {
+        return service.sugerir(prefixo, 10).stream().map(SugestaoDTO::getTexto).toList();
+    }
+
+    @Test
+    void sugerir_ignoraAcentoECaixaECasaPalavraDoMeio() {
+        service.atualizarServicos(List.of(servico(1, "Corte de Cabelo")));
+
+        assertEquals(List.of("Corte de Cabelo"), textos("CÔRTE"));
+        assertEquals(List.of("Studio Cabelo & Cia", "Corte de Cabelo"), textos("cab")); // negócio: 1 + serviços
+        assertEquals(List.of("Corte de Cabelo"), textos("corte de c"));
+        assertTrue(textos("xyz").isEmpty());
+        assertTrue(textos("  ").isEmpty());
+    }
+
+    @Test
+    void sugerir_ordenaPeloPeso() {
+        service.atualizarServicos(List.of(
+                servico(1, "Manicure"),
+                servico(2, "Maquiagem"),
+                servico(3, "maquiagem"))); // mesmo título normalizado: conta 2
+
+        assertEquals(List.of("Maquiagem", "Manicure"), textos("ma"));
+    }
+
+    @Test
+    void sugerir_incluiCategoriaENegocioComId() {
+        List<SugestaoDTO> sugestoes = service.sugerir("bel", 10);
+        assertEquals(List.of(new SugestaoDTO("BELEZA", TipoSugestao.CATEGORIA, null)), sugestoes);
+
+        assertEquals(List.of(new SugestaoDTO("Studio Cabelo & Cia", TipoSugestao.NEGOCIO, 1)), service.sugerir("stu", 10));
+    }
+
+    @Test
+    void atualizar_renomeiaEDesativaIncrementalmente() {
+        Servico corte = servico(1, "Corte");
+        service.atualizarServicos(List.of(corte));
+
+        corte.setTitulo("Corte masculino");
+        service.atualizarServicos(List.of(corte));
+        assertEquals(List.of("Corte masculino"), textos("cor"));
+
+        corte.setAtivo(false);
+        service.atualizarServicos(List.of(corte));
+        assertTrue(textos("cor").isEmpty());
+
+        studio.setAtivo(false);
+        service.atualizarNegocio(studio);
+        assertTrue(textos("studio").isEmpty());
+        assertTrue(textos("beleza").isEmpty());
+    }
+
+    @Test
+    void atualizar_prefixosCompartilhadosSeparamEFundemArestas() {
+        Servico coloracao = servico(2, "Coloração");
+        service.atualizarServicos(List.of(servico(1, "Corte"), coloracao, servico(3, "Cor")));
+        assertEquals(List.of("Coloração", "Cor", "Corte"), textos("co"));
+        assertEquals(List.of("Cor", "Corte"), textos("cor"));
+
+        coloracao.setAtivo(false);
+        service.atualizarServicos(List.of(coloracao));
+        assertEquals(List.of("Cor", "Corte"), textos("co"));
+        assertEquals(List.of("Corte"), textos("cort"));
+        assertTrue(textos("colo").isEmpty());
+    }
+
+    @Test
+    void sugerir_limiteInvalido_lancaErro() {
+        assertThrows(IllegalArgumentException.class, () -> service.sugerir("co", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.sugerir("co", 11));
+    }
+
+    @Test
+    void reconstruir_carregaDoBanco() {
+        when(negocioRepository.buscarParaIndice(eq(0), any())).thenReturn(List.of(
+                new NegocioIndexado(2, "Barbearia do Zé", CategoriaNegocio.BARBEARIA, true),
+                new NegocioIndexado(3, "Fechada", CategoriaNegocio.SPA, false)));
+        when(servicoRepository.buscarParaIndice(eq(0), any())).thenReturn(List.of(servico(5, "Barba")));
+
+        service.reconstruir();
+
+        assertEquals(List.of("Barba", "BARBEARIA", "Barbearia do Zé"), textos("barb"));
+        assertTrue(textos("fech").isEmpty());
+        assertTrue(textos("studio").isEmpty()); // estado anterior descartado
+        verify(negocioRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void sugerir_catalogoGrande_respondeEmMenosDeUmMilissegundo() {
+        List<Servico> servicos = IntStream.range(0, 50_000)
+                .mapToObj(i -> servico(i + 10, "Serviço " + Integer.toString(i, 36) + " especial"))
+                .toList();
+        when(negocioRepository.buscarParaIndice(eq(0), any()))
+                .thenReturn(List.of(new NegocioIndexado(1, "Studio Cabelo & Cia", CategoriaNegocio.BELEZA, true)));
+        when(servicoRepository.buscarParaIndice(eq(0), any())).thenReturn(servicos);
+        service.reconstruir();
+
+        String[] prefixos = {"s", "se", "servi", "servico 1", "esp", "servico zz"};
+        for (int i = 0; i < 10_000; i++) service.sugerir(prefixos[i % prefixos.length], 8); // aquecimento
+
+        int consultas = 100_000;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            assertFalse(service.sugerir(prefixos[i % prefixos.length], 8).isEmpty());
+        }
+        long mediaMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / consultas;
+
+        assertTrue(mediaMicros < 100, "média de " + mediaMicros + "µs por consulta");
+    }
+}
@@ -0,0 +1,61 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.model.PerfilUsuario;
+import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UsuarioPrincipalServiceTest {
+
+    @Mock private UsuarioRepository usuarioRepository;
+
+    private UsuarioPrincipalService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UsuarioPrincipalService(usuarioRepository, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    void buscar_consultaOBancoUmaVez() {
+        UsuarioPrincipal principal = new UsuarioPrincipal(1, PerfilUsuario.CLIENTE, null, null);
+        when(usuarioRepository.buscarPrincipal(1)).thenReturn(Optional.of(principal));
+
+        assertEquals(Optional.of(principal), service.buscar(1));
+        assertEquals(Optional.of(principal), service.buscar(1));
+
+        verify(usuarioRepository, times(1)).buscarPrincipal(1);
+        verify(usuarioRepository, never()).findById(any());
+    }
+
+    @Test
+    void invalidar_recarregaNaProximaBusca() {
+        when(usuarioRepository.buscarPrincipal(1))
+                .thenReturn(Optional.of(new UsuarioPrincipal(1, PerfilUsuario.CLIENTE, null, null)))
+                .thenReturn(Optional.of(new UsuarioPrincipal(1, PerfilUsuario.PRESTADOR, null, null)));
+
+        service.buscar(1);
+        service.invalidar(1);
+
+        assertEquals(PerfilUsuario.PRESTADOR, service.buscar(1).orElseThrow().perfil());
+    }
+
+    @Test
+    void buscar_usuarioInexistente_retornaVazio() {
+        when(usuarioRepository.buscarPrincipal(99)).thenReturn(Optional.empty());
+
+        assertTrue(service.buscar(99).isEmpty());
+    }
+}
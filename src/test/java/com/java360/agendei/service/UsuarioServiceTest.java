@@ -1,20 +1,29 @@
 package com.java360.agendei.service;
 
+import com.java360.agendei.domain.applicationservice.ImagemService;
 import com.java360.agendei.domain.applicationservice.UsuarioService;
 import com.java360.agendei.domain.entity.*;
 import com.java360.agendei.domain.model.PerfilUsuario;
 import com.java360.agendei.domain.model.PlanoPrestador;
 import com.java360.agendei.domain.repository.UsuarioRepository;
+import com.java360.agendei.infrastructure.busca.IndiceBuscaService;
+import com.java360.agendei.infrastructure.busca.SugestaoBuscaService;
+import com.java360.agendei.infrastructure.dto.ImagemDTO;
 import com.java360.agendei.infrastructure.dto.admin.AtualizarUsuarioAdminDTO;
 import com.java360.agendei.infrastructure.dto.usuario.*;
 import com.java360.agendei.infrastructure.security.JwtService;
 import com.java360.agendei.infrastructure.security.PermissaoUtils;
 import com.java360.agendei.infrastructure.security.UsuarioAutenticado;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipal;
+import com.java360.agendei.infrastructure.security.UsuarioPrincipalService;
+import com.java360.agendei.infrastructure.util.GeocodingService;
 
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
@@ -33,6 +42,20 @@ class UsuarioServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private JwtService jwtService;
+    @Mock
+    private GeocodingService geocodingService;
+
+    @Mock
+    private IndiceBuscaService indiceBuscaService;
+
+    @Mock
+    private SugestaoBuscaService sugestaoBuscaService;
+
+    @Mock
+    private UsuarioPrincipalService usuarioPrincipalService;
+
+    @Mock
+    private ImagemService imagemService;
 
     @InjectMocks
     private UsuarioService service;
@@ -122,6 +145,23 @@ class UsuarioServiceTest {
         assertEquals("User", dto.getNome());
     }
 
+    @Test
+    void buscarDadosUsuarioPorToken_reaproveitaClaimsDoFiltro() {
+        Usuario usuario = new Usuario();
+        usuario.setId(10);
+        usuario.setNome("User");
+
+        try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
+            mock.when(UsuarioAutenticado::getClaims).thenReturn(Optional.of(Jwts.claims().setSubject("10")));
+            when(usuarioRepository.findById(10)).thenReturn(Optional.of(usuario));
+
+            UsuarioDetalhadoDTO dto = service.buscarDadosUsuarioPorToken("Bearer abc");
+
+            assertEquals(10, dto.getId());
+            verifyNoInteractions(jwtService);
+        }
+    }
+
     @Test
     void buscarDadosUsuarioPorToken_invalido() {
         when(jwtService.extractUserId("abc")).thenReturn(null);
@@ -178,6 +218,7 @@ class UsuarioServiceTest {
 
         try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
             mock.when(UsuarioAutenticado::get).thenReturn(cliente);
+            mock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
             AtualizarClienteDTO dto = new AtualizarClienteDTO();
             dto.setNome("Novo");
@@ -206,6 +247,7 @@ class UsuarioServiceTest {
 
         try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
             mock.when(UsuarioAutenticado::get).thenReturn(cliente);
+            mock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(cliente));
 
             AtualizarClienteDTO dto = new AtualizarClienteDTO();
             dto.setNome("Novo");
@@ -230,44 +272,48 @@ class UsuarioServiceTest {
         Prestador prestador = new Prestador();
         prestador.setId(3);
         prestador.setPerfil(PerfilUsuario.PRESTADOR);
+        prestador.setFotoPerfilChave("chave-antiga");
 
         MultipartFile file = mock(MultipartFile.class);
         when(file.isEmpty()).thenReturn(false);
-        when(file.getBytes()).thenReturn("abc".getBytes());
+        when(imagemService.salvar(file)).thenReturn("chave-nova");
 
         try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
             mock.when(UsuarioAutenticado::get).thenReturn(prestador);
+            mock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prestador));
 
             service.atualizarFotoPerfil(file);
 
             verify(usuarioRepository).save(prestador);
-            assertArrayEquals("abc".getBytes(), prestador.getFotoPerfil());
+            assertEquals("chave-nova", prestador.getFotoPerfilChave());
+            verify(imagemService).descartar("chave-antiga"); // foto anterior sai do armazenamento
         }
     }
 
-    // buca foto do perfil com bytes
+    // busca foto do perfil no armazenamento
     @Test
-    void buscarFotoPerfilBytes_sucesso() {
+    void buscarFotoPerfil_sucesso() {
         Prestador p = new Prestador();
         p.setId(10);
-        p.setFotoPerfil("img".getBytes());
+        p.setFotoPerfilChave("chave");
+        ImagemDTO imagem = new ImagemDTO("foto-perfil-10.jpg", "image/jpeg", "chave", 0,
+                new ByteArrayResource("img".getBytes()), false);
 
         when(usuarioRepository.findById(10)).thenReturn(Optional.of(p));
+        when(imagemService.abrir("chave", "foto-perfil-10.jpg", "image/jpeg")).thenReturn(imagem);
 
-        byte[] result = service.buscarFotoPerfilBytes(10);
-
-        assertArrayEquals("img".getBytes(), result);
+        assertSame(imagem, service.buscarFotoPerfil(10));
     }
 
     @Test
-    void buscarFotoPerfilBytes_semFoto() {
+    void buscarFotoPerfil_semFoto() {
         Prestador p = new Prestador();
         p.setId(10);
 
         when(usuarioRepository.findById(10)).thenReturn(Optional.of(p));
 
         assertThrows(IllegalArgumentException.class,
-                () -> service.buscarFotoPerfilBytes(10));
+                () -> service.buscarFotoPerfil(10));
     }
 
     @Test
@@ -285,6 +331,8 @@ class UsuarioServiceTest {
 
             mockAuth.when(UsuarioAutenticado::get).thenReturn(admin);
 
+            mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(admin));
+
             AtualizarUsuarioAdminDTO dto = new AtualizarUsuarioAdminDTO();
             dto.setNome("Novo Nome");
             dto.setEmail("novo@x.com");
@@ -299,6 +347,7 @@ class UsuarioServiceTest {
 
             assertEquals("Novo Nome", result.getNome());
             assertEquals("novo@x.com", result.getEmail());
+            verify(usuarioPrincipalService).invalidar(10);
         }
     }
 
@@ -317,7 +366,9 @@ class UsuarioServiceTest {
              MockedStatic<PermissaoUtils> mockPerm = mockStatic(PermissaoUtils.class)) {
 
             mockAuth.when(UsuarioAutenticado::get).thenReturn(usuarioLogado);
-            mockPerm.when(() -> PermissaoUtils.validarPermissao(any(), any(), any()))
+
+            mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(usuarioLogado));
+            mockPerm.when(() -> PermissaoUtils.validarPermissao(any(UsuarioPrincipal.class), any(), any()))
                     .thenAnswer(i -> null);
 
             when(usuarioRepository.findById(20)).thenReturn(Optional.of(prest));
@@ -352,6 +403,7 @@ class UsuarioServiceTest {
 
         try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
             mock.when(UsuarioAutenticado::get).thenReturn(prest);
+            mock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prest));
 
             AtualizarPrestadorDTO dto = new AtualizarPrestadorDTO();
             dto.setNome("Novo");
@@ -376,6 +428,7 @@ class UsuarioServiceTest {
 
         try (MockedStatic<UsuarioAutenticado> mock = mockStatic(UsuarioAutenticado.class)) {
             mock.when(UsuarioAutenticado::get).thenReturn(prest);
+            mock.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(prest));
 
             AtualizarPrestadorDTO dto = new AtualizarPrestadorDTO();
             dto.setNome("XX");
@@ -397,7 +450,7 @@ class UsuarioServiceTest {
         Prestador p = new Prestador();
         p.setId(10);
         p.setNome("Prest");
-        p.setFotoPerfil("abc".getBytes());
+        p.setFotoPerfilChave("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
 
         when(usuarioRepository.findById(10)).thenReturn(Optional.of(p));
 
@@ -405,7 +458,7 @@ class UsuarioServiceTest {
 
         assertEquals(10, dto.getPrestadorId());
         assertEquals("Prest", dto.getNomePrestador());
-        assertEquals("/usuarios/10/foto-perfil", dto.getUrlFoto());
+        assertEquals("/usuarios/10/foto-perfil?v=ba7816bf8f01cfea", dto.getUrlFoto()); // versão = início do hash
     }
     @Test
     void buscarFotoPerfilDTO_usuarioNaoPrestador() {
@@ -442,6 +495,8 @@ class UsuarioServiceTest {
 
             mockAuth.when(UsuarioAutenticado::get).thenReturn(admin);
 
+            mockAuth.when(UsuarioAutenticado::principal).thenReturn(UsuarioPrincipal.de(admin));
+
             AtualizarUsuarioAdminDTO dto = new AtualizarUsuarioAdminDTO();
             dto.setNome("Novo");
             dto.setEmail("dup@x.com");
@@ -0,0 +1,98 @@
+package com.java360.agendei.service;
+
+import com.java360.agendei.domain.applicationservice.ImagemService;
+import com.java360.agendei.domain.applicationservice.VariantesFotoService;
+import com.java360.agendei.domain.model.TamanhoImagem;
+import com.java360.agendei.domain.repository.FotoNegocioRepository;
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlob;
+import com.java360.agendei.infrastructure.imagem.ProcessadorImagem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VariantesFotoServiceTest {
+
+    @Mock private ArmazenamentoBlob armazenamentoBlob;
+    @Mock private FotoNegocioRepository fotoNegocioRepository;
+    @Mock private ProcessadorImagem processadorImagem;
+    @Mock private ImagemService imagemService;
+
+    private VariantesFotoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new VariantesFotoService(armazenamentoBlob, fotoNegocioRepository, processadorImagem, imagemService, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    private void prepararProcessamento() throws Exception {
+        when(armazenamentoBlob.abrir("original")).thenReturn(new ByteArrayResource("png".getBytes()));
+        when(processadorImagem.gerarVariantes(any(InputStream.class))).thenReturn(Map.of(
+                TamanhoImagem.MINIATURA, "m".getBytes(),
+                TamanhoImagem.CARTAO, "c".getBytes(),
+                TamanhoImagem.COMPLETA, "g".getBytes()));
+        when(imagemService.salvar(any(byte[].class))).thenAnswer(i -> "chave-" + new String(i.<byte[]>getArgument(0)));
+    }
+
+    @Test
+    void agendar_geraEGravaAsVariantesForaDaThreadChamadora() throws Exception {
+        prepararProcessamento();
+        when(fotoNegocioRepository.definirVariantes(5, "original", "chave-m", "chave-c", "chave-g")).thenReturn(1);
+
+        service.agendar(5, "original");
+
+        verify(fotoNegocioRepository, timeout(5000)).definirVariantes(5, "original", "chave-m", "chave-c", "chave-g");
+        verify(imagemService, never()).descartar(any());
+    }
+
+    @Test
+    void agendar_fotoApagadaDuranteOProcessamento_descartaVariantes() throws Exception {
+        prepararProcessamento();
+        when(fotoNegocioRepository.definirVariantes(any(), any(), any(), any(), any())).thenReturn(0);
+
+        service.agendar(5, "original");
+
+        verify(imagemService, timeout(5000)).descartar("chave-m");
+        verify(imagemService, timeout(5000)).descartar("chave-c");
+        verify(imagemService, timeout(5000)).descartar("chave-g");
+    }
+
+    @Test
+    void agendar_filaCheia_naoBloqueiaENemLanca() throws Exception {
+        // 1 thread ocupada + 1 na fila: a terceira foto é recusada na hora
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(armazenamentoBlob.abrir(any())).thenAnswer(i -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return new ByteArrayResource("png".getBytes());
+        });
+        when(processadorImagem.gerarVariantes(any(InputStream.class))).thenReturn(Map.of());
+
+        service.agendar(1, "a");
+        verify(armazenamentoBlob, timeout(5000)).abrir("a"); // primeira já na thread
+        service.agendar(2, "b");
+
+        assertDoesNotThrow(() -> service.agendar(3, "c"));
+        liberar.countDown();
+
+        verify(fotoNegocioRepository, timeout(5000)).definirVariantes(eq(2), eq("b"), any(), any(), any());
+        verify(fotoNegocioRepository, never()).definirVariantes(eq(3), any(), any(), any(), any());
+    }
+}
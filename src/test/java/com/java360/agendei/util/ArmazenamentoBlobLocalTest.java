@@ -0,0 +1,63 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlobLocal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArmazenamentoBlobLocalTest {
+
+    // sha256("abc")
+    private static final String CHAVE_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    Path diretorio;
+
+    private ArmazenamentoBlobLocal armazenamento;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        armazenamento = new ArmazenamentoBlobLocal(diretorio.toString());
+    }
+
+    @Test
+    void salvar_chaveEhOHashEConteudoIgualSoOcupaUmArquivo() throws Exception {
+        String chave = armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+        String repetida = armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+
+        assertEquals(CHAVE_ABC, chave);
+        assertEquals(chave, repetida);
+        assertTrue(Files.isRegularFile(diretorio.resolve("ba").resolve(CHAVE_ABC)));
+        try (var temporarios = Files.list(diretorio.resolve("tmp"))) {
+            assertEquals(0, temporarios.count()); // nada sobra do envio
+        }
+    }
+
+    @Test
+    void abrir_leEmFluxoERemoverApaga() throws Exception {
+        String chave = armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+
+        Resource conteudo = armazenamento.abrir(chave);
+        assertEquals(3, conteudo.contentLength());
+        try (var entrada = conteudo.getInputStream()) {
+            assertArrayEquals("abc".getBytes(), entrada.readAllBytes());
+        }
+
+        armazenamento.remover(chave);
+        assertFalse(armazenamento.existe(chave));
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.abrir(chave));
+    }
+
+    @Test
+    void chaveForaDoFormato_lancaErro() {
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.abrir("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.existe(CHAVE_ABC.toUpperCase()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.armazenamento.ArmazenamentoBlobS3;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArmazenamentoBlobS3Test {
+
+    private static final String CHAVE_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    private HttpServer servidor;
+    private final Map<String, byte[]> objetos = new ConcurrentHashMap<>();
+    private final List<String> requisicoes = new CopyOnWriteArrayList<>();
+
+    private ArmazenamentoBlobS3 armazenamento;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Substituto local do S3: só o suficiente de PUT/GET/HEAD/DELETE por caminho
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/", this::responder);
+        servidor.start();
+
+        armazenamento = new ArmazenamentoBlobS3(
+                "http://127.0.0.1:" + servidor.getAddress().getPort(), "fotos", "sa-east-1", "acesso", "segredo");
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.stop(0);
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        String metodo = troca.getRequestMethod();
+        String caminho = troca.getRequestURI().getPath();
+        requisicoes.add(metodo + " " + caminho);
+
+        String autorizacao = troca.getRequestHeaders().getFirst("Authorization");
+        if (autorizacao == null || !autorizacao.startsWith("AWS4-HMAC-SHA256 Credential=acesso/")
+                || !autorizacao.contains("/sa-east-1/s3/aws4_request")) {
+            troca.sendResponseHeaders(403, -1);
+            return;
+        }
+
+        byte[] objeto = objetos.get(caminho);
+        switch (metodo) {
+            case "PUT" -> {
+                byte[] corpo = troca.getRequestBody().readAllBytes();
+                String hash = HexFormat.of().formatHex(sha256(corpo));
+                if (!hash.equals(troca.getRequestHeaders().getFirst("x-amz-content-sha256"))) {
+                    troca.sendResponseHeaders(400, -1); // XAmzContentSHA256Mismatch
+                    return;
+                }
+                objetos.put(caminho, corpo);
+                troca.sendResponseHeaders(200, -1);
+            }
+            case "HEAD" -> {
+                if (objeto == null) {
+                    troca.sendResponseHeaders(404, -1);
+                    return;
+                }
+                troca.getResponseHeaders().add("Content-Length", String.valueOf(objeto.length));
+                troca.getResponseHeaders().add("Last-Modified", "Wed, 1 May 2024 12:00:00 GMT");
+                troca.sendResponseHeaders(200, -1);
+            }
+            case "GET" -> {
+                if (objeto == null) {
+                    troca.sendResponseHeaders(404, -1);
+                    return;
+                }
+                troca.sendResponseHeaders(200, objeto.length);
+                troca.getResponseBody().write(objeto);
+            }
+            case "DELETE" -> {
+                objetos.remove(caminho);
+                troca.sendResponseHeaders(204, -1);
+            }
+            default -> troca.sendResponseHeaders(405, -1);
+        }
+        troca.close();
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void salvar_enviaUmaVezPorConteudo() throws Exception {
+        assertEquals(CHAVE_ABC, armazenamento.salvar(new ByteArrayInputStream("abc".getBytes())));
+        assertEquals(CHAVE_ABC, armazenamento.salvar(new ByteArrayInputStream("abc".getBytes())));
+
+        assertArrayEquals("abc".getBytes(), objetos.get("/fotos/" + CHAVE_ABC));
+        assertEquals(1, requisicoes.stream().filter(r -> r.startsWith("PUT")).count()); // segunda vez só o HEAD
+    }
+
+    @Test
+    void abrir_leEmFluxoDoBucket() throws Exception {
+        armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+
+        Resource conteudo = armazenamento.abrir(CHAVE_ABC);
+
+        assertEquals(3, conteudo.contentLength());
+        try (var entrada = conteudo.getInputStream()) {
+            assertArrayEquals("abc".getBytes(), entrada.readAllBytes());
+        }
+    }
+
+    @Test
+    void remover_apagaELeituraFalha() throws Exception {
+        armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+
+        armazenamento.remover(CHAVE_ABC);
+
+        assertFalse(armazenamento.existe(CHAVE_ABC));
+        Resource conteudo = armazenamento.abrir(CHAVE_ABC);
+        assertThrows(FileNotFoundException.class, conteudo::lastModified);
+        assertThrows(FileNotFoundException.class, conteudo::getInputStream);
+    }
+
+    @Test
+    void abrir_naoFazRequisicaoEUmHeadServeTamanhoEData() throws Exception {
+        armazenamento.salvar(new ByteArrayInputStream("abc".getBytes()));
+        requisicoes.clear();
+
+        Resource conteudo = armazenamento.abrir(CHAVE_ABC);
+        assertTrue(requisicoes.isEmpty());
+
+        assertEquals(Instant.parse("2024-05-01T12:00:00Z").toEpochMilli(), conteudo.lastModified());
+        assertEquals(3, conteudo.contentLength());
+        assertEquals(List.of("HEAD /fotos/" + CHAVE_ABC), requisicoes);
+    }
+}
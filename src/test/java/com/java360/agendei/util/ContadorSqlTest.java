@@ -0,0 +1,23 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.metricas.ContadorSql;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorSqlTest {
+
+    private final ContadorSql contador = new ContadorSql();
+
+    @Test
+    void contaSoEntreIniciarEEncerrar() {
+        contador.inspect("select 1"); // fora de requisição: ignorado
+
+        ContadorSql.iniciar();
+        assertEquals("select 1", contador.inspect("select 1")); // SQL intacto
+        contador.inspect("select 2");
+
+        assertEquals(2, ContadorSql.encerrar());
+        assertEquals(0, ContadorSql.encerrar()); // thread limpa
+    }
+}
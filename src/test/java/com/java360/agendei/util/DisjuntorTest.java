@@ -0,0 +1,36 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.util.Disjuntor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisjuntorTest {
+
+    @Test
+    void chamadaDeTeste_umaPorVezAteODesfecho() {
+        Disjuntor disjuntor = new Disjuntor(1, Duration.ZERO); // reabre para teste na hora
+        disjuntor.registrarFalha();
+
+        assertTrue(disjuntor.permitir()); // chamada de teste
+        assertFalse(disjuntor.permitir()); // outra aguarda o desfecho da primeira
+
+        disjuntor.registrarSucesso();
+        assertTrue(disjuntor.permitir());
+        assertTrue(disjuntor.permitir()); // fechado
+    }
+
+    @Test
+    void liberarTeste_semDesfecho_naoPrendeOCircuitoAberto() {
+        Disjuntor disjuntor = new Disjuntor(1, Duration.ZERO);
+        disjuntor.registrarFalha();
+        assertTrue(disjuntor.permitir());
+
+        disjuntor.liberarTeste(); // ex.: thread interrompida durante a chamada de teste
+
+        assertTrue(disjuntor.permitir()); // nova chamada de teste
+        assertFalse(disjuntor.permitir()); // continua aberto: não contou como sucesso
+    }
+}
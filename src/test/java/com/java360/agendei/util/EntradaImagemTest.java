@@ -0,0 +1,68 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.imagem.EntradaImagem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntradaImagemTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3, 4, 5, 6};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0};
+
+    private static EntradaImagem entrada(byte[] bytes, long maximo) {
+        return new EntradaImagem(new ByteArrayInputStream(bytes), maximo);
+    }
+
+    @Test
+    void jpeg_passaInteiroEDetectaOTipo() throws IOException {
+        EntradaImagem entrada = entrada(JPEG, 100);
+
+        assertArrayEquals(JPEG, entrada.readAllBytes()); // a assinatura lida volta para o fluxo
+        assertEquals("image/jpeg", entrada.getTipoConteudo());
+    }
+
+    @Test
+    void png_lidoByteAByte() throws IOException {
+        EntradaImagem entrada = entrada(PNG, 100);
+
+        assertEquals(0x89, entrada.read());
+        assertEquals('P', entrada.read());
+        assertEquals("image/png", entrada.getTipoConteudo());
+    }
+
+    @Test
+    void assinaturaDesconhecida_recusaNaPrimeiraLeitura() {
+        InputStream entrada = entrada("GIF89a-----".getBytes(), 100);
+
+        assertThrows(IllegalArgumentException.class, entrada::readAllBytes);
+    }
+
+    @Test
+    void pngTruncado_recusa() {
+        InputStream entrada = entrada(new byte[]{(byte) 0x89, 'P', 'N'}, 100);
+
+        assertThrows(IllegalArgumentException.class, entrada::readAllBytes);
+    }
+
+    @Test
+    void vazio_recusa() {
+        assertThrows(IllegalArgumentException.class, () -> entrada(new byte[0], 100).read());
+    }
+
+    @Test
+    void acimaDoLimite_recusaDuranteACopia() {
+        InputStream entrada = entrada(JPEG, JPEG.length - 1);
+
+        assertThrows(IllegalArgumentException.class, entrada::readAllBytes);
+    }
+
+    @Test
+    void exatamenteNoLimite_aceita() throws IOException {
+        assertEquals(JPEG.length, entrada(JPEG, JPEG.length).readAllBytes().length);
+    }
+}
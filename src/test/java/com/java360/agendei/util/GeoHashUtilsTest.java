@@ -0,0 +1,53 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.infrastructure.util.GeoHashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoHashUtilsTest {
+
+    @Test
+    void codificar_valorDeReferencia() {
+        assertEquals("u4pruydqqvj", GeoHashUtils.codificar(57.64911, 10.40744, 11));
+        assertEquals("6gyf4bf8m", GeoHashUtils.codificar(-23.5505, -46.6333));
+    }
+
+    @Test
+    void celulasDoRaio_cobremPontosDentroDoRaio() {
+        double lat = -23.5505, lng = -46.6333;
+        Set<String> celulas = GeoHashUtils.celulasDoRaio(lat, lng, 20);
+
+        assertTrue(celulas.size() <= 9);
+        // pontos a ~19 km em cada direção caem em alguma das células
+        for (double[] p : new double[][]{{lat + 0.17, lng}, {lat - 0.17, lng}, {lat, lng + 0.18}, {lat, lng - 0.18}}) {
+            String hash = GeoHashUtils.codificar(p[0], p[1]);
+            assertTrue(celulas.stream().anyMatch(hash::startsWith), hash);
+        }
+    }
+
+    @Test
+    void celulasDoRaio_raioMenor_usaCelulasMaisFinas() {
+        int prefixo20km = GeoHashUtils.celulasDoRaio(-23.5505, -46.6333, 20).iterator().next().length();
+        int prefixo1km = GeoHashUtils.celulasDoRaio(-23.5505, -46.6333, 1).iterator().next().length();
+
+        assertTrue(prefixo1km > prefixo20km);
+    }
+
+    @Test
+    void celulasDoRaio_antimeridiano_incluiOsDoisLados() {
+        Set<String> celulas = GeoHashUtils.celulasDoRaio(0, 179.99, 10);
+
+        assertTrue(celulas.stream().anyMatch(GeoHashUtils.codificar(0, -179.99)::startsWith));
+        assertTrue(celulas.stream().anyMatch(GeoHashUtils.codificar(0, 179.99)::startsWith));
+    }
+
+    @Test
+    void proximoPrefixo_incrementaComTransporte() {
+        assertEquals("6gyg", GeoHashUtils.proximoPrefixo("6gyf"));
+        assertEquals("6h", GeoHashUtils.proximoPrefixo("6gz"));
+        assertNull(GeoHashUtils.proximoPrefixo("zz"));
+    }
+}
@@ -0,0 +1,197 @@
+package com.java360.agendei.util;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.PendingResult;
+import com.google.maps.errors.OverQueryLimitException;
+import com.google.maps.model.GeocodingResult;
+import com.google.maps.model.Geometry;
+import com.google.maps.model.LatLng;
+import com.java360.agendei.infrastructure.dto.LatLngDTO;
+import com.java360.agendei.infrastructure.util.GeocodingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class GeocodingServiceTest {
+
+    // Resposta do geocoder falso para um endereço (pode lançar exceção)
+    interface Resposta {
+        GeocodingResult[] responder(String endereco) throws Exception;
+    }
+
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicInteger maximoEmAndamento = new AtomicInteger();
+    private final AtomicInteger canceladas = new AtomicInteger();
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry();
+
+    private GeocodingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.encerrar();
+    }
+
+    private static GeocodingResult[] resultado(double lat, double lng) {
+        GeocodingResult r = new GeocodingResult();
+        r.geometry = new Geometry();
+        r.geometry.location = new LatLng(lat, lng);
+        return new GeocodingResult[]{r};
+    }
+
+    // GeoApiContext com um RequestHandler falso: responde em outra thread depois de 'atraso'
+    @SuppressWarnings("unchecked")
+    private GeoApiContext contexto(Duration atraso, Resposta resposta) {
+        GeoApiContext.RequestHandler handler = mock(GeoApiContext.RequestHandler.class);
+        when(handler.handle(any(), any(), any(), any(), any(), anyLong(), any(), any(), any())).thenAnswer(inv -> {
+            String url = URLDecoder.decode(inv.getArgument(1, String.class), StandardCharsets.UTF_8);
+            String endereco = url.substring(url.indexOf("address=") + "address=".length()).split("&")[0];
+            chamadas.incrementAndGet();
+
+            return new PendingResult<Object>() {
+                private volatile boolean cancelada;
+
+                @Override
+                public void setCallback(Callback<Object> callback) {
+                    Thread.startVirtualThread(() -> {
+                        maximoEmAndamento.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(atraso);
+                            if (cancelada) return;
+                            callback.onResult(resposta.responder(endereco));
+                        } catch (Exception e) {
+                            callback.onFailure(e);
+                        } finally {
+                            emAndamento.decrementAndGet();
+                        }
+                    });
+                }
+
+                @Override
+                public Object await() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Object awaitIgnoreError() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void cancel() {
+                    cancelada = true;
+                    canceladas.incrementAndGet();
+                }
+            };
+        });
+
+        GeoApiContext.RequestHandler.Builder builder = mock(GeoApiContext.RequestHandler.Builder.class, Mockito.RETURNS_SELF);
+        when(builder.build()).thenReturn(handler);
+        return new GeoApiContext.Builder(builder).apiKey("AIzaTeste").build();
+    }
+
+    @Test
+    void buscarLatLongEmLote_consultaEmParaleloRespeitandoOLimite() {
+        service = new GeocodingService(contexto(Duration.ofMillis(100), e -> resultado(-23.5, -46.6)), Duration.ofSeconds(2), 4, registro);
+        List<String> enderecos = IntStream.range(0, 20).mapToObj(i -> "Rua " + i + ", 1, 00000-000, Brasil").toList();
+
+        long inicio = System.nanoTime();
+        Map<String, LatLngDTO> encontrados = service.buscarLatLongEmLote(enderecos).join();
+        long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertEquals(20, encontrados.size());
+        assertTrue(maximoEmAndamento.get() <= 4, "máximo em andamento: " + maximoEmAndamento.get());
+        assertTrue(maximoEmAndamento.get() > 1);
+        assertTrue(decorrido < 20 * 100, "sequencial levaria 2s; levou " + decorrido + "ms");
+    }
+
+    @Test
+    void buscarLatLong_geocoderLento_respeitaTimeoutENaoGuardaEmCache() {
+        service = new GeocodingService(contexto(Duration.ofSeconds(5), e -> resultado(-23.5, -46.6)), Duration.ofMillis(100), 4, registro);
+
+        long inicio = System.nanoTime();
+        assertNull(service.buscarLatLong("Rua Lenta, 1, 00000-000, Brasil"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1000);
+        assertEquals(1, canceladas.get());
+
+        service.buscarLatLong("Rua Lenta, 1, 00000-000, Brasil");
+        assertEquals(2, chamadas.get()); // falha não fica em cache
+    }
+
+    @Test
+    void buscarLatLong_esperaPorVagaConsomeOMesmoPrazo() throws Exception {
+        // Uma vaga só, ocupada por uma consulta lenta: a segunda espera a vaga e não ganha outro timeout inteiro
+        service = new GeocodingService(contexto(Duration.ofSeconds(5), e -> resultado(-23.5, -46.6)), Duration.ofMillis(400), 1, registro);
+        Thread ocupante = Thread.startVirtualThread(() -> service.buscarLatLong("Rua Ocupada, 1, 00000-000, Brasil"));
+        while (emAndamento.get() == 0) Thread.sleep(5);
+
+        long inicio = System.nanoTime();
+        assertNull(service.buscarLatLong("Rua Esperando, 1, 00000-000, Brasil"));
+        long decorrido = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        ocupante.join();
+        assertTrue(decorrido < 700, "dois timeouts seriam ~800ms; levou " + decorrido + "ms");
+    }
+
+    @Test
+    void buscarLatLongEmLote_erroTemporario_repeteComEspera() {
+        AtomicInteger tentativas = new AtomicInteger();
+        service = new GeocodingService(contexto(Duration.ZERO, e -> {
+            if (tentativas.incrementAndGet() < 3) throw new OverQueryLimitException("limite");
+            return resultado(-23.5, -46.6);
+        }), Duration.ofSeconds(2), 4, registro);
+
+        Map<String, LatLngDTO> encontrados = service.buscarLatLongEmLote(List.of("Rua A, 1, 00000-000, Brasil")).join();
+
+        assertEquals(-23.5, encontrados.get("Rua A, 1, 00000-000, Brasil").getLat());
+        assertEquals(3, chamadas.get());
+    }
+
+    @Test
+    void buscarLatLong_falhasSeguidas_abremOCircuito() {
+        service = new GeocodingService(contexto(Duration.ZERO, e -> {
+            throw new IOException("fora do ar");
+        }), Duration.ofSeconds(2), 4, registro);
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(service.buscarLatLong("Rua " + i + ", 1, 00000-000, Brasil"));
+        }
+        assertEquals(5, chamadas.get());
+
+        // Circuito aberto: falha na hora, sem chamar a API
+        assertNull(service.buscarLatLong("Rua 9, 1, 00000-000, Brasil"));
+        assertEquals(5, chamadas.get());
+
+        assertEquals(6, registro.counter("agendei.geocoding.consultas", "resultado", "falha").count());
+        assertEquals(5, registro.timer("agendei.geocoding.chamadas", "resultado", "erro").count());
+    }
+
+    @Test
+    void buscarLatLong_enderecoNaoEncontradoFicaEmCache() {
+        service = new GeocodingService(contexto(Duration.ZERO, e -> new GeocodingResult[0]), Duration.ofSeconds(2), 4, registro);
+
+        assertNull(service.buscarLatLong("Rua Inexistente, 1, 00000-000, Brasil"));
+        assertNull(service.buscarLatLong("  rua inexistente,  1, 00000-000, BRASIL "));
+
+        assertEquals(1, chamadas.get());
+        assertEquals(1, registro.counter("agendei.geocoding.consultas", "resultado", "nao_encontrado").count());
+        assertEquals(1, registro.counter("agendei.geocoding.consultas", "resultado", "cache").count());
+    }
+}
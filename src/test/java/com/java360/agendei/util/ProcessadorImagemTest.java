@@ -0,0 +1,75 @@
+package com.java360.agendei.util;
+
+import com.java360.agendei.domain.model.TamanhoImagem;
+import com.java360.agendei.infrastructure.imagem.ProcessadorImagem;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessadorImagemTest {
+
+    private final ProcessadorImagem processador = new ProcessadorImagem();
+
+    private static byte[] png(int largura, int altura, int tipo) throws IOException {
+        BufferedImage imagem = new BufferedImage(largura, altura, tipo);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "png", saida);
+        return saida.toByteArray();
+    }
+
+    private static BufferedImage ler(byte[] bytes) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void gerarVariantes_reduzMantendoProporcao() throws Exception {
+        Map<TamanhoImagem, byte[]> variantes = processador.gerarVariantes(
+                new ByteArrayInputStream(png(3200, 1600, BufferedImage.TYPE_INT_RGB)));
+
+        assertEquals(3, variantes.size());
+        BufferedImage miniatura = ler(variantes.get(TamanhoImagem.MINIATURA));
+        assertEquals(200, miniatura.getWidth());
+        assertEquals(100, miniatura.getHeight());
+        assertEquals(640, ler(variantes.get(TamanhoImagem.CARTAO)).getWidth());
+        assertEquals(1600, ler(variantes.get(TamanhoImagem.COMPLETA)).getWidth());
+    }
+
+    @Test
+    void gerarVariantes_naoAmpliaImagemPequena() throws Exception {
+        Map<TamanhoImagem, byte[]> variantes = processador.gerarVariantes(
+                new ByteArrayInputStream(png(300, 150, BufferedImage.TYPE_INT_ARGB)));
+
+        assertEquals(200, ler(variantes.get(TamanhoImagem.MINIATURA)).getWidth());
+        assertEquals(300, ler(variantes.get(TamanhoImagem.CARTAO)).getWidth());
+        assertEquals(300, ler(variantes.get(TamanhoImagem.COMPLETA)).getWidth());
+    }
+
+    @Test
+    void gerarVariantes_jpegSemMetadados() throws Exception {
+        byte[] jpeg = processador.gerarVariantes(
+                new ByteArrayInputStream(png(400, 400, BufferedImage.TYPE_INT_ARGB))).get(TamanhoImagem.MINIATURA);
+
+        // Percorre os segmentos do cabeçalho até o início dos dados: só o APP0 (JFIF) mínimo,
+        // nenhum APP1 (EXIF/XMP) ou APP2 (ICC)
+        assertEquals(0xD8, jpeg[1] & 0xFF);
+        int i = 2;
+        while ((jpeg[i + 1] & 0xFF) != 0xDA) {
+            int marcador = jpeg[i + 1] & 0xFF;
+            assertFalse(marcador > 0xE0 && marcador <= 0xEF, "segmento APP" + (marcador - 0xE0));
+            i += 2 + (((jpeg[i + 2] & 0xFF) << 8) | (jpeg[i + 3] & 0xFF));
+        }
+    }
+
+    @Test
+    void gerarVariantes_conteudoQueNaoEImagem() {
+        assertThrows(IllegalArgumentException.class, () ->
+                processador.gerarVariantes(new ByteArrayInputStream("não é imagem".getBytes())));
+    }
+}